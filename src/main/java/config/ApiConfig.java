@@ -0,0 +1,48 @@
+package config;
+
+import java.io.File;
+
+public final class ApiConfig {
+    private ApiConfig() {
+    }
+
+    // Cache su disco delle risposte TCGdex: oltre il TTL una voce viene ancora servita (e riconvalidata in background) fino a MAX_STALE
+    public static final boolean DISK_CACHE_ENABLED = true;
+    public static final String CACHE_DIR = "cache" + File.separator + "tcgdex";
+    public static final long SETS_TTL_SECONDS = 24 * 60 * 60L;
+    public static final long SET_CARDS_TTL_SECONDS = 7 * 24 * 60 * 60L;
+    public static final long CARD_DETAILS_TTL_SECONDS = 7 * 24 * 60 * 60L;
+    public static final long SEARCH_TTL_SECONDS = 60 * 60L;
+    public static final long MAX_STALE_SECONDS = 30 * 24 * 60 * 60L;
+
+    // Cache in memoria dei dettagli carta condivisa tra i controller (peso in byte stimati)
+    public static final int DETAIL_CACHE_MAX_ENTRIES = 2000;
+    public static final long DETAIL_CACHE_MAX_WEIGHT = 16L * 1024 * 1024;
+
+    // Recupero in parallelo dei dettagli carta: richieste in volo per operazione e limite condiviso verso l'host TCGdex
+    public static final String TCGDEX_HOST = "api.tcgdex.net";
+    public static final int HYDRATION_MAX_CONCURRENCY = 8;
+    public static final double HOST_MAX_REQUESTS_PER_SECOND = 20;
+    public static final int HOST_BURST = 10;
+
+    // Provider TCGdex: client HTTP/2 asincrono (default) o SDK bloccante, selezionabile con -Dcardify.card.provider=sdk
+    public static final String PROVIDER_PROPERTY = "cardify.card.provider";
+    public static final String PROVIDER_HTTP = "http";
+    public static final String PROVIDER_SDK = "sdk";
+    // Solo catalogo locale, nessuna chiamata all'API (richiede uno snapshot importato)
+    public static final String PROVIDER_SNAPSHOT = "snapshot";
+    public static final String TCGDEX_BASE_URL = "https://api.tcgdex.net/v2/en/";
+    public static final long HTTP_CONNECT_TIMEOUT_MILLIS = 5_000;
+    public static final long HTTP_REQUEST_TIMEOUT_MILLIS = 10_000;
+    public static final int HTTP_MAX_RETRIES = 3;
+    public static final long HTTP_BACKOFF_BASE_MILLIS = 250;
+    public static final long HTTP_BACKOFF_MAX_MILLIS = 5_000;
+
+    // Circuit breaker sul provider di rete: errori o chiamate lente consecutive prima di aprire, durata dell'apertura
+    public static final int BREAKER_FAILURE_THRESHOLD = 5;
+    public static final long BREAKER_OPEN_MILLIS = 30_000;
+    public static final long BREAKER_SLOW_CALL_MILLIS = 8_000;
+
+    // Catalogo locale importato da un dump (Main --import-catalog <dump> [--incremental]); se presente viene usato prima della rete
+    public static final String CATALOG_SNAPSHOT_FILE = "cache" + File.separator + "catalog.snapshot";
+}
@@ -14,6 +14,17 @@ public final class AppConfig {
     public static final String USER_TYPE_STORE = "Store";
     public static final String DEFAULT_SET_ID = "sv08.5";
 
+    // Elementi per pagina nelle cronologie di scambi e proposte concluse
+    public static final int HISTORY_PAGE_SIZE = 25;
+
+    // Ricerca per nome sull'indice locale: risultati massimi e attesa dopo l'ultimo tasto prima di cercare
+    public static final int NAME_SEARCH_MAX_RESULTS = 200;
+    public static final long SEARCH_AS_YOU_TYPE_DELAY_MILLIS = 150;
+
+    // Nodo del generatore di id (0-1023): va impostato diverso per ogni terminale che condivide lo stesso archivio
+    public static final String NODE_ID_PROPERTY = "cardify.node.id";
+    public static final String NODE_ID_ENV = "CARDIFY_NODE_ID";
+
     private static String currentPersistenceType = DEFAULT_DAO_TYPE;
 
     public static void setPersistenceType(String type) {
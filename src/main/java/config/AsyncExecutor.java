@@ -0,0 +1,72 @@
+package config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Esecutore condiviso delle varianti asincrone di DAO e ICardProvider: un virtual thread per operazione, così
+ * le attese su file, database e HTTP non occupano né il thread JavaFX né un pool di thread di piattaforma. */
+public final class AsyncExecutor {
+    private static final Logger LOGGER = Logger.getLogger(AsyncExecutor.class.getName());
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cardify-async-", 0).factory());
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private AsyncExecutor() {
+    }
+
+    // Per le continuazioni (thenApplyAsync...) che devono restare fuori dal thread dell'interfaccia
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    // Le eccezioni (anche checked, es. ConnectionException) completano il future così come sono, senza wrapping
+    public static <T> CompletableFuture<T> supply(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException rejected) {
+            future.completeExceptionally(rejected);
+        }
+        return future;
+    }
+
+    public static CompletableFuture<Void> run(Action action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Attende le operazioni in corso (es. un salvataggio lanciato poco prima della chiusura) entro il timeout
+    public static void shutdown(long timeoutMillis) {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                LOGGER.log(Level.WARNING, "Async tasks still running after {0} ms", timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
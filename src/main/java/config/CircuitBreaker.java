@@ -0,0 +1,107 @@
+package config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/* Circuit breaker a tre stati. CLOSED: le chiamate passano e si contano i fallimenti consecutivi; raggiunta la
+ * soglia si passa a OPEN, dove le chiamate vengono rifiutate subito. Trascorso openMillis il primo chiamante
+ * diventa la sonda (HALF_OPEN, una sola alla volta): se riesce si torna a CLOSED, altrimenti si riapre.
+ * I listener ricevono ogni cambio di stato, fuori dal lock. */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private final Map<String, Consumer<State>> listeners = new ConcurrentHashMap<>();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        if (failureThreshold < 1 || openMillis < 0) throw new IllegalArgumentException("Invalid circuit breaker settings");
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    // true se la chiamata può partire; chi la ottiene deve poi chiamare onSuccess o onFailure
+    public boolean tryAcquire() {
+        State changed;
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (probeInFlight) return false;
+                    probeInFlight = true;
+                    return true;
+                default:
+                    if (clock.getAsLong() - openedAt < openMillis) return false;
+                    probeInFlight = true;
+                    changed = transition(State.HALF_OPEN);
+            }
+        }
+        notifyListeners(changed);
+        return true;
+    }
+
+    public void onSuccess() {
+        State changed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            changed = transition(State.CLOSED);
+        }
+        notifyListeners(changed);
+    }
+
+    public void onFailure() {
+        State changed = null;
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                probeInFlight = false;
+                openedAt = clock.getAsLong();
+                changed = transition(State.OPEN);
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // Millisecondi prima che venga ammessa una sonda (0 se il circuito non è aperto)
+    public synchronized long remainingOpenMillis() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, openMillis - (clock.getAsLong() - openedAt));
+    }
+
+    // Un listener per chiave: registrarne uno nuovo con la stessa chiave sostituisce il precedente
+    public void setListener(String key, Consumer<State> listener) {
+        if (listener == null) listeners.remove(key);
+        else listeners.put(key, listener);
+    }
+
+    private State transition(State next) {
+        if (state == next) return null;
+        state = next;
+        return next;
+    }
+
+    private void notifyListeners(State changed) {
+        if (changed == null) return;
+        for (Consumer<State> listener : listeners.values()) listener.accept(changed);
+    }
+}
@@ -0,0 +1,409 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Pool di connessioni JDBC condiviso da tutti i DAO JDBC. Il numero di connessioni è limitato da un semaforo
+ * (chi non ottiene un permesso entro il timeout riceve una SQLException), le connessioni inattive vengono
+ * riutilizzate in ordine LIFO e validate prima del prestito, quelle inattive da troppo tempo o troppo vecchie
+ * vengono chiuse. Il close() della connessione prestata la restituisce al pool invece di chiuderla.
+ * Ogni connessione fisica conserva i propri PreparedStatement (vedi StatementCache), così le query ripetute
+ * non vengono ricompilate a ogni prestito. */
+public final class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Una connessione usata da meno di così non viene rivalidata: evita un round-trip per ogni query ravvicinata
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /* Parametri del pool; i valori predefiniti vengono da DatabaseConfig. */
+    public static final class Settings {
+        private int maxSize = DatabaseConfig.POOL_MAX_SIZE;
+        private int minIdle = DatabaseConfig.POOL_MIN_IDLE;
+        private long borrowTimeoutMs = DatabaseConfig.POOL_BORROW_TIMEOUT_MS;
+        private long idleTimeoutMs = DatabaseConfig.POOL_IDLE_TIMEOUT_MS;
+        private long maxLifetimeMs = DatabaseConfig.POOL_MAX_LIFETIME_MS;
+        private long leakThresholdMs = DatabaseConfig.POOL_LEAK_DETECTION_MS;
+        private int validationTimeoutSeconds = DatabaseConfig.POOL_VALIDATION_TIMEOUT_SECONDS;
+        private int statementCacheSize = DatabaseConfig.POOL_STATEMENT_CACHE_SIZE;
+
+        public Settings maxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Settings minIdle(int minIdle) {
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        public Settings borrowTimeoutMs(long borrowTimeoutMs) {
+            this.borrowTimeoutMs = borrowTimeoutMs;
+            return this;
+        }
+
+        public Settings idleTimeoutMs(long idleTimeoutMs) {
+            this.idleTimeoutMs = idleTimeoutMs;
+            return this;
+        }
+
+        public Settings maxLifetimeMs(long maxLifetimeMs) {
+            this.maxLifetimeMs = maxLifetimeMs;
+            return this;
+        }
+
+        public Settings leakThresholdMs(long leakThresholdMs) {
+            this.leakThresholdMs = leakThresholdMs;
+            return this;
+        }
+
+        public Settings validationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        // 0 disattiva il riuso degli statement
+        public Settings statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+    }
+
+    private static final class PooledEntry {
+        final Connection raw;
+        final long createdAt;
+        final StatementCache statements;
+        long lastReturnedAt;
+
+        PooledEntry(Connection raw, long createdAt, StatementCache statements) {
+            this.raw = raw;
+            this.createdAt = createdAt;
+            this.statements = statements;
+            this.lastReturnedAt = createdAt;
+        }
+    }
+
+    private static final class Lease {
+        final PooledEntry entry;
+        final long borrowedAt;
+        final Throwable borrowSite;
+        boolean leakReported;
+
+        Lease(PooledEntry entry, long borrowedAt, Throwable borrowSite) {
+            this.entry = entry;
+            this.borrowedAt = borrowedAt;
+            this.borrowSite = borrowSite;
+        }
+    }
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final Semaphore permits;
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(String name, String url, String user, String password) {
+        this(name, () -> DriverManager.getConnection(url, user, password), new Settings());
+    }
+
+    public ConnectionPool(String name, ConnectionFactory factory, Settings settings) {
+        this(name, factory, settings, System::currentTimeMillis, true);
+    }
+
+    ConnectionPool(String name, ConnectionFactory factory, Settings settings, LongSupplier clock, boolean housekeeping) {
+        if (settings.maxSize <= 0) throw new IllegalArgumentException("Pool size must be positive");
+        this.name = name;
+        this.factory = factory;
+        this.settings = settings;
+        this.clock = clock;
+        this.permits = new Semaphore(settings.maxSize, true);
+        if (housekeeping) {
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "jdbc-pool-" + name);
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1_000, Math.min(settings.idleTimeoutMs, settings.leakThresholdMs) / 2);
+            housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.housekeeper = null;
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool " + name + " is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + settings.borrowTimeoutMs + " ms waiting for a connection from pool "
+                        + name + " (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledEntry entry = takeUsableEntry();
+            if (entry == null) entry = newEntry();
+            borrowCount.incrementAndGet();
+            return lend(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long borrows = borrowCount.get();
+        long avgWaitMicros = borrows == 0 ? 0 : totalWaitNanos.get() / borrows / 1_000;
+        return new PoolStats(leased.size(), idleCount, permits.getQueueLength(), borrows, timeouts.get(),
+                avgWaitMicros, maxWaitNanos.get() / 1_000, created.get(), destroyed.get(), leaksDetected.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (housekeeper != null) housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledEntry entry : idle) destroy(entry);
+            idle.clear();
+        }
+        if (!leased.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Pool {0} closed with {1} connection(s) still in use", new Object[] { name, leased.size() });
+        }
+        LOGGER.info(() -> "Connection pool " + name + " closed: " + getStats());
+    }
+
+    // Chiude le connessioni inattive oltre idleTimeout (mantenendone minIdle) e segnala i prestiti troppo lunghi
+    void houseKeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    void evictIdle() {
+        long now = clock.getAsLong();
+        synchronized (idle) {
+            // Le più vecchie stanno in fondo alla deque (il prestito è LIFO)
+            Iterator<PooledEntry> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext()) {
+                PooledEntry entry = oldestFirst.next();
+                boolean expired = now - entry.createdAt > settings.maxLifetimeMs;
+                boolean stale = now - entry.lastReturnedAt > settings.idleTimeoutMs && idle.size() > settings.minIdle;
+                if (expired || stale) {
+                    oldestFirst.remove();
+                    destroy(entry);
+                }
+            }
+        }
+    }
+
+    void detectLeaks() {
+        long now = clock.getAsLong();
+        for (Lease lease : leased.values()) {
+            if (!lease.leakReported && now - lease.borrowedAt > settings.leakThresholdMs) {
+                lease.leakReported = true;
+                leaksDetected.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Possible connection leak in pool " + name + ": connection held for "
+                        + (now - lease.borrowedAt) + " ms, borrowed at", lease.borrowSite);
+            }
+        }
+    }
+
+    private PooledEntry takeUsableEntry() {
+        while (true) {
+            PooledEntry entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) return null;
+            if (isUsable(entry)) return entry;
+            destroy(entry);
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long now = clock.getAsLong();
+        if (now - entry.createdAt > settings.maxLifetimeMs) return false;
+        if (now - entry.lastReturnedAt < VALIDATION_BYPASS_MS) return true;
+        try {
+            return entry.raw.isValid(settings.validationTimeoutSeconds);
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Pooled connection failed validation", e);
+            return false;
+        }
+    }
+
+    private PooledEntry newEntry() throws SQLException {
+        Connection raw = factory.create();
+        created.incrementAndGet();
+        StatementCache statements = settings.statementCacheSize > 0
+                ? new StatementCache(settings.statementCacheSize, statementHits, statementMisses) : null;
+        return new PooledEntry(raw, clock.getAsLong(), statements);
+    }
+
+    private Connection lend(PooledEntry entry) {
+        Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new LeasedConnection(entry));
+        leased.put(proxy, new Lease(entry, clock.getAsLong(), new Throwable("Connection borrowed here")));
+        return proxy;
+    }
+
+    private void giveBack(Connection proxy, PooledEntry entry) {
+        if (leased.remove(proxy) == null) return;
+        try {
+            if (entry.statements != null) entry.statements.releaseAll();
+            boolean reusable = !closed && !entry.raw.isClosed() && resetState(entry.raw);
+            if (reusable) {
+                entry.lastReturnedAt = clock.getAsLong();
+                synchronized (idle) {
+                    idle.addFirst(entry);
+                }
+            } else {
+                destroy(entry);
+            }
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Una transazione lasciata aperta viene annullata prima di rimettere la connessione nel pool
+    private boolean resetState(Connection raw) {
+        try {
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            raw.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Discarding connection that could not be reset", e);
+            return false;
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        destroyed.incrementAndGet();
+        if (entry.statements != null) entry.statements.closeAll();
+        try {
+            entry.raw.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private final class LeasedConnection implements InvocationHandler {
+        private final PooledEntry entry;
+        private volatile boolean returned;
+
+        LeasedConnection(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack((Connection) proxy, entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + name + "]" + entry.raw;
+                }
+                case "prepareStatement" -> {
+                    if (returned) throw new SQLException("Connection has already been returned to the pool");
+                    if (entry.statements != null && isCacheable(args)) {
+                        int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return entry.statements.prepare(entry.raw, (String) args[0], keys);
+                    }
+                    return forward(method, args);
+                }
+                default -> {
+                    if (returned) throw new SQLException("Connection has already been returned to the pool");
+                    return forward(method, args);
+                }
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(entry.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Solo prepareStatement(sql) e prepareStatement(sql, autoGeneratedKeys); le altre varianti passano oltre
+        private static boolean isCacheable(Object[] args) {
+            return args.length == 1 || args.length == 2 && args[1] instanceof Integer;
+        }
+    }
+}
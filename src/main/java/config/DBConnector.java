@@ -1,46 +1,57 @@
 package config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnector {
 
-    
+
     private static DBConnector instance;
-    
-    private final Connection connection;
 
-    private static final String URL = "jdbc:mysql://localhost:3306/Cardify"; 
-    private static final String USER = "root";
-    
-    private static final String PASSWORD="password";
-    private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+    // Ogni getConnection() prende in prestito una connessione dal pool; close() la restituisce
+    private final ConnectionPool pool;
+
 
-    
     private DBConnector() throws SQLException {
         try {
-            
-            Class.forName(DRIVER_CLASS);
 
-            
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            Class.forName(DatabaseConfig.JDBC_DRIVER_CLASS);
+
+
+            this.pool = new ConnectionPool("cardify", DatabaseConfig.JDBC_URL, DatabaseConfig.JDBC_USER,
+                    DatabaseConfig.JDBC_PASSWORD);
 
         } catch (ClassNotFoundException e) {
             throw new SQLException("Driver Database non trovato: " + e.getMessage());
         }
     }
 
-    
+
     public static synchronized DBConnector getInstance() throws SQLException {
-        
-        if (instance == null || instance.connection.isClosed()) {
+
+        if (instance == null) {
             instance = new DBConnector();
         }
         return instance;
     }
-    
-    public Connection getConnection() {
-        return connection;
+
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    // Chiude il pool solo se è stato effettivamente creato (le modalità JSON e demo non lo usano mai)
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.pool.close();
+            instance = null;
+        }
     }
 }
@@ -15,8 +15,47 @@ public final class DatabaseConfig {
     public static final String BINDERS_JSON_FILE_NAME = "binders.json";
     public static final String BINDERS_JSON_PATH = JSON_DIR + File.separator + BINDERS_JSON_FILE_NAME;
 
+    // Snapshot JSON senza indentazione: file più piccoli e avvio più rapido; false per renderli leggibili a mano
+    public static final boolean JSON_COMPACT_FORMAT = true;
+
+    public static final String TRADES_JSON_FILE_NAME = "trades.json";
+    public static final String TRADES_JSON_PATH = JSON_DIR + File.separator + TRADES_JSON_FILE_NAME;
+
+    // Journal append-only dei trade: le modifiche vengono accodate e periodicamente compattate nello snapshot
+    public static final boolean TRADES_JOURNAL_ENABLED = true;
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final int JOURNAL_COMPACTION_THRESHOLD = 200;
+    public static final int JOURNAL_MAX_ENTRIES = 5000;
+    public static final long JOURNAL_COMPACTION_INTERVAL_SECONDS = 60;
+
+    // Write-behind degli store JSON: le modifiche vengono raggruppate e scritte al più tardi dopo WRITE_BEHIND_MAX_DELAY_MS
+    public static final boolean JSON_WRITE_BEHIND_ENABLED = true;
+    public static final long WRITE_BEHIND_MAX_DELAY_MS = 500;
+    public static final int WRITE_BEHIND_MAX_PENDING_CHANGES = 50;
+
     
-    public static final String JDBC_URL = "jdbc:mysql:";
+    // useServerPrepStmts: gli statement riutilizzati dal pool restano compilati lato server
+    public static final String JDBC_URL = "jdbc:mysql://localhost:3306/Cardify?useServerPrepStmts=true";
     public static final String JDBC_USER = "root";
     public static final String JDBC_PASSWORD = "password";
+    public static final String JDBC_DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+
+    // Pool di connessioni condiviso dai DAO JDBC
+    public static final int POOL_MAX_SIZE = 10;
+    public static final int POOL_MIN_IDLE = 2;
+    public static final long POOL_BORROW_TIMEOUT_MS = 5_000;
+    public static final long POOL_IDLE_TIMEOUT_MS = 5 * 60 * 1000L;
+    public static final long POOL_MAX_LIFETIME_MS = 30 * 60 * 1000L;
+    public static final long POOL_LEAK_DETECTION_MS = 30_000;
+    public static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final int POOL_STATEMENT_CACHE_SIZE = 64;
+
+    // Cache utenti del DAO JDBC: scaduto il TTL una voce viene rivalidata con la colonna version (o riletta se false)
+    public static final int USER_CACHE_MAX_ENTRIES = 1_000;
+    public static final long USER_CACHE_TTL_SECONDS = 60;
+    public static final boolean USER_CACHE_REVALIDATE = true;
+
+    // Indice per la ricerca per nome nel marketplace JDBC: i salvataggi del terminale lo aggiornano subito,
+    // quelli degli altri terminali compaiono alla rilettura successiva alla scadenza
+    public static final long TRADABLE_SEARCH_REFRESH_SECONDS = 30;
 }
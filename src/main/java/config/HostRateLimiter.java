@@ -0,0 +1,48 @@
+package config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/* Limite di richieste al secondo verso un host, condiviso da tutti i chiamanti che usano lo stesso nome host.
+ * Ogni acquire prenota il primo slot libero (uno ogni 1/rate secondi, con un piccolo burst iniziale) e attende
+ * fuori dal lock: pensato per i virtual thread, dove l'attesa non occupa un thread di piattaforma. */
+public final class HostRateLimiter {
+    private static final Map<String, HostRateLimiter> BY_HOST = new ConcurrentHashMap<>();
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private long nextSlot;
+
+    public HostRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    HostRateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) throw new IllegalArgumentException("Invalid rate limit");
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * (burst - 1);
+        this.clock = clock;
+        this.nextSlot = clock.getAsLong() - burstNanos;
+    }
+
+    public static HostRateLimiter forHost(String host) {
+        return BY_HOST.computeIfAbsent(host, _ -> new HostRateLimiter(ApiConfig.HOST_MAX_REQUESTS_PER_SECOND, ApiConfig.HOST_BURST));
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    // Prenota uno slot e restituisce quanto attendere prima di usarlo (0 se è già disponibile)
+    synchronized long reserve() {
+        long now = clock.getAsLong();
+        // Uno slot inutilizzato non si accumula oltre il burst: dopo una pausa lunga si riparte da now - burst
+        long slot = Math.max(nextSlot, now - burstNanos);
+        nextSlot = slot + intervalNanos;
+        return Math.max(0, slot - now);
+    }
+}
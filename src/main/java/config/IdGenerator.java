@@ -0,0 +1,8 @@
+package config;
+
+/* Sorgente degli id di trade, proposte e raccoglitori. Gli id devono restare unici anche con più terminali che
+ * scrivono sullo stesso archivio: quella predefinita è TimeOrderedIdGenerator, sostituibile con IdGenerators. */
+@FunctionalInterface
+public interface IdGenerator {
+    long nextId();
+}
@@ -0,0 +1,63 @@
+package config;
+
+import java.security.SecureRandom;
+import java.util.OptionalInt;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Generatore di id condiviso da DAO e factory del dominio. Il nodo si imposta con la proprietà di sistema
+ * cardify.node.id o la variabile CARDIFY_NODE_ID, diverso per ogni terminale che usa lo stesso archivio;
+ * senza configurazione il backend JDBC lo prende in prestito dal database (JdbcNodeLease), altrimenti viene
+ * scelto a caso, il che non garantisce l'unicità. */
+public final class IdGenerators {
+    private static final Logger LOGGER = Logger.getLogger(IdGenerators.class.getName());
+
+    private static volatile IdGenerator shared;
+
+    private IdGenerators() {
+    }
+
+    public static long nextId() {
+        return shared().nextId();
+    }
+
+    public static IdGenerator shared() {
+        IdGenerator generator = shared;
+        if (generator == null) {
+            synchronized (IdGenerators.class) {
+                if (shared == null) shared = new TimeOrderedIdGenerator(resolveNodeId());
+                generator = shared;
+            }
+        }
+        return generator;
+    }
+
+    // Per sostituire la strategia (es. una sequenza del database) o fissarla nei test
+    public static void setShared(IdGenerator generator) {
+        if (generator == null) throw new IllegalArgumentException("IdGenerator cannot be null");
+        shared = generator;
+    }
+
+    static int resolveNodeId() {
+        OptionalInt configured = configuredNodeId();
+        if (configured.isPresent()) return configured.getAsInt();
+        int node = new SecureRandom().nextInt(TimeOrderedIdGenerator.MAX_NODE_ID + 1);
+        LOGGER.log(Level.WARNING, "No node id configured, using random node {0}: set {1} to a different value on each terminal "
+                + "sharing the same data, or ids may collide", new Object[] { node, AppConfig.NODE_ID_PROPERTY });
+        return node;
+    }
+
+    // Nodo impostato esplicitamente, vuoto se manca o non è valido
+    public static OptionalInt configuredNodeId() {
+        String configured = System.getProperty(AppConfig.NODE_ID_PROPERTY, System.getenv(AppConfig.NODE_ID_ENV));
+        if (configured == null || configured.isBlank()) return OptionalInt.empty();
+        try {
+            int node = Integer.parseInt(configured.trim());
+            if (node >= 0 && node <= TimeOrderedIdGenerator.MAX_NODE_ID) return OptionalInt.of(node);
+        } catch (NumberFormatException _) {
+            // trattato come nodo non configurato
+        }
+        LOGGER.log(Level.WARNING, "Invalid node id {0}, expected 0-{1}", new Object[] { configured, TimeOrderedIdGenerator.MAX_NODE_ID });
+        return OptionalInt.empty();
+    }
+}
@@ -0,0 +1,95 @@
+package config;
+
+/* Fotografia immutabile dello stato di un ConnectionPool, pensata per log e diagnostica. */
+public final class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long borrowCount;
+    private final long timeouts;
+    private final long averageWaitMicros;
+    private final long maxWaitMicros;
+    private final long created;
+    private final long destroyed;
+    private final long leaksDetected;
+    private final long statementHits;
+    private final long statementMisses;
+
+    @SuppressWarnings("java:S107")
+    public PoolStats(int active, int idle, int waiting, long borrowCount, long timeouts, long averageWaitMicros,
+                     long maxWaitMicros, long created, long destroyed, long leaksDetected, long statementHits,
+                     long statementMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.borrowCount = borrowCount;
+        this.timeouts = timeouts;
+        this.averageWaitMicros = averageWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.leaksDetected = leaksDetected;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return active + idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getAverageWaitMicros() {
+        return averageWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d waiting=%d borrows=%d timeouts=%d avgWait=%dus maxWait=%dus created=%d destroyed=%d leaks=%d "
+                        + "stmtHits=%d stmtMisses=%d",
+                active, idle, waiting, borrowCount, timeouts, averageWaitMicros, maxWaitMicros, created, destroyed, leaksDetected,
+                statementHits, statementMisses);
+    }
+}
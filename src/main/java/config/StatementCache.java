@@ -0,0 +1,166 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* PreparedStatement già compilati di una connessione fisica del pool, riutilizzati tra un prestito e l'altro.
+ * Il close() dello statement prestato chiude i ResultSet aperti, azzera parametri e batch e lo rimette in cache;
+ * alla restituzione della connessione vengono rilasciati anche gli statement che il chiamante non ha chiuso.
+ * La cache è LRU e limitata: gli statement espulsi vengono chiusi davvero. */
+final class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<PreparedStatement, CachedStatement> inUse = new LinkedHashMap<>();
+
+    StatementCache(int capacity, AtomicLong hits, AtomicLong misses) {
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    synchronized PreparedStatement prepare(Connection raw, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        PreparedStatement cached = statements.get(key);
+        if (cached != null && !inUse.containsKey(cached)) {
+            hits.incrementAndGet();
+            return lend(key, cached);
+        }
+        misses.incrementAndGet();
+        PreparedStatement created = raw.prepareStatement(sql, autoGeneratedKeys);
+        // Stesso SQL già in uso sulla connessione (query annidate): statement temporaneo, chiuso normalmente
+        if (cached != null) return created;
+        statements.put(key, created);
+        evictIfNeeded();
+        return lend(key, created);
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    // Chiamato alla restituzione della connessione: nessuno statement resta prestato oltre la connessione
+    synchronized void releaseAll() {
+        for (CachedStatement handler : new ArrayList<>(inUse.values())) handler.release();
+    }
+
+    synchronized void closeAll() {
+        inUse.clear();
+        for (PreparedStatement ps : statements.values()) closeQuietly(ps);
+        statements.clear();
+    }
+
+    private PreparedStatement lend(String key, PreparedStatement raw) {
+        CachedStatement handler = new CachedStatement(key, raw);
+        inUse.put(raw, handler);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, handler);
+    }
+
+    private synchronized void giveBack(CachedStatement handler, boolean reusable) {
+        inUse.remove(handler.raw);
+        if (!reusable) {
+            statements.remove(handler.key, handler.raw);
+            closeQuietly(handler.raw);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<PreparedStatement> eldest = statements.values().iterator();
+        while (statements.size() > capacity && eldest.hasNext()) {
+            PreparedStatement ps = eldest.next();
+            if (inUse.containsKey(ps)) continue;
+            eldest.remove();
+            closeQuietly(ps);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement raw;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean returned;
+
+        CachedStatement(String key, PreparedStatement raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached[" + raw + "]";
+                }
+                default -> {
+                    if (returned) throw new SQLException("Statement has already been closed");
+                    Object result;
+                    try {
+                        result = method.invoke(raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet rs) openResults.add(rs);
+                    return result;
+                }
+            }
+        }
+
+        // Riporta lo statement nello stato di uno appena preparato; se non ci riesce lo chiude e lo scarta
+        void release() {
+            if (returned) return;
+            returned = true;
+            boolean reusable = true;
+            try {
+                for (ResultSet rs : openResults) rs.close();
+                openResults.clear();
+                raw.clearParameters();
+                raw.clearBatch();
+                raw.clearWarnings();
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Discarding cached statement that could not be reset", e);
+                reusable = false;
+            }
+            giveBack(this, reusable);
+        }
+    }
+}
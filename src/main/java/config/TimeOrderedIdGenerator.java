@@ -0,0 +1,63 @@
+package config;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/* Id a 64 bit ordinati nel tempo: 41 bit di millisecondi dall'epoca del progetto, 10 bit di nodo e 12 bit di
+ * sequenza (4096 id per millisecondo per nodo). Due nodi diversi non possono generare lo stesso id; sullo stesso
+ * nodo lo stato (millisecondo, sequenza) avanza con una compareAndSet, senza lock.
+ * Se l'orologio torna indietro si resta sull'ultimo millisecondo usato; a sequenza esaurita si prende in
+ * prestito il millisecondo successivo invece di attendere, così gli id restano sempre crescenti. */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private final long node;
+    private final LongSupplier clock;
+    // Millisecondo (relativo all'epoca) e sequenza dell'ultimo id emesso, nello stesso long
+    private final AtomicLong state = new AtomicLong();
+
+    public TimeOrderedIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long now = Math.max(clock.getAsLong() - EPOCH_MILLIS, lastMillis);
+            long next;
+            if (now > lastMillis) next = now << SEQUENCE_BITS;
+            else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) next = current + 1;
+            else next = (lastMillis + 1) << SEQUENCE_BITS;
+            if (state.compareAndSet(current, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return (int) node;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS & MAX_NODE_ID);
+    }
+
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+}
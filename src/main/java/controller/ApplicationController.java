@@ -25,6 +25,7 @@ public class ApplicationController {
     private static final Logger LOGGER = Logger.getLogger(ApplicationController.class.getName());
     private static final String JAVAFX = "JavaFX";
     private static final String NULL = "<null>";
+    private static final long ASYNC_SHUTDOWN_TIMEOUT_MS = 5_000;
     private final Deque<IView> viewStack = new ArrayDeque<>();
 
     private String currentInterface;
@@ -52,6 +53,9 @@ public class ApplicationController {
 
     private model.api.ICardProvider cardProvider;
 
+    // Dettagli carta condivisi da tutti i controller: sopravvive alle navigazioni tra le pagine
+    private final model.api.CardDetailCache cardDetailCache = new model.api.CardDetailCache();
+
     public void start() {
         InputManager inputManager = new InputManager();
         ConfigurationManager config = new ConfigurationManager(inputManager);
@@ -65,6 +69,8 @@ public class ApplicationController {
 
 
         daoFactory = createDaoFactory();
+        // Alla chiusura della JVM (anche tramite System.exit) le modifiche ancora in write-behind vengono scritte
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "dao-shutdown"));
 
         // Se c'è già un istanza di dao utente memorizzata, la riutilizzo
         if (cachedUserDao == null && daoFactory != null) cachedUserDao = daoFactory.createUserDao();
@@ -145,7 +151,7 @@ public class ApplicationController {
 
     public void navigateToCollectorHomePage(UserBean user) throws NavigationException {
         model.dao.IBinderDao binderDao = getBinderDao();
-        CollectorHPController controller = new CollectorHPController(user.getUsername(), this, binderDao);
+        CollectorHPController controller = new CollectorHPController(user.getUsername(), this, binderDao, cardDetailCache);
         ICollectorHPView view = viewFactory.createCollectorHomePageView(controller);
         controller.setView(view);
         displayView(view);
@@ -162,7 +168,7 @@ public class ApplicationController {
 
     public void navigateToCollection(String username) throws NavigationException {
         IBinderDao binderDao = getBinderDao();
-        CollectionController controller = new CollectionController(username, this, binderDao);
+        CollectionController controller = new CollectionController(username, this, binderDao, cardDetailCache);
         ICollectionView collectionView = viewFactory.createCollectionView(controller);
         controller.setView(collectionView);
         displayView(collectionView);
@@ -315,10 +321,53 @@ public class ApplicationController {
         } else {
             updateAppConfigPersistence();
         }
+        flushDaos();
         closeAll();
         navigateToLogin();
     }
 
+    
+    public void flushDaos() {
+        for (Object dao : activeDaos()) {
+            if (dao instanceof model.dao.IFlushableDao flushable) {
+                try {
+                    flushable.flush();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(java.util.logging.Level.WARNING, "Failed to flush " + dao.getClass().getSimpleName(), ex);
+                }
+            }
+        }
+    }
+
+    
+    public synchronized void shutdown() {
+        LOGGER.info(() -> "Card detail cache: " + cardDetailCache.getStats());
+        // Un salvataggio asincrono ancora in corso deve arrivare ai DAO prima che vengano chiusi
+        config.AsyncExecutor.shutdown(ASYNC_SHUTDOWN_TIMEOUT_MS);
+        for (Object dao : activeDaos()) {
+            if (dao instanceof model.dao.IFlushableDao flushable) {
+                try {
+                    flushable.close();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(java.util.logging.Level.WARNING, "Failed to close " + dao.getClass().getSimpleName(), ex);
+                }
+            }
+        }
+        model.dao.jdbc.StatementMetrics.snapshot().forEach(stats -> LOGGER.info(() -> "JDBC statement " + stats));
+        if (daoFactory != null) daoFactory.close();
+        config.DBConnector.shutdown();
+    }
+
+    private java.util.Set<Object> activeDaos() {
+        // Set per identità: lo stesso DAO può essere referenziato da più campi
+        java.util.Set<Object> daos = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        java.util.stream.Stream.of(cachedUserDao, cachedTradeDao, cachedBinderDao, cachedProposalDao, userDao)
+                .filter(java.util.Objects::nonNull)
+                .forEach(daos::add);
+        userDaoByPersistence.values().stream().filter(java.util.Objects::nonNull).forEach(daos::add);
+        return daos;
+    }
+
     private void displayView(IView newView) throws NavigationException {
 
         if (!viewStack.isEmpty()) {
@@ -363,6 +412,11 @@ public class ApplicationController {
         }
     }
 
+    // I controller caricano dati in background solo con JavaFX; la CLI resta sincrona
+    public UiDispatcher getUiDispatcher() {
+        return JAVAFX.equals(currentInterface) ? UiDispatcher.javaFx() : UiDispatcher.synchronous();
+    }
+
     public ICardProvider getCardProvider() {
         if (cardProvider == null) {
             cardProvider = new model.api.ApiFactory().getCardProvider(currentGameType);
@@ -370,6 +424,10 @@ public class ApplicationController {
         return cardProvider;
     }
 
+    public model.api.CardDetailCache getCardDetailCache() {
+        return cardDetailCache;
+    }
+
     public model.dao.IUserDao getUserDao() {
         if (cachedUserDao == null && daoFactory != null) cachedUserDao = daoFactory.createUserDao();
         return cachedUserDao;
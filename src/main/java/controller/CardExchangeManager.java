@@ -5,8 +5,13 @@ import model.domain.Binder;
 import model.domain.Card;
 import model.domain.TradeTransaction;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 
@@ -21,61 +26,40 @@ public class CardExchangeManager {
         this.cardProvider = cardProvider;
     }
 
+    /* Lo scambio viene prima pianificato e poi applicato: i raccoglitori di ciascun partecipante si leggono una
+     * volta sola, il catalogo dei set si interroga al massimo una volta (solo se manca un raccoglitore), tutte le
+     * modifiche avvengono in memoria e ogni raccoglitore toccato viene salvato una sola volta alla fine. */
     public void executeExchange(TradeTransaction tx) {
         if (tx == null) return;
-        transferOfferedCardsToReceiver(tx);
-        transferRequestedCardsToProposer(tx);
-        removeOfferedCardsFromProposer(tx);
-        removeRequestedCardsFromReceiver(tx);
-    }
-
-    private void transferOfferedCardsToReceiver(TradeTransaction tx) {
+        String proposer = tx.getProposerId();
         String receiver = tx.getReceiverId();
-        for (Card card : tx.getOfferedCards()) {
-            String setId = card.getId().split("-")[0];
-            List<Binder> receiverBinders = binderDao.getUserBinders(receiver);
-            Binder binder = receiverBinders.stream().filter(b -> b.getSetId().equals(setId)).findFirst().orElse(null);
-            if (binder == null) {
-                String setName = cardProvider.getAllSets().get(setId);
-                binderDao.createBinder(receiver, setId, setName);
-                receiverBinders = binderDao.getUserBinders(receiver);
-                binder = receiverBinders.stream().filter(b -> b.getSetId().equals(setId)).findFirst().orElse(null);
-            }
-            if (binder != null) {
-                binder.addCard(card.toBean());
-                binderDao.save(binder);
-            }
-        }
+        List<Card> offered = nonNull(tx.getOfferedCards());
+        List<Card> requested = nonNull(tx.getRequestedCards());
+
+        ExchangePlan plan = new ExchangePlan();
+        plan.ensureBinders(receiver, offered);
+        plan.ensureBinders(proposer, requested);
+
+        addCardsToOwner(plan, receiver, offered);
+        addCardsToOwner(plan, proposer, requested);
+        removeCardsFromOwner(plan, proposer, offered, this::logProposerBinderMissing, this::logProposerCardMissing);
+        removeCardsFromOwner(plan, receiver, requested, this::logReceiverBinderMissing, this::logReceiverCardMissing);
+
+        plan.persist();
     }
 
-    private void transferRequestedCardsToProposer(TradeTransaction tx) {
-        String proposer = tx.getProposerId();
-        for (Card card : tx.getRequestedCards()) {
-            String setId = card.getId().split("-")[0];
-            List<Binder> proposerBinders = binderDao.getUserBinders(proposer);
-            Binder binder = proposerBinders.stream().filter(b -> b.getSetId().equals(setId)).findFirst().orElse(null);
-            if (binder == null) {
-                String setName = cardProvider.getAllSets().get(setId);
-                binderDao.createBinder(proposer, setId, setName);
-                proposerBinders = binderDao.getUserBinders(proposer);
-                binder = proposerBinders.stream().filter(b -> b.getSetId().equals(setId)).findFirst().orElse(null);
-            }
+    private void addCardsToOwner(ExchangePlan plan, String owner, List<Card> cards) {
+        if (owner == null) return;
+        for (Card card : cards) {
+            Binder binder = plan.binderFor(owner, setIdOf(card));
             if (binder != null) {
                 binder.addCard(card.toBean());
-                binderDao.save(binder);
+                plan.touch(binder);
             }
         }
     }
 
-    private void removeOfferedCardsFromProposer(TradeTransaction tx) {
-        removeCardsFromOwner(tx.getProposerId(), tx.getOfferedCards(), this::logProposerBinderMissing, this::logProposerCardMissing);
-    }
-
-    private void removeRequestedCardsFromReceiver(TradeTransaction tx) {
-        removeCardsFromOwner(tx.getReceiverId(), tx.getRequestedCards(), this::logReceiverBinderMissing, this::logReceiverCardMissing);
-    }
 
-    
     @FunctionalInterface
     private interface BinderMissingLogger {
         void log(String setId, String owner);
@@ -86,27 +70,27 @@ public class CardExchangeManager {
         void log(String cardId, String owner);
     }
 
-    
-    private void removeCardsFromOwner(String owner, List<Card> cardsToRemove, BinderMissingLogger missingBinderLog,
-                                      CardMissingLogger missingCardLog) {
-        if (owner == null || cardsToRemove == null) return;
+
+    private void removeCardsFromOwner(ExchangePlan plan, String owner, List<Card> cardsToRemove,
+                                      BinderMissingLogger missingBinderLog, CardMissingLogger missingCardLog) {
+        if (owner == null) return;
         for (Card card : cardsToRemove) {
-            String setId = card.getId().split("-")[0];
-            List<Binder> ownerBinders = binderDao.getUserBinders(owner);
-            Binder binder = ownerBinders.stream().filter(b -> b.getSetId().equals(setId)).findFirst().orElse(null);
+            String setId = setIdOf(card);
+            Binder binder = plan.binderFor(owner, setId);
             if (binder == null) {
                 missingBinderLog.log(setId, owner);
                 continue;
             }
-            boolean removed = removeCardFromBinder(binder, card);
-            if (!removed) {
+            if (removeCardFromBinder(binder, card)) {
+                plan.touch(binder);
+            } else {
                 missingCardLog.log(card.getId(), owner);
             }
         }
     }
 
-    
-    
+
+
     private boolean removeCardFromBinder(Binder binder, Card card) {
         if (binder == null || card == null) return false;
         List<model.bean.CardBean> cards = binder.getCards();
@@ -120,14 +104,77 @@ public class CardExchangeManager {
                     it.remove();
                 }
                 binder.setCards(cards);
-                binderDao.save(binder);
                 return true;
             }
         }
         return false;
     }
 
-    
+    private static String setIdOf(Card card) {
+        return card.getId().split("-")[0];
+    }
+
+    private static List<Card> nonNull(List<Card> cards) {
+        return cards != null ? cards : Collections.emptyList();
+    }
+
+    /* Stato di un singolo scambio: raccoglitori per proprietario indicizzati per setId e insieme dei
+     * raccoglitori modificati, in ordine di prima modifica. */
+    private final class ExchangePlan {
+        private final Map<String, Map<String, Binder>> bindersByOwner = new HashMap<>();
+        private final Set<Binder> touched = new LinkedHashSet<>();
+        private Map<String, String> setNames;
+
+        private Map<String, Binder> bindersOf(String owner) {
+            return bindersByOwner.computeIfAbsent(owner, o -> {
+                Map<String, Binder> bySet = new HashMap<>();
+                for (Binder b : binderDao.getUserBinders(o)) {
+                    bySet.putIfAbsent(b.getSetId(), b);
+                }
+                return bySet;
+            });
+        }
+
+        Binder binderFor(String owner, String setId) {
+            return bindersOf(owner).get(setId);
+        }
+
+        // I raccoglitori mancanti vengono creati prima di toccare qualsiasi carta: se il catalogo non è raggiungibile
+        // lo scambio fallisce senza aver modificato nulla
+        void ensureBinders(String owner, List<Card> incoming) {
+            if (owner == null) return;
+            Map<String, Binder> bySet = bindersOf(owner);
+            for (Card card : incoming) {
+                String setId = setIdOf(card);
+                if (!bySet.containsKey(setId)) {
+                    Binder created = new Binder(owner, setId, setNameOf(setId));
+                    bySet.put(setId, created);
+                    touched.add(created);
+                }
+            }
+        }
+
+        void touch(Binder binder) {
+            touched.add(binder);
+        }
+
+        private String setNameOf(String setId) {
+            if (setNames == null) {
+                Map<String, String> catalog = cardProvider != null ? cardProvider.getAllSets() : null;
+                setNames = catalog != null ? catalog : Collections.emptyMap();
+            }
+            return setNames.getOrDefault(setId, setId);
+        }
+
+        void persist() {
+            for (Binder binder : touched) {
+                binderDao.save(binder);
+            }
+            LOGGER.fine(() -> "CardExchangeManager: exchange persisted " + touched.size() + " binder(s)");
+        }
+    }
+
+
     private void logProposerBinderMissing(String setId, String owner) {
         LOGGER.fine(() -> "CardExchangeManager: proposer binder not found for set=" + setId + " owner=" + owner);
     }
@@ -2,6 +2,7 @@ package controller;
 
 import config.AppConfig;
 import model.api.ApiFactory;
+import model.api.CardHydrator;
 import model.api.ICardProvider;
 import model.bean.CardBean;
 import model.dao.IBinderDao;
@@ -9,9 +10,14 @@ import model.domain.Binder;
 import model.domain.Card;
 import view.ICollectionView;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 
@@ -23,6 +29,7 @@ public class CollectionController {
     private final ApplicationController navigationController;
     private final IBinderDao binderDao;
     private final ApiFactory apiFactory;
+    private final model.api.CardDetailCache cardDetailCache;
     private ICollectionView view;
 
     
@@ -30,12 +37,19 @@ public class CollectionController {
 
     
     private final Map<String, Binder> pendingChanges;
+    // Contatore delle modifiche per set: un salvataggio libera la voce solo se nel frattempo non è cambiata
+    private final Map<String, Long> changeCounters = new HashMap<>();
     private boolean hasUnsavedChanges;
+    private boolean saveInProgress;
+    // Una nuova visualizzazione della collezione scarta le carte ancora in arrivo per la precedente
+    private final AtomicLong collectionGeneration = new AtomicLong();
 
-    public CollectionController(String username, ApplicationController navigationController, IBinderDao binderDao) {
+    public CollectionController(String username, ApplicationController navigationController, IBinderDao binderDao,
+            model.api.CardDetailCache cardDetailCache) {
         this.username = username;
         this.navigationController = navigationController;
         this.binderDao = binderDao;
+        this.cardDetailCache = cardDetailCache;
         this.apiFactory = new ApiFactory();
         this.cachedBinders = new HashMap<>();
         this.pendingChanges = new HashMap<>();
@@ -46,54 +60,112 @@ public class CollectionController {
         this.view = view;
         if (view != null) {
             view.setWelcomeMessage(username);
+            watchProviderHealth(view);
             loadUserCollection();
         }
     }
 
+    // Lo stato del provider arriva al view subito e poi a ogni cambio, sul thread dell'interfaccia
+    private void watchProviderHealth(ICollectionView target) {
+        apiFactory.setProviderHealthListener(AppConfig.POKEMON_GAME, CollectionController.class.getName(),
+                health -> dispatcher().post(() -> {
+                    if (view == target) target.showProviderStatus(health);
+                }));
+        target.showProviderStatus(apiFactory.getProviderHealth(AppConfig.POKEMON_GAME));
+    }
+
     public String getUsername() {
         return username;
     }
 
     
-    public void loadUserCollection() {
-        try {
-            List<Binder> userBinders = binderDao.getUserBinders(username);
+    private static final class CollectionData {
+        final Map<String, Binder> bindersBySet;
+        final Map<String, List<Card>> setCardsMap;
+        // Set per cui il provider non ha restituito le carte: i dettagli vanno recuperati carta per carta
+        final List<String> setsToHydrate;
+
+        CollectionData(Map<String, Binder> bindersBySet, Map<String, List<Card>> setCardsMap, List<String> setsToHydrate) {
+            this.bindersBySet = bindersBySet;
+            this.setCardsMap = setCardsMap;
+            this.setsToHydrate = setsToHydrate;
+        }
+    }
 
-            
-            Map<String, Binder> bindersBySet = new HashMap<>();
-            for (Binder binder : userBinders) {
-                bindersBySet.put(binder.getSetId(), binder);
-            }
+    // Binder e carte vengono caricati in background (i set in parallelo); lo stato del controller e il view
+    // vengono aggiornati solo nella callback, sul thread dell'interfaccia
+    public void loadUserCollection() {
+        ICardProvider provider = getCardProviderSafe();
+        dispatcher().deliver(binderDao.getUserBindersAsync(username).thenCompose(binders -> fetchCollection(binders, provider)),
+                data -> showCollection(data, provider),
+                ex -> {
+                    LOGGER.severe("Error loading collection: " + ex.getMessage());
+                    if (view != null) {
+                        view.showError("Errore nel caricamento della collezione");
+                    }
+                });
+    }
 
-            
-            this.cachedBinders = new HashMap<>(bindersBySet);
+    private CompletableFuture<CollectionData> fetchCollection(List<Binder> userBinders, ICardProvider provider) {
+        
+        Map<String, Binder> bindersBySet = new HashMap<>();
+        for (Binder binder : userBinders) {
+            bindersBySet.put(binder.getSetId(), binder);
+        }
 
-            
+        Map<String, CompletableFuture<List<Card>>> pending = new HashMap<>();
+        for (String setId : bindersBySet.keySet()) {
+            pending.put(setId, config.AsyncExecutor.supply(() -> trySearchSet(setId, provider)));
+        }
+        return CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new)).thenApply(_ -> {
             Map<String, List<Card>> setCardsMap = new HashMap<>();
-            ICardProvider provider = getCardProviderSafe();
+            List<String> setsToHydrate = new ArrayList<>();
+            pending.forEach((setId, cards) -> {
+                setCardsMap.put(setId, cards.join());
+                if (cards.join().isEmpty()) setsToHydrate.add(setId);
+            });
+            return new CollectionData(bindersBySet, setCardsMap, setsToHydrate);
+        });
+    }
 
-            
-            for (Map.Entry<String, Binder> entry : bindersBySet.entrySet()) {
-                String setId = entry.getKey();
-                Binder binder = entry.getValue();
-                List<Card> cards = fetchCardsForSet(setId, binder, provider);
-                setCardsMap.put(setId, cards);
-            }
+    private void showCollection(CollectionData data, ICardProvider provider) {
+        // I binder con modifiche non ancora salvate restano quelli in memoria: la copia letta dal database è più vecchia
+        Map<String, Binder> binders = new HashMap<>(data.bindersBySet);
+        pendingChanges.keySet().retainAll(binders.keySet());
+        changeCounters.keySet().retainAll(pendingChanges.keySet());
+        binders.putAll(pendingChanges);
+        this.cachedBinders = binders;
+        hasUnsavedChanges = !pendingChanges.isEmpty();
 
-            
-            pendingChanges.clear();
-            hasUnsavedChanges = false;
-            if (view != null) {
-                view.setSaveButtonVisible(false);
-                view.displayCollection(bindersBySet, setCardsMap);
-            }
+        long generation = collectionGeneration.incrementAndGet();
+        if (view != null) {
+            // In CLI il view resta nel proprio menu: il recupero parte prima, le carte arrivano mentre è aperto
+            hydrateMissingSets(binders, data.setsToHydrate, provider, generation);
+            view.setSaveButtonVisible(hasUnsavedChanges);
+            view.displayCollection(binders, data.setCardsMap);
+        }
 
-            LOGGER.info(() -> "Loaded collection with " + userBinders.size() + " sets for user: " + username);
-        } catch (Exception ex) {
-            LOGGER.severe("Error loading collection: " + ex.getMessage());
-            if (view != null) {
-                view.showError("Errore nel caricamento della collezione");
+        LOGGER.info(() -> "Loaded collection with " + binders.size() + " sets for user: " + username);
+    }
+
+    /* Per i set senza dati dal provider i dettagli delle carte del binder vengono recuperati in parallelo (con
+     * limite di concorrenza e di richieste all'host) e consegnati al view a blocchi man mano che arrivano, invece
+     * di una richiesta alla volta prima di mostrare la collezione. */
+    private void hydrateMissingSets(Map<String, Binder> binders, List<String> setsToHydrate, ICardProvider provider, long generation) {
+        if (provider == null || setsToHydrate.isEmpty()) return;
+        CardHydrator hydrator = new CardHydrator(provider, cardDetailCache);
+        for (String setId : setsToHydrate) {
+            Binder binder = binders.get(setId);
+            if (binder == null || binder.getCards() == null) continue;
+            List<String> ids = new ArrayList<>();
+            for (CardBean cb : binder.getCards()) {
+                if (cb != null && cb.getId() != null) ids.add(cb.getId());
             }
+            Consumer<Card> toView = dispatcher().batching(cards -> {
+                if (view != null && generation == collectionGeneration.get()) view.appendSetCards(setId, cards);
+            });
+            hydrator.hydrate(ids, toView).thenAccept(cards -> LOGGER.log(java.util.logging.Level.FINE,
+                    "Hydrated {0}/{1} cards for set {2}", new Object[] { cards.size(), ids.size(), setId }));
         }
     }
 
@@ -113,11 +185,22 @@ public class CollectionController {
         }
     }
 
+    // Variante non bloccante di getAvailableSets: in caso di errore consegna una mappa vuota
+    public void loadAvailableSets(Consumer<Map<String, String>> onLoaded) {
+        ICardProvider provider = getCardProviderSafe();
+        if (provider == null) {
+            onLoaded.accept(Map.of());
+            return;
+        }
+        dispatcher().deliver(provider.getAllSetsAsync(), onLoaded, ex -> {
+            LOGGER.severe("Error fetching available sets: " + ex.getMessage());
+            onLoaded.accept(Map.of());
+        });
+    }
+
     
     public void createBinder(String setId, String setName) {
-        try {
-            binderDao.createBinder(username, setId, setName);
-
+        dispatcher().deliver(binderDao.createBinderAsync(username, setId, setName), _ -> {
             LOGGER.info(() -> "Created new set: " + setName + " for user: " + username);
 
             
@@ -126,25 +209,23 @@ public class CollectionController {
             if (view != null) {
                 view.showSuccess("Set \"" + setName + "\" aggiunto alla collezione!");
             }
-        } catch (Exception ex) {
+        }, ex -> {
             LOGGER.severe("Error creating set: " + ex.getMessage());
             if (view != null) {
                 view.showError("Errore nell'aggiunta del set");
             }
-        }
+        });
     }
 
     
     public void deleteBinder(String setId) {
-        try {
-            Binder binder = cachedBinders.get(setId);
-            if (binder == null) {
-                LOGGER.warning(() -> "Binder not found for setId: " + setId);
-                return;
-            }
-
-            binderDao.deleteBinder(String.valueOf(binder.getId()));
+        Binder binder = cachedBinders.get(setId);
+        if (binder == null) {
+            LOGGER.warning(() -> "Binder not found for setId: " + setId);
+            return;
+        }
 
+        dispatcher().deliver(binderDao.deleteBinderAsync(String.valueOf(binder.getId())), _ -> {
             LOGGER.info(() -> "Deleted set: " + binder.getSetName() + " for user: " + username);
 
             
@@ -153,12 +234,12 @@ public class CollectionController {
             if (view != null) {
                 view.showSuccess("Set \"" + binder.getSetName() + "\" eliminato dalla collezione!");
             }
-        } catch (Exception ex) {
+        }, ex -> {
             LOGGER.severe("Error deleting set: " + ex.getMessage());
             if (view != null) {
                 view.showError("Errore nell'eliminazione del set");
             }
-        }
+        });
     }
 
     
@@ -194,8 +275,7 @@ public class CollectionController {
             }
 
             
-            pendingChanges.put(setId, binder);
-            hasUnsavedChanges = true;
+            markChanged(setId, binder);
             if (view != null) {
                 view.setSaveButtonVisible(true);
                 
@@ -238,8 +318,7 @@ public class CollectionController {
                 }
 
                 
-                pendingChanges.put(setId, binder);
-                hasUnsavedChanges = true;
+                markChanged(setId, binder);
                 if (view != null) {
                     view.setSaveButtonVisible(true);
                     
@@ -275,8 +354,7 @@ public class CollectionController {
                 cardToUpdate.setTradable(tradable);
 
                 
-                pendingChanges.put(setId, binder);
-                hasUnsavedChanges = true;
+                markChanged(setId, binder);
                 if (view != null) {
                     view.setSaveButtonVisible(true);
                     
@@ -295,24 +373,38 @@ public class CollectionController {
             LOGGER.info("No changes to save");
             return;
         }
+        if (saveInProgress) {
+            LOGGER.info("Save already in progress");
+            return;
+        }
+        saveInProgress = true;
+
+        // I binder vengono salvati uno dopo l'altro, come prima, ma fuori dal thread dell'interfaccia. Al thread di
+        // salvataggio va una copia: l'utente può continuare a modificare i binder mentre il salvataggio è in corso
+        Map<String, Long> savedVersions = new HashMap<>();
+        CompletableFuture<Void> saves = CompletableFuture.completedFuture(null);
+        for (Map.Entry<String, Binder> pending : pendingChanges.entrySet()) {
+            Binder snapshot = new Binder(pending.getValue());
+            savedVersions.put(pending.getKey(), changeCounters.get(pending.getKey()));
+            saves = saves.thenCompose(_ -> binderDao.updateAsync(snapshot, null))
+                    .thenRun(() -> LOGGER.info(() -> "Saved changes for set: " + snapshot.getSetName()));
+        }
 
-        try {
-            int savedCount = 0;
-            for (Map.Entry<String, Binder> entry : pendingChanges.entrySet()) {
-                Binder binder = entry.getValue();
-                binderDao.update(binder, null);
-                savedCount++;
-                LOGGER.info(() -> "Saved changes for set: " + binder.getSetName());
-            }
-
-            final int finalSavedCount = savedCount;
+        dispatcher().deliver(saves, _ -> {
+            saveInProgress = false;
+            final int finalSavedCount = savedVersions.size();
 
-            
-            pendingChanges.clear();
-            hasUnsavedChanges = false;
+            // Una modifica arrivata durante il salvataggio ha cambiato il contatore e resta da salvare
+            savedVersions.forEach((setId, version) -> {
+                if (Objects.equals(changeCounters.get(setId), version)) {
+                    pendingChanges.remove(setId);
+                    changeCounters.remove(setId);
+                }
+            });
+            hasUnsavedChanges = !pendingChanges.isEmpty();
 
             if (view != null) {
-                view.setSaveButtonVisible(false);
+                view.setSaveButtonVisible(hasUnsavedChanges);
                 view.showSuccess("Salvate " + finalSavedCount + " modifiche con successo!");
             }
 
@@ -320,12 +412,19 @@ public class CollectionController {
 
             
             loadUserCollection();
-        } catch (Exception ex) {
+        }, ex -> {
+            saveInProgress = false;
             LOGGER.severe("Error saving changes: " + ex.getMessage());
             if (view != null) {
                 view.showError("Errore nel salvataggio delle modifiche");
             }
-        }
+        });
+    }
+
+    private void markChanged(String setId, Binder binder) {
+        pendingChanges.put(setId, binder);
+        changeCounters.merge(setId, 1L, Long::sum);
+        hasUnsavedChanges = true;
     }
 
     public void navigateToHome() {
@@ -373,6 +472,10 @@ public class CollectionController {
         navigationController.logout();
     }
 
+    private UiDispatcher dispatcher() {
+        return UiDispatcher.of(navigationController);
+    }
+
     private ICardProvider getCardProviderSafe() {
         try {
             return apiFactory.getCardProvider(AppConfig.POKEMON_GAME);
@@ -382,13 +485,6 @@ public class CollectionController {
         }
     }
 
-    private List<Card> fetchCardsForSet(String setId, Binder binder, ICardProvider provider) {
-        
-        List<Card> fromSearch = trySearchSet(setId, provider);
-        if (!fromSearch.isEmpty()) return fromSearch;
-        return fetchDetailsFromBinder(binder, provider);
-    }
-
     private List<Card> trySearchSet(String setId, ICardProvider provider) {
         if (provider == null) return java.util.Collections.emptyList();
         try {
@@ -399,19 +495,4 @@ public class CollectionController {
             return java.util.Collections.emptyList();
         }
     }
-
-    private List<Card> fetchDetailsFromBinder(Binder binder, ICardProvider provider) {
-        List<Card> details = new java.util.ArrayList<>();
-        if (binder == null || binder.getCards() == null || provider == null) return details;
-        for (CardBean cb : binder.getCards()) {
-            if (cb == null || cb.getId() == null) continue;
-            try {
-                Card detail = provider.getCardDetails(cb.getId());
-                if (detail != null) details.add(detail);
-            } catch (Exception provEx) {
-                LOGGER.fine(() -> "Provider failed to fetch details for " + cb.getId() + ": " + provEx.getMessage());
-            }
-        }
-        return details;
-    }
 }
@@ -5,11 +5,15 @@ import model.domain.Card;
 import view.ICollectorHPView;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import model.api.ApiFactory;
+import model.api.CardHydrator;
 import model.api.ICardProvider;
 import config.AppConfig;
+import config.AsyncExecutor;
 
 
 public class CollectorHPController {
@@ -22,16 +26,19 @@ public class CollectorHPController {
     private final ICardProvider cardProvider;
     private ICollectorHPView view;
 
-    
-    private final Map<String, Card> localCardCache = new HashMap<>();
+    private final model.api.CardDetailCache cardDetailCache;
+    // Ricerca mentre si digita e cambi di set rapidi: solo la risposta all'ultima richiesta arriva alla view
+    private final AtomicLong displayGeneration = new AtomicLong();
 
     public CollectorHPController(String username, ApplicationController navigationController,
-            model.dao.IBinderDao binderDao) {
+            model.dao.IBinderDao binderDao, model.api.CardDetailCache cardDetailCache) {
         this.username = username;
         this.navigationController = navigationController;
         this.binderDao = binderDao;
+        this.cardDetailCache = cardDetailCache;
         
-        ICardProvider provider = new ApiFactory().getCardProvider(AppConfig.POKEMON_GAME);
+        ApiFactory apiFactory = new ApiFactory();
+        ICardProvider provider = apiFactory.getCardProvider(AppConfig.POKEMON_GAME);
         if (provider == null) {
             LOGGER.warning("ApiFactory returned null provider for game: " + AppConfig.POKEMON_GAME + "; using no-op fallback provider to avoid NPE.");
             provider = new ICardProvider() {
@@ -55,22 +62,12 @@ public class CollectorHPController {
 
     
     private void loadCardsFromOtherUsersAllSets() {
-        try {
-            List<model.domain.Binder> otherBinders = binderDao.getBindersExcludingOwner(username);
-
-            LOGGER.log(java.util.logging.Level.INFO, "(Popular) otherBinders count: {0}", otherBinders.size());
-
+        long generation = displayGeneration.incrementAndGet();
+        CompletableFuture<List<CardBean>> cards = binderDao.getTradableListingsAsync(null, username).thenApplyAsync(listings -> {
             
             Map<String, model.bean.CardBean> binderMap = new LinkedHashMap<>();
             Map<String, String> ownerMap = new LinkedHashMap<>();
-            for (model.domain.Binder b : otherBinders) {
-                for (model.bean.CardBean cb : b.getCards()) {
-                    if (cb != null && cb.isTradable() && cb.getId() != null) {
-                        binderMap.putIfAbsent(cb.getId(), cb);
-                        ownerMap.putIfAbsent(cb.getId(), b.getOwner());
-                    }
-                }
-            }
+            collectListings(listings, binderMap, ownerMap);
 
             LOGGER.log(java.util.logging.Level.INFO, "(Popular) unique tradable beans count: {0}", binderMap.size());
 
@@ -80,45 +77,27 @@ public class CollectorHPController {
             Collections.shuffle(cardBeans, new java.util.Random());
 
             LOGGER.log(java.util.logging.Level.INFO, "(Popular) Loaded {0} cards to display", cardBeans.size());
+            return cardBeans;
+        }, AsyncExecutor.executor());
 
-            if (view != null) {
-                view.displayCards(cardBeans);
-            }
-        } catch (Exception ex) {
+        dispatcher().deliver(cards, beans -> showMarketplace(generation, beans), ex -> {
             LOGGER.log(java.util.logging.Level.SEVERE, "Error loading popular cards: {0}", ex.getMessage());
             LOGGER.log(java.util.logging.Level.SEVERE, EXCEPTION_DETAILS, ex);
-        }
+        });
     }
 
     
     public void loadCardsFromSet(String setId) {
-        try {
-            
-            List<model.domain.Binder> otherBinders = binderDao.getBindersExcludingOwner(username);
-
-            LOGGER.log(java.util.logging.Level.INFO, "otherBinders count: {0}", otherBinders.size());
-
-            
-            List<model.domain.Binder> setBinders = new ArrayList<>();
-            for (model.domain.Binder b : otherBinders) {
-                if (setId != null && setId.equals(b.getSetId())) {
-                    setBinders.add(b);
-                }
-            }
-
-            LOGGER.log(java.util.logging.Level.INFO, "setBinders count for set {0}: {1}", new Object[]{setId, setBinders.size()});
-
+        long generation = displayGeneration.incrementAndGet();
+        if (setId == null) {
+            displayCards(Collections.emptyList());
+            return;
+        }
+        CompletableFuture<List<CardBean>> cards = binderDao.getTradableListingsAsync(setId, username).thenApplyAsync(listings -> {
             
             Map<String, model.bean.CardBean> binderMap = new LinkedHashMap<>();
             Map<String, String> ownerMap = new LinkedHashMap<>();
-            for (model.domain.Binder b : setBinders) {
-                for (model.bean.CardBean cb : b.getCards()) {
-                    if (cb != null && cb.isTradable() && cb.getId() != null) {
-                        binderMap.putIfAbsent(cb.getId(), cb);
-                        ownerMap.putIfAbsent(cb.getId(), b.getOwner());
-                    }
-                }
-            }
+            collectListings(listings, binderMap, ownerMap);
 
             LOGGER.log(java.util.logging.Level.INFO, "unique tradable beans count: {0}", binderMap.size());
 
@@ -126,63 +105,94 @@ public class CollectorHPController {
 
             LOGGER.log(java.util.logging.Level.INFO, "Loaded {0} cards for set {1} to display",
                     new Object[]{cardBeans.size(), setId});
+            return cardBeans;
+        }, AsyncExecutor.executor());
 
-            if (view != null) {
-                view.displayCards(cardBeans);
-            }
-        } catch (Exception ex) {
+        dispatcher().deliver(cards, beans -> showMarketplace(generation, beans), ex -> {
             LOGGER.log(java.util.logging.Level.SEVERE, "Error loading cards from set {0}: {1}",
                     new Object[]{setId, ex.getMessage()});
             LOGGER.log(java.util.logging.Level.SEVERE, EXCEPTION_DETAILS, ex);
+        });
+    }
+
+    private void displayLatest(long generation, List<CardBean> cardBeans) {
+        if (generation == displayGeneration.get()) displayCards(cardBeans);
+    }
+
+    // Le carte si mostrano subito con i dati delle listing; quelle senza nome o immagine vengono completate dopo
+    private void showMarketplace(long generation, List<CardBean> cardBeans) {
+        if (generation != displayGeneration.get()) return;
+        // In JavaFX la post segue la displayCards già accodata; in CLI il recupero parte prima del menu bloccante
+        dispatcher().post(() -> hydrateIncomplete(generation, cardBeans));
+        displayCards(cardBeans);
+    }
+
+    /* I dettagli mancanti arrivano dal provider in parallelo e vengono consegnati al view a blocchi, che aggiorna
+     * le carte già mostrate; una nuova visualizzazione scarta quelli ancora in arrivo per la precedente. */
+    private void hydrateIncomplete(long generation, List<CardBean> shown) {
+        Map<String, CardBean> incomplete = new LinkedHashMap<>();
+        for (CardBean cb : shown) {
+            if (cb != null && cb.getId() != null && !isComplete(cb)) incomplete.putIfAbsent(cb.getId(), cb);
         }
+        if (incomplete.isEmpty()) return;
+        java.util.function.Consumer<Card> toView = dispatcher().batching(cards -> {
+            if (view == null || generation != displayGeneration.get()) return;
+            List<CardBean> updated = new ArrayList<>(cards.size());
+            for (Card card : cards) updated.add(withListingData(card.toBean(), incomplete.get(card.getId())));
+            view.updateCards(updated);
+        });
+        new CardHydrator(cardProvider, cardDetailCache).hydrate(incomplete.keySet(), toView)
+                .thenAccept(cards -> LOGGER.log(java.util.logging.Level.FINE, "Hydrated {0}/{1} marketplace cards",
+                        new Object[]{cards.size(), incomplete.size()}));
     }
 
-    private Map<String, String> getTradableIdToOwnerMap() {
-        List<model.domain.Binder> otherBinders = binderDao.getBindersExcludingOwner(username);
-        return collectIdToOwnerMapFromBinders(otherBinders);
+    private void displayCards(List<CardBean> cardBeans) {
+        if (view != null) {
+            view.displayCards(cardBeans);
+        }
     }
 
-    private List<Card> searchProviderCardsByName(String name) {
-        try {
-            return cardProvider.searchCardsByName(name);
-        } catch (Exception ex) {
-            LOGGER.log(java.util.logging.Level.WARNING, "Provider search failed for name: {0} -> {1}", new Object[]{name, ex.getMessage()});
-            return Collections.emptyList();
+    private UiDispatcher dispatcher() {
+        return UiDispatcher.of(navigationController);
+    }
+
+    private void collectListings(List<model.dao.TradableCardIndex.Listing> listings,
+            Map<String, model.bean.CardBean> binderMap, Map<String, String> ownerMap) {
+        for (model.dao.TradableCardIndex.Listing listing : listings) {
+            model.bean.CardBean cb = listing.getCard();
+            cb.setQuantity(listing.getQuantity());
+            binderMap.putIfAbsent(cb.getId(), cb);
+            ownerMap.putIfAbsent(cb.getId(), listing.getOwner());
         }
     }
 
     
     public void searchCardsByName(String name) {
-        
+        long generation = displayGeneration.incrementAndGet();
         if (name == null || name.trim().isEmpty()) {
             LOGGER.log(java.util.logging.Level.INFO, "Empty search query");
             if (view != null) view.displayCards(java.util.Collections.emptyList());
             return;
         }
 
-        List<CardBean> cardBeans = performSearchByName(name);
-        if (view != null) {
-            view.displayCards(cardBeans);
-        }
+        // performSearchByName gestisce già i propri errori restituendo una lista vuota
+        dispatcher().deliver(AsyncExecutor.supply(() -> performSearchByName(name)), beans -> displayLatest(generation, beans),
+                ex -> displayLatest(generation, java.util.Collections.emptyList()));
     }
 
+    /* La ricerca non passa dal provider né rilegge i binder: il DAO mantiene il CardNameIndex delle carte
+     * scambiabili insieme al TradableCardIndex, e i bean si costruiscono con i dati delle listing (completati solo
+     * dai dettagli già in CardDetailCache). Funziona anche con l'API irraggiungibile. */
     private List<CardBean> performSearchByName(String name) {
         try {
-            LOGGER.log(java.util.logging.Level.INFO, "Searching for cards with name: {0}", name);
+            LOGGER.log(java.util.logging.Level.FINE, "Searching for cards with name: {0}", name);
 
-            Map<String, String> idToOwner = getTradableIdToOwnerMap();
-            LOGGER.log(java.util.logging.Level.INFO, "Found {0} tradable ids among other users", idToOwner.size());
+            Map<String, CardBean> matches = new LinkedHashMap<>();
+            Map<String, String> idToOwner = new LinkedHashMap<>();
+            collectListings(binderDao.searchTradableByName(name, username, AppConfig.NAME_SEARCH_MAX_RESULTS), matches, idToOwner);
+            LOGGER.log(java.util.logging.Level.FINE, "Name index returned {0} tradable matches for {1}", new Object[]{matches.size(), name});
 
-            if (idToOwner.isEmpty()) {
-                return java.util.Collections.emptyList();
-            }
-
-            List<Card> matches = searchProviderCardsByName(name);
-            LOGGER.log(java.util.logging.Level.INFO, "Provider returned {0} matches for name {1}", new Object[]{matches.size(), name});
-
-            List<CardBean> cardBeans = buildCardBeansFromMatches(matches, idToOwner);
-            LOGGER.log(java.util.logging.Level.INFO, "Filtered and loaded {0} cards to display for search", cardBeans.size());
-            return cardBeans;
+            return buildCardBeansFromBinderMap(matches, idToOwner);
         } catch (Exception ex) {
             LOGGER.log(java.util.logging.Level.SEVERE, "Error searching cards by name ''{0}'': {1}",
                     new Object[]{name, ex.getMessage()});
@@ -193,41 +203,40 @@ public class CollectorHPController {
 
     public void loadAvailableSets() {
         LOGGER.info("loadAvailableSets() called");
+        LOGGER.info("Fetching Pokemon sets from ICardProvider...");
+        dispatcher().deliver(cardProvider.getAllSetsAsync(), this::showAvailableSets, ex -> {
+            LOGGER.log(java.util.logging.Level.SEVERE, "Error loading available sets: {0}", ex.getMessage());
+            LOGGER.log(java.util.logging.Level.SEVERE, EXCEPTION_DETAILS, ex);
+        });
+    }
 
-        try {
-            LOGGER.info("Fetching Pokemon sets from ICardProvider...");
-            Map<String, String> setsMap = cardProvider.getAllSets();
-
-            LOGGER.log(java.util.logging.Level.INFO, "Received map from ICardProvider with {0} sets",
-                    (setsMap != null ? setsMap.size() : "null"));
-
-            if (setsMap != null && !setsMap.isEmpty()) {
-                
-                int count = 0;
-                for (Map.Entry<String, String> entry : setsMap.entrySet()) {
-                    if (count < 5) {
-                        LOGGER.log(java.util.logging.Level.INFO, "Set: {0} -> {1}",
-                                new Object[] { entry.getKey(), entry.getValue() });
-                        count++;
-                    } else {
-                        break;
-                    }
-                }
-
-                LOGGER.log(java.util.logging.Level.INFO, "Total sets in map: {0}", setsMap.size());
+    private void showAvailableSets(Map<String, String> setsMap) {
+        LOGGER.log(java.util.logging.Level.INFO, "Received map from ICardProvider with {0} sets",
+                (setsMap != null ? setsMap.size() : "null"));
 
-                if (view != null) {
-                    LOGGER.info("Calling view.displayAvailableSets()");
-                    view.displayAvailableSets(setsMap);
+        if (setsMap != null && !setsMap.isEmpty()) {
+            
+            int count = 0;
+            for (Map.Entry<String, String> entry : setsMap.entrySet()) {
+                if (count < 5) {
+                    LOGGER.log(java.util.logging.Level.INFO, "Set: {0} -> {1}",
+                            new Object[] { entry.getKey(), entry.getValue() });
+                    count++;
                 } else {
-                    LOGGER.warning("View is NULL - cannot display sets!");
+                    break;
                 }
+            }
+
+            LOGGER.log(java.util.logging.Level.INFO, "Total sets in map: {0}", setsMap.size());
+
+            if (view != null) {
+                LOGGER.info("Calling view.displayAvailableSets()");
+                view.displayAvailableSets(setsMap);
             } else {
-                LOGGER.warning("Received empty or null map from ICardProvider");
+                LOGGER.warning("View is NULL - cannot display sets!");
             }
-        } catch (Exception ex) {
-            LOGGER.log(java.util.logging.Level.SEVERE, "Error loading available sets: {0}", ex.getMessage());
-            LOGGER.log(java.util.logging.Level.SEVERE, EXCEPTION_DETAILS, ex);
+        } else {
+            LOGGER.warning("Received empty or null map from ICardProvider");
         }
     }
 
@@ -238,11 +247,22 @@ public class CollectorHPController {
 
         
         if (view != null) {
+            watchProviderHealth(view);
             LOGGER.info("Loading available sets after view is set");
             loadAvailableSets();
         }
     }
 
+    // Lo stato del provider arriva al view subito e poi a ogni cambio, sul thread dell'interfaccia
+    private void watchProviderHealth(ICollectorHPView target) {
+        ApiFactory apiFactory = new ApiFactory();
+        apiFactory.setProviderHealthListener(AppConfig.POKEMON_GAME, CollectorHPController.class.getName(),
+                health -> dispatcher().post(() -> {
+                    if (view == target) target.showProviderStatus(health);
+                }));
+        target.showProviderStatus(apiFactory.getProviderHealth(AppConfig.POKEMON_GAME));
+    }
+
     public String getUsername() {
         return username;
     }
@@ -294,32 +314,36 @@ public class CollectorHPController {
 
         if (view != null) {
             
-            Card detailedCard = localCardCache.get(card.getId());
-            if (detailedCard == null) {
-                LOGGER.log(java.util.logging.Level.INFO, "Card not in local cache, fetching from API: {0}", card.getId());
-                detailedCard = cardProvider.getCardDetails(card.getId());
-                if (detailedCard != null) {
-                    localCardCache.put(detailedCard.getId(), detailedCard);
-                }
-            }
+            CompletableFuture<Card> details = AsyncExecutor.supply(() -> cardDetailCache.getOrLoad(card.getId(), id -> {
+                LOGGER.log(java.util.logging.Level.INFO, "Card not in shared cache, fetching from API: {0}", id);
+                return cardProvider.getCardDetails(id);
+            }));
+            dispatcher().deliver(details, detailedCard -> showCardOverview(card, detailedCard), ex -> {
+                LOGGER.log(java.util.logging.Level.WARNING, "Could not load detailed info for card {0}: {1}",
+                        new Object[] { card.getId(), ex.getMessage() });
+                showCardOverview(card, null);
+            });
+        }
+    }
 
-            if (detailedCard != null) {
-                CardBean detailedBean = detailedCard.toBean();
-                
-                if (card.getOwner() != null && !card.getOwner().isEmpty()) {
-                    detailedBean.setOwner(card.getOwner());
-                }
-                
+    private void showCardOverview(CardBean card, Card detailedCard) {
+        if (view == null) return;
+        if (detailedCard != null) {
+            CardBean detailedBean = detailedCard.toBean();
+            
+            if (card.getOwner() != null && !card.getOwner().isEmpty()) {
+                detailedBean.setOwner(card.getOwner());
+            }
+            
 
-                    detailedBean.setTradable(card.isTradable());
-                    detailedBean.setQuantity(card.getQuantity());
-                    detailedBean.setStatus(card.getStatus());
+                detailedBean.setTradable(card.isTradable());
+                detailedBean.setQuantity(card.getQuantity());
+                detailedBean.setStatus(card.getStatus());
 
-                view.showCardOverview(detailedBean);
-            } else {
-                LOGGER.log(java.util.logging.Level.WARNING, "Could not load detailed info for card: {0}", card.getId());
-                view.showCardOverview(card);
-            }
+            view.showCardOverview(detailedBean);
+        } else {
+            LOGGER.log(java.util.logging.Level.WARNING, "Could not load detailed info for card: {0}", card.getId());
+            view.showCardOverview(card);
         }
     }
 
@@ -338,53 +362,22 @@ public class CollectorHPController {
         System.exit(0);
     }
 
-    private void addIfTradableToMap(LinkedHashMap<String, String> result, model.bean.CardBean cb, String owner) {
-        if (cb == null) return;
-        if (!cb.isTradable()) return;
-        String id = cb.getId();
-        if (id == null) return;
-        result.putIfAbsent(id, owner);
-    }
-
-    private Map<String, String> collectIdToOwnerMapFromBinders(List<model.domain.Binder> binders) {
-        LinkedHashMap<String, String> result = new LinkedHashMap<>();
-        if (binders == null || binders.isEmpty()) return result;
-
-        for (model.domain.Binder b : binders) {
-            
-            if (b == null || b.getCards() == null || b.getCards().isEmpty()) continue;
-            List<model.bean.CardBean> cards = b.getCards();
-            String owner = b.getOwner();
-            for (model.bean.CardBean cb : cards) {
-                addIfTradableToMap(result, cb, owner);
-            }
-        }
-        return result;
+    private static boolean isComplete(CardBean binderBean) {
+        return binderBean != null && binderBean.getName() != null && binderBean.getImageUrl() != null;
     }
 
-    private CardBean buildFinalCardBean(String id, CardBean binderBean) {
+    private CardBean buildFinalCardBean(String id, CardBean binderBean, Map<String, Card> details) {
         if (id == null) return null;
 
         
-        if (binderBean != null && binderBean.getName() != null && binderBean.getImageUrl() != null) {
+        if (isComplete(binderBean)) {
             return new CardBean(binderBean); 
         }
 
         
-        Card cached = localCardCache.get(id);
-        if (cached != null) {
-            return cached.toBean();
-        }
-
-        
-        try {
-            Card detailed = cardProvider.getCardDetails(id);
-            if (detailed != null) {
-                localCardCache.put(id, detailed);
-                return detailed.toBean();
-            }
-        } catch (Exception ex) {
-            LOGGER.fine(() -> "Provider failed to fetch details for " + id + ": " + ex.getMessage());
+        Card detailed = details.get(id);
+        if (detailed != null) {
+            return detailed.toBean();
         }
 
         
@@ -397,16 +390,25 @@ public class CollectorHPController {
         return minimal;
     }
 
+    // Solo i dettagli già in CardDetailCache: quelli mancanti li recupera hydrateIncomplete dopo la visualizzazione
     private List<CardBean> buildCardBeansFromBinderMap(Map<String, CardBean> binderMap, Map<String, String> idToOwnerMap) {
-        List<CardBean> result = new ArrayList<>();
-        if (binderMap == null || binderMap.isEmpty()) return result;
+        if (binderMap == null || binderMap.isEmpty()) return new ArrayList<>();
+        Map<String, Card> details = new HashMap<>();
+        binderMap.forEach((id, binderBean) -> {
+            Card cached = id != null && !isComplete(binderBean) ? cardDetailCache.get(id) : null;
+            if (cached != null) details.put(id, cached);
+        });
+        return buildCardBeans(binderMap, idToOwnerMap, details);
+    }
 
+    private List<CardBean> buildCardBeans(Map<String, CardBean> binderMap, Map<String, String> idToOwnerMap, Map<String, Card> details) {
+        List<CardBean> result = new ArrayList<>();
         for (Map.Entry<String, CardBean> e : binderMap.entrySet()) {
             String id = e.getKey();
             CardBean binderBean = e.getValue();
             String owner = idToOwnerMap != null ? idToOwnerMap.get(id) : null;
 
-            CardBean finalBean = buildFinalCardBean(id, binderBean);
+            CardBean finalBean = buildFinalCardBean(id, binderBean, details);
             if (finalBean == null) continue;
 
             
@@ -422,23 +424,13 @@ public class CollectorHPController {
         return result;
     }
 
-    private List<CardBean> buildCardBeansFromMatches(List<Card> matches, Map<String, String> idToOwner) {
-        if (matches == null || matches.isEmpty() || idToOwner == null || idToOwner.isEmpty()) return java.util.Collections.emptyList();
-
-        return matches.stream()
-                .filter(Objects::nonNull)
-                .map(c -> {
-                    String id = c.getId();
-                    if (id == null || !idToOwner.containsKey(id)) return null;
-                    Card cached = localCardCache.get(id);
-                    Card source = java.util.Objects.requireNonNullElse(cached, c);
-                    CardBean bean = source.toBean();
-                    bean.setOwner(idToOwner.get(id));
-                    
-                    bean.setTradable(true);
-                    return bean;
-                })
-                .filter(Objects::nonNull)
-                .toList();
+    // Il dettaglio arrivato dal provider prende proprietario, quantità e stato dalla carta già mostrata
+    private static CardBean withListingData(CardBean detailed, CardBean shown) {
+        if (shown == null) return detailed;
+        detailed.setOwner(shown.getOwner());
+        detailed.setTradable(shown.isTradable());
+        detailed.setQuantity(shown.getQuantity());
+        detailed.setStatus(shown.getStatus());
+        return detailed;
     }
 }
@@ -0,0 +1,79 @@
+package controller;
+
+import config.AppConfig;
+import model.dao.HistoryCursor;
+import model.dao.Page;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/* Stato di una cronologia caricata a pagine: il cursore della pagina successiva e l'eventuale richiesta in volo.
+ * first() riparte dall'inizio e rende obsolete le risposte ancora in volo, che si completano con null e vanno
+ * ignorate; more() non fa nulla (null) se una pagina è già in caricamento o la cronologia è finita. */
+final class HistoryPager<T> {
+
+    @FunctionalInterface
+    interface Loader<T> {
+        CompletableFuture<Page<T>> load(HistoryCursor after, int limit);
+    }
+
+    private final Loader<T> loader;
+    private final int pageSize;
+
+    private HistoryCursor next;
+    private boolean exhausted = true;
+    private boolean loading;
+    private int generation;
+
+    HistoryPager(Loader<T> loader) {
+        this(loader, AppConfig.HISTORY_PAGE_SIZE);
+    }
+
+    HistoryPager(Loader<T> loader, int pageSize) {
+        this.loader = loader;
+        this.pageSize = pageSize;
+    }
+
+    synchronized CompletableFuture<Page<T>> first() {
+        generation++;
+        next = null;
+        exhausted = false;
+        loading = true;
+        return fetch(generation, null);
+    }
+
+    synchronized CompletableFuture<Page<T>> more() {
+        if (loading || exhausted) return null;
+        loading = true;
+        return fetch(generation, next);
+    }
+
+    synchronized boolean hasMore() {
+        return !exhausted;
+    }
+
+    private CompletableFuture<Page<T>> fetch(int requested, HistoryCursor after) {
+        CompletableFuture<Page<T>> pending;
+        try {
+            pending = loader.load(after, pageSize);
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        return pending.handle((page, error) -> {
+            if (!settle(requested, page, error)) return null;
+            if (error != null) throw new CompletionException(UiDispatcher.unwrap(error));
+            return page;
+        });
+    }
+
+    // Un errore lascia il cursore dov'era: la stessa pagina può essere richiesta di nuovo
+    private synchronized boolean settle(int requested, Page<T> page, Throwable error) {
+        if (requested != generation) return false;
+        loading = false;
+        if (error == null) {
+            next = page.getNextCursor();
+            exhausted = !page.hasMore();
+        }
+        return true;
+    }
+}
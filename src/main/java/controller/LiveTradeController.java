@@ -6,6 +6,7 @@ import model.bean.TradeTransactionBean;
 import model.bean.UserBean;
 import model.dao.IBinderDao;
 import model.dao.ITradeDao;
+import model.dao.Page;
 import model.domain.Card;
 import model.domain.TradeTransaction;
 import view.ICollectorTradeView;
@@ -13,6 +14,7 @@ import view.ICollectorTradeView;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
@@ -25,10 +27,16 @@ public class LiveTradeController {
     private final ApplicationController navigationController;
     private view.ICollectorTradeView view;
     private view.IStoreTradeView storeView;
+    private final HistoryPager<TradeTransaction> collectorHistory;
+    private final HistoryPager<TradeTransaction> storeHistory;
 
     public LiveTradeController(String username, ApplicationController navigationController) {
         this.username = username;
         this.navigationController = navigationController;
+        this.collectorHistory = new HistoryPager<>((after, limit) ->
+                navigationController.getTradeDao().getUserCompletedTradesPageAsync(username, after, limit));
+        this.storeHistory = new HistoryPager<>((after, limit) ->
+                navigationController.getTradeDao().getStoreCompletedTradesPageAsync(username, after, limit));
     }
 
     public void setView(ICollectorTradeView view) {
@@ -47,7 +55,7 @@ public class LiveTradeController {
     }
 
     
-    public boolean verifySessionCode(int transactionId, int sessionCode) {
+    public boolean verifySessionCode(long transactionId, int sessionCode) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -64,7 +72,7 @@ public class LiveTradeController {
         }
     }
 
-    private void notifyTradeStatusViews(TradeTransaction tx, int transactionId) {
+    private void notifyTradeStatusViews(TradeTransaction tx, long transactionId) {
         try {
             refreshTradeStatus(transactionId);
             if (tx.getTradeStatus() == model.domain.enumerations.TradeStatus.INSPECTION_PHASE) {
@@ -84,7 +92,7 @@ public class LiveTradeController {
     }
 
     
-    public TradeTransactionBean refreshTradeStatus(int transactionId) {
+    public TradeTransactionBean refreshTradeStatus(long transactionId) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -141,31 +149,60 @@ public class LiveTradeController {
     public void loadScheduledTrades() {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
-            List<TradeTransaction> list;
+            CompletableFuture<List<TradeTransaction>> list;
             if (storeView != null) {
-                list = tradeDao.getStoreTradeScheduledTransactions(username, null);
+                list = tradeDao.getStoreTradeScheduledTransactionsAsync(username, null);
             } else {
-                list = tradeDao.getUserTradeTransactions(username);
-            }
-            List<TradeTransactionBean> beans = new ArrayList<>();
-            for (TradeTransaction t : list) {
-                beans.add(toBean(t));
-            }
-            if (storeView != null) {
-                LOGGER.info(() -> "loadScheduledTrades: dispatching " + beans.size() + " trades to store view");
-                beans.stream().findFirst().ifPresent(first -> LOGGER.fine(() -> "First trade bean: id=" + first.getTransactionId() + " proposer=" + first.getProposerId() + " receiver=" + first.getReceiverId()));
-                storeView.displayScheduledTrades(beans);
-            } else if (view != null) {
-                LOGGER.info(() -> "loadScheduledTrades: dispatching " + beans.size() + " trades to collector view");
-                view.displayScheduledTrades(beans);
-                
-                safeLoadCollectorCompletedTrades();
+                list = tradeDao.getUserTradeTransactionsAsync(username);
             }
+            deliverBeans(list, this::showScheduledTrades, "loadScheduledTrades");
         } catch (Exception ex) {
             LOGGER.fine(() -> "loadScheduledTrades failed: " + ex.getMessage());
         }
     }
 
+    private void showScheduledTrades(List<TradeTransactionBean> beans) {
+        if (storeView != null) {
+            LOGGER.info(() -> "loadScheduledTrades: dispatching " + beans.size() + " trades to store view");
+            beans.stream().findFirst().ifPresent(first -> LOGGER.fine(() -> "First trade bean: id=" + first.getTransactionId() + " proposer=" + first.getProposerId() + " receiver=" + first.getReceiverId()));
+            storeView.displayScheduledTrades(beans);
+        } else if (view != null) {
+            LOGGER.info(() -> "loadScheduledTrades: dispatching " + beans.size() + " trades to collector view");
+            view.displayScheduledTrades(beans);
+            
+            safeLoadCollectorCompletedTrades();
+        }
+    }
+
+    // Le transazioni arrivano dal DAO in background; i bean vengono consegnati al view sul thread dell'interfaccia
+    private void deliverBeans(CompletableFuture<List<TradeTransaction>> trades,
+                              java.util.function.Consumer<List<TradeTransactionBean>> onLoaded, String operation) {
+        dispatcher().deliver(trades.thenApply(this::toBeans), onLoaded,
+                ex -> LOGGER.fine(() -> operation + " failed: " + ex.getMessage()));
+    }
+
+    // Una pagina null è la risposta di una sequenza ormai sostituita da un nuovo caricamento: non va mostrata
+    private void deliverPage(CompletableFuture<Page<TradeTransaction>> page,
+                             java.util.function.Consumer<List<TradeTransactionBean>> onLoaded, String operation) {
+        if (page == null) return;
+        dispatcher().deliver(page.thenApply(p -> p != null ? toBeans(p.getItems()) : null), beans -> {
+            if (beans != null) onLoaded.accept(beans);
+        }, ex -> LOGGER.fine(() -> operation + " failed: " + ex.getMessage()));
+    }
+
+    private List<TradeTransactionBean> toBeans(List<TradeTransaction> trades) {
+        List<TradeTransactionBean> beans = new ArrayList<>();
+        if (trades == null) return beans;
+        for (TradeTransaction t : trades) {
+            beans.add(toBean(t));
+        }
+        return beans;
+    }
+
+    private UiDispatcher dispatcher() {
+        return UiDispatcher.of(navigationController);
+    }
+
     
     private void safeLoadCollectorCompletedTrades() {
         try {
@@ -257,7 +294,7 @@ public class LiveTradeController {
         }
     }
 
-    public int confirmPresence(int transactionId) {
+    public int confirmPresence(long transactionId) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -321,7 +358,7 @@ public class LiveTradeController {
     }
 
     
-    public boolean recordInspectionResult(int transactionId, String collectorId, boolean ok) {
+    public boolean recordInspectionResult(long transactionId, String collectorId, boolean ok) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -354,12 +391,12 @@ public class LiveTradeController {
         }
     }
 
-    public boolean failInspection(int transactionId, String collectorId) {
+    public boolean failInspection(long transactionId, String collectorId) {
         return recordInspectionResult(transactionId, collectorId, false);
     }
 
     
-    public boolean markInspectionPassed(int transactionId) {
+    public boolean markInspectionPassed(long transactionId) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -411,7 +448,7 @@ public class LiveTradeController {
     }
 
     
-    public boolean concludeTrade(int transactionId) {
+    public boolean concludeTrade(long transactionId) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
@@ -458,14 +495,11 @@ public class LiveTradeController {
     public void loadStoreScheduledTrades() {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
-            List<TradeTransaction> list = tradeDao.getStoreTradeScheduledTransactions(username, null);
-            List<TradeTransactionBean> beans = new ArrayList<>();
-            for (TradeTransaction t : list) {
-                beans.add(toBean(t));
-            }
-            if (storeView != null) {
-                storeView.displayScheduledTrades(beans);
-            }
+            deliverBeans(tradeDao.getStoreTradeScheduledTransactionsAsync(username, null), beans -> {
+                if (storeView != null) {
+                    storeView.displayScheduledTrades(beans);
+                }
+            }, "loadStoreScheduledTrades");
         } catch (Exception ex) {
             LOGGER.fine(() -> "loadStoreScheduledTrades failed: " + ex.getMessage());
         }
@@ -475,14 +509,11 @@ public class LiveTradeController {
     public void loadStoreInProgressTrades() {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
-            List<TradeTransaction> list = tradeDao.getStoreTradeInProgressTransactions(username);
-            List<TradeTransactionBean> beans = new ArrayList<>();
-            for (TradeTransaction t : list) {
-                beans.add(toBean(t));
-            }
-            if (storeView != null) {
-                storeView.displayInProgressTrades(beans); 
-            }
+            deliverBeans(tradeDao.getStoreTradeInProgressTransactionsAsync(username), beans -> {
+                if (storeView != null) {
+                    storeView.displayInProgressTrades(beans); 
+                }
+            }, "loadStoreInProgressTrades");
         } catch (Exception ex) {
             LOGGER.fine(() -> "loadStoreInProgressTrades failed: " + ex.getMessage());
         }
@@ -491,24 +522,33 @@ public class LiveTradeController {
     
     public void loadCollectorCompletedTrades() {
         try {
-            ITradeDao tradeDao = navigationController.getTradeDao();
-            List<TradeTransaction> all = tradeDao.getUserCompletedTrades(username);
-            
-            logCompletedTradesDiagnostic(all);
-            List<TradeTransactionBean> completed = new ArrayList<>();
-            if (all != null) {
-                for (TradeTransaction t : all) {
-                    completed.add(toBean(t));
+            CompletableFuture<Page<TradeTransaction>> first = collectorHistory.first()
+                    .thenApply(page -> {
+                        
+                        if (page != null) logCompletedTradesDiagnostic(page.getItems());
+                        return page;
+                    });
+            deliverPage(first, completed -> {
+                if (view != null) {
+                    view.displayCompletedTrades(completed);
                 }
-            }
-            if (view != null) {
-                view.displayCompletedTrades(completed);
-            }
+            }, "loadCollectorCompletedTrades");
          } catch (Exception ex) {
              LOGGER.warning(() -> "loadCollectorCompletedTrades failed: " + ex.getMessage());
          }
      }
 
+    // Pagina successiva della cronologia, richiesta dal view quando l'utente arriva in fondo alla lista
+    public void loadMoreCollectorCompletedTrades() {
+        deliverPage(collectorHistory.more(), more -> {
+            if (view != null) view.appendCompletedTrades(more);
+        }, "loadMoreCollectorCompletedTrades");
+    }
+
+    public boolean hasMoreCollectorCompletedTrades() {
+        return collectorHistory.hasMore();
+    }
+
     
     private void logCompletedTradesDiagnostic(List<TradeTransaction> all) {
         try {
@@ -526,19 +566,26 @@ public class LiveTradeController {
     
     public void loadStoreCompletedTrades() {
         try {
-            ITradeDao tradeDao = navigationController.getTradeDao();
-            List<TradeTransaction> all = tradeDao.getStoreCompletedTrades(username);
-            if (all == null) all = new ArrayList<>();
-            List<TradeTransactionBean> completed = new ArrayList<>();
-            for (TradeTransaction t : all) completed.add(toBean(t));
-            if (storeView != null) storeView.displayCompletedTrades(completed);
+            deliverPage(storeHistory.first(), completed -> {
+                if (storeView != null) storeView.displayCompletedTrades(completed);
+            }, "loadStoreCompletedTrades");
         } catch (Exception ex) {
             LOGGER.fine(() -> "loadStoreCompletedTrades failed: " + ex.getMessage());
         }
     }
 
+    public void loadMoreStoreCompletedTrades() {
+        deliverPage(storeHistory.more(), more -> {
+            if (storeView != null) storeView.appendCompletedTrades(more);
+        }, "loadMoreStoreCompletedTrades");
+    }
+
+    public boolean hasMoreStoreCompletedTrades() {
+        return storeHistory.hasMore();
+    }
+
     
-    public boolean cancelTrade(int transactionId) {
+    public boolean cancelTrade(long transactionId) {
         try {
             ITradeDao tradeDao = navigationController.getTradeDao();
             TradeTransaction tx = tradeDao.getTradeTransactionById(transactionId);
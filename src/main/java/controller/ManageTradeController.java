@@ -3,6 +3,7 @@ package controller;
 import model.bean.CardBean;
 import model.bean.ProposalBean;
 import model.dao.ITradeDao;
+import model.dao.Page;
 import model.domain.Card;
 import model.domain.Proposal;
 import model.domain.TradeTransaction;
@@ -14,6 +15,7 @@ import view.IManageTradeView;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,11 +26,15 @@ public class ManageTradeController {
     private final model.dao.IProposalDao proposalDao;
     private final ApplicationController navigationController;
     private IManageTradeView view;
+    private final HistoryPager<Proposal> completedHistory;
 
     public ManageTradeController(String username, ApplicationController navigationController) {
         this.username = username;
         this.navigationController = navigationController;
         this.proposalDao = navigationController != null ? navigationController.getProposalDao() : null;
+        this.completedHistory = new HistoryPager<>((after, limit) -> proposalDao != null
+                ? proposalDao.getCompletedProposalsPageAsync(username, after, limit)
+                : CompletableFuture.completedFuture(Page.empty()));
     }
 
 
@@ -36,33 +42,51 @@ public class ManageTradeController {
         if (view == null)
             return;
 
-        List<ProposalBean> pending = new ArrayList<>();
-        List<ProposalBean> concluded = new ArrayList<>();
-
-        try {
+        // Le proposte in attesa e la prima pagina di quelle concluse vengono lette in parallelo; un errore produce
+        // comunque una visualizzazione (vuota)
+        CompletableFuture<List<Proposal>> pendingProposals = proposalDao != null ? proposalDao.getPendingProposalsAsync(username)
+                : CompletableFuture.completedFuture(List.of());
+        CompletableFuture<Page<Proposal>> completedProposals = completedHistory.first();
+
+        dispatcher().deliver(pendingProposals.thenCombine(completedProposals,
+                (pendingList, completedPage) -> completedPage != null
+                        ? java.util.Map.entry(toBeans(pendingList), toBeans(completedPage.getItems())) : null),
+                beans -> {
+                    if (beans != null) view.displayTrades(beans.getKey(), beans.getValue());
+                }, ex -> {
+            LOGGER.log(Level.WARNING, "Error loading user trade transactions: {0}", ex.getMessage());
+            LOGGER.log(Level.FINE, "Stacktrace", ex);
+            view.displayTrades(new ArrayList<>(), new ArrayList<>());
+        });
+    }
 
-            List<Proposal> pendingProposals = proposalDao != null ? proposalDao.getPendingProposals(username) : List.of();
-            List<Proposal> completedProposals = proposalDao != null ? proposalDao.getCompletedProposals(username) : List.of();
+    // Pagina successiva delle proposte concluse, richiesta dal view quando l'utente scorre fino in fondo
+    public void loadMoreCompletedProposals(IManageTradeView view) {
+        if (view == null) return;
+        CompletableFuture<Page<Proposal>> more = completedHistory.more();
+        if (more == null) return;
+        dispatcher().deliver(more.thenApply(page -> page != null ? toBeans(page.getItems()) : null), beans -> {
+            if (beans != null) view.appendCompletedProposals(beans);
+        }, ex -> LOGGER.log(Level.WARNING, "Error loading more completed proposals: {0}", ex.getMessage()));
+    }
 
+    public boolean hasMoreCompletedProposals() {
+        return completedHistory.hasMore();
+    }
 
-            for (Proposal p : pendingProposals) {
-                if (p == null) continue;
-                pending.add(toBean(p));
-            }
-            for (Proposal p : completedProposals) {
-                if (p == null) continue;
-                concluded.add(toBean(p));
-            }
-        } catch (Exception ex) {
-            LOGGER.log(Level.WARNING, "Error loading user trade transactions: {0}", ex.getMessage());
-            LOGGER.log(Level.FINE, "Stacktrace", ex);
+    private List<ProposalBean> toBeans(List<Proposal> proposals) {
+        List<ProposalBean> beans = new ArrayList<>();
+        for (Proposal p : proposals) {
+            if (p == null) continue;
+            beans.add(toBean(p));
         }
+        return beans;
+    }
 
-
-        view.displayTrades(pending, concluded);
+    private UiDispatcher dispatcher() {
+        return UiDispatcher.of(navigationController);
     }
 
-    
     public boolean acceptProposal(String proposalId) {
         return updateProposalStatus(proposalId, ProposalStatus.ACCEPTED);
     }
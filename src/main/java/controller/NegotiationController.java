@@ -41,26 +41,28 @@ public class NegotiationController {
             view.registerOnCardUnproposed(this::onCardUnproposed);
             view.registerOnConfirmRequested(this::onConfirmRequested);
 
-            
-            try {
-                IUserDao userDao = navigationController.getUserDao();
-                List<String> stores = new ArrayList<>();
-                for (String username : userDao.findAllUsernames()) {
-                    model.domain.User u = userDao.findByName(username).orElse(null);
-                    if (u != null && config.AppConfig.USER_TYPE_STORE.equals(u.getUserType())) {
-                        stores.add(u.getName());
-                    }
-                }
-                view.showAvailableStores(stores);
-                
-                view.setMeetingDateHint(LocalDate.now().plusDays(1).toString());
-            } catch (Exception ex) {
-                
-                LOGGER.fine(() -> "Failed to load stores for negotiation view: " + ex.getMessage());
-            }
+            view.setMeetingDateHint(LocalDate.now().plusDays(1).toString());
+            loadAvailableStores();
         }
     }
 
+    // Il DAO utenti legge da file o database: la lista dei negozi arriva al view senza bloccare il thread della UI
+    private void loadAvailableStores() {
+        if (navigationController == null) return;
+        IUserDao userDao = navigationController.getUserDao();
+        dispatcher().deliver(userDao.findByUserTypeAsync(config.AppConfig.USER_TYPE_STORE), users -> {
+            List<String> stores = new ArrayList<>(users.size());
+            for (model.domain.User u : users) {
+                stores.add(u.getName());
+            }
+            if (view != null) view.showAvailableStores(stores);
+        }, ex -> LOGGER.fine(() -> "Failed to load stores for negotiation view: " + ex.getMessage()));
+    }
+
+    private UiDispatcher dispatcher() {
+        return UiDispatcher.of(navigationController);
+    }
+
     public String getProposerUsername() { return proposerUsername; }
     public String getTargetOwnerUsername() { return targetOwnerUsername; }
 
@@ -59,7 +59,9 @@ public class StoreHPController {
     public void loadCompletedTrades() {
         try {
             model.dao.ITradeDao tradeDao = navigationController.getTradeDao();
-             java.util.List<model.domain.TradeTransaction> list = tradeDao.getStoreCompletedTrades(username);
+             // In homepage solo gli scambi più recenti; la cronologia completa si scorre a pagine nella vista dedicata
+             java.util.List<model.domain.TradeTransaction> list = tradeDao.getStoreCompletedTradesPage(username, null,
+                     config.AppConfig.HISTORY_PAGE_SIZE).getItems();
              java.util.List<model.bean.TradeTransactionBean> beans = new java.util.ArrayList<>();
              if (list != null) {
                  for (model.domain.TradeTransaction t : list) {
@@ -0,0 +1,105 @@
+package controller;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/* Consegna ai view il risultato di un'operazione asincrona. In JavaFX il lavoro resta sul virtual thread e le
+ * callback girano sul thread FX tramite Platform.runLater; in CLI il chiamante attende il risultato e le callback
+ * girano subito sul suo thread, così l'output non si mescola con i prompt successivi. */
+public abstract class UiDispatcher {
+
+    private static final UiDispatcher SYNCHRONOUS = new UiDispatcher() {
+        @Override
+        public <T> void deliver(CompletableFuture<T> task, Consumer<? super T> onSuccess, Consumer<? super Throwable> onFailure) {
+            T result;
+            try {
+                result = task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onFailure.accept(e);
+                return;
+            } catch (ExecutionException e) {
+                onFailure.accept(unwrap(e));
+                return;
+            }
+            onSuccess.accept(result);
+        }
+
+        @Override
+        public void post(Runnable action) {
+            action.run();
+        }
+    };
+
+    private static final UiDispatcher JAVAFX = new UiDispatcher() {
+        @Override
+        public <T> void deliver(CompletableFuture<T> task, Consumer<? super T> onSuccess, Consumer<? super Throwable> onFailure) {
+            task.whenComplete((result, error) -> Platform.runLater(() -> {
+                if (error != null) onFailure.accept(unwrap(error));
+                else onSuccess.accept(result);
+            }));
+        }
+
+        @Override
+        public void post(Runnable action) {
+            Platform.runLater(action);
+        }
+    };
+
+    public static UiDispatcher synchronous() {
+        return SYNCHRONOUS;
+    }
+
+    public static UiDispatcher javaFx() {
+        return JAVAFX;
+    }
+
+    // Senza ApplicationController (es. nei test) i risultati vengono consegnati in modo sincrono
+    static UiDispatcher of(ApplicationController app) {
+        UiDispatcher dispatcher = app != null ? app.getUiDispatcher() : null;
+        return dispatcher != null ? dispatcher : SYNCHRONOUS;
+    }
+
+    public abstract <T> void deliver(CompletableFuture<T> task, Consumer<? super T> onSuccess,
+                                     Consumer<? super Throwable> onFailure);
+
+    // Esegue un'azione sul thread dell'interfaccia; in CLI subito, sul thread che la chiama
+    public abstract void post(Runnable action);
+
+    /* Consumer thread-safe per risultati che arrivano uno alla volta da più thread: gli elementi si accodano e
+     * l'interfaccia li riceve a blocchi, con una sola post per tutti quelli arrivati prima che venga eseguita. */
+    public <T> Consumer<T> batching(Consumer<List<T>> onBatch) {
+        ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+        AtomicBoolean scheduled = new AtomicBoolean();
+        return item -> {
+            queue.add(item);
+            if (!scheduled.compareAndSet(false, true)) return;
+            post(() -> {
+                scheduled.set(false);
+                List<T> batch = new ArrayList<>();
+                for (T next = queue.poll(); next != null; next = queue.poll()) batch.add(next);
+                if (batch.isEmpty()) return;
+                // In modo sincrono la post gira sui thread dei produttori: i blocchi non devono sovrapporsi
+                synchronized (queue) {
+                    onBatch.accept(batch);
+                }
+            });
+        };
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
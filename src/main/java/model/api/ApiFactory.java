@@ -1,13 +1,82 @@
 package model.api;
 
+import config.ApiConfig;
 import config.AppConfig;
+import config.HostRateLimiter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ApiFactory {
+    private static final Logger LOGGER = Logger.getLogger(ApiFactory.class.getName());
+
+    // Un provider per gioco condiviso da tutti i controller, così la cache e le sue statistiche restano uniche
+    private static final Map<String, ICardProvider> PROVIDERS = new ConcurrentHashMap<>();
+    private static final Map<String, CircuitBreakerCardProvider> BREAKERS = new ConcurrentHashMap<>();
+
     public ICardProvider getCardProvider(String gameType) {
         if (gameType.equals(AppConfig.POKEMON_GAME)) {
-            return new PokemonCardProvider();
+            return PROVIDERS.computeIfAbsent(gameType, _ -> createPokemonProvider());
         } else {
             return null;
         }
     }
+
+    // Stato del provider di rete del gioco; ONLINE per un gioco senza provider
+    public ProviderHealth getProviderHealth(String gameType) {
+        getCardProvider(gameType);
+        CircuitBreakerCardProvider breaker = BREAKERS.get(gameType);
+        return breaker != null ? breaker.getHealth() : ProviderHealth.ONLINE;
+    }
+
+    // Notifica i cambi di stato del provider (da un thread di background); la chiave identifica chi osserva
+    public void setProviderHealthListener(String gameType, String key, Consumer<ProviderHealth> listener) {
+        getCardProvider(gameType);
+        CircuitBreakerCardProvider breaker = BREAKERS.get(gameType);
+        if (breaker != null) breaker.setHealthListener(key, listener);
+    }
+
+    private ICardProvider createPokemonProvider() {
+        String providerType = System.getProperty(ApiConfig.PROVIDER_PROPERTY, ApiConfig.PROVIDER_HTTP);
+        CatalogSnapshot snapshot = openCatalogSnapshot();
+        // Con il catalogo locale e la modalità "snapshot" l'app non fa chiamate all'API
+        boolean offlineOnly = snapshot != null && ApiConfig.PROVIDER_SNAPSHOT.equalsIgnoreCase(providerType);
+        ICardProvider provider = offlineOnly ? null : createNetworkProvider(providerType);
+        if (snapshot != null) provider = new SnapshotCardProvider(snapshot, provider);
+        // Il single-flight sta all'esterno: richieste concorrenti a freddo arrivano a cache e rete una sola volta
+        return new CoalescingCardProvider(provider);
+    }
+
+    private ICardProvider createNetworkProvider(String providerType) {
+        ICardProvider provider = ApiConfig.PROVIDER_SDK.equalsIgnoreCase(providerType)
+                ? new PokemonCardProvider()
+                : new HttpCardProvider();
+        // Il limite dell'host vale solo per le richieste che arrivano davvero alla rete
+        provider = new RateLimitedCardProvider(provider, HostRateLimiter.forHost(ApiConfig.TCGDEX_HOST));
+        // Il breaker sta sotto la cache: a circuito aperto le richieste falliscono subito e si servono le copie su disco
+        CircuitBreakerCardProvider breaker = new CircuitBreakerCardProvider(provider);
+        BREAKERS.put(AppConfig.POKEMON_GAME, breaker);
+        provider = breaker;
+        if (ApiConfig.DISK_CACHE_ENABLED) provider = new CachingCardProvider(provider);
+        return provider;
+    }
+
+    private static CatalogSnapshot openCatalogSnapshot() {
+        Path file = Path.of(ApiConfig.CATALOG_SNAPSHOT_FILE);
+        if (!Files.exists(file)) return null;
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+            LOGGER.info(() -> "Using local card catalog with " + snapshot.getCardCount() + " cards");
+            return snapshot;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable card catalog {0}: {1}", new Object[] { file, e.getMessage() });
+            return null;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package model.api;
+
+/* Fotografia immutabile dei contatori di una cache, pensata per log e diagnostica. */
+public final class CacheStats {
+    private final long hits;
+    private final long staleHits;
+    private final long misses;
+    private final long loadFailures;
+    private final long evictions;
+
+    public CacheStats(long hits, long staleHits, long misses, long loadFailures, long evictions) {
+        this.hits = hits;
+        this.staleHits = staleHits;
+        this.misses = misses;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getRequestCount() {
+        return hits + staleHits + misses;
+    }
+
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 0.0 : (double) (hits + staleHits) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d stale=%d misses=%d failures=%d evictions=%d hitRate=%.1f%%",
+                hits, staleHits, misses, loadFailures, evictions, getHitRate() * 100);
+    }
+}
@@ -0,0 +1,167 @@
+package model.api;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import config.ApiConfig;
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.PokemonCard;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Decoratore cache-through di un ICardProvider: le risposte vengono conservate su disco con un TTL per tipo
+ * (i dettagli delle carte nel formato binario di PokemonCardCodec, il resto in JSON).
+ * Una voce scaduta ma entro MAX_STALE viene restituita subito mentre un thread in background la riconvalida;
+ * se il provider non risponde si serve comunque l'ultima copia disponibile. */
+public class CachingCardProvider implements ICardProvider {
+    private static final Logger LOGGER = Logger.getLogger(CachingCardProvider.class.getName());
+
+    private static final String SETS = "sets";
+    private static final String SET_CARDS = "set";
+    private static final String CARD_DETAILS = "card";
+    private static final String SEARCH = "search";
+    private static final String ALL_SETS_KEY = "all";
+
+    private static final Type CARD_LIST_TYPE = new TypeToken<List<Card>>() {
+    }.getType();
+    private static final Type SET_MAP_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
+    private static final ExecutorService REVALIDATOR = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "card-cache-revalidate");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ICardProvider delegate;
+    private final DiskResponseCache store;
+    private final LongSupplier clock;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+
+    public CachingCardProvider(ICardProvider delegate) {
+        this(delegate, Path.of(ApiConfig.CACHE_DIR));
+    }
+
+    public CachingCardProvider(ICardProvider delegate, Path cacheDir) {
+        this(delegate, cacheDir, System::currentTimeMillis);
+    }
+
+    CachingCardProvider(ICardProvider delegate, Path cacheDir, LongSupplier clock) {
+        this.delegate = delegate;
+        this.store = new DiskResponseCache(cacheDir, new Gson());
+        this.clock = clock;
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        return cached(SET_CARDS, setId, CARD_LIST_TYPE, ApiConfig.SET_CARDS_TTL_SECONDS, () -> delegate.searchSet(setId));
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        String key = cardName == null ? "" : cardName.trim().toLowerCase(Locale.ROOT);
+        return cached(SEARCH, key, CARD_LIST_TYPE, ApiConfig.SEARCH_TTL_SECONDS, () -> delegate.searchCardsByName(cardName));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        Card card = cached(CARD_DETAILS, cardId, PokemonCard.class, ApiConfig.CARD_DETAILS_TTL_SECONDS,
+                () -> delegate.getCardDetails(cardId));
+        return (T) card;
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        return cached(SETS, ALL_SETS_KEY, SET_MAP_TYPE, ApiConfig.SETS_TTL_SECONDS, delegate::getAllSets);
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.get(), staleHits.get(), misses.get(), loadFailures.get(), 0);
+    }
+
+    private <T> T cached(String namespace, String key, Type type, long ttlSeconds, Supplier<T> loader) {
+        long now = clock.getAsLong();
+        DiskResponseCache.Entry<T> entry = key != null ? readEntry(namespace, key, type) : null;
+        if (entry != null) {
+            long age = now - entry.storedAtMillis;
+            if (age <= ttlSeconds * 1000) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (age <= ApiConfig.MAX_STALE_SECONDS * 1000) {
+                staleHits.incrementAndGet();
+                revalidateAsync(namespace, key, type, loader);
+                return entry.value;
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            T value = loader.get();
+            storeIfUseful(namespace, key, type, value);
+            return value;
+        } catch (ConnectionException ex) {
+            loadFailures.incrementAndGet();
+            if (entry == null) throw ex;
+            LOGGER.log(Level.FINE, "Provider unavailable, serving expired cache entry {0}/{1}", new Object[] { namespace, key });
+            return entry.value;
+        }
+    }
+
+    private <T> void revalidateAsync(String namespace, String key, Type type, Supplier<T> loader) {
+        String token = namespace + "/" + key;
+        if (!revalidating.add(token)) return;
+        REVALIDATOR.execute(() -> {
+            try {
+                storeIfUseful(namespace, key, type, loader.get());
+                LOGGER.fine(() -> "Revalidated cache entry " + token);
+            } catch (RuntimeException ex) {
+                loadFailures.incrementAndGet();
+                LOGGER.log(Level.FINE, "Background revalidation failed for " + token, ex);
+            } finally {
+                revalidating.remove(token);
+            }
+        });
+    }
+
+    // Risultati vuoti non vengono salvati: il provider li restituisce anche su errori transitori
+    private <T> void storeIfUseful(String namespace, String key, Type type, T value) {
+        if (key == null || value == null) return;
+        if (type instanceof Class<?> expected && !expected.isInstance(value)) return;
+        if (value instanceof Collection<?> c && c.isEmpty()) return;
+        if (value instanceof Map<?, ?> m && m.isEmpty()) return;
+        if (value instanceof PokemonCard card) {
+            store.writeBinary(namespace, key, PokemonCardCodec.encode(card), clock.getAsLong());
+        } else {
+            store.write(namespace, key, value, type, clock.getAsLong());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> DiskResponseCache.Entry<T> readEntry(String namespace, String key, Type type) {
+        if (type == PokemonCard.class) {
+            return (DiskResponseCache.Entry<T>) store.readBinary(namespace, key, PokemonCardCodec::decode);
+        }
+        return store.read(namespace, key, type);
+    }
+}
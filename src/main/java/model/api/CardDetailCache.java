@@ -0,0 +1,137 @@
+package model.api;
+
+import config.ApiConfig;
+import model.domain.Card;
+import model.domain.PokemonCard;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/* Cache in memoria dei dettagli carta condivisa da tutti i controller: LRU limitata sia nel numero di voci sia
+ * nel peso stimato (byte approssimativi), thread-safe per i caricamenti in background. */
+public class CardDetailCache {
+
+    private static final int BASE_WEIGHT = 256;
+    private static final int ATTACK_WEIGHT = 96;
+    private static final int WEAKNESS_WEIGHT = 32;
+
+    private static final class Node {
+        final Card card;
+        final int weight;
+
+        Node(Card card, int weight) {
+            this.card = card;
+            this.weight = weight;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<String, Node> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentWeight;
+
+    private long hits;
+    private long misses;
+    private long loadFailures;
+    private long evictions;
+
+    public CardDetailCache() {
+        this(ApiConfig.DETAIL_CACHE_MAX_ENTRIES, ApiConfig.DETAIL_CACHE_MAX_WEIGHT);
+    }
+
+    public CardDetailCache(int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) throw new IllegalArgumentException("Cache bounds must be positive");
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    public synchronized Card get(String cardId) {
+        Node node = cardId != null ? entries.get(cardId) : null;
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return node.card;
+    }
+
+    public synchronized void put(Card card) {
+        if (card == null || card.getId() == null) return;
+        int weight = weigh(card);
+        if (weight > maxWeight) return;
+        Node previous = entries.put(card.getId(), new Node(card, weight));
+        if (previous != null) currentWeight -= previous.weight;
+        currentWeight += weight;
+        evictIfNeeded();
+    }
+
+    // Il caricamento avviene fuori dal lock, così una richiesta lenta al provider non blocca gli altri lettori
+    @SuppressWarnings("unchecked")
+    public <T extends Card> T getOrLoad(String cardId, Function<String, ? extends Card> loader) {
+        Card cached = get(cardId);
+        if (cached != null || cardId == null) return (T) cached;
+        Card loaded;
+        try {
+            loaded = loader.apply(cardId);
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                loadFailures++;
+            }
+            throw ex;
+        }
+        put(loaded);
+        return (T) loaded;
+    }
+
+    public synchronized void invalidate(String cardId) {
+        Node removed = entries.remove(cardId);
+        if (removed != null) currentWeight -= removed.weight;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return currentWeight;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, 0, misses, loadFailures, evictions);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Node>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentWeight > maxWeight) && eldest.hasNext()) {
+            Node node = eldest.next().getValue();
+            eldest.remove();
+            currentWeight -= node.weight;
+            evictions++;
+        }
+    }
+
+    static int weigh(Card card) {
+        int weight = BASE_WEIGHT + 2 * (length(card.getId()) + length(card.getName()) + length(card.getImageUrl()));
+        if (card instanceof PokemonCard pc) {
+            weight += 2 * (length(pc.getDescription()) + length(pc.getSetName()) + length(pc.getIllustrator()));
+            weight += ATTACK_WEIGHT * size(pc.getAttacks()) + WEAKNESS_WEIGHT * size(pc.getWeaknesses());
+        }
+        return weight;
+    }
+
+    private static int length(String s) {
+        return s != null ? s.length() : 0;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
@@ -0,0 +1,87 @@
+package model.api;
+
+import config.ApiConfig;
+import config.AsyncExecutor;
+import exception.ConnectionException;
+import model.domain.Card;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Recupero in parallelo dei dettagli di più carte: un virtual thread per carta e al massimo maxConcurrency
+ * richieste al provider in volo. Le carte già nella CardDetailCache non occupano slot; il limite di richieste al
+ * secondo dell'host lo applica RateLimitedCardProvider, solo a quelle che arrivano alla rete.
+ * Ogni dettaglio viene passato a onCard appena arriva (dal thread di background); il future si completa con
+ * tutti i dettagli trovati, nell'ordine degli id richiesti. Una carta che non si riesce a caricare viene
+ * saltata, senza interrompere le altre. */
+public class CardHydrator {
+    private static final Logger LOGGER = Logger.getLogger(CardHydrator.class.getName());
+
+    private final ICardProvider provider;
+    private final CardDetailCache cache;
+    private final Semaphore inFlight;
+
+    public CardHydrator(ICardProvider provider, CardDetailCache cache) {
+        this(provider, cache, ApiConfig.HYDRATION_MAX_CONCURRENCY);
+    }
+
+    public CardHydrator(ICardProvider provider, CardDetailCache cache, int maxConcurrency) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency);
+        this.provider = provider;
+        this.cache = cache;
+        this.inFlight = new Semaphore(maxConcurrency);
+    }
+
+    public CompletableFuture<List<Card>> hydrate(Collection<String> cardIds, Consumer<? super Card> onCard) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(cardIds));
+        ids.removeIf(Objects::isNull);
+        List<CompletableFuture<Card>> pending = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            pending.add(AsyncExecutor.supply(() -> {
+                Card card = load(id);
+                if (card != null && onCard != null) onCard.accept(card);
+                return card;
+            }).exceptionally(ex -> {
+                LOGGER.log(Level.FINE, "Could not hydrate card {0}: {1}", new Object[] { id, ex.getMessage() });
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            List<Card> cards = new ArrayList<>(pending.size());
+            for (CompletableFuture<Card> f : pending) {
+                Card card = f.join();
+                if (card != null) cards.add(card);
+            }
+            return cards;
+        });
+    }
+
+    // Variante bloccante per chi è già su un thread di background
+    public List<Card> hydrateAll(Collection<String> cardIds) {
+        return hydrate(cardIds, null).join();
+    }
+
+    private Card load(String cardId) {
+        return cache.getOrLoad(cardId, id -> {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionException("Interrupted while waiting to fetch card " + id, e);
+            }
+            try {
+                return provider.getCardDetails(id);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+}
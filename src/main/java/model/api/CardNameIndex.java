@@ -0,0 +1,175 @@
+package model.api;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/* Indice full-text locale dei nomi carta: nome normalizzato (minuscole, senza accenti e apostrofi) diviso in token,
+ * con un indice inverso ordinato token -> carte. Ogni token della query deve trovare la carta come token esatto,
+ * come prefisso (ricerca mentre si digita) o, se nessun token dell'indice combacia, con al massimo una o due
+ * correzioni. Si alimenta man mano con le carte nei binder: put sulla stessa carta con lo stesso nome non
+ * cambia nulla, un nome diverso sostituisce i token precedenti. */
+public class CardNameIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['’`]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int EXACT_SCORE = 4;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+
+    private final Map<String, String> namesById = new HashMap<>();
+    private final Map<String, Set<String>> tokensById = new HashMap<>();
+    private final NavigableMap<String, Set<String>> idsByToken = new TreeMap<>();
+
+    public synchronized void put(String cardId, String name) {
+        if (cardId == null || name == null || name.isBlank()) return;
+        if (name.equals(namesById.get(cardId))) return;
+        remove(cardId);
+        Set<String> tokens = tokensOf(name, true);
+        if (tokens.isEmpty()) return;
+        namesById.put(cardId, name);
+        tokensById.put(cardId, tokens);
+        for (String token : tokens) idsByToken.computeIfAbsent(token, _ -> new HashSet<>()).add(cardId);
+    }
+
+    public synchronized void remove(String cardId) {
+        namesById.remove(cardId);
+        Set<String> tokens = tokensById.remove(cardId);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            Set<String> ids = idsByToken.get(token);
+            if (ids == null) continue;
+            ids.remove(cardId);
+            if (ids.isEmpty()) idsByToken.remove(token);
+        }
+    }
+
+    public synchronized void clear() {
+        namesById.clear();
+        tokensById.clear();
+        idsByToken.clear();
+    }
+
+    public List<String> search(String query, int limit) {
+        return search(query, limit, _ -> true);
+    }
+
+    /* Id delle carte accettate dal filtro che corrispondono a tutti i token della query, dal punteggio più alto;
+     * a parità prima i nomi più corti, poi in ordine alfabetico. */
+    public synchronized List<String> search(String query, int limit, Predicate<String> filter) {
+        if (limit <= 0) throw new IllegalArgumentException("Search limit must be positive: " + limit);
+        Set<String> queryTokens = query != null ? tokensOf(query, false) : Set.of();
+        if (queryTokens.isEmpty()) return List.of();
+
+        Map<String, Integer> scores = null;
+        for (String token : queryTokens) {
+            Map<String, Integer> matches = match(token);
+            if (scores == null) {
+                scores = matches;
+                scores.keySet().removeIf(filter.negate());
+            } else {
+                scores.keySet().retainAll(matches.keySet());
+                for (Map.Entry<String, Integer> e : scores.entrySet()) e.setValue(e.getValue() + matches.get(e.getKey()));
+            }
+            if (scores.isEmpty()) return List.of();
+        }
+
+        Map<String, Integer> ranked = scores;
+        List<String> ids = new ArrayList<>(ranked.keySet());
+        ids.sort(Comparator.<String>comparingInt(ranked::get).reversed()
+                .thenComparingInt(id -> namesById.get(id).length())
+                .thenComparing(namesById::get)
+                .thenComparing(Comparator.naturalOrder()));
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+    }
+
+    public synchronized String nameOf(String cardId) {
+        return namesById.get(cardId);
+    }
+
+    public synchronized int size() {
+        return namesById.size();
+    }
+
+    // Miglior punteggio di ogni carta per un singolo token della query
+    private Map<String, Integer> match(String token) {
+        Map<String, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e : idsByToken.tailMap(token, true).entrySet()) {
+            if (!e.getKey().startsWith(token)) break;
+            int score = e.getKey().length() == token.length() ? EXACT_SCORE : PREFIX_SCORE;
+            for (String id : e.getValue()) scores.merge(id, score, Math::max);
+        }
+        if (!scores.isEmpty()) return scores;
+
+        int maxEdits = maxEdits(token);
+        if (maxEdits == 0) return scores;
+        for (Map.Entry<String, Set<String>> e : idsByToken.entrySet()) {
+            if (prefixDistance(token, e.getKey(), maxEdits) > maxEdits) continue;
+            for (String id : e.getValue()) scores.put(id, FUZZY_SCORE);
+        }
+        return scores;
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() < 4) return 0;
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    /* Distanza di edit (con scambio di lettere adiacenti) tra la query e il prefisso più vicino del token, così
+     * "charzard" trova anche "charizardex" mentre si digita. Si interrompe appena una riga supera il massimo. */
+    static int prefixDistance(String query, String token, int maxEdits) {
+        if (token.length() + maxEdits < query.length()) return maxEdits + 1;
+        int[] beforePrevious = new int[token.length() + 1];
+        int[] previous = new int[token.length() + 1];
+        int[] current = new int[token.length() + 1];
+        for (int j = 0; j <= token.length(); j++) previous[j] = j;
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= token.length(); j++) {
+                int cost = query.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == token.charAt(j - 2) && query.charAt(i - 2) == token.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) return maxEdits + 1;
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = previous[0];
+        for (int d : previous) best = Math.min(best, d);
+        return best;
+    }
+
+    // Token normalizzati; i nomi composti ("Ho-Oh", "Mr. Mime") vengono indicizzati anche come parola unica
+    static Set<String> tokensOf(String text, boolean withJoined) {
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        normalized = APOSTROPHES.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll("");
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder joined = new StringBuilder();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.isEmpty()) continue;
+            tokens.add(token);
+            joined.append(token);
+        }
+        if (withJoined && tokens.size() > 1) tokens.add(joined.toString());
+        return tokens;
+    }
+}
@@ -0,0 +1,371 @@
+package model.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import model.domain.PokemonCard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/* Costruisce il CatalogSnapshot a partire da un dump del catalogo TCGdex: un array JSON di set (oppure un oggetto
+ * con un campo "sets"), ciascuno con i propri metadati e l'array "cards" dei dettagli completi, nello stesso formato
+ * di /cards/{id}. Il dump può essere compresso (.gz) e viene letto in streaming, un set alla volta.
+ * In modalità incrementale il dump può contenere solo alcuni set: quelli assenti restano come sono (i loro byte
+ * vengono copiati senza ricodifica) e, se nessun set è cambiato, il file esistente non viene riscritto. */
+public final class CatalogImporter {
+    private static final Logger LOGGER = Logger.getLogger(CatalogImporter.class.getName());
+
+    public static final class Result {
+        private final int setsChanged;
+        private final int setsUnchanged;
+        private final int setsRemoved;
+        private final int cardCount;
+        private final boolean rewritten;
+
+        Result(int setsChanged, int setsUnchanged, int setsRemoved, int cardCount, boolean rewritten) {
+            this.setsChanged = setsChanged;
+            this.setsUnchanged = setsUnchanged;
+            this.setsRemoved = setsRemoved;
+            this.cardCount = cardCount;
+            this.rewritten = rewritten;
+        }
+
+        public int getSetsChanged() {
+            return setsChanged;
+        }
+
+        public int getSetsUnchanged() {
+            return setsUnchanged;
+        }
+
+        public int getSetsRemoved() {
+            return setsRemoved;
+        }
+
+        public int getCardCount() {
+            return cardCount;
+        }
+
+        public boolean isRewritten() {
+            return rewritten;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("changed=%d unchanged=%d removed=%d cards=%d rewritten=%s",
+                    setsChanged, setsUnchanged, setsRemoved, cardCount, rewritten);
+        }
+    }
+
+    private static final class IndexEntry {
+        final String cardId;
+        final long offset;
+        final int length;
+
+        IndexEntry(String cardId, long offset, int length) {
+            this.cardId = cardId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // Un set letto dal dump: metadati e blocco già codificato
+    private static final class DumpSet {
+        final String id;
+        final String name;
+        final String logo;
+        final String symbol;
+        final Integer official;
+        final Integer total;
+        final byte[] block;
+        final int cardCount;
+
+        DumpSet(String id, String name, String logo, String symbol, Integer official, Integer total, byte[] block, int cardCount) {
+            this.id = id;
+            this.name = name;
+            this.logo = logo;
+            this.symbol = symbol;
+            this.official = official;
+            this.total = total;
+            this.block = block;
+            this.cardCount = cardCount;
+        }
+    }
+
+    public Result importDump(Path dump, Path snapshotFile, boolean incremental) throws IOException {
+        CatalogSnapshot previous = openPrevious(snapshotFile);
+        Map<String, CatalogSnapshot.SetEntry> before = previous != null ? previous.setEntries() : Map.of();
+
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            List<CatalogSnapshot.SetEntry> written = new ArrayList<>();
+            List<IndexEntry> index = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            int changed = 0;
+            int unchanged = 0;
+            int removed = 0;
+            long setTableOffset;
+            long cardIndexOffset;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+                 JsonReader reader = openDump(dump)) {
+                out.write(new byte[CatalogSnapshot.HEADER_SIZE]);
+
+                boolean wrapped = beginSets(reader);
+                while (reader.hasNext()) {
+                    DumpSet set = readSet(reader);
+                    if (set == null || !seen.add(set.id)) continue;
+                    long checksum = checksum(set);
+                    CatalogSnapshot.SetEntry old = before.get(set.id);
+                    if (old != null && old.checksum == checksum) unchanged++;
+                    else changed++;
+                    written.add(new CatalogSnapshot.SetEntry(set.id, set.name, set.logo, set.symbol, set.official, set.total,
+                            out.size(), set.block.length, set.cardCount, checksum));
+                    indexBlock(set.block, out.size(), index);
+                    out.write(set.block);
+                }
+                endSets(reader, wrapped);
+
+                for (CatalogSnapshot.SetEntry old : before.values()) {
+                    if (seen.contains(old.id)) continue;
+                    if (!incremental) {
+                        removed++;
+                        continue;
+                    }
+                    byte[] block = previous.blockBytes(old);
+                    written.add(new CatalogSnapshot.SetEntry(old.id, old.name, old.logo, old.symbol, old.cardCountOfficial,
+                            old.cardCountTotal, out.size(), block.length, old.cardCount, old.checksum));
+                    indexBlock(block, out.size(), index);
+                    out.write(block);
+                }
+
+                setTableOffset = out.size();
+                PokemonCardCodec.RecordWriter table = new PokemonCardCodec.RecordWriter();
+                for (CatalogSnapshot.SetEntry entry : written) {
+                    table.string(entry.id);
+                    table.string(entry.name);
+                    table.string(entry.logo);
+                    table.string(entry.symbol);
+                    table.nullableInt(entry.cardCountOfficial);
+                    table.nullableInt(entry.cardCountTotal);
+                    table.fixedLong(entry.blockOffset);
+                    table.varint(entry.blockLength);
+                    table.varint(entry.cardCount);
+                    table.fixedLong(entry.checksum);
+                }
+                out.write(table.toByteArray());
+
+                cardIndexOffset = out.size();
+                index.sort(Comparator.comparing(e -> e.cardId));
+                String last = null;
+                for (IndexEntry entry : index) {
+                    // Una carta presente in più set viene indicizzata una volta sola
+                    if (entry.cardId.equals(last)) continue;
+                    out.writeLong(entry.offset);
+                    out.writeInt(entry.length);
+                    last = entry.cardId;
+                }
+            }
+
+            int cardCount = (int) ((Files.size(temp) - cardIndexOffset) / CatalogSnapshot.INDEX_ENTRY_SIZE);
+            if (previous != null && changed == 0 && removed == 0) {
+                LOGGER.info(() -> "Catalog snapshot already up to date: " + snapshotFile);
+                return new Result(0, unchanged, 0, previous.getCardCount(), false);
+            }
+            writeHeader(temp, written.size(), cardCount, setTableOffset, cardIndexOffset);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(snapshotFile);
+            Result result = new Result(changed, unchanged, removed, cardCount, true);
+            LOGGER.info(() -> "Catalog snapshot written to " + snapshotFile + ": " + result);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static CatalogSnapshot openPrevious(Path snapshotFile) {
+        if (!Files.exists(snapshotFile)) return null;
+        try {
+            return CatalogSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable catalog snapshot {0}: {1}", new Object[] { snapshotFile, e.getMessage() });
+            return null;
+        }
+    }
+
+    private static JsonReader openDump(Path dump) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(dump));
+        if (dump.getFileName().toString().endsWith(".gz")) in = new GZIPInputStream(in);
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static boolean beginSets(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("sets".equals(reader.nextName())) {
+                reader.beginArray();
+                return true;
+            }
+            reader.skipValue();
+        }
+        throw new IOException("Catalog dump has no \"sets\" array");
+    }
+
+    private static void endSets(JsonReader reader, boolean wrapped) throws IOException {
+        reader.endArray();
+        if (!wrapped) return;
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.skipValue();
+        }
+        reader.endObject();
+    }
+
+    private static DumpSet readSet(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String id = null;
+        String name = null;
+        String logo = null;
+        String symbol = null;
+        Integer official = null;
+        Integer total = null;
+        List<PokemonCard> cards = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = HttpCardProvider.nextString(reader);
+                case "name" -> name = HttpCardProvider.nextString(reader);
+                case "logo" -> logo = HttpCardProvider.nextString(reader);
+                case "symbol" -> symbol = HttpCardProvider.nextString(reader);
+                case "cardCount" -> {
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "official" -> official = HttpCardProvider.nextInteger(reader);
+                            case "total" -> total = HttpCardProvider.nextInteger(reader);
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                case "cards" -> readCards(reader, cards);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id == null) return null;
+
+        // Le carte vengono codificate a set chiuso: l'id del set può comparire dopo l'array delle carte
+        PokemonCardCodec.RecordWriter block = new PokemonCardCodec.RecordWriter();
+        PokemonCardCodec.RecordWriter record = new PokemonCardCodec.RecordWriter();
+        for (PokemonCard card : cards) {
+            record.reset();
+            CatalogSnapshot.encodeCard(card, id, record);
+            block.varint(record.size());
+            block.raw(record.toByteArray());
+        }
+        return new DumpSet(id, name, logo, symbol, official, total, block.toByteArray(), cards.size());
+    }
+
+    private static void readCards(JsonReader reader, List<PokemonCard> cards) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            PokemonCard card = HttpCardProvider.readCardDetails(reader);
+            if (card.getId() != null) cards.add(card);
+        }
+        reader.endArray();
+    }
+
+    // Il checksum copre metadati e blocco: un set è invariato solo se entrambi coincidono
+    private static long checksum(DumpSet set) {
+        PokemonCardCodec.RecordWriter meta = new PokemonCardCodec.RecordWriter();
+        meta.string(set.name);
+        meta.string(set.logo);
+        meta.string(set.symbol);
+        meta.nullableInt(set.official);
+        meta.nullableInt(set.total);
+        CRC32 crc = new CRC32();
+        crc.update(meta.toByteArray());
+        crc.update(set.block);
+        return crc.getValue();
+    }
+
+    private static void indexBlock(byte[] block, long blockOffset, List<IndexEntry> index) {
+        PokemonCardCodec.Cursor cursor = new PokemonCardCodec.Cursor(ByteBuffer.wrap(block), 0);
+        while (cursor.position < block.length) {
+            int length = (int) cursor.varint();
+            int start = cursor.position;
+            index.add(new IndexEntry(cursor.string(), blockOffset + start, length));
+            cursor.position = start + length;
+        }
+    }
+
+    private static void writeHeader(Path file, int setCount, int cardCount, long setTableOffset, long cardIndexOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_SIZE);
+        header.putInt(CatalogSnapshot.MAGIC)
+                .putShort(CatalogSnapshot.VERSION)
+                .putInt(setCount)
+                .putInt(cardCount)
+                .putLong(setTableOffset)
+                .putLong(cardIndexOffset)
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header, header.position());
+            // Il file deve essere su disco prima del rename, altrimenti un crash può lasciare un catalogo troncato
+            channel.force(true);
+        }
+    }
+
+    // Rende durevole anche il rename; non tutti i sistemi permettono di aprire una cartella
+    private static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException _) {
+            // best effort
+        }
+    }
+}
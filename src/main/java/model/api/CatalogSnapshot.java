@@ -0,0 +1,225 @@
+package model.api;
+
+import model.api.PokemonCardCodec.Cursor;
+import model.api.PokemonCardCodec.RecordWriter;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import model.domain.enumerations.CardGameType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/* Catalogo locale in sola lettura, mappato in memoria. Formato del file (big endian):
+ *   header: magic, versione, numero di set e di carte, offset della tabella dei set e dell'indice delle carte
+ *   blocchi: per ogni set i record delle sue carte, ciascuno preceduto dalla lunghezza (varint)
+ *   tabella dei set: id, nome, logo, simbolo, conteggi, posizione e checksum del blocco
+ *   indice delle carte: voci di lunghezza fissa (offset, lunghezza) ordinate per id, per la ricerca binaria
+ * La tabella dei set viene letta all'apertura; i record delle carte vengono decodificati solo quando servono,
+ * direttamente dalla mappa, con letture assolute (sicure tra thread). */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x43444353; // "CDCS"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 4 + 4 + 8 + 8;
+    static final int INDEX_ENTRY_SIZE = 8 + 4;
+
+    // Metadati di un set e posizione del suo blocco nel file
+    static final class SetEntry {
+        final String id;
+        final String name;
+        final String logo;
+        final String symbol;
+        final Integer cardCountOfficial;
+        final Integer cardCountTotal;
+        final long blockOffset;
+        final int blockLength;
+        final int cardCount;
+        final long checksum;
+
+        SetEntry(String id, String name, String logo, String symbol, Integer cardCountOfficial, Integer cardCountTotal,
+                 long blockOffset, int blockLength, int cardCount, long checksum) {
+            this.id = id;
+            this.name = name;
+            this.logo = logo;
+            this.symbol = symbol;
+            this.cardCountOfficial = cardCountOfficial;
+            this.cardCountTotal = cardCountTotal;
+            this.blockOffset = blockOffset;
+            this.blockLength = blockLength;
+            this.cardCount = cardCount;
+            this.checksum = checksum;
+        }
+    }
+
+    private final ByteBuffer data;
+    private final Map<String, SetEntry> sets;
+    private final int cardCount;
+    private final int cardIndexOffset;
+
+    private CatalogSnapshot(ByteBuffer data) throws IOException {
+        this.data = data;
+        int capacity = data.capacity();
+        if (capacity < HEADER_SIZE || data.getInt(0) != MAGIC) throw new IOException("Not a catalog snapshot");
+        if (data.getShort(4) != VERSION) throw new IOException("Unsupported snapshot version " + data.getShort(4));
+        int setCount = data.getInt(6);
+        this.cardCount = data.getInt(10);
+        long setTableOffset = data.getLong(14);
+        long indexOffset = data.getLong(22);
+        // Un file troncato o corrotto deve fallire qui con IOException, non più avanti con letture fuori dai limiti
+        if (setCount < 0 || cardCount < 0 || setTableOffset < HEADER_SIZE || setTableOffset > indexOffset
+                || indexOffset + (long) cardCount * INDEX_ENTRY_SIZE != capacity) {
+            throw new IOException("Corrupt catalog snapshot header");
+        }
+        this.cardIndexOffset = (int) indexOffset;
+        Map<String, SetEntry> table = new LinkedHashMap<>();
+        try {
+            Cursor cursor = new Cursor(data, (int) setTableOffset);
+            for (int i = 0; i < setCount; i++) {
+                SetEntry entry = new SetEntry(cursor.string(), cursor.string(), cursor.string(), cursor.string(),
+                        cursor.nullableInt(), cursor.nullableInt(), cursor.fixedLong(), (int) cursor.varint(),
+                        (int) cursor.varint(), cursor.fixedLong());
+                if (entry.id == null || entry.blockOffset < HEADER_SIZE || entry.blockLength < 0 || entry.cardCount < 0
+                        || entry.blockOffset + entry.blockLength > setTableOffset || cursor.position > indexOffset) {
+                    throw new IOException("Corrupt catalog snapshot set table");
+                }
+                table.put(entry.id, entry);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt catalog snapshot set table", e);
+        }
+        for (int i = 0; i < cardCount; i++) {
+            long record = data.getLong(cardIndexOffset + i * INDEX_ENTRY_SIZE);
+            int length = data.getInt(cardIndexOffset + i * INDEX_ENTRY_SIZE + 8);
+            if (record < HEADER_SIZE || length < 0 || record + length > setTableOffset) {
+                throw new IOException("Corrupt catalog snapshot card index");
+            }
+        }
+        this.sets = Collections.unmodifiableMap(table);
+    }
+
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(mapped);
+        }
+    }
+
+    /* Copia completa sullo heap, senza mappa: l'import deve poter sostituire il file appena letto, cosa che su
+     * alcuni sistemi (Windows) non è possibile finché ne esiste una mappatura. */
+    static CatalogSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Catalog snapshot too large: " + size + " bytes");
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) throw new IOException("Catalog snapshot truncated while reading");
+            }
+            return new CatalogSnapshot(buffer.clear());
+        }
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public Map<String, String> getSets() {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (SetEntry entry : sets.values()) result.put(entry.id, entry.name);
+        return result;
+    }
+
+    public boolean containsSet(String setId) {
+        return setId != null && sets.containsKey(setId);
+    }
+
+    // Carte del set in forma ridotta (id, nome, immagine); lista vuota se il set non è nel catalogo
+    public List<Card> getSetCards(String setId) {
+        SetEntry entry = setId != null ? sets.get(setId) : null;
+        if (entry == null) return new ArrayList<>();
+        List<Card> cards = new ArrayList<>(entry.cardCount);
+        Cursor cursor = new Cursor(data, (int) entry.blockOffset);
+        int end = (int) entry.blockOffset + entry.blockLength;
+        while (cursor.position < end) {
+            int length = (int) cursor.varint();
+            int next = cursor.position + length;
+            cards.add(new Card(cursor.string(), cursor.string(), cursor.string(), CardGameType.POKEMON));
+            cursor.position = next;
+        }
+        return cards;
+    }
+
+    // Dettaglio completo della carta, o null se non è nel catalogo
+    public PokemonCard getCard(String cardId) {
+        int record = findRecord(cardId);
+        return record >= 0 ? decodeCard(new Cursor(data, record)) : null;
+    }
+
+    // Stesso criterio dell'API TCGdex (il nome contiene il testo cercato, senza distinzione di maiuscole)
+    public List<Card> searchByName(String query) {
+        List<Card> matches = new ArrayList<>();
+        if (query == null || query.isBlank()) return matches;
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < cardCount; i++) {
+            Cursor cursor = new Cursor(data, (int) data.getLong(cardIndexOffset + i * INDEX_ENTRY_SIZE));
+            String id = cursor.string();
+            String name = cursor.string();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(new Card(id, name, cursor.string(), CardGameType.POKEMON));
+            }
+        }
+        return matches;
+    }
+
+    Map<String, SetEntry> setEntries() {
+        return sets;
+    }
+
+    // Copia dei byte di un blocco, per riscrivere senza ricodifica i set invariati in un aggiornamento incrementale
+    byte[] blockBytes(SetEntry entry) {
+        byte[] bytes = new byte[entry.blockLength];
+        data.get((int) entry.blockOffset, bytes);
+        return bytes;
+    }
+
+    private int findRecord(String cardId) {
+        if (cardId == null) return -1;
+        int low = 0;
+        int high = cardCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = (int) data.getLong(cardIndexOffset + mid * INDEX_ENTRY_SIZE);
+            int cmp = new Cursor(data, record).string().compareTo(cardId);
+            if (cmp == 0) return record;
+            if (cmp < 0) low = mid + 1;
+            else high = mid - 1;
+        }
+        return -1;
+    }
+
+    private PokemonCard decodeCard(Cursor in) {
+        PokemonCard card = PokemonCardCodec.readCard(in, false);
+        SetEntry set = card.getSetId() != null ? sets.get(card.getSetId()) : null;
+        if (set != null) {
+            card.setSetName(set.name);
+            card.setSetLogo(set.logo);
+            card.setSetSymbol(set.symbol);
+            card.setSetCardCountOfficial(set.cardCountOfficial);
+            card.setSetCardCountTotal(set.cardCountTotal);
+        }
+        return card;
+    }
+
+    // Record di una carta senza i metadati del set, ricavati dalla tabella dei set in lettura
+    static void encodeCard(PokemonCard card, String setId, RecordWriter out) {
+        PokemonCardCodec.writeCard(card, setId, out, false);
+    }
+}
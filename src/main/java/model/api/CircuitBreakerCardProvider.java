@@ -0,0 +1,127 @@
+package model.api;
+
+import config.ApiConfig;
+import config.AsyncExecutor;
+import config.CircuitBreaker;
+import exception.ConnectionException;
+import model.domain.Card;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Decoratore che protegge il provider di rete con un CircuitBreaker. Dopo troppi errori (o risposte troppo lente)
+ * consecutivi le richieste falliscono subito con ConnectionException, senza attendere timeout e retry: il
+ * CachingCardProvider esterno serve allora le copie su disco, anche scadute. Mentre il circuito è aperto una sonda
+ * in background (getAllSets) verifica periodicamente se il servizio è tornato raggiungibile. */
+public final class CircuitBreakerCardProvider implements ICardProvider {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreakerCardProvider.class.getName());
+
+    private final ICardProvider delegate;
+    private final CircuitBreaker breaker;
+    private final long slowCallMillis;
+    private final AtomicBoolean probeScheduled = new AtomicBoolean();
+
+    public CircuitBreakerCardProvider(ICardProvider delegate) {
+        this(delegate, new CircuitBreaker(ApiConfig.BREAKER_FAILURE_THRESHOLD, ApiConfig.BREAKER_OPEN_MILLIS),
+                ApiConfig.BREAKER_SLOW_CALL_MILLIS);
+    }
+
+    public CircuitBreakerCardProvider(ICardProvider delegate, CircuitBreaker breaker, long slowCallMillis) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.slowCallMillis = slowCallMillis;
+        breaker.setListener(CircuitBreakerCardProvider.class.getName(), this::onStateChange);
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        return guarded("set " + setId, () -> delegate.searchSet(setId));
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        return guarded("search " + cardName, () -> delegate.searchCardsByName(cardName));
+    }
+
+    @Override
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        return guarded("card " + cardId, () -> delegate.<T>getCardDetails(cardId));
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        return guarded("sets", delegate::getAllSets);
+    }
+
+    public ProviderHealth getHealth() {
+        return toHealth(breaker.getState());
+    }
+
+    // Un listener per chiave (tipicamente il controller): quello di un controller ricreato sostituisce il precedente
+    public void setHealthListener(String key, Consumer<ProviderHealth> listener) {
+        breaker.setListener(key, listener == null ? null : state -> listener.accept(toHealth(state)));
+    }
+
+    private <T> T guarded(String what, Supplier<T> call) {
+        if (!breaker.tryAcquire()) {
+            throw new ConnectionException("Card provider unavailable, skipping " + what
+                    + " (retry in " + breaker.remainingOpenMillis() / 1000 + "s)", null);
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            // Qualunque errore va registrato: altrimenti una sonda in HALF_OPEN lascerebbe il circuito bloccato
+            breaker.onFailure();
+            throw ex;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Una risposta arrivata oltre la soglia viene comunque restituita, ma conta come fallimento
+        if (elapsedMillis > slowCallMillis) {
+            LOGGER.log(Level.FINE, "Slow provider call for {0}: {1} ms", new Object[] { what, elapsedMillis });
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return result;
+    }
+
+    private void onStateChange(CircuitBreaker.State state) {
+        if (state == CircuitBreaker.State.OPEN) {
+            LOGGER.warning(() -> "Card provider unreachable, serving cached data for "
+                    + breaker.remainingOpenMillis() / 1000 + "s before probing again");
+            scheduleProbe();
+        } else if (state == CircuitBreaker.State.CLOSED) {
+            LOGGER.info("Card provider reachable again");
+        }
+    }
+
+    // La sonda parte anche se nessuno usa il provider, così i view tornano ONLINE senza un'azione dell'utente
+    private void scheduleProbe() {
+        if (!probeScheduled.compareAndSet(false, true)) return;
+        long delay = breaker.remainingOpenMillis();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, AsyncExecutor.executor()).execute(() -> {
+            probeScheduled.set(false);
+            if (breaker.getState() != CircuitBreaker.State.OPEN) return;
+            try {
+                getAllSets();
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.FINE, "Provider probe failed: {0}", ex.getMessage());
+                // Se la sonda non è partita (un altro chiamante la sta già facendo) si riprova al prossimo intervallo
+                if (breaker.getState() == CircuitBreaker.State.OPEN) scheduleProbe();
+            }
+        });
+    }
+
+    private static ProviderHealth toHealth(CircuitBreaker.State state) {
+        return state == CircuitBreaker.State.CLOSED ? ProviderHealth.ONLINE : ProviderHealth.DEGRADED;
+    }
+}
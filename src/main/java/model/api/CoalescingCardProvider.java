@@ -0,0 +1,56 @@
+package model.api;
+
+import exception.ConnectionException;
+import model.domain.Card;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/* Decoratore single-flight di un ICardProvider: chiamate concorrenti per lo stesso set, la stessa carta o il
+ * catalogo dei set producono una sola richiesta verso il provider sottostante. Le collezioni restituite sono
+ * copie, così i chiamanti che condividono un risultato non si influenzano a vicenda. */
+public class CoalescingCardProvider implements ICardProvider {
+    private final ICardProvider delegate;
+    private final SingleFlight flights = new SingleFlight();
+
+    public CoalescingCardProvider(ICardProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        return copyOf(flights.execute("set:" + setId, () -> delegate.searchSet(setId)));
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        String key = cardName == null ? "" : cardName.trim().toLowerCase(Locale.ROOT);
+        return copyOf(flights.execute("search:" + key, () -> delegate.searchCardsByName(cardName)));
+    }
+
+    @Override
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        return flights.execute("card:" + cardId, () -> delegate.<T>getCardDetails(cardId));
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        Map<String, String> sets = flights.execute("sets", delegate::getAllSets);
+        return sets != null ? new HashMap<>(sets) : null;
+    }
+
+    public long getProviderCalls() {
+        return flights.getExecutions();
+    }
+
+    public long getCoalescedCalls() {
+        return flights.getShared();
+    }
+
+    private static List<Card> copyOf(List<Card> cards) {
+        return cards != null ? new ArrayList<>(cards) : null;
+    }
+}
@@ -0,0 +1,135 @@
+package model.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Archivio su disco delle risposte del provider: un file per voce, raggruppato per namespace
+ * (sets, set, card, search), con l'istante di scrittura usato per calcolare il TTL. Le voci sono JSON, oppure
+ * binarie (chiave, istante e payload già codificato) per i dettagli delle carte. */
+final class DiskResponseCache {
+    private static final Logger LOGGER = Logger.getLogger(DiskResponseCache.class.getName());
+    private static final int MAX_READABLE_KEY_LENGTH = 80;
+    private static final String JSON_EXTENSION = ".json";
+    private static final String BINARY_EXTENSION = ".bin";
+
+    static final class Entry<T> {
+        final T value;
+        final long storedAtMillis;
+
+        Entry(T value, long storedAtMillis) {
+            this.value = value;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+
+    private final Path root;
+    private final Gson gson;
+
+    DiskResponseCache(Path root, Gson gson) {
+        this.root = root;
+        this.gson = gson;
+    }
+
+    <T> Entry<T> read(String namespace, String key, Type type) {
+        Path file = fileFor(namespace, key);
+        if (!Files.exists(file)) return null;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject stored = gson.fromJson(reader, JsonObject.class);
+            if (stored == null || !key.equals(stored.get("key").getAsString())) return null;
+            T value = gson.fromJson(stored.get("payload"), type);
+            return new Entry<>(value, stored.get("storedAt").getAsLong());
+        } catch (IOException | JsonParseException | IllegalStateException | NullPointerException e) {
+            LOGGER.log(Level.FINE, "Discarding unreadable cache entry " + file, e);
+            invalidate(namespace, key);
+            return null;
+        }
+    }
+
+    <T> void write(String namespace, String key, T value, Type type, long storedAtMillis) {
+        Path file = fileFor(namespace, key);
+        JsonObject stored = new JsonObject();
+        stored.addProperty("key", key);
+        stored.addProperty("storedAt", storedAtMillis);
+        stored.add("payload", gson.toJsonTree(value, type));
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(stored, writer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Una cache che non riesce a scrivere non deve far fallire la richiesta
+            LOGGER.log(Level.WARNING, "Could not write cache entry {0}: {1}", new Object[] { file, e.getMessage() });
+        }
+    }
+
+    <T> Entry<T> readBinary(String namespace, String key, Function<byte[], T> decoder) {
+        Path file = fileFor(namespace, key, BINARY_EXTENSION);
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (!key.equals(in.readUTF())) return null;
+            long storedAt = in.readLong();
+            byte[] payload = in.readNBytes(in.readInt());
+            return new Entry<>(decoder.apply(payload), storedAt);
+        } catch (IOException | RuntimeException e) {
+            // Comprende le voci scritte con una versione del codec non più supportata
+            LOGGER.log(Level.FINE, "Discarding unreadable cache entry " + file, e);
+            invalidate(namespace, key);
+            return null;
+        }
+    }
+
+    void writeBinary(String namespace, String key, byte[] payload, long storedAtMillis) {
+        Path file = fileFor(namespace, key, BINARY_EXTENSION);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeUTF(key);
+                out.writeLong(storedAtMillis);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write cache entry {0}: {1}", new Object[] { file, e.getMessage() });
+        }
+    }
+
+    void invalidate(String namespace, String key) {
+        try {
+            Files.deleteIfExists(fileFor(namespace, key, BINARY_EXTENSION));
+            Files.deleteIfExists(fileFor(namespace, key));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not delete cache entry", e);
+        }
+    }
+
+    private Path fileFor(String namespace, String key) {
+        return fileFor(namespace, key, JSON_EXTENSION);
+    }
+
+    private Path fileFor(String namespace, String key, String extension) {
+        String readable = key.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (readable.length() > MAX_READABLE_KEY_LENGTH) readable = readable.substring(0, MAX_READABLE_KEY_LENGTH);
+        return root.resolve(namespace).resolve(readable + "-" + Integer.toHexString(key.hashCode()) + extension);
+    }
+}
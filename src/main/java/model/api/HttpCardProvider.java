@@ -0,0 +1,506 @@
+package model.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import config.ApiConfig;
+import config.AsyncExecutor;
+import exception.ConnectionException;
+import model.domain.Attack;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import model.domain.Weakness;
+import model.domain.enumerations.CardGameType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/* Provider TCGdex interamente asincrono su HttpClient.sendAsync: HTTP/2 (più richieste multiplexate sulla stessa
+ * connessione), risposte gzip, timeout di connessione e di richiesta, retry con backoff esponenziale e jitter su
+ * errori di rete, 429 e 5xx. Il corpo viene letto in streaming con un JsonReader, senza materializzare la stringa
+ * né l'albero JSON. Le varianti sincrone attendono quelle asincrone. */
+public class HttpCardProvider implements ICardProvider {
+    private static final Logger LOGGER = Logger.getLogger(HttpCardProvider.class.getName());
+
+    private static final String HIGH_PNG_SUFFIX = "/high.png";
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        T parse(JsonReader reader) throws IOException;
+    }
+
+    // Risposta che vale la pena ripetere (429, 5xx); retryAfterMillis < 0 se il server non lo indica
+    private static final class RetryableStatusException extends RuntimeException {
+        final long retryAfterMillis;
+
+        RetryableStatusException(int status, long retryAfterMillis) {
+            super("HTTP " + status);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    private final URI baseUri;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+
+    public HttpCardProvider() {
+        this(URI.create(ApiConfig.TCGDEX_BASE_URL), Duration.ofMillis(ApiConfig.HTTP_CONNECT_TIMEOUT_MILLIS),
+                Duration.ofMillis(ApiConfig.HTTP_REQUEST_TIMEOUT_MILLIS), ApiConfig.HTTP_MAX_RETRIES,
+                ApiConfig.HTTP_BACKOFF_BASE_MILLIS, ApiConfig.HTTP_BACKOFF_MAX_MILLIS);
+    }
+
+    HttpCardProvider(URI baseUri, Duration connectTimeout, Duration requestTimeout, int maxRetries,
+                     long backoffBaseMillis, long backoffMaxMillis) {
+        this.baseUri = baseUri.toString().endsWith("/") ? baseUri : URI.create(baseUri + "/");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(AsyncExecutor.executor())
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.maxRetries = maxRetries;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        return await(searchSetAsync(setId));
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        return await(searchCardsByNameAsync(cardName));
+    }
+
+    @Override
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        return await(this.<T>getCardDetailsAsync(cardId));
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        return await(getAllSetsAsync());
+    }
+
+    @Override
+    public CompletableFuture<List<Card>> searchSetAsync(String setId) {
+        return get("sets/" + encode(setId), HttpCardProvider::readSetCards, new ArrayList<>(), "set " + setId);
+    }
+
+    @Override
+    public CompletableFuture<List<Card>> searchCardsByNameAsync(String cardName) {
+        return get("cards?name=" + encode(cardName), HttpCardProvider::readCardList, new ArrayList<>(), "search " + cardName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Card> CompletableFuture<T> getCardDetailsAsync(String cardId) {
+        return get("cards/" + encode(cardId), reader -> (T) readCardDetails(reader), null, "card " + cardId);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getAllSetsAsync() {
+        return get("sets", HttpCardProvider::readSets, new HashMap<>(), "sets");
+    }
+
+    private <T> CompletableFuture<T> get(String path, BodyParser<T> parser, T notFound, String what) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return attempt(request, parser, notFound, what, 0);
+    }
+
+    private <T> CompletableFuture<T> attempt(HttpRequest request, BodyParser<T> parser, T notFound, String what, int attempt) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                // La lettura del corpo blocca: avviene su un virtual thread, non sul thread del client
+                .thenApplyAsync(response -> read(response, parser, notFound), AsyncExecutor.executor())
+                .handle((result, error) -> {
+                    if (error == null) return CompletableFuture.completedFuture(result);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (attempt < maxRetries && isRetryable(cause)) {
+                        long delay = backoffMillis(attempt, cause);
+                        LOGGER.log(Level.FINE, "Retrying {0} in {1} ms after: {2}", new Object[] { what, delay, cause.toString() });
+                        return CompletableFuture.supplyAsync(() -> null,
+                                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, AsyncExecutor.executor()))
+                                .thenCompose(_ -> attempt(request, parser, notFound, what, attempt + 1));
+                    }
+                    return CompletableFuture.<T>failedFuture(cause instanceof ConnectionException ce ? ce
+                            : new ConnectionException("Failed to fetch " + what, cause));
+                })
+                .thenCompose(f -> f);
+    }
+
+    private static <T> T read(HttpResponse<InputStream> response, BodyParser<T> parser, T notFound) {
+        int status = response.statusCode();
+        try (InputStream body = response.body()) {
+            if (status == HTTP_OK) {
+                boolean gzip = "gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(""));
+                InputStream in = gzip ? new GZIPInputStream(body) : body;
+                try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    return parser.parse(reader);
+                }
+            }
+            if (status == HTTP_NOT_FOUND) return notFound;
+            if (status == HTTP_TOO_MANY_REQUESTS || status >= 500) {
+                throw new RetryableStatusException(status, retryAfterMillis(response));
+            }
+            throw new ConnectionException("Unexpected HTTP status " + status + " for " + response.uri(), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isRetryable(Throwable cause) {
+        if (cause instanceof RetryableStatusException) return true;
+        if (cause instanceof UncheckedIOException e) return !(e.getCause() instanceof MalformedJsonException);
+        return cause instanceof IOException;
+    }
+
+    // Backoff esponenziale con jitter ("equal jitter"): metà fissa, metà casuale, mai meno di quanto chiede Retry-After
+    private long backoffMillis(int attempt, Throwable cause) {
+        long cap = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt, 20));
+        long delay = cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+        if (cause instanceof RetryableStatusException r && r.retryAfterMillis > delay) {
+            delay = Math.min(r.retryAfterMillis, backoffMaxMillis);
+        }
+        return delay;
+    }
+
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException _) {
+            return -1;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ConnectionException ce) throw ce;
+            throw new ConnectionException("Card provider request failed", e.getCause());
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /* Parsing in streaming delle risposte TCGdex */
+
+    private static Map<String, String> readSets(JsonReader reader) throws IOException {
+        Map<String, String> sets = new LinkedHashMap<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            String name = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = nextString(reader);
+                    case "name" -> name = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (id != null) sets.put(id, name);
+        }
+        reader.endArray();
+        return sets;
+    }
+
+    private static List<Card> readSetCards(JsonReader reader) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("cards".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) cards = readCardList(reader);
+            else reader.skipValue();
+        }
+        reader.endObject();
+        return cards;
+    }
+
+    private static List<Card> readCardList(JsonReader reader) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            String name = null;
+            String image = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = nextString(reader);
+                    case "name" -> name = nextString(reader);
+                    case "image" -> image = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (id != null) cards.add(new Card(id, name, imageUrl(image), CardGameType.POKEMON));
+        }
+        reader.endArray();
+        return cards;
+    }
+
+    // Usato anche dall'import del catalogo, che legge le carte nello stesso formato
+    static PokemonCard readCardDetails(JsonReader reader) throws IOException {
+        PokemonCard pc = new PokemonCard(null, null, null);
+        String id = null;
+        String name = null;
+        String image = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = nextString(reader);
+                case "name" -> name = nextString(reader);
+                case "image" -> image = nextString(reader);
+                case "category" -> pc.setCategory(nextString(reader));
+                case "localId" -> pc.setLocalId(nextString(reader));
+                case "illustrator" -> pc.setIllustrator(nextString(reader));
+                case "rarity" -> pc.setRarity(nextString(reader));
+                case "set" -> readSetInfo(reader, pc);
+                case "variants" -> readVariants(reader, pc);
+                case "hp" -> pc.setHp(nextInteger(reader));
+                case "types" -> pc.setTypes(nextStringList(reader));
+                case "evolveFrom" -> pc.setEvolveFrom(nextString(reader));
+                case "description" -> pc.setDescription(nextString(reader));
+                case "stage" -> pc.setStage(nextString(reader));
+                case "attacks" -> pc.setAttacks(readAttacks(reader));
+                case "weaknesses" -> pc.setWeaknesses(readWeaknesses(reader));
+                case "retreat" -> pc.setRetreat(nextInteger(reader));
+                case "regulationMark" -> pc.setRegulationMark(nextString(reader));
+                case "legal" -> readLegal(reader, pc);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        PokemonCard card = new PokemonCard(id, name, imageUrl(image));
+        copyDetails(pc, card);
+        return card;
+    }
+
+    private static void readSetInfo(JsonReader reader, PokemonCard pc) throws IOException {
+        if (skipIfNotObject(reader)) return;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> pc.setSetId(nextString(reader));
+                case "name" -> pc.setSetName(nextString(reader));
+                case "logo" -> pc.setSetLogo(nextString(reader));
+                case "symbol" -> pc.setSetSymbol(nextString(reader));
+                case "cardCount" -> {
+                    if (skipIfNotObject(reader)) continue;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "official" -> pc.setSetCardCountOfficial(nextInteger(reader));
+                            case "total" -> pc.setSetCardCountTotal(nextInteger(reader));
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readVariants(JsonReader reader, PokemonCard pc) throws IOException {
+        if (skipIfNotObject(reader)) return;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "firstEdition" -> pc.setVariantFirstEdition(nextBoolean(reader));
+                case "holo" -> pc.setVariantHolo(nextBoolean(reader));
+                case "normal" -> pc.setVariantNormal(nextBoolean(reader));
+                case "reverse" -> pc.setVariantReverse(nextBoolean(reader));
+                case "wPromo" -> pc.setVariantWPromo(nextBoolean(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readLegal(JsonReader reader, PokemonCard pc) throws IOException {
+        if (skipIfNotObject(reader)) return;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "standard" -> pc.setLegalStandard(nextBoolean(reader));
+                case "expanded" -> pc.setLegalExpanded(nextBoolean(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static List<Attack> readAttacks(JsonReader reader) throws IOException {
+        if (skipIfNotArray(reader)) return null;
+        List<Attack> attacks = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (skipIfNotObject(reader)) continue;
+            String name = null;
+            List<String> cost = null;
+            String damage = null;
+            String effect = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name" -> name = nextString(reader);
+                    case "cost" -> cost = nextStringList(reader);
+                    case "damage" -> damage = nextString(reader);
+                    case "effect" -> effect = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            // Stessi valori predefiniti di PokemonCardProvider, così view e cache non distinguono i provider
+            attacks.add(new Attack(name != null && !name.isEmpty() ? name : "Unknown", cost,
+                    Objects.requireNonNullElse(damage, ""), Objects.requireNonNullElse(effect, "")));
+        }
+        reader.endArray();
+        return attacks.isEmpty() ? null : attacks;
+    }
+
+    private static List<Weakness> readWeaknesses(JsonReader reader) throws IOException {
+        if (skipIfNotArray(reader)) return null;
+        List<Weakness> weaknesses = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (skipIfNotObject(reader)) continue;
+            String type = null;
+            String value = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = nextString(reader);
+                    case "value" -> value = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            weaknesses.add(new Weakness(type, value));
+        }
+        reader.endArray();
+        return weaknesses.isEmpty() ? null : weaknesses;
+    }
+
+    private static void copyDetails(PokemonCard from, PokemonCard to) {
+        to.setCategory(from.getCategory());
+        to.setLocalId(from.getLocalId());
+        to.setIllustrator(from.getIllustrator());
+        to.setRarity(from.getRarity());
+        to.setSetId(from.getSetId());
+        to.setSetName(from.getSetName());
+        to.setSetLogo(from.getSetLogo());
+        to.setSetSymbol(from.getSetSymbol());
+        to.setSetCardCountOfficial(from.getSetCardCountOfficial());
+        to.setSetCardCountTotal(from.getSetCardCountTotal());
+        to.setVariants(from.getVariants());
+        to.setHp(from.getHp());
+        to.setTypes(from.getTypes());
+        to.setEvolveFrom(from.getEvolveFrom());
+        to.setDescription(from.getDescription());
+        to.setStage(from.getStage());
+        to.setAttacks(from.getAttacks());
+        to.setWeaknesses(from.getWeaknesses());
+        to.setRetreat(from.getRetreat());
+        to.setRegulationMark(from.getRegulationMark());
+        to.setLegalStandard(from.getLegalStandard());
+        to.setLegalExpanded(from.getLegalExpanded());
+    }
+
+    private static String imageUrl(String image) {
+        return image != null ? image + HIGH_PNG_SUFFIX : null;
+    }
+
+    private static boolean skipIfNotObject(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) return false;
+        reader.skipValue();
+        return true;
+    }
+
+    private static boolean skipIfNotArray(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) return false;
+        reader.skipValue();
+        return true;
+    }
+
+    // Stringhe, numeri e booleani come testo; null e valori composti come null
+    static String nextString(JsonReader reader) throws IOException {
+        return switch (reader.peek()) {
+            case STRING, NUMBER -> reader.nextString();
+            case BOOLEAN -> String.valueOf(reader.nextBoolean());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Integer nextInteger(JsonReader reader) throws IOException {
+        String value = nextString(reader);
+        if (value == null) return null;
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NumberFormatException _) {
+            return null;
+        }
+    }
+
+    private static Boolean nextBoolean(JsonReader reader) throws IOException {
+        String value = nextString(reader);
+        return value != null ? Boolean.valueOf(value) : null;
+    }
+
+    private static List<String> nextStringList(JsonReader reader) throws IOException {
+        if (skipIfNotArray(reader)) return null;
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = nextString(reader);
+            if (value != null) values.add(value);
+        }
+        reader.endArray();
+        return values;
+    }
+}
@@ -1,9 +1,11 @@
 package model.api;
 
+import config.AsyncExecutor;
 import model.domain.Card;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import exception.ConnectionException;
 
@@ -12,4 +14,21 @@ public interface ICardProvider {
     public List<Card> searchCardsByName(String cardName) throws ConnectionException;
     public <T extends Card> T getCardDetails(String cardId) throws ConnectionException;
     public Map<String, String> getAllSets() throws ConnectionException;
+
+    // Varianti asincrone su virtual thread: una ConnectionException completa il future in modo eccezionale
+    default CompletableFuture<List<Card>> searchSetAsync(String setId) {
+        return AsyncExecutor.supply(() -> searchSet(setId));
+    }
+
+    default CompletableFuture<List<Card>> searchCardsByNameAsync(String cardName) {
+        return AsyncExecutor.supply(() -> searchCardsByName(cardName));
+    }
+
+    default <T extends Card> CompletableFuture<T> getCardDetailsAsync(String cardId) {
+        return AsyncExecutor.supply(() -> this.<T>getCardDetails(cardId));
+    }
+
+    default CompletableFuture<Map<String, String>> getAllSetsAsync() {
+        return AsyncExecutor.supply(this::getAllSets);
+    }
 }
@@ -0,0 +1,261 @@
+package model.api;
+
+import model.domain.Attack;
+import model.domain.CardVariants;
+import model.domain.PokemonCard;
+import model.domain.Weakness;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Codifica binaria versionata del dettaglio di una PokemonCard, usata dalla cache su disco e dal catalogo locale.
+ * Un byte di versione seguito dai campi in ordine fisso: stringhe UTF-8 con lunghezza varint, interi varint,
+ * varianti e legalità impacchettate in un solo intero (due bit per valore), attacchi e debolezze come liste di
+ * record. Una versione sconosciuta viene rifiutata e la voce trattata come assente: cambiare il formato richiede
+ * di incrementare VERSION. */
+public final class PokemonCardCodec {
+    public static final int VERSION = 1;
+
+    private static final int LEGAL_STANDARD_SHIFT = 10;
+    private static final int LEGAL_EXPANDED_SHIFT = 12;
+
+    private PokemonCardCodec() {
+    }
+
+    public static byte[] encode(PokemonCard card) {
+        RecordWriter out = new RecordWriter();
+        out.varint(VERSION);
+        writeCard(card, card.getSetId(), out, true);
+        return out.toByteArray();
+    }
+
+    public static PokemonCard decode(byte[] bytes) {
+        Cursor in = new Cursor(ByteBuffer.wrap(bytes), 0);
+        try {
+            long version = in.varint();
+            if (version != VERSION) throw new IllegalArgumentException("Unsupported card encoding version " + version);
+            return readCard(in, true);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated card encoding", e);
+        }
+    }
+
+    // Senza metadati del set resta solo setId: nel catalogo nome, logo e conteggi stanno nella tabella dei set
+    static void writeCard(PokemonCard card, String setId, RecordWriter out, boolean withSetMetadata) {
+        out.string(card.getId());
+        out.string(card.getName());
+        out.string(card.getImageUrl());
+        out.string(setId);
+        if (withSetMetadata) {
+            out.string(card.getSetName());
+            out.string(card.getSetLogo());
+            out.string(card.getSetSymbol());
+            out.nullableInt(card.getSetCardCountOfficial());
+            out.nullableInt(card.getSetCardCountTotal());
+        }
+        out.string(card.getCategory());
+        out.string(card.getLocalId());
+        out.string(card.getIllustrator());
+        out.string(card.getRarity());
+        out.varint(card.getVariants().toBits()
+                | flagBits(card.getLegalStandard()) << LEGAL_STANDARD_SHIFT
+                | flagBits(card.getLegalExpanded()) << LEGAL_EXPANDED_SHIFT);
+        out.nullableInt(card.getHp());
+        out.stringList(card.getTypes());
+        out.string(card.getEvolveFrom());
+        out.string(card.getDescription());
+        out.string(card.getStage());
+        List<Attack> attacks = card.getAttacks();
+        out.varint(attacks == null ? 0 : attacks.size() + 1L);
+        if (attacks != null) {
+            for (Attack attack : attacks) {
+                out.string(attack.getName());
+                out.stringList(attack.getCost());
+                out.string(attack.getDamage());
+                out.string(attack.getEffect());
+            }
+        }
+        List<Weakness> weaknesses = card.getWeaknesses();
+        out.varint(weaknesses == null ? 0 : weaknesses.size() + 1L);
+        if (weaknesses != null) {
+            for (Weakness weakness : weaknesses) {
+                out.string(weakness.getType());
+                out.string(weakness.getValue());
+            }
+        }
+        out.nullableInt(card.getRetreat());
+        out.string(card.getRegulationMark());
+    }
+
+    static PokemonCard readCard(Cursor in, boolean withSetMetadata) {
+        PokemonCard card = new PokemonCard(in.string(), in.string(), in.string());
+        card.setSetId(in.string());
+        if (withSetMetadata) {
+            card.setSetName(in.string());
+            card.setSetLogo(in.string());
+            card.setSetSymbol(in.string());
+            card.setSetCardCountOfficial(in.nullableInt());
+            card.setSetCardCountTotal(in.nullableInt());
+        }
+        card.setCategory(in.string());
+        card.setLocalId(in.string());
+        card.setIllustrator(in.string());
+        card.setRarity(in.string());
+        int flags = (int) in.varint();
+        card.setVariants(CardVariants.fromBits(flags));
+        card.setLegalStandard(flag(flags >> LEGAL_STANDARD_SHIFT));
+        card.setLegalExpanded(flag(flags >> LEGAL_EXPANDED_SHIFT));
+        card.setHp(in.nullableInt());
+        card.setTypes(in.stringList());
+        card.setEvolveFrom(in.string());
+        card.setDescription(in.string());
+        card.setStage(in.string());
+        int attackCount = in.count();
+        if (attackCount >= 0) {
+            List<Attack> attacks = new ArrayList<>(attackCount);
+            for (int i = 0; i < attackCount; i++) {
+                attacks.add(new Attack(in.string(), in.stringList(), in.string(), in.string()));
+            }
+            card.setAttacks(attacks);
+        }
+        int weaknessCount = in.count();
+        if (weaknessCount >= 0) {
+            List<Weakness> weaknesses = new ArrayList<>(weaknessCount);
+            for (int i = 0; i < weaknessCount; i++) {
+                weaknesses.add(new Weakness(in.string(), in.string()));
+            }
+            card.setWeaknesses(weaknesses);
+        }
+        card.setRetreat(in.nullableInt());
+        card.setRegulationMark(in.string());
+        return card;
+    }
+
+    // Due bit per valore: 0 assente, 1 false, 2 true (stessa convenzione di CardVariants)
+    private static int flagBits(Boolean value) {
+        return value == null ? 0 : (value ? 2 : 1);
+    }
+
+    private static Boolean flag(int bits) {
+        int value = bits & 3;
+        return value == 0 ? null : value == 2;
+    }
+
+    /* Codifica compatta dei campi: varint per interi e lunghezze, 0 riservato al valore assente */
+
+    static final class RecordWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            bytes.write((int) value);
+        }
+
+        void fixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) bytes.write((int) (value >>> shift));
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            bytes.write(utf8, 0, utf8.length);
+        }
+
+        void nullableInt(Integer value) {
+            varint(value == null || value < 0 ? 0 : value + 1L);
+        }
+
+        void stringList(List<String> values) {
+            varint(values == null ? 0 : values.size() + 1L);
+            if (values != null) for (String value : values) string(value);
+        }
+
+        void raw(byte[] raw) {
+            bytes.write(raw, 0, raw.length);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        void reset() {
+            bytes.reset();
+        }
+    }
+
+    static final class Cursor {
+        private final ByteBuffer data;
+        int position;
+
+        Cursor(ByteBuffer data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        long varint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) throw new IllegalArgumentException("Malformed varint at " + position);
+                b = data.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        /* Lunghezza o numero di elementi (-1 se assente) letti da dati non fidati: ogni elemento occupa almeno un
+         * byte, quindi un valore oltre i byte rimasti è corruzione e va rifiutato prima di allocare. */
+        int count() {
+            long value = varint() - 1;
+            if (value < -1 || value > data.limit() - position) {
+                throw new IllegalArgumentException("Corrupt length " + value + " at " + position);
+            }
+            return (int) value;
+        }
+
+        long fixedLong() {
+            long value = data.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        String string() {
+            int length = count();
+            if (length < 0) return null;
+            byte[] utf8 = new byte[length];
+            data.get(position, utf8);
+            position += length;
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        Integer nullableInt() {
+            long value = varint();
+            return value == 0 ? null : (int) (value - 1);
+        }
+
+        List<String> stringList() {
+            int count = count();
+            if (count < 0) return null;
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) values.add(string());
+            return values;
+        }
+    }
+}
@@ -5,8 +5,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import model.domain.enumerations.CardGameType;
+import model.domain.Attack;
 import model.domain.Card;
 import model.domain.PokemonCard;
+import model.domain.Weakness;
 import net.tcgdex.sdk.TCGdex;
 import net.tcgdex.sdk.models.CardResume;
 import net.tcgdex.sdk.models.Set;
@@ -188,17 +190,13 @@ public class PokemonCardProvider implements ICardProvider {
     private void populateAttacks(net.tcgdex.sdk.models.Card card, PokemonCard pc) {
         var attacksRaw = card.getAttacks();
         if (attacksRaw.isEmpty()) return;
-        List<Map<String, Object>> attacksList = new ArrayList<>();
+        List<Attack> attacksList = new ArrayList<>(attacksRaw.size());
         for (var attack : attacksRaw) {
             if (attack == null) continue;
-            Map<String, Object> attackMap = new HashMap<>();
             String attackName = attack.getName();
-            attackMap.put("name", (!attackName.isEmpty()) ? attackName : "Unknown");
-            attackMap.put("cost", attack.getCost());
             Object dmg = attack.getDamage();
-            attackMap.put("damage", dmg != null ? dmg.toString() : "");
-            attackMap.put("effect", attack.getEffect() != null ? attack.getEffect() : "");
-            attacksList.add(attackMap);
+            attacksList.add(new Attack((!attackName.isEmpty()) ? attackName : "Unknown", attack.getCost(),
+                    dmg != null ? dmg.toString() : "", attack.getEffect() != null ? attack.getEffect() : ""));
         }
         pc.setAttacks(attacksList);
     }
@@ -207,13 +205,10 @@ public class PokemonCardProvider implements ICardProvider {
     private void populateWeaknesses(net.tcgdex.sdk.models.Card card, PokemonCard pc) {
         var weaknessesRaw = card.getWeaknesses();
         if (weaknessesRaw.isEmpty()) return;
-        List<Map<String, String>> weaknessesList = new ArrayList<>();
+        List<Weakness> weaknessesList = new ArrayList<>(weaknessesRaw.size());
         for (var weakness : weaknessesRaw) {
             if (weakness == null) continue;
-            Map<String, String> weaknessMap = new HashMap<>();
-            weaknessMap.put("type", weakness.getType());
-            weaknessMap.put("value", weakness.getValue());
-            weaknessesList.add(weaknessMap);
+            weaknessesList.add(new Weakness(weakness.getType(), weakness.getValue()));
         }
         pc.setWeaknesses(weaknessesList);
     }
@@ -0,0 +1,8 @@
+package model.api;
+
+/* Stato del provider di carte mostrato dai view: DEGRADED quando il circuito è aperto (o in prova) e i dati
+ * arrivano solo dalla cache su disco. */
+public enum ProviderHealth {
+    ONLINE,
+    DEGRADED
+}
@@ -0,0 +1,52 @@
+package model.api;
+
+import config.HostRateLimiter;
+import exception.ConnectionException;
+import model.domain.Card;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/* Decoratore che applica il limite di richieste al secondo dell'host al solo provider di rete: sta sotto cache
+ * su disco, snapshot del catalogo e CardDetailCache, quindi le risposte servite in locale non consumano permessi.
+ * Anche la sonda del CircuitBreakerCardProvider passa di qui. */
+public final class RateLimitedCardProvider implements ICardProvider {
+    private final ICardProvider delegate;
+    private final HostRateLimiter rateLimiter;
+
+    public RateLimitedCardProvider(ICardProvider delegate, HostRateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        return limited("set " + setId, () -> delegate.searchSet(setId));
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        return limited("search " + cardName, () -> delegate.searchCardsByName(cardName));
+    }
+
+    @Override
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        return limited("card " + cardId, () -> delegate.<T>getCardDetails(cardId));
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        return limited("sets", delegate::getAllSets);
+    }
+
+    private <T> T limited(String what, Supplier<T> call) {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Interrupted while waiting to fetch " + what, e);
+        }
+        return call.get();
+    }
+}
@@ -0,0 +1,61 @@
+package model.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/* Richieste identiche concorrenti condividono un solo caricamento: il primo chiamante esegue il loader,
+ * gli altri attendono lo stesso CompletableFuture. Finito il caricamento la chiave viene liberata,
+ * quindi non si conserva nessun risultato (quello è compito della cache). */
+final class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    <V> V execute(String key, Supplier<V> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return (V) await(existing);
+        }
+        executions.incrementAndGet();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    long getExecutions() {
+        return executions.get();
+    }
+
+    long getShared() {
+        return shared.get();
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Chi attende riceve la stessa eccezione del chiamante che ha eseguito il caricamento
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package model.api;
+
+import exception.ConnectionException;
+import model.domain.Card;
+
+import java.util.List;
+import java.util.Map;
+
+/* Provider servito dal catalogo locale (CatalogSnapshot): nessuna chiamata di rete per set e carte presenti nel
+ * catalogo. Quello che manca viene chiesto al fallback, se c'è; senza fallback il provider funziona interamente
+ * offline e una carta sconosciuta risulta semplicemente assente. */
+public class SnapshotCardProvider implements ICardProvider {
+    private final CatalogSnapshot snapshot;
+    private final ICardProvider fallback;
+
+    public SnapshotCardProvider(CatalogSnapshot snapshot, ICardProvider fallback) {
+        this.snapshot = snapshot;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public List<Card> searchSet(String setId) throws ConnectionException {
+        if (snapshot.containsSet(setId) || fallback == null) return snapshot.getSetCards(setId);
+        return fallback.searchSet(setId);
+    }
+
+    @Override
+    public List<Card> searchCardsByName(String cardName) throws ConnectionException {
+        List<Card> matches = snapshot.searchByName(cardName);
+        if (!matches.isEmpty() || fallback == null) return matches;
+        return fallback.searchCardsByName(cardName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Card> T getCardDetails(String cardId) throws ConnectionException {
+        Card card = snapshot.getCard(cardId);
+        if (card != null || fallback == null) return (T) card;
+        return fallback.getCardDetails(cardId);
+    }
+
+    @Override
+    public Map<String, String> getAllSets() throws ConnectionException {
+        Map<String, String> sets = snapshot.getSets();
+        if (!sets.isEmpty() || fallback == null) return sets;
+        return fallback.getAllSets();
+    }
+}
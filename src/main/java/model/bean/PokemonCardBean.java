@@ -1,10 +1,11 @@
 package model.bean;
 
 
+import model.domain.Attack;
+import model.domain.Weakness;
 import model.domain.enumerations.CardGameType;
 
 import java.util.List;
-import java.util.Map;
 
 public class PokemonCardBean extends CardBean {
 
@@ -37,8 +38,8 @@ public class PokemonCardBean extends CardBean {
     private String stage;
 
     
-    private List<Map<String, Object>> attacks;
-    private List<Map<String, String>> weaknesses;
+    private List<Attack> attacks;
+    private List<Weakness> weaknesses;
     private Integer retreat;
 
     
@@ -218,19 +219,19 @@ public class PokemonCardBean extends CardBean {
         this.stage = stage;
     }
 
-    public List<Map<String, Object>> getAttacks() {
+    public List<Attack> getAttacks() {
         return attacks;
     }
 
-    public void setAttacks(List<Map<String, Object>> attacks) {
+    public void setAttacks(List<Attack> attacks) {
         this.attacks = attacks;
     }
 
-    public List<Map<String, String>> getWeaknesses() {
+    public List<Weakness> getWeaknesses() {
         return weaknesses;
     }
 
-    public void setWeaknesses(List<Map<String, String>> weaknesses) {
+    public void setWeaknesses(List<Weakness> weaknesses) {
         this.weaknesses = weaknesses;
     }
 
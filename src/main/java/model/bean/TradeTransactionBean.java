@@ -5,7 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class TradeTransactionBean {
-    private int transactionId;
+    private long transactionId;
     private String proposerId;
     private String receiverId;
     private String storeId;
@@ -20,8 +20,8 @@ public class TradeTransactionBean {
     private boolean proposerArrived;
     private boolean receiverArrived;
 
-    public int getTransactionId() { return transactionId; }
-    public void setTransactionId(int transactionId) { this.transactionId = transactionId; }
+    public long getTransactionId() { return transactionId; }
+    public void setTransactionId(long transactionId) { this.transactionId = transactionId; }
 
     public String getProposerId() { return proposerId; }
     public void setProposerId(String proposerId) { this.proposerId = proposerId; }
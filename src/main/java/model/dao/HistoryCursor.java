@@ -0,0 +1,67 @@
+package model.dao;
+
+import model.domain.Proposal;
+import model.domain.TradeTransaction;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/* Posizione in una cronologia ordinata dal più recente: data decrescente (le date mancanti in fondo) e, a parità
+ * di data, id decrescente. È la stessa chiave usata dalle query JDBC: la pagina successiva riparte esattamente
+ * dopo l'ultimo elemento letto anche se nel frattempo ne sono stati aggiunti di nuovi. */
+public final class HistoryCursor implements Comparable<HistoryCursor> {
+    private final LocalDateTime timestamp;
+    private final long id;
+
+    public HistoryCursor(LocalDateTime timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static HistoryCursor of(TradeTransaction trade) {
+        return new HistoryCursor(trade.getTradeDate(), trade.getTransactionId());
+    }
+
+    // Gli id delle proposte sono numerici in tutti i backend; un id non numerico finisce in coda alla sua data
+    public static HistoryCursor of(Proposal proposal) {
+        String proposalId = proposal.getProposalId();
+        long id = proposalId != null && proposalId.matches("\\d{1,18}") ? Long.parseLong(proposalId) : 0;
+        return new HistoryCursor(proposal.getLastUpdated(), id);
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(HistoryCursor other) {
+        if (timestamp != null && other.timestamp != null) {
+            int byDate = other.timestamp.compareTo(timestamp);
+            if (byDate != 0) return byDate;
+        } else if (timestamp != null || other.timestamp != null) {
+            return timestamp == null ? 1 : -1;
+        }
+        return Long.compare(other.id, id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryCursor other)) return false;
+        return id == other.id && Objects.equals(timestamp, other.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryCursor{" + timestamp + ", " + id + "}";
+    }
+}
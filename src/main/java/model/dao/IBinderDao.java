@@ -1,8 +1,10 @@
 package model.dao;
 
+import config.AsyncExecutor;
 import model.domain.Binder;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface IBinderDao extends IDao<Binder> {
@@ -18,4 +20,41 @@ public interface IBinderDao extends IDao<Binder> {
 
 
     void deleteBinder(String binderId);
+
+
+    default List<TradableCardIndex.Listing> getTradableListings(String setId, String excludingOwner) {
+        TradableCardIndex index = new TradableCardIndex();
+        getBindersExcludingOwner(excludingOwner).forEach(index::put);
+        return index.findListings(setId, excludingOwner);
+    }
+
+
+    default List<TradableCardIndex.Listing> getTradableOwners(String cardId, String excludingOwner) {
+        TradableCardIndex index = new TradableCardIndex();
+        getBindersExcludingOwner(excludingOwner).forEach(index::put);
+        return index.findOwners(cardId, excludingOwner);
+    }
+
+    // Carte scambiabili degli altri utenti il cui nome corrisponde alla query, dalla più rilevante
+    default List<TradableCardIndex.Listing> searchTradableByName(String query, String excludingOwner, int limit) {
+        TradableCardIndex index = new TradableCardIndex();
+        getBindersExcludingOwner(excludingOwner).forEach(index::put);
+        return index.searchByName(query, excludingOwner, limit);
+    }
+
+    default CompletableFuture<List<Binder>> getUserBindersAsync(String owner) {
+        return AsyncExecutor.supply(() -> getUserBinders(owner));
+    }
+
+    default CompletableFuture<Void> createBinderAsync(String owner, String setId, String setName) {
+        return AsyncExecutor.run(() -> createBinder(owner, setId, setName));
+    }
+
+    default CompletableFuture<Void> deleteBinderAsync(String binderId) {
+        return AsyncExecutor.run(() -> deleteBinder(binderId));
+    }
+
+    default CompletableFuture<List<TradableCardIndex.Listing>> getTradableListingsAsync(String setId, String excludingOwner) {
+        return AsyncExecutor.supply(() -> getTradableListings(setId, excludingOwner));
+    }
 }
@@ -1,6 +1,9 @@
 package model.dao;
 
+import config.AsyncExecutor;
+
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface IDao<T>{
     Optional<T> get(long id);
@@ -11,4 +14,21 @@ public interface IDao<T>{
 
     void delete(T t);
 
+    // Varianti asincrone: eseguono il metodo sincrono su un virtual thread
+    default CompletableFuture<Optional<T>> getAsync(long id) {
+        return AsyncExecutor.supply(() -> get(id));
+    }
+
+    default CompletableFuture<Void> saveAsync(T t) {
+        return AsyncExecutor.run(() -> save(t));
+    }
+
+    default CompletableFuture<Void> updateAsync(T t, String[] params) {
+        return AsyncExecutor.run(() -> update(t, params));
+    }
+
+    default CompletableFuture<Void> deleteAsync(T t) {
+        return AsyncExecutor.run(() -> delete(t));
+    }
+
 }
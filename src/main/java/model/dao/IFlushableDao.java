@@ -0,0 +1,11 @@
+package model.dao;
+
+/* DAO che può trattenere in memoria modifiche non ancora scritte: flush() le rende persistenti,
+ * close() esegue l'ultimo flush e rilascia le risorse. */
+public interface IFlushableDao extends AutoCloseable {
+
+    void flush();
+
+    @Override
+    void close();
+}
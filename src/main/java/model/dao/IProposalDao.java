@@ -1,9 +1,11 @@
 package model.dao;
 
+import config.AsyncExecutor;
 import model.domain.Proposal;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface IProposalDao {
     List<Proposal> getAll();
@@ -23,4 +25,33 @@ public interface IProposalDao {
     
     List<Proposal> getPendingProposals(String username);
     List<Proposal> getCompletedProposals(String username); 
+
+    // Proposte concluse a pagine, dalla più recente, ordinate per (lastUpdated, proposalId)
+    default Page<Proposal> getCompletedProposalsPage(String username, HistoryCursor after, int limit) {
+        return Page.select(getCompletedProposals(username), after, limit, HistoryCursor::of);
+    }
+
+    default CompletableFuture<Optional<Proposal>> getByIdAsync(String proposalId) {
+        return AsyncExecutor.supply(() -> getById(proposalId));
+    }
+
+    default CompletableFuture<Void> saveAsync(Proposal proposal) {
+        return AsyncExecutor.run(() -> save(proposal));
+    }
+
+    default CompletableFuture<Void> updateAsync(Proposal proposal) {
+        return AsyncExecutor.run(() -> update(proposal));
+    }
+
+    default CompletableFuture<List<Proposal>> getPendingProposalsAsync(String username) {
+        return AsyncExecutor.supply(() -> getPendingProposals(username));
+    }
+
+    default CompletableFuture<List<Proposal>> getCompletedProposalsAsync(String username) {
+        return AsyncExecutor.supply(() -> getCompletedProposals(username));
+    }
+
+    default CompletableFuture<Page<Proposal>> getCompletedProposalsPageAsync(String username, HistoryCursor after, int limit) {
+        return AsyncExecutor.supply(() -> getCompletedProposalsPage(username, after, limit));
+    }
 }
@@ -1,14 +1,16 @@
 package model.dao;
 
+import config.AsyncExecutor;
 import model.domain.TradeTransaction;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface ITradeDao extends IDao<TradeTransaction> {
-    TradeTransaction getTradeTransactionById(int id);
-    void updateTransactionStatus(int id, String status);
+    TradeTransaction getTradeTransactionById(long id);
+    void updateTransactionStatus(long id, String status);
     List<TradeTransaction> getUserTradeTransactions(String userId);
     List<TradeTransaction> getStoreTradeScheduledTransactions(String userId, String tradeId);
     List<TradeTransaction> getUserTradeTransactions(String userId, String tradeId);
@@ -27,4 +29,46 @@ public interface ITradeDao extends IDao<TradeTransaction> {
 
     
     List<TradeTransaction> getStoreCompletedTrades(String storeId);
+
+    /* Cronologia a pagine dei trade conclusi, dal più recente, ordinata per (tradeDate, transactionId).
+     * after null legge la prima pagina. I backend la ridefiniscono per non caricare l'intera cronologia. */
+    default Page<TradeTransaction> getUserCompletedTradesPage(String userId, HistoryCursor after, int limit) {
+        return Page.select(getUserCompletedTrades(userId), after, limit, HistoryCursor::of);
+    }
+
+    default Page<TradeTransaction> getStoreCompletedTradesPage(String storeId, HistoryCursor after, int limit) {
+        return Page.select(getStoreCompletedTrades(storeId), after, limit, HistoryCursor::of);
+    }
+
+    default CompletableFuture<TradeTransaction> getTradeTransactionByIdAsync(long id) {
+        return AsyncExecutor.supply(() -> getTradeTransactionById(id));
+    }
+
+    default CompletableFuture<List<TradeTransaction>> getUserTradeTransactionsAsync(String userId) {
+        return AsyncExecutor.supply(() -> getUserTradeTransactions(userId));
+    }
+
+    default CompletableFuture<List<TradeTransaction>> getStoreTradeScheduledTransactionsAsync(String userId, String tradeId) {
+        return AsyncExecutor.supply(() -> getStoreTradeScheduledTransactions(userId, tradeId));
+    }
+
+    default CompletableFuture<List<TradeTransaction>> getUserCompletedTradesAsync(String userId) {
+        return AsyncExecutor.supply(() -> getUserCompletedTrades(userId));
+    }
+
+    default CompletableFuture<Page<TradeTransaction>> getUserCompletedTradesPageAsync(String userId, HistoryCursor after, int limit) {
+        return AsyncExecutor.supply(() -> getUserCompletedTradesPage(userId, after, limit));
+    }
+
+    default CompletableFuture<List<TradeTransaction>> getStoreTradeInProgressTransactionsAsync(String storeId) {
+        return AsyncExecutor.supply(() -> getStoreTradeInProgressTransactions(storeId));
+    }
+
+    default CompletableFuture<List<TradeTransaction>> getStoreCompletedTradesAsync(String storeId) {
+        return AsyncExecutor.supply(() -> getStoreCompletedTrades(storeId));
+    }
+
+    default CompletableFuture<Page<TradeTransaction>> getStoreCompletedTradesPageAsync(String storeId, HistoryCursor after, int limit) {
+        return AsyncExecutor.supply(() -> getStoreCompletedTradesPage(storeId, after, limit));
+    }
 }
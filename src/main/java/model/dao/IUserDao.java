@@ -1,8 +1,10 @@
 package model.dao;
 
+import config.AsyncExecutor;
 import model.domain.User;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface IUserDao extends IDao<User> {
     
@@ -13,4 +15,17 @@ public interface IUserDao extends IDao<User> {
     void register(String username, String password, String userType);
 
     java.util.List<String> findAllUsernames();
+
+    
+    default java.util.List<User> findByUserType(String userType) {
+        java.util.List<User> result = new java.util.ArrayList<>();
+        for (String username : findAllUsernames()) {
+            findByName(username).filter(u -> userType != null && userType.equals(u.getUserType())).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    default CompletableFuture<java.util.List<User>> findByUserTypeAsync(String userType) {
+        return AsyncExecutor.supply(() -> findByUserType(userType));
+    }
 }
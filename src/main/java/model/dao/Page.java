@@ -0,0 +1,65 @@
+package model.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/* Una pagina di una cronologia con il cursore da cui leggere la successiva (null se è l'ultima). */
+public final class Page<T> {
+    private final List<T> items;
+    private final HistoryCursor nextCursor;
+
+    public Page(List<T> items, HistoryCursor nextCursor) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), null);
+    }
+
+    /* Costruisce la pagina da righe già ordinate e lette con limite limit + 1: la riga in più indica solo che
+     * esiste una pagina successiva e non viene restituita. */
+    public static <T> Page<T> fromOrdered(List<T> rows, int limit, Function<T, HistoryCursor> key) {
+        checkLimit(limit);
+        if (rows.size() <= limit) return new Page<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new Page<>(items, key.apply(items.getLast()));
+    }
+
+    /* Seleziona tra candidati non ordinati i primi limit elementi dopo il cursore (after null = dall'inizio).
+     * Un heap limitato a limit + 1 elementi evita di ordinare l'intera cronologia per restituirne una pagina. */
+    public static <T> Page<T> select(Collection<T> candidates, HistoryCursor after, int limit, Function<T, HistoryCursor> key) {
+        checkLimit(limit);
+        Comparator<T> order = Comparator.comparing(key);
+        PriorityQueue<T> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        for (T candidate : candidates) {
+            if (candidate == null || after != null && key.apply(candidate).compareTo(after) <= 0) continue;
+            heap.add(candidate);
+            if (heap.size() > limit + 1) heap.poll();
+        }
+        List<T> rows = new ArrayList<>(heap);
+        rows.sort(order);
+        return fromOrdered(rows, limit, key);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public HistoryCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+}
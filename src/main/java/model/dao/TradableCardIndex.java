@@ -0,0 +1,175 @@
+package model.dao;
+
+import model.api.CardNameIndex;
+import model.bean.CardBean;
+import model.domain.Binder;
+
+import java.util.*;
+
+/* Indice inverso del marketplace: cardId -> proprietari che ne hanno una copia scambiabile (con quantità),
+ * setId -> cardId scambiabili e i nomi delle carte scambiabili per la ricerca. Ogni binder contribuisce con le
+ * proprie carte; un nuovo inserimento dello stesso binder sostituisce il contributo precedente, quindi l'indice
+ * segue save/update/delete del DAO. */
+public class TradableCardIndex {
+
+    private final Map<String, Map<String, Map<Long, CardBean>>> byCard = new HashMap<>();
+    private final Map<String, Map<String, Integer>> bySet = new HashMap<>();
+    private final Map<Long, Contribution> contributionsByBinder = new HashMap<>();
+    private final CardNameIndex names = new CardNameIndex();
+
+    public static final class Listing {
+        private final String owner;
+        private final CardBean card;
+        private final int quantity;
+
+        Listing(String owner, CardBean card, int quantity) {
+            this.owner = owner;
+            this.card = card;
+            this.quantity = quantity;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public CardBean getCard() {
+            return new CardBean(card);
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    private static final class Contribution {
+        final String owner;
+        final String setId;
+        final List<String> cardIds;
+
+        Contribution(String owner, String setId, List<String> cardIds) {
+            this.owner = owner;
+            this.setId = setId;
+            this.cardIds = cardIds;
+        }
+    }
+
+    public synchronized void put(Binder binder) {
+        if (binder == null) return;
+        remove(binder.getId());
+        String owner = binder.getOwner();
+        if (owner == null) return;
+
+        List<String> cardIds = new ArrayList<>();
+        for (CardBean cb : binder.getCards()) {
+            if (cb == null || !cb.isTradable() || cb.getId() == null || cardIds.contains(cb.getId())) continue;
+            cardIds.add(cb.getId());
+            byCard.computeIfAbsent(cb.getId(), _ -> new LinkedHashMap<>())
+                    .computeIfAbsent(owner, _ -> new LinkedHashMap<>())
+                    .put(binder.getId(), new CardBean(cb));
+            names.put(cb.getId(), cb.getName());
+            if (binder.getSetId() != null) {
+                bySet.computeIfAbsent(binder.getSetId(), _ -> new HashMap<>()).merge(cb.getId(), 1, Integer::sum);
+            }
+        }
+        if (!cardIds.isEmpty()) {
+            contributionsByBinder.put(binder.getId(), new Contribution(owner, binder.getSetId(), cardIds));
+        }
+    }
+
+    public synchronized void remove(long binderId) {
+        Contribution previous = contributionsByBinder.remove(binderId);
+        if (previous == null) return;
+        for (String cardId : previous.cardIds) {
+            Map<String, Map<Long, CardBean>> owners = byCard.get(cardId);
+            if (owners != null) {
+                Map<Long, CardBean> copies = owners.get(previous.owner);
+                if (copies != null) {
+                    copies.remove(binderId);
+                    if (copies.isEmpty()) owners.remove(previous.owner);
+                }
+                if (owners.isEmpty()) {
+                    byCard.remove(cardId);
+                    names.remove(cardId);
+                }
+            }
+            if (previous.setId != null) {
+                Map<String, Integer> setCards = bySet.get(previous.setId);
+                if (setCards != null) {
+                    setCards.computeIfPresent(cardId, (_, n) -> n > 1 ? n - 1 : null);
+                    if (setCards.isEmpty()) bySet.remove(previous.setId);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        byCard.clear();
+        bySet.clear();
+        contributionsByBinder.clear();
+        names.clear();
+    }
+
+    // Proprietari di una copia scambiabile della carta, con la quantità sommata su tutti i loro binder
+    public synchronized List<Listing> findOwners(String cardId, String excludingOwner) {
+        List<Listing> result = new ArrayList<>();
+        Map<String, Map<Long, CardBean>> owners = cardId != null ? byCard.get(cardId) : null;
+        if (owners == null) return result;
+        for (Map.Entry<String, Map<Long, CardBean>> e : owners.entrySet()) {
+            if (e.getKey().equals(excludingOwner)) continue;
+            result.add(toListing(e.getKey(), e.getValue()));
+        }
+        return result;
+    }
+
+    public synchronized Set<String> findCardIdsBySet(String setId) {
+        Map<String, Integer> setCards = setId != null ? bySet.get(setId) : null;
+        return setCards != null ? new TreeSet<>(setCards.keySet()) : new TreeSet<>();
+    }
+
+    /* Una listing per carta (il primo proprietario diverso da excludingOwner), limitata al set se setId non è null:
+     * è la vista che serve al marketplace. */
+    public synchronized List<Listing> findListings(String setId, String excludingOwner) {
+        Collection<String> cardIds = setId == null ? byCard.keySet() : findCardIdsBySet(setId);
+        List<Listing> result = new ArrayList<>();
+        for (String cardId : cardIds) {
+            Map<String, Map<Long, CardBean>> owners = byCard.get(cardId);
+            if (owners == null) continue;
+            for (Map.Entry<String, Map<Long, CardBean>> e : owners.entrySet()) {
+                if (e.getKey().equals(excludingOwner)) continue;
+                result.add(toListing(e.getKey(), e.getValue()));
+                break;
+            }
+        }
+        return result;
+    }
+
+    /* Ricerca per nome sulle sole carte scambiabili: una listing per carta come findListings, nell'ordine di
+     * rilevanza del CardNameIndex. Legge solo l'indice, che segue già i binder salvati. */
+    public synchronized List<Listing> searchByName(String query, String excludingOwner, int limit) {
+        List<Listing> result = new ArrayList<>();
+        for (String cardId : names.search(query, limit, id -> firstOwner(id, excludingOwner) != null)) {
+            Map.Entry<String, Map<Long, CardBean>> owner = firstOwner(cardId, excludingOwner);
+            result.add(toListing(owner.getKey(), owner.getValue()));
+        }
+        return result;
+    }
+
+    private Map.Entry<String, Map<Long, CardBean>> firstOwner(String cardId, String excludingOwner) {
+        Map<String, Map<Long, CardBean>> owners = byCard.get(cardId);
+        if (owners == null) return null;
+        for (Map.Entry<String, Map<Long, CardBean>> e : owners.entrySet()) {
+            if (!e.getKey().equals(excludingOwner)) return e;
+        }
+        return null;
+    }
+
+    private static Listing toListing(String owner, Map<Long, CardBean> copies) {
+        int quantity = 0;
+        CardBean first = null;
+        for (CardBean cb : copies.values()) {
+            if (first == null) first = cb;
+            quantity += Math.max(0, cb.getQuantity());
+        }
+        return new Listing(owner, first, quantity);
+    }
+}
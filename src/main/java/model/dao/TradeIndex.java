@@ -0,0 +1,168 @@
+package model.dao;
+
+import model.domain.TradeTransaction;
+import model.domain.enumerations.TradeStatus;
+
+import java.util.*;
+
+/* Indici secondari in memoria sui trade: partecipante -> stato, negozio -> stato e la coppia di codici sessione.
+ * Per partecipante e negozio è mantenuta anche la cronologia ordinata per HistoryCursor, da cui si leggono le
+ * pagine con una tailMap invece di ordinare tutti i trade a ogni richiesta. Ogni trade viene archiviato con la
+ * chiave con cui è stato indicizzato, così un nuovo inserimento rimuove sempre la posizione precedente prima di
+ * registrare quella aggiornata. */
+public class TradeIndex {
+
+    private final Map<String, Map<TradeStatus, Set<Long>>> byParticipant = new HashMap<>();
+    private final Map<String, Map<TradeStatus, Set<Long>>> byStore = new HashMap<>();
+    private final Map<String, NavigableMap<HistoryCursor, TradeStatus>> historyByParticipant = new HashMap<>();
+    private final Map<String, NavigableMap<HistoryCursor, TradeStatus>> historyByStore = new HashMap<>();
+    private final Map<Long, Long> bySessionCodes = new HashMap<>();
+    private final Map<Long, IndexedKey> keysById = new HashMap<>();
+
+    private static final class IndexedKey {
+        final String proposerId;
+        final String receiverId;
+        final String storeId;
+        final TradeStatus status;
+        final Long sessionKey;
+        final HistoryCursor position;
+
+        IndexedKey(TradeTransaction t) {
+            this.proposerId = t.getProposerId();
+            this.receiverId = t.getReceiverId();
+            this.storeId = t.getStoreId();
+            this.status = t.getTradeStatus();
+            this.sessionKey = sessionKey(t.getProposerSessionCode(), t.getReceiverSessionCode());
+            this.position = HistoryCursor.of(t);
+        }
+    }
+
+    public synchronized void put(TradeTransaction t) {
+        if (t == null) return;
+        long id = t.getTransactionId();
+        remove(id);
+        IndexedKey key = new IndexedKey(t);
+        keysById.put(id, key);
+        add(byParticipant, key.proposerId, key.status, id);
+        if (!Objects.equals(key.proposerId, key.receiverId)) add(byParticipant, key.receiverId, key.status, id);
+        add(byStore, key.storeId, key.status, id);
+        addHistory(historyByParticipant, key.proposerId, key);
+        addHistory(historyByParticipant, key.receiverId, key);
+        addHistory(historyByStore, key.storeId, key);
+        if (key.sessionKey != null) bySessionCodes.put(key.sessionKey, id);
+    }
+
+    public synchronized void remove(long id) {
+        IndexedKey key = keysById.remove(id);
+        if (key == null) return;
+        drop(byParticipant, key.proposerId, key.status, id);
+        drop(byParticipant, key.receiverId, key.status, id);
+        drop(byStore, key.storeId, key.status, id);
+        dropHistory(historyByParticipant, key.proposerId, key);
+        dropHistory(historyByParticipant, key.receiverId, key);
+        dropHistory(historyByStore, key.storeId, key);
+        if (key.sessionKey != null) bySessionCodes.remove(key.sessionKey, id);
+    }
+
+    public synchronized void clear() {
+        byParticipant.clear();
+        byStore.clear();
+        historyByParticipant.clear();
+        historyByStore.clear();
+        bySessionCodes.clear();
+        keysById.clear();
+    }
+
+    public synchronized List<Long> findByParticipant(String userId) {
+        return collect(byParticipant, userId, null);
+    }
+
+    public synchronized List<Long> findByParticipant(String userId, Set<TradeStatus> statuses) {
+        return collect(byParticipant, userId, statuses);
+    }
+
+    public synchronized List<Long> findByStore(String storeId, Set<TradeStatus> statuses) {
+        return collect(byStore, storeId, statuses);
+    }
+
+    /* Fino a limit + 1 id dopo il cursore, nell'ordine della cronologia: l'elemento in più segnala al chiamante
+     * che esiste una pagina successiva (vedi Page.fromOrdered). */
+    public synchronized List<Long> pageByParticipant(String userId, Set<TradeStatus> statuses, HistoryCursor after, int limit) {
+        return page(historyByParticipant, userId, statuses, after, limit);
+    }
+
+    public synchronized List<Long> pageByStore(String storeId, Set<TradeStatus> statuses, HistoryCursor after, int limit) {
+        return page(historyByStore, storeId, statuses, after, limit);
+    }
+
+    public synchronized Long findBySessionCodes(int proposerCode, int receiverCode) {
+        Long key = sessionKey(proposerCode, receiverCode);
+        return key != null ? bySessionCodes.get(key) : null;
+    }
+
+    private static Long sessionKey(int proposerCode, int receiverCode) {
+        if (proposerCode == 0 && receiverCode == 0) return null;
+        return ((long) proposerCode << 32) | (receiverCode & 0xFFFFFFFFL);
+    }
+
+    private static void add(Map<String, Map<TradeStatus, Set<Long>>> index, String owner, TradeStatus status, long id) {
+        if (owner == null) return;
+        index.computeIfAbsent(owner, _ -> new HashMap<>())
+                .computeIfAbsent(status, _ -> new HashSet<>())
+                .add(id);
+    }
+
+    private static void drop(Map<String, Map<TradeStatus, Set<Long>>> index, String owner, TradeStatus status, long id) {
+        if (owner == null) return;
+        Map<TradeStatus, Set<Long>> byStatus = index.get(owner);
+        if (byStatus == null) return;
+        Set<Long> ids = byStatus.get(status);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) byStatus.remove(status);
+        if (byStatus.isEmpty()) index.remove(owner);
+    }
+
+    private static void addHistory(Map<String, NavigableMap<HistoryCursor, TradeStatus>> index, String owner, IndexedKey key) {
+        if (owner == null) return;
+        index.computeIfAbsent(owner, _ -> new TreeMap<>()).put(key.position, key.status);
+    }
+
+    private static void dropHistory(Map<String, NavigableMap<HistoryCursor, TradeStatus>> index, String owner, IndexedKey key) {
+        if (owner == null) return;
+        NavigableMap<HistoryCursor, TradeStatus> history = index.get(owner);
+        if (history == null) return;
+        history.remove(key.position);
+        if (history.isEmpty()) index.remove(owner);
+    }
+
+    private static List<Long> page(Map<String, NavigableMap<HistoryCursor, TradeStatus>> index, String owner,
+                                      Set<TradeStatus> statuses, HistoryCursor after, int limit) {
+        List<Long> result = new ArrayList<>();
+        NavigableMap<HistoryCursor, TradeStatus> history = owner != null ? index.get(owner) : null;
+        if (history == null) return result;
+        Map<HistoryCursor, TradeStatus> tail = after != null ? history.tailMap(after, false) : history;
+        for (Map.Entry<HistoryCursor, TradeStatus> entry : tail.entrySet()) {
+            if (!statuses.contains(entry.getValue())) continue;
+            result.add(entry.getKey().getId());
+            if (result.size() > limit) break;
+        }
+        return result;
+    }
+
+    private static List<Long> collect(Map<String, Map<TradeStatus, Set<Long>>> index, String owner, Set<TradeStatus> statuses) {
+        List<Long> result = new ArrayList<>();
+        if (owner == null) return result;
+        Map<TradeStatus, Set<Long>> byStatus = index.get(owner);
+        if (byStatus == null) return result;
+        if (statuses == null) {
+            for (Set<Long> ids : byStatus.values()) result.addAll(ids);
+        } else {
+            for (TradeStatus s : statuses) {
+                Set<Long> ids = byStatus.get(s);
+                if (ids != null) result.addAll(ids);
+            }
+        }
+        return result;
+    }
+}
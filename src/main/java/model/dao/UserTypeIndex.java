@@ -0,0 +1,53 @@
+package model.dao;
+
+import model.domain.User;
+
+import java.util.*;
+
+/* Indice in memoria tipo utente -> username, mantenuto dai DAO a ogni register/save/update/delete.
+ * Il tipo con cui un utente è stato indicizzato viene ricordato, così un cambio di tipo sposta l'utente. */
+public class UserTypeIndex {
+
+    private final Map<String, Set<String>> byType = new HashMap<>();
+    private final Map<String, String> typeByUser = new HashMap<>();
+
+    public synchronized void put(User user) {
+        if (user == null || user.getName() == null) return;
+        remove(user.getName());
+        String type = user.getUserType();
+        if (type == null) return;
+        typeByUser.put(user.getName(), type);
+        byType.computeIfAbsent(type, _ -> new TreeSet<>()).add(user.getName());
+    }
+
+    public synchronized void remove(String username) {
+        String previous = typeByUser.remove(username);
+        if (previous == null) return;
+        Set<String> names = byType.get(previous);
+        if (names != null) {
+            names.remove(username);
+            if (names.isEmpty()) byType.remove(previous);
+        }
+    }
+
+    public synchronized void clear() {
+        byType.clear();
+        typeByUser.clear();
+    }
+
+    public synchronized List<String> findUsernames(String userType) {
+        Set<String> names = userType != null ? byType.get(userType) : null;
+        return names != null ? new ArrayList<>(names) : new ArrayList<>();
+    }
+
+    /* Risolve gli username nei rispettivi utenti. Un utente modificato senza passare dal DAO potrebbe avere
+     * cambiato tipo: viene scartato qui invece di restituire un risultato sbagliato. */
+    public List<User> resolve(String userType, Map<String, User> users) {
+        List<User> result = new ArrayList<>();
+        for (String name : findUsernames(userType)) {
+            User u = users.get(name);
+            if (u != null && userType.equals(u.getUserType())) result.add(u);
+        }
+        return result;
+    }
+}
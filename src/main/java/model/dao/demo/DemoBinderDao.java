@@ -1,12 +1,14 @@
 package model.dao.demo;
 
+import config.IdGenerator;
+import config.IdGenerators;
 import model.dao.IBinderDao;
+import model.dao.TradableCardIndex;
 import model.domain.Binder;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,12 +18,14 @@ public class DemoBinderDao implements IBinderDao {
 
     private final Map<Long, Binder> bindersById;
     private final Map<String, List<Binder>> bindersByOwner;
-    private final AtomicLong idGenerator;
+    private final TradableCardIndex tradableIndex;
+    private final IdGenerator idGenerator;
 
     public DemoBinderDao() {
         this.bindersById = new ConcurrentHashMap<>();
         this.bindersByOwner = new ConcurrentHashMap<>();
-        this.idGenerator = new AtomicLong(0);
+        this.tradableIndex = new TradableCardIndex();
+        this.idGenerator = IdGenerators.shared();
 
         LOGGER.info("DemoBinderDao initialized - data will be volatile");
     }
@@ -30,23 +34,22 @@ public class DemoBinderDao implements IBinderDao {
     public void loadFromCollection(Collection<Binder> initial) {
         bindersById.clear();
         bindersByOwner.clear();
+        tradableIndex.clear();
         if (initial == null) {
             LOGGER.log(Level.INFO, "DemoBinderDao.loadFromCollection: loaded 0 binders (null input)");
             return;
         }
-        long max = 0;
         int count = 0;
         for (Binder b : initial) {
             if (b == null) continue;
-            if (b.getId() == 0) b.setId(idGenerator.incrementAndGet());
+            if (b.getId() == 0) b.setId(idGenerator.nextId());
             if (b.getCreatedAt() == null) b.setCreatedAt(LocalDateTime.now());
             b.setLastModified(LocalDateTime.now());
             bindersById.put(b.getId(), b);
             bindersByOwner.computeIfAbsent(b.getOwner(), k -> new ArrayList<>()).add(b);
-            if (b.getId() > max) max = b.getId();
+            tradableIndex.put(b);
             count++;
         }
-        if (max > 0) idGenerator.set(max);
         LOGGER.log(Level.INFO, "DemoBinderDao.loadFromCollection: loaded {0} binders into memory", count);
     }
 
@@ -63,7 +66,7 @@ public class DemoBinderDao implements IBinderDao {
         }
 
         if (binder.getId() == 0) {
-            binder.setId(idGenerator.incrementAndGet());
+            binder.setId(idGenerator.nextId());
         }
 
         if (binder.getCreatedAt() == null) {
@@ -73,7 +76,10 @@ public class DemoBinderDao implements IBinderDao {
         binder.setLastModified(LocalDateTime.now());
 
         bindersById.put(binder.getId(), binder);
-        bindersByOwner.computeIfAbsent(binder.getOwner(), k -> new ArrayList<>()).add(binder);
+        List<Binder> ownerBinders = bindersByOwner.computeIfAbsent(binder.getOwner(), k -> new ArrayList<>());
+        ownerBinders.removeIf(b -> b.getId() == binder.getId());
+        ownerBinders.add(binder);
+        tradableIndex.put(binder);
 
         LOGGER.log(java.util.logging.Level.INFO, "Saved binder ID: {0} in demo for user: {1}",
                 new Object[] { binder.getId(), binder.getOwner() });
@@ -99,6 +105,7 @@ public class DemoBinderDao implements IBinderDao {
         }
 
         bindersById.put(binder.getId(), binder);
+        tradableIndex.put(binder);
 
         LOGGER.log(java.util.logging.Level.INFO, "Updated binder ID: {0} in demo", binder.getId());
     }
@@ -110,6 +117,7 @@ public class DemoBinderDao implements IBinderDao {
         }
 
         bindersById.remove(binder.getId());
+        tradableIndex.remove(binder.getId());
 
         List<Binder> ownerBinders = bindersByOwner.get(binder.getOwner());
         if (ownerBinders != null) {
@@ -151,6 +159,21 @@ public class DemoBinderDao implements IBinderDao {
         return result;
     }
 
+    @Override
+    public List<TradableCardIndex.Listing> getTradableListings(String setId, String excludingOwner) {
+        return tradableIndex.findListings(setId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> getTradableOwners(String cardId, String excludingOwner) {
+        return tradableIndex.findOwners(cardId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> searchTradableByName(String query, String excludingOwner, int limit) {
+        return tradableIndex.searchByName(query, excludingOwner, limit);
+    }
+
     @Override
     public void createBinder(String owner, String setId, String setName) {
         Binder binder = new Binder(owner, setId, setName);
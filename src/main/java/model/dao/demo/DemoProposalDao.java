@@ -1,19 +1,20 @@
 package model.dao.demo;
 
+import config.IdGenerator;
+import config.IdGenerators;
 import model.dao.IProposalDao;
 import model.domain.Proposal;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DemoProposalDao implements IProposalDao {
     private static final Logger LOGGER = Logger.getLogger(DemoProposalDao.class.getName());
     private final Map<String, Proposal> map = new ConcurrentHashMap<>();
-    private final AtomicLong idGen = new AtomicLong(0);
+    private final IdGenerator idGen = IdGenerators.shared();
 
     public DemoProposalDao() {
         LOGGER.info("DemoProposalDao initialized - data will be volatile");
@@ -26,23 +27,15 @@ public class DemoProposalDao implements IProposalDao {
             LOGGER.log(Level.INFO, "DemoProposalDao.loadFromCollection: loaded 0 proposals (null input)");
             return;
         }
-        long max = 0;
         int count = 0;
         for (Proposal p : initial) {
             if (p == null) continue;
             if (p.getProposalId() == null || p.getProposalId().isEmpty()) {
-                p.setProposalId(String.valueOf(idGen.incrementAndGet()));
+                p.setProposalId(String.valueOf(idGen.nextId()));
             }
             map.put(p.getProposalId(), p);
-            try {
-                long numeric = Long.parseLong(p.getProposalId());
-                if (numeric > max) max = numeric;
-            } catch (NumberFormatException _) {
-                LOGGER.log(Level.WARNING,"Number format exception");
-            }
             count++;
         }
-        if (max > 0) idGen.set(max);
         LOGGER.log(Level.INFO, "DemoProposalDao.loadFromCollection: loaded {0} proposals into memory", count);
     }
 
@@ -59,7 +52,7 @@ public class DemoProposalDao implements IProposalDao {
     @Override
     public void save(Proposal proposal) {
         if (proposal.getProposalId() == null || proposal.getProposalId().isEmpty()) {
-            proposal.setProposalId(String.valueOf(idGen.incrementAndGet()));
+            proposal.setProposalId(String.valueOf(idGen.nextId()));
         }
         proposal.setLastUpdated(LocalDateTime.now());
         map.put(proposal.getProposalId(), proposal);
@@ -1,19 +1,22 @@
 package model.dao.demo;
 
+import config.IdGenerator;
+import config.IdGenerators;
+import model.dao.HistoryCursor;
 import model.dao.ITradeDao;
+import model.dao.Page;
 import model.domain.TradeTransaction;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DemoTradeDao implements ITradeDao {
     private static final Logger LOGGER = Logger.getLogger(DemoTradeDao.class.getName());
-    private final Map<Integer, TradeTransaction> tradesById = new ConcurrentHashMap<>();
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    private final Map<Long, TradeTransaction> tradesById = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator = IdGenerators.shared();
 
     public DemoTradeDao() {
         /* non ancora implementato */
@@ -26,29 +29,23 @@ public class DemoTradeDao implements ITradeDao {
             LOGGER.log(Level.INFO, "DemoTradeDao.loadFromCollection: loaded 0 trades (null input)");
             return;
         }
-        int max = 0;
         int count = 0;
         for (TradeTransaction t : initialTrades) {
             if (t == null) continue;
-            if (t.getTransactionId() == 0) {
-                int id = idGenerator.incrementAndGet();
-                t.setTransactionId(id);
-            }
+            if (t.getTransactionId() == 0) t.setTransactionId(idGenerator.nextId());
             tradesById.put(t.getTransactionId(), t);
-            if (t.getTransactionId() > max) max = t.getTransactionId();
             count++;
         }
-        if (max > 0) idGenerator.set(max);
         LOGGER.log(Level.INFO, "DemoTradeDao.loadFromCollection: loaded {0} trade transactions into memory", count);
     }
 
     @Override
-    public TradeTransaction getTradeTransactionById(int id) {
+    public TradeTransaction getTradeTransactionById(long id) {
         return tradesById.get(id);
     }
 
     @Override
-    public void updateTransactionStatus(int id, String status) {
+    public void updateTransactionStatus(long id, String status) {
         TradeTransaction t = tradesById.get(id);
         if (t == null) return;
         try {
@@ -117,12 +114,35 @@ public class DemoTradeDao implements ITradeDao {
         return result;
     }
 
+    // In memoria non c'è un indice ordinato: una scansione con selezione a heap limitato alla pagina richiesta
+    @Override
+    public Page<TradeTransaction> getUserCompletedTradesPage(String userId, HistoryCursor after, int limit) {
+        if (userId == null) return Page.empty();
+        List<TradeTransaction> candidates = new ArrayList<>();
+        for (TradeTransaction t : tradesById.values()) {
+            if (t != null && isCompletedForUser(t, userId)) candidates.add(t);
+        }
+        return Page.select(candidates, after, limit, HistoryCursor::of);
+    }
+
+    @Override
+    public Page<TradeTransaction> getStoreCompletedTradesPage(String storeId, HistoryCursor after, int limit) {
+        if (storeId == null) return Page.empty();
+        List<TradeTransaction> candidates = new ArrayList<>();
+        for (TradeTransaction t : tradesById.values()) {
+            if (t != null && storeId.equals(t.getStoreId()) && isClosed(t)) candidates.add(t);
+        }
+        return Page.select(candidates, after, limit, HistoryCursor::of);
+    }
+
+    private static boolean isClosed(TradeTransaction t) {
+        model.domain.enumerations.TradeStatus s = t.getTradeStatus();
+        return s == model.domain.enumerations.TradeStatus.COMPLETED || s == model.domain.enumerations.TradeStatus.CANCELLED;
+    }
     
     private boolean isCompletedForUser(TradeTransaction t, String userId) {
         boolean involved = (userId.equals(t.getProposerId()) || userId.equals(t.getReceiverId()));
-        if (!involved) return false;
-        model.domain.enumerations.TradeStatus s = t.getTradeStatus();
-        return s == model.domain.enumerations.TradeStatus.COMPLETED || s == model.domain.enumerations.TradeStatus.CANCELLED;
+        return involved && isClosed(t);
     }
 
     
@@ -143,16 +163,13 @@ public class DemoTradeDao implements ITradeDao {
 
     @Override
     public Optional<TradeTransaction> get(long id) {
-        return Optional.ofNullable(tradesById.get((int) id));
+        return Optional.ofNullable(tradesById.get(id));
     }
 
     @Override
     public void save(TradeTransaction tradeTransaction) {
         if (tradeTransaction == null) throw new IllegalArgumentException("TradeTransaction cannot be null");
-        if (tradeTransaction.getTransactionId() == 0) {
-            int id = idGenerator.incrementAndGet();
-            tradeTransaction.setTransactionId(id);
-        }
+        if (tradeTransaction.getTransactionId() == 0) tradeTransaction.setTransactionId(idGenerator.nextId());
         tradesById.put(tradeTransaction.getTransactionId(), tradeTransaction);
         LOGGER.log(Level.INFO, "DemoTradeDao.save: saved trade transaction {0}", tradeTransaction.getTransactionId());
     }
@@ -1,6 +1,7 @@
 package model.dao.demo;
 
 import model.dao.IUserDao;
+import model.dao.UserTypeIndex;
 import model.domain.User;
 
 import java.util.*;
@@ -14,6 +15,7 @@ public class DemoUserDao implements IUserDao {
 
     private final Map<String, User> users;
     private final Map<String, String> credentials;
+    private final UserTypeIndex typeIndex = new UserTypeIndex();
     private long nextId = 1;
 
     public DemoUserDao() {
@@ -26,6 +28,7 @@ public class DemoUserDao implements IUserDao {
     public void loadFromCollection(Collection<User> initialUsers, Map<String, String> creds) {
         users.clear();
         credentials.clear();
+        typeIndex.clear();
         if (initialUsers == null) {
             LOGGER.log(Level.INFO, "DemoUserDao.loadFromCollection: loaded 0 users (null input)");
             return;
@@ -35,6 +38,7 @@ public class DemoUserDao implements IUserDao {
             if (u == null) continue;
             if (u.getId() == 0) u.setId(nextId++);
             users.put(u.getName(), u);
+            typeIndex.put(u);
             count++;
         }
         if (creds != null) credentials.putAll(creds);
@@ -58,6 +62,7 @@ public class DemoUserDao implements IUserDao {
             user.setId(nextId++);
         }
         users.put(user.getName(), user);
+        typeIndex.put(user);
         LOGGER.log(Level.INFO, "User saved: {0}", user.getName());
     }
 
@@ -70,6 +75,7 @@ public class DemoUserDao implements IUserDao {
             throw new IllegalStateException("User not found: " + user.getName());
         }
         users.put(user.getName(), user);
+        typeIndex.put(user);
         LOGGER.log(Level.INFO, "User updated: {0}", user.getName());
     }
 
@@ -78,6 +84,7 @@ public class DemoUserDao implements IUserDao {
         if (user != null) {
             users.remove(user.getName());
             credentials.remove(user.getName());
+            typeIndex.remove(user.getName());
             LOGGER.log(Level.INFO, "User deleted: {0}", user.getName());
         }
     }
@@ -112,6 +119,7 @@ public class DemoUserDao implements IUserDao {
         user.setUserType(userType);
 
         users.put(username, user);
+        typeIndex.put(user);
         credentials.put(username, password);
         LOGGER.log(Level.INFO, "User registered: {0}", username);
     }
@@ -120,4 +128,9 @@ public class DemoUserDao implements IUserDao {
     public java.util.List<String> findAllUsernames() {
         return new java.util.ArrayList<>(users.keySet());
     }
+
+    @Override
+    public java.util.List<User> findByUserType(String userType) {
+        return typeIndex.resolve(userType, users);
+    }
 }
@@ -27,4 +27,8 @@ public abstract class DaoFactory {
     
     public abstract model.dao.ITradeDao createTradeDao();
 
+    // Rilascia le risorse prese dalla factory stessa; i DAO si chiudono a parte
+    public void close() {
+    }
+
 }
@@ -1,16 +1,29 @@
 package model.dao.factory;
 
+import config.DBConnector;
 import config.DatabaseConfig;
+import config.IdGenerators;
+import config.TimeOrderedIdGenerator;
+import exception.DataPersistenceException;
 import model.dao.IBinderDao;
 import model.dao.IUserDao;
-import model.dao.json.JsonBinderDao;
+import model.dao.jdbc.JdbcBinderDao;
+import model.dao.jdbc.JdbcNodeLease;
+import model.dao.jdbc.JdbcProposalDao;
+import model.dao.jdbc.JdbcTradeDao;
 import model.dao.jdbc.JdbcUserDao;
 import model.dao.IProposalDao;
-import model.dao.json.JsonProposalDao;
-import java.io.File;
+
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 public class JdbcDaoFactory extends DaoFactory {
+    private static final Logger LOGGER = Logger.getLogger(JdbcDaoFactory.class.getName());
+
+    private boolean nodeResolved;
+    private JdbcNodeLease nodeLease;
 
 
     @Override
@@ -23,19 +36,40 @@ public class JdbcDaoFactory extends DaoFactory {
 
     @Override
     public IBinderDao createBinderDao() {
-        
-        return new JsonBinderDao(DatabaseConfig.BINDERS_JSON_PATH);
+        leaseNodeId();
+        return new JdbcBinderDao();
     }
 
     @Override
     public IProposalDao createProposalDao() {
-        
-        return new JsonProposalDao(DatabaseConfig.JSON_DIR + File.separator + "proposals.json");
+        leaseNodeId();
+        return new JdbcProposalDao();
     }
 
     @Override
     public model.dao.ITradeDao createTradeDao() {
-        return new model.dao.json.JsonTradeDao(DatabaseConfig.JSON_DIR + File.separator + "trades.json");
+        leaseNodeId();
+        return new JdbcTradeDao();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (nodeLease != null) nodeLease.release();
+        nodeLease = null;
+    }
+
+    // Più terminali scrivono sullo stesso database: senza un nodo configurato ne prende uno libero prima che i DAO
+    // che generano id leggano il generatore (gli utenti hanno come chiave il nome)
+    private synchronized void leaseNodeId() {
+        if (nodeResolved) return;
+        nodeResolved = true;
+        if (IdGenerators.configuredNodeId().isPresent()) return;
+        try {
+            nodeLease = JdbcNodeLease.acquire(DBConnector.getInstance().getPool());
+            IdGenerators.setShared(new TimeOrderedIdGenerator(nodeLease.getNodeId()));
+        } catch (SQLException | DataPersistenceException e) {
+            LOGGER.log(Level.WARNING, "Could not lease a node id from the database", e);
+        }
     }
 
 }
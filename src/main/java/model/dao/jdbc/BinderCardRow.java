@@ -0,0 +1,84 @@
+package model.dao.jdbc;
+
+import model.bean.CardBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/* Copia immutabile di una riga di binder_cards, usata per confrontare le carte di un raccoglitore con quanto
+ * scritto l'ultima volta e salvare solo le righe cambiate. */
+final class BinderCardRow {
+    final String cardId;
+    final String name;
+    final String imageUrl;
+    final String gameType;
+    final int quantity;
+    final boolean tradable;
+    final String status;
+
+    BinderCardRow(String cardId, String name, String imageUrl, String gameType, int quantity, boolean tradable, String status) {
+        this.cardId = cardId;
+        this.name = name;
+        this.imageUrl = imageUrl;
+        this.gameType = gameType;
+        this.quantity = quantity;
+        this.tradable = tradable;
+        this.status = status;
+    }
+
+    static BinderCardRow of(CardBean cb) {
+        return new BinderCardRow(cb.getId(), cb.getName(), cb.getImageUrl(), JdbcSupport.gameTypeName(cb.getGameType()),
+                cb.getQuantity(), cb.isTradable(), cb.getStatus());
+    }
+
+    // Una riga per cardId: se il raccoglitore contiene duplicati vale la prima occorrenza, come la chiave primaria
+    static Map<String, BinderCardRow> rowsOf(Collection<CardBean> cards) {
+        Map<String, BinderCardRow> rows = new LinkedHashMap<>();
+        for (CardBean cb : cards) {
+            if (cb != null && cb.getId() != null) rows.putIfAbsent(cb.getId(), of(cb));
+        }
+        return rows;
+    }
+
+    static final class Diff {
+        final List<BinderCardRow> upserts = new ArrayList<>();
+        final List<String> deletes = new ArrayList<>();
+
+        boolean isEmpty() {
+            return upserts.isEmpty() && deletes.isEmpty();
+        }
+
+        int size() {
+            return upserts.size() + deletes.size();
+        }
+    }
+
+    static Diff diff(Map<String, BinderCardRow> persisted, Map<String, BinderCardRow> current) {
+        Diff diff = new Diff();
+        for (BinderCardRow row : current.values()) {
+            if (!row.equals(persisted.get(row.cardId))) diff.upserts.add(row);
+        }
+        for (String cardId : persisted.keySet()) {
+            if (!current.containsKey(cardId)) diff.deletes.add(cardId);
+        }
+        return diff;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BinderCardRow other)) return false;
+        return quantity == other.quantity && tradable == other.tradable && cardId.equals(other.cardId)
+                && Objects.equals(name, other.name) && Objects.equals(imageUrl, other.imageUrl)
+                && Objects.equals(gameType, other.gameType) && Objects.equals(status, other.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cardId, quantity, tradable);
+    }
+}
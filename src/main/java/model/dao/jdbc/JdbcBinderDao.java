@@ -0,0 +1,340 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.DatabaseConfig;
+import config.IdGenerator;
+import config.IdGenerators;
+import model.bean.CardBean;
+import model.dao.IBinderDao;
+import model.dao.TradableCardIndex;
+import model.domain.Binder;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class JdbcBinderDao implements IBinderDao {
+    private static final Logger LOGGER = Logger.getLogger(JdbcBinderDao.class.getName());
+
+    private static final String SELECT_BINDERS_WITH_CARDS = "SELECT b.id, b.owner, b.set_id, b.set_name, b.created_at, b.last_modified, "
+            + "c.card_id, c.name, c.image_url, c.game_type, c.quantity, c.tradable, c.status "
+            + "FROM binders b LEFT JOIN binder_cards c ON c.binder_id = b.id WHERE ";
+    private static final String BINDER_ORDER = " ORDER BY b.id, c.card_id";
+    private static final String SELECT_TRADABLE = SELECT_BINDERS_WITH_CARDS.replace("LEFT JOIN", "JOIN") + "c.tradable = TRUE";
+
+    // Statement nominati: testo SQL costante, riutilizzato dal pool per connessione e misurato per nome
+    private static final NamedStatement FIND_BY_ID = new NamedStatement("binders.findById",
+            SELECT_BINDERS_WITH_CARDS + "b.id = ?" + BINDER_ORDER);
+    private static final NamedStatement FIND_BY_OWNER = new NamedStatement("binders.findByOwner",
+            SELECT_BINDERS_WITH_CARDS + "b.owner = ?" + BINDER_ORDER);
+    private static final NamedStatement FIND_ALL = new NamedStatement("binders.findAll",
+            SELECT_BINDERS_WITH_CARDS + "1 = 1" + BINDER_ORDER);
+    private static final NamedStatement FIND_EXCLUDING_OWNER = new NamedStatement("binders.findExcludingOwner",
+            SELECT_BINDERS_WITH_CARDS + "b.owner <> ?" + BINDER_ORDER);
+    private static final NamedStatement FIND_TRADABLE = new NamedStatement("binders.findTradable",
+            SELECT_TRADABLE + BINDER_ORDER);
+    private static final NamedStatement FIND_TRADABLE_EXCLUDING_OWNER = new NamedStatement("binders.findTradableExcludingOwner",
+            SELECT_TRADABLE + " AND b.owner <> ?" + BINDER_ORDER);
+    private static final NamedStatement FIND_TRADABLE_IN_SET = new NamedStatement("binders.findTradableInSet",
+            SELECT_TRADABLE + " AND b.owner <> ? AND b.set_id = ?" + BINDER_ORDER);
+    private static final NamedStatement FIND_TRADABLE_OWNERS = new NamedStatement("binders.findTradableOwners",
+            SELECT_TRADABLE + " AND c.card_id = ? AND b.owner <> ?" + BINDER_ORDER);
+    private static final NamedStatement EXISTS = new NamedStatement("binders.exists",
+            "SELECT 1 FROM binders WHERE id = ?");
+    private static final NamedStatement UPSERT = new NamedStatement("binders.upsert",
+            "INSERT INTO binders (id, owner, set_id, set_name, created_at, last_modified) VALUES (?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE owner = VALUES(owner), set_id = VALUES(set_id), set_name = VALUES(set_name), "
+                    + "last_modified = VALUES(last_modified)");
+    private static final NamedStatement DELETE = new NamedStatement("binders.delete",
+            "DELETE FROM binders WHERE id = ?");
+    private static final NamedStatement LOCK_CARD_ROWS = new NamedStatement("binderCards.findForUpdate",
+            "SELECT card_id, name, image_url, game_type, quantity, tradable, status FROM binder_cards WHERE binder_id = ? FOR UPDATE");
+    private static final NamedStatement UPSERT_CARD = new NamedStatement("binderCards.upsert",
+            "INSERT INTO binder_cards (binder_id, card_id, name, image_url, game_type, quantity, tradable, status) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name), image_url = VALUES(image_url), "
+                    + "game_type = VALUES(game_type), quantity = VALUES(quantity), tradable = VALUES(tradable), status = VALUES(status)");
+    private static final NamedStatement DELETE_CARD = new NamedStatement("binderCards.delete",
+            "DELETE FROM binder_cards WHERE binder_id = ? AND card_id = ?");
+
+    private static final String CREATE_BINDERS = """
+            CREATE TABLE IF NOT EXISTS binders (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                owner VARCHAR(255) NOT NULL,
+                set_id VARCHAR(64) NOT NULL,
+                set_name VARCHAR(255),
+                created_at TIMESTAMP NULL,
+                last_modified TIMESTAMP NULL,
+                INDEX idx_binders_owner_set (owner, set_id),
+                INDEX idx_binders_set (set_id)
+            )
+            """;
+
+    // Una riga per carta del raccoglitore; l'indice su tradable serve al marketplace
+    private static final String CREATE_BINDER_CARDS = """
+            CREATE TABLE IF NOT EXISTS binder_cards (
+                binder_id BIGINT NOT NULL,
+                card_id VARCHAR(64) NOT NULL,
+                name VARCHAR(255),
+                image_url VARCHAR(512),
+                game_type VARCHAR(32),
+                quantity INT NOT NULL DEFAULT 1,
+                tradable BOOLEAN NOT NULL DEFAULT FALSE,
+                status VARCHAR(32),
+                PRIMARY KEY (binder_id, card_id),
+                INDEX idx_binder_cards_tradable (tradable, card_id),
+                FOREIGN KEY (binder_id) REFERENCES binders(id) ON DELETE CASCADE
+            )
+            """;
+
+    private final ConnectionPool pool;
+    private final IdGenerator idGenerator = IdGenerators.shared();
+    private final LongSupplier clock;
+    // Carte scambiabili per la ricerca mentre si digita: ogni tasto legge solo la memoria
+    private final TradableCardIndex searchIndex = new TradableCardIndex();
+    private long searchIndexLoadedAt;
+    private boolean searchIndexLoaded;
+
+    public JdbcBinderDao() {
+        this(JdbcSupport.sharedPool());
+    }
+
+    public JdbcBinderDao(ConnectionPool pool) {
+        this(pool, System::currentTimeMillis);
+    }
+
+    JdbcBinderDao(ConnectionPool pool, LongSupplier clock) {
+        this.pool = pool;
+        this.clock = clock;
+        JdbcSupport.createTables(pool, CREATE_BINDERS, CREATE_BINDER_CARDS);
+    }
+
+    @Override
+    public Optional<Binder> get(long id) {
+        List<Binder> found = select(FIND_BY_ID, ps -> ps.setLong(1, id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.getFirst());
+    }
+
+    @Override
+    public List<Binder> getUserBinders(String owner) {
+        if (owner == null) return new ArrayList<>();
+        return select(FIND_BY_OWNER, ps -> ps.setString(1, owner));
+    }
+
+    @Override
+    public List<Binder> getBindersExcludingOwner(String owner) {
+        if (owner == null) return select(FIND_ALL, NamedStatement.NO_PARAMS);
+        return select(FIND_EXCLUDING_OWNER, ps -> ps.setString(1, owner));
+    }
+
+    @Override
+    public void save(Binder binder) {
+        if (binder == null) throw new IllegalArgumentException("Binder cannot be null");
+        if (binder.getCreatedAt() == null) binder.setCreatedAt(LocalDateTime.now());
+        binder.setLastModified(LocalDateTime.now());
+        boolean isNew = binder.getId() == 0;
+        if (isNew) binder.setId(idGenerator.nextId());
+        Map<String, BinderCardRow> current = BinderCardRow.rowsOf(binder.getCards());
+        // Il confronto è con le righe nel database, bloccate fino al commit: un altro terminale può averle cambiate
+        int written = JdbcSupport.inTransaction(pool, "Failed to save binder " + binder.getId(), conn -> {
+            upsert(conn, binder);
+            Map<String, BinderCardRow> persisted = isNew ? Map.of() : readCardRows(conn, binder.getId());
+            return writeCardDiff(conn, binder.getId(), BinderCardRow.diff(persisted, current));
+        });
+        synchronized (searchIndex) {
+            if (searchIndexLoaded) searchIndex.put(binder);
+        }
+        LOGGER.log(Level.INFO, "Saved binder ID: {0} for user: {1} ({2} card rows written)",
+                new Object[] { binder.getId(), binder.getOwner(), written });
+    }
+
+    @Override
+    public void update(Binder binder, String[] params) {
+        if (binder == null || !exists(binder.getId())) {
+            throw new IllegalArgumentException("Binder not found with ID: " + (binder != null ? binder.getId() : null));
+        }
+        save(binder);
+    }
+
+    // Controllo di esistenza senza rileggere le carte, che il salvataggio legge comunque nella sua transazione
+    private boolean exists(long id) {
+        return JdbcSupport.query(pool, "Failed to look up binder " + id,
+                conn -> EXISTS.query(conn, ps -> ps.setLong(1, id), ResultSet::next));
+    }
+
+    @Override
+    public void delete(Binder binder) {
+        if (binder == null) throw new IllegalArgumentException("Binder cannot be null");
+        JdbcSupport.query(pool, "Failed to delete binder " + binder.getId(),
+                conn -> DELETE.update(conn, ps -> ps.setLong(1, binder.getId())));
+        synchronized (searchIndex) {
+            searchIndex.remove(binder.getId());
+        }
+        LOGGER.log(Level.INFO, "Deleted binder ID: {0}", binder.getId());
+    }
+
+    @Override
+    public void createBinder(String owner, String setId, String setName) {
+        save(new Binder(owner, setId, setName));
+    }
+
+    @Override
+    public void deleteBinder(String binderId) {
+        try {
+            long id = Long.parseLong(binderId);
+            Optional<Binder> binderOpt = get(id);
+            if (binderOpt.isPresent()) {
+                delete(binderOpt.get());
+            } else {
+                LOGGER.log(Level.WARNING, "No binder found to delete with id: {0}", binderId);
+            }
+        } catch (NumberFormatException _) {
+            LOGGER.log(Level.WARNING, "Invalid binder id: {0}", binderId);
+        }
+    }
+
+    // Il marketplace legge solo le righe scambiabili del set, poi riusa la stessa logica di aggregazione dei DAO in memoria
+    @Override
+    public List<TradableCardIndex.Listing> getTradableListings(String setId, String excludingOwner) {
+        return tradableIndex(setId != null ? FIND_TRADABLE_IN_SET : FIND_TRADABLE_EXCLUDING_OWNER, ps -> {
+            ps.setString(1, excludingOwner != null ? excludingOwner : "");
+            if (setId != null) ps.setString(2, setId);
+        }).findListings(setId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> getTradableOwners(String cardId, String excludingOwner) {
+        if (cardId == null) return new ArrayList<>();
+        return tradableIndex(FIND_TRADABLE_OWNERS, ps -> {
+            ps.setString(1, cardId);
+            ps.setString(2, excludingOwner != null ? excludingOwner : "");
+        }).findOwners(cardId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> searchTradableByName(String query, String excludingOwner, int limit) {
+        synchronized (searchIndex) {
+            long now = clock.getAsLong();
+            if (!searchIndexLoaded || now - searchIndexLoadedAt > TimeUnit.SECONDS.toMillis(DatabaseConfig.TRADABLE_SEARCH_REFRESH_SECONDS)) {
+                reloadSearchIndex();
+                searchIndexLoaded = true;
+                searchIndexLoadedAt = now;
+            }
+            return searchIndex.searchByName(query, excludingOwner, limit);
+        }
+    }
+
+    // Una sola lettura delle righe scambiabili di tutti gli utenti; l'esclusione del proprietario la fa la ricerca
+    private void reloadSearchIndex() {
+        List<Binder> binders = JdbcSupport.query(pool, "Failed to load tradable cards",
+                conn -> FIND_TRADABLE.query(conn, NamedStatement.NO_PARAMS, JdbcBinderDao::readBinders));
+        searchIndex.clear();
+        binders.forEach(searchIndex::put);
+    }
+
+    private TradableCardIndex tradableIndex(NamedStatement statement, NamedStatement.Params params) {
+        TradableCardIndex index = new TradableCardIndex();
+        JdbcSupport.query(pool, "Failed to query tradable cards", conn -> {
+            for (Binder b : statement.query(conn, params, JdbcBinderDao::readBinders)) index.put(b);
+            return null;
+        });
+        return index;
+    }
+
+    private void upsert(Connection conn, Binder binder) throws SQLException {
+        UPSERT.update(conn, ps -> {
+            int i = 1;
+            ps.setLong(i++, binder.getId());
+            ps.setString(i++, binder.getOwner());
+            ps.setString(i++, binder.getSetId());
+            ps.setString(i++, binder.getSetName());
+            JdbcSupport.setTimestamp(ps, i++, binder.getCreatedAt());
+            JdbcSupport.setTimestamp(ps, i, binder.getLastModified());
+        });
+    }
+
+    // Inserimenti/aggiornamenti e cancellazioni vanno in due batch, dentro la transazione del salvataggio
+    private static int writeCardDiff(Connection conn, long binderId, BinderCardRow.Diff diff) throws SQLException {
+        if (diff.isEmpty()) return 0;
+        if (!diff.upserts.isEmpty()) {
+            UPSERT_CARD.batch(conn, diff.upserts, (ps, row) -> {
+                ps.setLong(1, binderId);
+                ps.setString(2, row.cardId);
+                ps.setString(3, row.name);
+                ps.setString(4, row.imageUrl);
+                ps.setString(5, row.gameType);
+                ps.setInt(6, row.quantity);
+                ps.setBoolean(7, row.tradable);
+                ps.setString(8, row.status);
+            });
+        }
+        if (!diff.deletes.isEmpty()) {
+            DELETE_CARD.batch(conn, diff.deletes, (ps, cardId) -> {
+                ps.setLong(1, binderId);
+                ps.setString(2, cardId);
+            });
+        }
+        return diff.size();
+    }
+
+    private static Map<String, BinderCardRow> readCardRows(Connection conn, long binderId) throws SQLException {
+        return LOCK_CARD_ROWS.query(conn, ps -> ps.setLong(1, binderId), rs -> {
+            Map<String, BinderCardRow> rows = new LinkedHashMap<>();
+            while (rs.next()) {
+                String cardId = rs.getString("card_id");
+                rows.put(cardId, new BinderCardRow(cardId, rs.getString("name"), rs.getString("image_url"),
+                        rs.getString("game_type"), rs.getInt("quantity"), rs.getBoolean("tradable"), rs.getString("status")));
+            }
+            return rows;
+        });
+    }
+
+    private List<Binder> select(NamedStatement statement, NamedStatement.Params params) {
+        return JdbcSupport.query(pool, "Failed to query binders",
+                conn -> statement.query(conn, params, JdbcBinderDao::readBinders));
+    }
+
+    private static List<Binder> readBinders(ResultSet rs) throws SQLException {
+        Map<Long, Binder> binders = new LinkedHashMap<>();
+        Map<Long, List<CardBean>> cards = new LinkedHashMap<>();
+        while (rs.next()) {
+            long id = rs.getLong("id");
+            if (!binders.containsKey(id)) {
+                Binder b = new Binder(rs.getString("owner"), rs.getString("set_id"), rs.getString("set_name"));
+                b.setId(id);
+                binders.put(id, b);
+                cards.put(id, new ArrayList<>());
+                b.setCreatedAt(JdbcSupport.getTimestamp(rs, "created_at"));
+                b.setLastModified(JdbcSupport.getTimestamp(rs, "last_modified"));
+            }
+            String cardId = rs.getString("card_id");
+            if (cardId != null) cards.get(id).add(readCard(rs, cardId, binders.get(id).getOwner()));
+        }
+        // setCards aggiorna lastModified: si ripristina il valore letto dal database
+        for (Binder b : binders.values()) {
+            LocalDateTime lastModified = b.getLastModified();
+            b.setCards(cards.get(b.getId()));
+            b.setLastModified(lastModified);
+        }
+        return new ArrayList<>(binders.values());
+    }
+
+    private static CardBean readCard(ResultSet rs, String cardId, String owner) throws SQLException {
+        CardBean cb = new CardBean(cardId, rs.getString("name"), rs.getString("image_url"),
+                JdbcSupport.parseGameType(rs.getString("game_type")));
+        cb.setQuantity(rs.getInt("quantity"));
+        cb.setTradable(rs.getBoolean("tradable"));
+        cb.setStatus(rs.getString("status"));
+        cb.setOwner(owner);
+        return cb;
+    }
+}
@@ -0,0 +1,133 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.TimeOrderedIdGenerator;
+import exception.DataPersistenceException;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Nodo di TimeOrderedIdGenerator preso in prestito dal database condiviso: la chiave primaria di node_leases
+ * garantisce che due terminali attivi non ottengano lo stesso nodo. Il nodo si restituisce alla chiusura;
+ * quello di un terminale terminato senza rilascio si recupera solo quando sono tutti occupati e il prestito
+ * è più vecchio del TTL. */
+public final class JdbcNodeLease {
+    private static final Logger LOGGER = Logger.getLogger(JdbcNodeLease.class.getName());
+
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    private static final String CREATE_NODE_LEASES = """
+            CREATE TABLE IF NOT EXISTS node_leases (
+                node_id INT PRIMARY KEY,
+                owner VARCHAR(128) NOT NULL,
+                leased_at TIMESTAMP NOT NULL
+            )
+            """;
+
+    private final ConnectionPool pool;
+    private final int nodeId;
+    private final String owner;
+
+    private JdbcNodeLease(ConnectionPool pool, int nodeId, String owner) {
+        this.pool = pool;
+        this.nodeId = nodeId;
+        this.owner = owner;
+    }
+
+    public static JdbcNodeLease acquire(ConnectionPool pool) {
+        return acquire(pool, DEFAULT_TTL, new SecureRandom().nextInt(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    // Si parte da un nodo a caso per non far competere sugli stessi inserimenti i terminali che si avviano insieme
+    static JdbcNodeLease acquire(ConnectionPool pool, Duration ttl, int firstCandidate) {
+        JdbcSupport.createTables(pool, CREATE_NODE_LEASES);
+        String owner = ProcessHandle.current().pid() + "-" + UUID.randomUUID();
+        int node = JdbcSupport.query(pool, "Failed to lease a node id", conn -> {
+            Set<Integer> taken = leasedNodes(conn);
+            int nodes = TimeOrderedIdGenerator.MAX_NODE_ID + 1;
+            for (int i = 0; i < nodes; i++) {
+                int candidate = Math.floorMod(firstCandidate + i, nodes);
+                if (!taken.contains(candidate) && tryInsert(conn, candidate, owner)) return candidate;
+            }
+            return reclaimExpired(conn, owner, LocalDateTime.now().minus(ttl));
+        });
+        if (node < 0) throw new DataPersistenceException("No free node id in node_leases", null);
+        LOGGER.log(Level.INFO, "Leased node id {0}", node);
+        return new JdbcNodeLease(pool, node, owner);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void release() {
+        try {
+            JdbcSupport.query(pool, "Failed to release node id " + nodeId, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM node_leases WHERE node_id = ? AND owner = ?")) {
+                    ps.setInt(1, nodeId);
+                    ps.setString(2, owner);
+                    return ps.executeUpdate();
+                }
+            });
+        } catch (DataPersistenceException e) {
+            LOGGER.log(Level.WARNING, "Node id " + nodeId + " not released, it will be reclaimed after the lease expires", e);
+        }
+    }
+
+    private static Set<Integer> leasedNodes(Connection conn) throws SQLException {
+        Set<Integer> taken = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT node_id FROM node_leases");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) taken.add(rs.getInt(1));
+        }
+        return taken;
+    }
+
+    // Un altro terminale può aver preso il nodo dopo la lettura: la violazione della chiave vuol dire solo "occupato"
+    private static boolean tryInsert(Connection conn, int node, String owner) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO node_leases (node_id, owner, leased_at) VALUES (?, ?, ?)")) {
+            ps.setInt(1, node);
+            ps.setString(2, owner);
+            JdbcSupport.setTimestamp(ps, 3, LocalDateTime.now());
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) return false;
+            throw e;
+        }
+    }
+
+    // L'UPDATE condizionato sulla data del prestito fa vincere un solo terminale anche se più di uno recupera lo stesso nodo
+    private static int reclaimExpired(Connection conn, String owner, LocalDateTime expiredBefore) throws SQLException {
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT node_id, leased_at FROM node_leases WHERE leased_at < ? ORDER BY leased_at");
+                PreparedStatement update = conn.prepareStatement(
+                        "UPDATE node_leases SET owner = ?, leased_at = ? WHERE node_id = ? AND leased_at = ?")) {
+            JdbcSupport.setTimestamp(select, 1, expiredBefore);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    int node = rs.getInt("node_id");
+                    update.setString(1, owner);
+                    JdbcSupport.setTimestamp(update, 2, LocalDateTime.now());
+                    update.setInt(3, node);
+                    JdbcSupport.setTimestamp(update, 4, JdbcSupport.getTimestamp(rs, "leased_at"));
+                    if (update.executeUpdate() == 1) {
+                        LOGGER.log(Level.WARNING, "Reclaimed expired lease of node id {0}", node);
+                        return node;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
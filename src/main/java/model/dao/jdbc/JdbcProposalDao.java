@@ -0,0 +1,285 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.IdGenerator;
+import config.IdGenerators;
+import model.dao.HistoryCursor;
+import model.dao.IProposalDao;
+import model.dao.Page;
+import model.domain.Card;
+import model.domain.Proposal;
+import model.domain.enumerations.ProposalStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class JdbcProposalDao implements IProposalDao {
+    private static final Logger LOGGER = Logger.getLogger(JdbcProposalDao.class.getName());
+
+    private static final Set<ProposalStatus> OPEN_STATUSES = EnumSet.of(ProposalStatus.PENDING, ProposalStatus.EXPIRED);
+    private static final Set<ProposalStatus> COMPLETED_STATUSES = EnumSet.of(ProposalStatus.ACCEPTED, ProposalStatus.REJECTED, ProposalStatus.EXPIRED);
+    private static final Set<ProposalStatus> SCHEDULED_STATUSES = EnumSet.of(ProposalStatus.ACCEPTED);
+    private static final Set<ProposalStatus> PENDING_STATUSES = EnumSet.of(ProposalStatus.PENDING);
+
+    private static final String PROPOSAL_COLUMNS = "id, proposer_id, receiver_id, status, meeting_place, meeting_date, "
+            + "meeting_time, last_updated";
+    private static final String SELECT_PROPOSALS = "SELECT " + PROPOSAL_COLUMNS + " FROM proposals WHERE ";
+    private static final String PROPOSER_OR_RECEIVER = "(proposer_id = ? AND status IN %1$s OR receiver_id = ? AND status IN %1$s)";
+
+    // Statement nominati: testo SQL costante, riutilizzato dal pool per connessione e misurato per nome
+    private static final NamedStatement FIND_ALL = new NamedStatement("proposals.findAll", SELECT_PROPOSALS + "1 = 1");
+    private static final NamedStatement FIND_BY_ID = new NamedStatement("proposals.findById", SELECT_PROPOSALS + "id = ?");
+    private static final NamedStatement FIND_SENT_OPEN = new NamedStatement("proposals.findSentOpen",
+            SELECT_PROPOSALS + "proposer_id = ? AND status IN " + JdbcSupport.placeholders(OPEN_STATUSES.size()));
+    private static final NamedStatement FIND_RECEIVED_OPEN = new NamedStatement("proposals.findReceivedOpen",
+            SELECT_PROPOSALS + "receiver_id = ? AND status IN " + JdbcSupport.placeholders(OPEN_STATUSES.size()));
+    private static final NamedStatement FIND_SCHEDULED = eitherParticipant("proposals.findScheduled", SCHEDULED_STATUSES);
+    private static final NamedStatement FIND_PENDING = eitherParticipant("proposals.findPending", PENDING_STATUSES);
+    private static final NamedStatement FIND_COMPLETED = eitherParticipant("proposals.findCompleted", COMPLETED_STATUSES);
+    private static final NamedStatement UPSERT = new NamedStatement("proposals.upsert",
+            "INSERT INTO proposals (id, proposer_id, receiver_id, status, meeting_place, meeting_date, meeting_time, last_updated) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE proposer_id = VALUES(proposer_id), "
+                    + "receiver_id = VALUES(receiver_id), status = VALUES(status), meeting_place = VALUES(meeting_place), "
+                    + "meeting_date = VALUES(meeting_date), meeting_time = VALUES(meeting_time), last_updated = VALUES(last_updated)");
+    private static final NamedStatement DELETE = new NamedStatement("proposals.delete", "DELETE FROM proposals WHERE id = ?");
+
+    // Le ricerche filtrano sempre per partecipante e stato: un indice composto per ciascun lato
+    private static final String CREATE_PROPOSALS = """
+            CREATE TABLE IF NOT EXISTS proposals (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                proposer_id VARCHAR(255),
+                receiver_id VARCHAR(255),
+                status VARCHAR(16) NOT NULL,
+                meeting_place VARCHAR(255),
+                meeting_date VARCHAR(32),
+                meeting_time VARCHAR(16),
+                last_updated TIMESTAMP NULL,
+                INDEX idx_proposals_proposer_status (proposer_id, status),
+                INDEX idx_proposals_receiver_status (receiver_id, status)
+            )
+            """;
+
+    // Cronologia a pagine delle proposte concluse, letta in ordine da un indice (partecipante, last_updated)
+    private static final String[] HISTORY_INDEXES = {
+            "idx_proposals_proposer_updated (proposer_id, last_updated)",
+            "idx_proposals_receiver_updated (receiver_id, last_updated)"
+    };
+
+    private final ConnectionPool pool;
+    private final IdGenerator idGenerator = IdGenerators.shared();
+
+    public JdbcProposalDao() {
+        this(JdbcSupport.sharedPool());
+    }
+
+    public JdbcProposalDao(ConnectionPool pool) {
+        this.pool = pool;
+        JdbcSupport.createTables(pool, CREATE_PROPOSALS, JdbcSupport.cardLinesTable("proposal_cards", "proposal_id", "proposals"));
+        JdbcSupport.createIndexes(pool, "proposals", HISTORY_INDEXES);
+    }
+
+    @Override
+    public List<Proposal> getAll() {
+        return select(FIND_ALL, NamedStatement.NO_PARAMS);
+    }
+
+    @Override
+    public Optional<Proposal> getById(String proposalId) {
+        Long id = parseId(proposalId);
+        if (id == null) return Optional.empty();
+        List<Proposal> found = select(FIND_BY_ID, ps -> ps.setLong(1, id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.getFirst());
+    }
+
+    @Override
+    public void save(Proposal proposal) {
+        if (proposal == null) throw new IllegalArgumentException("Proposal cannot be null");
+        if (proposal.getProposalId() == null || proposal.getProposalId().isEmpty()) {
+            proposal.setProposalId(String.valueOf(idGenerator.nextId()));
+        } else if (parseId(proposal.getProposalId()) == null) {
+            throw new IllegalArgumentException("Proposal id must be numeric: " + proposal.getProposalId());
+        }
+        proposal.setLastUpdated(LocalDateTime.now());
+        JdbcSupport.inTransaction(pool, "Failed to save proposal " + proposal.getProposalId(), conn -> {
+            long id = upsert(conn, proposal);
+            JdbcSupport.replaceCardLines(conn, "proposal_cards", "proposal_id", id,
+                    proposal.getCardsOffered(), proposal.getCardsRequested());
+            return id;
+        });
+        LOGGER.log(Level.INFO, "Saved proposal {0}", proposal.getProposalId());
+    }
+
+    @Override
+    public void update(Proposal proposal) {
+        if (proposal == null || parseId(proposal.getProposalId()) == null) throw new IllegalArgumentException("Invalid proposal");
+        save(proposal);
+    }
+
+    @Override
+    public void delete(Proposal proposal) {
+        Long id = proposal != null ? parseId(proposal.getProposalId()) : null;
+        if (id == null) throw new IllegalArgumentException("Invalid proposal");
+        JdbcSupport.query(pool, "Failed to delete proposal " + id, conn -> DELETE.update(conn, ps -> ps.setLong(1, id)));
+        LOGGER.log(Level.INFO, "Deleted proposal {0}", proposal.getProposalId());
+    }
+
+    @Override
+    public List<Proposal> getSentPendingProposal(String username) {
+        return byParticipant(FIND_SENT_OPEN, username, OPEN_STATUSES);
+    }
+
+    @Override
+    public List<Proposal> getReceivedProposals(String username) {
+        return byParticipant(FIND_RECEIVED_OPEN, username, OPEN_STATUSES);
+    }
+
+    @Override
+    public List<Proposal> getScheduledProposals(String username) {
+        return byEitherParticipant(FIND_SCHEDULED, username, SCHEDULED_STATUSES);
+    }
+
+    @Override
+    public List<Proposal> getPendingProposals(String username) {
+        return byEitherParticipant(FIND_PENDING, username, PENDING_STATUSES);
+    }
+
+    @Override
+    public List<Proposal> getCompletedProposals(String username) {
+        return byEitherParticipant(FIND_COMPLETED, username, COMPLETED_STATUSES);
+    }
+
+    // Keyset pagination come per i trade: un ramo per lato, ciascuno limitato a limit + 1 righe
+    @Override
+    public Page<Proposal> getCompletedProposalsPage(String username, HistoryCursor after, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        if (username == null) return Page.empty();
+        String order = JdbcSupport.newestFirst("last_updated");
+        StringJoiner branches = new StringJoiner(" UNION ");
+        for (String column : new String[] { "proposer_id", "receiver_id" }) {
+            branches.add("(" + SELECT_PROPOSALS + column + " = ? AND status IN " + JdbcSupport.placeholders(COMPLETED_STATUSES.size())
+                    + " AND " + JdbcSupport.afterCursor("last_updated", after) + order + " LIMIT ?)");
+        }
+        String sql = "SELECT " + PROPOSAL_COLUMNS + " FROM (" + branches + ") history" + order + " LIMIT ?";
+        List<Proposal> rows = select(new NamedStatement("proposals.completedPage", sql), ps -> {
+            int i = 1;
+            for (int b = 0; b < 2; b++) {
+                ps.setString(i++, username);
+                i = bindStatuses(ps, i, COMPLETED_STATUSES);
+                i = JdbcSupport.bindCursor(ps, i, after);
+                ps.setInt(i++, limit + 1);
+            }
+            ps.setInt(i, limit + 1);
+        });
+        return Page.fromOrdered(rows, limit, HistoryCursor::of);
+    }
+
+    private List<Proposal> byParticipant(NamedStatement statement, String username, Set<ProposalStatus> statuses) {
+        if (username == null) return new ArrayList<>();
+        return select(statement, ps -> {
+            ps.setString(1, username);
+            bindStatuses(ps, 2, statuses);
+        });
+    }
+
+    private static NamedStatement eitherParticipant(String name, Set<ProposalStatus> statuses) {
+        return new NamedStatement(name, SELECT_PROPOSALS + String.format(PROPOSER_OR_RECEIVER, JdbcSupport.placeholders(statuses.size())));
+    }
+
+    private List<Proposal> byEitherParticipant(NamedStatement statement, String username, Set<ProposalStatus> statuses) {
+        if (username == null) return new ArrayList<>();
+        return select(statement, ps -> {
+            int i = 1;
+            ps.setString(i++, username);
+            i = bindStatuses(ps, i, statuses);
+            ps.setString(i++, username);
+            bindStatuses(ps, i, statuses);
+        });
+    }
+
+    private long upsert(Connection conn, Proposal p) throws SQLException {
+        UPSERT.update(conn, ps -> {
+            int i = 1;
+            ps.setLong(i++, Long.parseLong(p.getProposalId()));
+            ps.setString(i++, p.getProposerId());
+            ps.setString(i++, p.getReceiverId());
+            ps.setString(i++, (p.getStatus() != null ? p.getStatus() : ProposalStatus.PENDING).name());
+            ps.setString(i++, p.getMeetingPlace());
+            ps.setString(i++, p.getMeetingDate());
+            ps.setString(i++, p.getMeetingTime());
+            JdbcSupport.setTimestamp(ps, i, p.getLastUpdated());
+        });
+        return Long.parseLong(p.getProposalId());
+    }
+
+    private List<Proposal> select(NamedStatement statement, NamedStatement.Params params) {
+        return JdbcSupport.query(pool, "Failed to query proposals", conn -> {
+            Map<Long, Proposal> proposals = statement.query(conn, params, rs -> {
+                Map<Long, Proposal> rows = new LinkedHashMap<>();
+                while (rs.next()) rows.put(rs.getLong("id"), readProposal(rs));
+                return rows;
+            });
+            if (!proposals.isEmpty()) loadCards(conn, proposals);
+            return new ArrayList<>(proposals.values());
+        });
+    }
+
+    private void loadCards(Connection conn, Map<Long, Proposal> proposals) throws SQLException {
+        String sql = "SELECT proposal_id, side, position, card_id, name, image_url, game_type, quantity FROM proposal_cards "
+                + "WHERE proposal_id IN " + JdbcSupport.placeholders(proposals.size()) + " ORDER BY proposal_id, side, position";
+        new NamedStatement("proposalCards.findByProposals", sql).query(conn, ps -> {
+            int i = 1;
+            for (Long id : proposals.keySet()) ps.setLong(i++, id);
+        }, rs -> {
+            while (rs.next()) {
+                Proposal p = proposals.get(rs.getLong("proposal_id"));
+                Card card = JdbcSupport.readCardLine(rs);
+                if (JdbcSupport.SIDE_OFFERED.equals(rs.getString("side"))) p.getCardsOffered().add(card);
+                else p.getCardsRequested().add(card);
+            }
+            return null;
+        });
+    }
+
+    private static Proposal readProposal(ResultSet rs) throws SQLException {
+        Proposal p = new Proposal();
+        p.setProposalId(String.valueOf(rs.getLong("id")));
+        p.setProposerId(rs.getString("proposer_id"));
+        p.setReceiverId(rs.getString("receiver_id"));
+        try {
+            p.setStatus(ProposalStatus.valueOf(rs.getString("status")));
+        } catch (IllegalArgumentException _) {
+            p.setStatus(ProposalStatus.PENDING);
+        }
+        p.setMeetingPlace(rs.getString("meeting_place"));
+        p.setMeetingDate(rs.getString("meeting_date"));
+        p.setMeetingTime(rs.getString("meeting_time"));
+        p.setLastUpdated(JdbcSupport.getTimestamp(rs, "last_updated"));
+        p.setCardsOffered(new ArrayList<>());
+        p.setCardsRequested(new ArrayList<>());
+        return p;
+    }
+
+    private static int bindStatuses(PreparedStatement ps, int start, Set<ProposalStatus> statuses) throws SQLException {
+        int i = start;
+        for (ProposalStatus s : statuses) ps.setString(i++, s.name());
+        return i;
+    }
+
+    private static Long parseId(String proposalId) {
+        if (proposalId == null || !proposalId.matches("\\d+")) return null;
+        return Long.parseLong(proposalId);
+    }
+}
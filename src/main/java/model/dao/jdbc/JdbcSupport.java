@@ -0,0 +1,225 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.DBConnector;
+import exception.DataPersistenceException;
+import model.dao.HistoryCursor;
+import model.domain.Card;
+import model.domain.enumerations.CardGameType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Funzioni comuni ai DAO JDBC: accesso al pool condiviso, transazioni, conversioni di colonne e righe carta
+ * delle tabelle proposal_cards e trade_cards (chiave: id padre, lato, posizione). */
+final class JdbcSupport {
+    private static final Logger LOGGER = Logger.getLogger(JdbcSupport.class.getName());
+
+    static final String SIDE_OFFERED = "OFFERED";
+    static final String SIDE_REQUESTED = "REQUESTED";
+
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private JdbcSupport() {
+    }
+
+    static ConnectionPool sharedPool() {
+        try {
+            return DBConnector.getInstance().getPool();
+        } catch (SQLException e) {
+            throw new DataPersistenceException("Database connection pool not available", e);
+        }
+    }
+
+    static void createTables(ConnectionPool pool, String... ddl) {
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement()) {
+            for (String sql : ddl) stmt.execute(sql);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error initializing database", e);
+        }
+    }
+
+    /* Indici aggiunti dopo la prima versione dello schema: CREATE TABLE IF NOT EXISTS non li crea sulle tabelle
+     * esistenti e MySQL non supporta CREATE INDEX IF NOT EXISTS. Ogni definizione ha la forma "nome (colonne)". */
+    static void createIndexes(ConnectionPool pool, String table, String... definitions) {
+        try (Connection conn = pool.getConnection();
+                Statement stmt = conn.createStatement()) {
+            for (String definition : definitions) {
+                String name = definition.substring(0, definition.indexOf(' '));
+                if (!hasIndex(conn, table, name)) stmt.execute("CREATE INDEX " + name + " ON " + table + " " + definition.substring(name.length() + 1));
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error creating indexes on " + table, e);
+        }
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String indexName) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    // Esegue il lavoro in un'unica transazione; in caso di errore il rollback lo fa il pool alla restituzione
+    static <T> T inTransaction(ConnectionPool pool, String failureMessage, SqlWork<T> work) {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            T result = work.run(conn);
+            conn.commit();
+            return result;
+        } catch (SQLException e) {
+            throw new DataPersistenceException(failureMessage, e);
+        }
+    }
+
+    static <T> T query(ConnectionPool pool, String failureMessage, SqlWork<T> work) {
+        try (Connection conn = pool.getConnection()) {
+            return work.run(conn);
+        } catch (SQLException e) {
+            throw new DataPersistenceException(failureMessage, e);
+        }
+    }
+
+    static String placeholders(int count) {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < count; i++) joiner.add("?");
+        return joiner.toString();
+    }
+
+    static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.TIMESTAMP);
+        else ps.setObject(index, value);
+    }
+
+    // Ordinamento delle cronologie: dal più recente, a parità di data per id; in DESC MySQL mette i NULL in fondo
+    static String newestFirst(String dateColumn) {
+        return " ORDER BY " + dateColumn + " DESC, id DESC";
+    }
+
+    // Condizione keyset "dopo il cursore" coerente con newestFirst e con HistoryCursor.compareTo
+    static String afterCursor(String dateColumn, HistoryCursor after) {
+        if (after == null) return "1 = 1";
+        if (after.getTimestamp() == null) return "(" + dateColumn + " IS NULL AND id < ?)";
+        return "(" + dateColumn + " < ? OR " + dateColumn + " = ? AND id < ? OR " + dateColumn + " IS NULL)";
+    }
+
+    static int bindCursor(PreparedStatement ps, int start, HistoryCursor after) throws SQLException {
+        if (after == null) return start;
+        int i = start;
+        if (after.getTimestamp() != null) {
+            setTimestamp(ps, i++, after.getTimestamp());
+            setTimestamp(ps, i++, after.getTimestamp());
+        }
+        ps.setLong(i++, after.getId());
+        return i;
+    }
+
+    static LocalDateTime getTimestamp(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+
+    static void setNullableBoolean(PreparedStatement ps, int index, Boolean value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.BOOLEAN);
+        else ps.setBoolean(index, value);
+    }
+
+    static Boolean getNullableBoolean(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    static String gameTypeName(CardGameType type) {
+        return type != null ? type.name() : null;
+    }
+
+    static CardGameType parseGameType(String name) {
+        if (name == null) return null;
+        try {
+            return CardGameType.valueOf(name);
+        } catch (IllegalArgumentException _) {
+            return null;
+        }
+    }
+
+    static String cardLinesTable(String table, String parentColumn, String parentTable) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " ("
+                + parentColumn + " BIGINT NOT NULL, "
+                + "side VARCHAR(10) NOT NULL, "
+                + "position INT NOT NULL, "
+                + "card_id VARCHAR(64) NOT NULL, "
+                + "name VARCHAR(255), "
+                + "image_url VARCHAR(512), "
+                + "game_type VARCHAR(32), "
+                + "quantity INT NOT NULL DEFAULT 1, "
+                + "PRIMARY KEY (" + parentColumn + ", side, position), "
+                + "FOREIGN KEY (" + parentColumn + ") REFERENCES " + parentTable + "(id) ON DELETE CASCADE)";
+    }
+
+    static void replaceCardLines(Connection conn, String table, String parentColumn, long parentId,
+                                 List<Card> offered, List<Card> requested) throws SQLException {
+        new NamedStatement(table + ".deleteByParent", "DELETE FROM " + table + " WHERE " + parentColumn + " = ?")
+                .update(conn, ps -> ps.setLong(1, parentId));
+        List<CardLine> lines = new ArrayList<>();
+        addCardLines(lines, SIDE_OFFERED, offered);
+        addCardLines(lines, SIDE_REQUESTED, requested);
+        if (lines.isEmpty()) return;
+        new NamedStatement(table + ".insert", "INSERT INTO " + table + " (" + parentColumn
+                + ", side, position, card_id, name, image_url, game_type, quantity) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")
+                .batch(conn, lines, (ps, line) -> {
+                    ps.setLong(1, parentId);
+                    ps.setString(2, line.side());
+                    ps.setInt(3, line.position());
+                    ps.setString(4, line.card().getId());
+                    ps.setString(5, line.card().getName());
+                    ps.setString(6, line.card().getImageUrl());
+                    ps.setString(7, gameTypeName(line.card().getGameType()));
+                    ps.setInt(8, line.card().getQuantity());
+                });
+    }
+
+    private record CardLine(String side, int position, Card card) {
+    }
+
+    private static void addCardLines(List<CardLine> lines, String side, List<Card> cards) {
+        if (cards == null) return;
+        int position = 0;
+        for (Card card : cards) {
+            if (card == null || card.getId() == null) continue;
+            lines.add(new CardLine(side, position++, card));
+        }
+    }
+
+    static Card readCardLine(ResultSet rs) throws SQLException {
+        Card card = new Card(rs.getString("card_id"), rs.getString("name"), rs.getString("image_url"),
+                parseGameType(rs.getString("game_type")));
+        card.setQuantity(rs.getInt("quantity"));
+        return card;
+    }
+
+    static <T> List<T> list(ResultSet rs, SqlRow<T> mapper) throws SQLException {
+        List<T> result = new ArrayList<>();
+        while (rs.next()) result.add(mapper.map(rs));
+        return result;
+    }
+
+    @FunctionalInterface
+    interface SqlRow<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
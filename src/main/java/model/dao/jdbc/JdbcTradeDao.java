@@ -0,0 +1,381 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.IdGenerator;
+import config.IdGenerators;
+import model.dao.HistoryCursor;
+import model.dao.ITradeDao;
+import model.dao.Page;
+import model.domain.Card;
+import model.domain.TradeTransaction;
+import model.domain.enumerations.TradeStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class JdbcTradeDao implements ITradeDao {
+    private static final Logger LOGGER = Logger.getLogger(JdbcTradeDao.class.getName());
+
+    private static final Set<TradeStatus> CLOSED_STATUSES = EnumSet.of(TradeStatus.COMPLETED, TradeStatus.CANCELLED);
+    private static final Set<TradeStatus> OPEN_STATUSES = EnumSet.complementOf(EnumSet.of(TradeStatus.COMPLETED, TradeStatus.CANCELLED));
+    private static final Set<TradeStatus> IN_PROGRESS_STATUSES = EnumSet.of(TradeStatus.INSPECTION_PHASE, TradeStatus.INSPECTION_PASSED);
+
+    private static final String TRADE_COLUMNS = "id, status, proposer_id, receiver_id, store_id, proposer_session_code, "
+            + "receiver_session_code, proposer_arrived, receiver_arrived, proposer_inspection_ok, receiver_inspection_ok, "
+            + "proposer_reviewed, receiver_reviewed, created_at, trade_date";
+    private static final String SELECT_TRADES = "SELECT " + TRADE_COLUMNS + " FROM trades WHERE ";
+    private static final String STORE_AND_STATUS = "store_id = ? AND status IN ";
+
+    // Statement nominati: testo SQL costante, riutilizzato dal pool per connessione e misurato per nome
+    private static final NamedStatement FIND_BY_ID = new NamedStatement("trades.findById", SELECT_TRADES + "id = ?");
+    private static final NamedStatement FIND_BY_USER = new NamedStatement("trades.findByUser",
+            SELECT_TRADES + "(proposer_id = ? OR receiver_id = ?)");
+    private static final NamedStatement FIND_CLOSED_BY_USER = new NamedStatement("trades.findClosedByUser",
+            SELECT_TRADES + "(proposer_id = ? AND status IN " + JdbcSupport.placeholders(CLOSED_STATUSES.size())
+                    + " OR receiver_id = ? AND status IN " + JdbcSupport.placeholders(CLOSED_STATUSES.size()) + ")");
+    private static final NamedStatement FIND_BY_SESSION_CODES = new NamedStatement("trades.findBySessionCodes",
+            SELECT_TRADES + "proposer_session_code = ? AND receiver_session_code = ?");
+    private static final NamedStatement FIND_OPEN_BY_STORE = new NamedStatement("trades.findOpenByStore",
+            SELECT_TRADES + STORE_AND_STATUS + JdbcSupport.placeholders(OPEN_STATUSES.size()));
+    private static final NamedStatement FIND_IN_PROGRESS_BY_STORE = new NamedStatement("trades.findInProgressByStore",
+            SELECT_TRADES + STORE_AND_STATUS + JdbcSupport.placeholders(IN_PROGRESS_STATUSES.size()));
+    private static final NamedStatement FIND_CLOSED_BY_STORE = new NamedStatement("trades.findClosedByStore",
+            SELECT_TRADES + STORE_AND_STATUS + JdbcSupport.placeholders(CLOSED_STATUSES.size()));
+    private static final NamedStatement UPDATE_STATUS = new NamedStatement("trades.updateStatus",
+            "UPDATE trades SET status = ? WHERE id = ?");
+    private static final NamedStatement UPSERT = new NamedStatement("trades.upsert", upsertSql());
+    private static final NamedStatement DELETE = new NamedStatement("trades.delete", "DELETE FROM trades WHERE id = ?");
+
+    // Ogni metodo di ricerca ha il suo indice: partecipante+stato, negozio+stato, codici di sessione, partecipanti+data
+    private static final String CREATE_TRADES = """
+            CREATE TABLE IF NOT EXISTS trades (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                status VARCHAR(32) NOT NULL,
+                proposer_id VARCHAR(255),
+                receiver_id VARCHAR(255),
+                store_id VARCHAR(255),
+                proposer_session_code INT NOT NULL DEFAULT 0,
+                receiver_session_code INT NOT NULL DEFAULT 0,
+                proposer_arrived BOOLEAN NOT NULL DEFAULT FALSE,
+                receiver_arrived BOOLEAN NOT NULL DEFAULT FALSE,
+                proposer_inspection_ok BOOLEAN NULL,
+                receiver_inspection_ok BOOLEAN NULL,
+                proposer_reviewed BOOLEAN NOT NULL DEFAULT FALSE,
+                receiver_reviewed BOOLEAN NOT NULL DEFAULT FALSE,
+                created_at TIMESTAMP NULL,
+                trade_date TIMESTAMP NULL,
+                INDEX idx_trades_proposer_status (proposer_id, status),
+                INDEX idx_trades_receiver_status (receiver_id, status),
+                INDEX idx_trades_store_status (store_id, status),
+                INDEX idx_trades_session_codes (proposer_session_code, receiver_session_code),
+                INDEX idx_trades_participants_date (proposer_id, receiver_id, trade_date)
+            )
+            """;
+
+    // Cronologie a pagine: ogni lato è letto in ordine da un indice (colonna, trade_date), che in InnoDB include l'id
+    private static final String[] HISTORY_INDEXES = {
+            "idx_trades_proposer_date (proposer_id, trade_date)",
+            "idx_trades_receiver_date (receiver_id, trade_date)",
+            "idx_trades_store_date (store_id, trade_date)"
+    };
+
+    private final ConnectionPool pool;
+    private final IdGenerator idGenerator = IdGenerators.shared();
+
+    public JdbcTradeDao() {
+        this(JdbcSupport.sharedPool());
+    }
+
+    public JdbcTradeDao(ConnectionPool pool) {
+        this.pool = pool;
+        JdbcSupport.createTables(pool, CREATE_TRADES, JdbcSupport.cardLinesTable("trade_cards", "trade_id", "trades"));
+        JdbcSupport.createIndexes(pool, "trades", HISTORY_INDEXES);
+    }
+
+    @Override
+    public TradeTransaction getTradeTransactionById(long id) {
+        return get(id).orElse(null);
+    }
+
+    @Override
+    public Optional<TradeTransaction> get(long id) {
+        List<TradeTransaction> found = select(FIND_BY_ID, ps -> ps.setLong(1, id));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.getFirst());
+    }
+
+    @Override
+    public void updateTransactionStatus(long id, String status) {
+        TradeStatus ts;
+        try {
+            ts = TradeStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException _) {
+            LOGGER.log(Level.WARNING, "Unknown trade status: {0}", status);
+            return;
+        }
+        JdbcSupport.query(pool, "Failed to update status of trade " + id, conn -> UPDATE_STATUS.update(conn, ps -> {
+            ps.setString(1, ts.name());
+            ps.setLong(2, id);
+        }));
+    }
+
+    @Override
+    public List<TradeTransaction> getUserTradeTransactions(String userId) {
+        if (userId == null) return new ArrayList<>();
+        return select(FIND_BY_USER, ps -> {
+            ps.setString(1, userId);
+            ps.setString(2, userId);
+        });
+    }
+
+    @Override
+    public List<TradeTransaction> getStoreTradeScheduledTransactions(String userId, String tradeId) {
+        if (userId == null) return new ArrayList<>();
+        return selectByStore(FIND_OPEN_BY_STORE, userId, OPEN_STATUSES);
+    }
+
+    @Override
+    public List<TradeTransaction> getUserTradeTransactions(String userId, String tradeId) {
+        return List.of();
+    }
+
+    @Override
+    public List<TradeTransaction> getUserCompletedTrades(String userId) {
+        if (userId == null) return new ArrayList<>();
+        return select(FIND_CLOSED_BY_USER, ps -> {
+            int i = 1;
+            ps.setString(i++, userId);
+            i = bindStatuses(ps, i, CLOSED_STATUSES);
+            ps.setString(i++, userId);
+            bindStatuses(ps, i, CLOSED_STATUSES);
+        });
+    }
+
+    @Override
+    public Optional<TradeTransaction> findByParticipantsAndDate(String proposerId, String receiverId, LocalDateTime tradeDate) {
+        StringJoiner where = new StringJoiner(" AND ");
+        List<Object> params = new ArrayList<>();
+        if (proposerId != null) {
+            where.add("proposer_id = ?");
+            params.add(proposerId);
+        }
+        if (receiverId != null) {
+            where.add("receiver_id = ?");
+            params.add(receiverId);
+        }
+        if (tradeDate != null) {
+            // Stesso giorno, espresso come intervallo per poter usare l'indice su trade_date
+            where.add("trade_date >= ? AND trade_date < ?");
+            params.add(tradeDate.toLocalDate().atStartOfDay());
+            params.add(tradeDate.toLocalDate().plusDays(1).atStartOfDay());
+        }
+        if (params.isEmpty()) where.add("1 = 1");
+        // I filtri presenti cambiano il testo SQL: lo statement si crea a ogni chiamata, sempre con lo stesso nome
+        NamedStatement statement = new NamedStatement("trades.findByParticipantsAndDate",
+                SELECT_TRADES + where + " ORDER BY id LIMIT 1");
+        List<TradeTransaction> found = select(statement, ps -> {
+            for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+        });
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.getFirst());
+    }
+
+    @Override
+    public TradeTransaction getTradeTransactionBySessionCodes(int proposerCode, int receiverCode) {
+        if (proposerCode == 0 && receiverCode == 0) return null;
+        List<TradeTransaction> found = select(FIND_BY_SESSION_CODES, ps -> {
+            ps.setInt(1, proposerCode);
+            ps.setInt(2, receiverCode);
+        });
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    @Override
+    public List<TradeTransaction> getStoreTradeInProgressTransactions(String storeId) {
+        if (storeId == null) return new ArrayList<>();
+        return selectByStore(FIND_IN_PROGRESS_BY_STORE, storeId, IN_PROGRESS_STATUSES);
+    }
+
+    @Override
+    public List<TradeTransaction> getStoreCompletedTrades(String storeId) {
+        if (storeId == null) return new ArrayList<>();
+        return selectByStore(FIND_CLOSED_BY_STORE, storeId, CLOSED_STATUSES);
+    }
+
+    @Override
+    public Page<TradeTransaction> getUserCompletedTradesPage(String userId, HistoryCursor after, int limit) {
+        if (userId == null) return Page.empty();
+        return selectHistory("trades.userHistoryPage", userId, after, limit, "proposer_id", "receiver_id");
+    }
+
+    @Override
+    public Page<TradeTransaction> getStoreCompletedTradesPage(String storeId, HistoryCursor after, int limit) {
+        if (storeId == null) return Page.empty();
+        return selectHistory("trades.storeHistoryPage", storeId, after, limit, "store_id");
+    }
+
+    @Override
+    public void save(TradeTransaction tradeTransaction) {
+        if (tradeTransaction == null) throw new IllegalArgumentException("TradeTransaction cannot be null");
+        if (tradeTransaction.getTransactionId() == 0) tradeTransaction.setTransactionId(idGenerator.nextId());
+        JdbcSupport.inTransaction(pool, "Failed to save trade transaction " + tradeTransaction.getTransactionId(), conn -> {
+            long id = upsert(conn, tradeTransaction);
+            JdbcSupport.replaceCardLines(conn, "trade_cards", "trade_id", id,
+                    tradeTransaction.getOfferedCards(), tradeTransaction.getRequestedCards());
+            return id;
+        });
+        LOGGER.log(Level.INFO, "Saved trade transaction {0}", tradeTransaction.getTransactionId());
+    }
+
+    @Override
+    public void update(TradeTransaction tradeTransaction, String[] params) {
+        if (tradeTransaction == null || tradeTransaction.getTransactionId() == 0) throw new IllegalArgumentException("Invalid trade transaction");
+        save(tradeTransaction);
+    }
+
+    @Override
+    public void delete(TradeTransaction tradeTransaction) {
+        if (tradeTransaction == null || tradeTransaction.getTransactionId() == 0) throw new IllegalArgumentException("Invalid trade transaction");
+        JdbcSupport.query(pool, "Failed to delete trade transaction " + tradeTransaction.getTransactionId(),
+                conn -> DELETE.update(conn, ps -> ps.setLong(1, tradeTransaction.getTransactionId())));
+        LOGGER.log(Level.INFO, "Deleted trade transaction {0}", tradeTransaction.getTransactionId());
+    }
+
+    /* L'id viene assegnato dall'IdGenerator prima dell'inserimento, non dall'AUTO_INCREMENT: id espliciti e
+     * contatore del database finirebbero per sovrapporsi quando più nodi scrivono sulla stessa tabella. */
+    private long upsert(Connection conn, TradeTransaction t) throws SQLException {
+        UPSERT.update(conn, ps -> {
+            int i = 1;
+            ps.setLong(i++, t.getTransactionId());
+            TradeTransaction.TradeProgress progress = t.getProgress();
+            ps.setString(i++, t.getTradeStatus() != null ? t.getTradeStatus().name() : TradeStatus.WAITING_FOR_ARRIVAL.name());
+            ps.setString(i++, t.getProposerId());
+            ps.setString(i++, t.getReceiverId());
+            ps.setString(i++, t.getStoreId());
+            ps.setInt(i++, progress.proposerSessionCode);
+            ps.setInt(i++, progress.receiverSessionCode);
+            ps.setBoolean(i++, progress.proposerArrived);
+            ps.setBoolean(i++, progress.receiverArrived);
+            JdbcSupport.setNullableBoolean(ps, i++, progress.proposerInspectionOk);
+            JdbcSupport.setNullableBoolean(ps, i++, progress.receiverInspectionOk);
+            ps.setBoolean(i++, progress.proposerReviewed);
+            ps.setBoolean(i++, progress.receiverReviewed);
+            JdbcSupport.setTimestamp(ps, i++, t.getCreationTimestamp());
+            JdbcSupport.setTimestamp(ps, i, t.getTradeDate());
+        });
+        return t.getTransactionId();
+    }
+
+    private static String upsertSql() {
+        int count = TRADE_COLUMNS.split(",").length;
+        StringBuilder sql = new StringBuilder("INSERT INTO trades (").append(TRADE_COLUMNS).append(") VALUES ").append(JdbcSupport.placeholders(count));
+        StringJoiner updates = new StringJoiner(", ", " ON DUPLICATE KEY UPDATE ", "");
+        for (String column : TRADE_COLUMNS.substring("id, ".length()).split(",\\s*")) {
+            updates.add(column + " = VALUES(" + column + ")");
+        }
+        return sql.append(updates).toString();
+    }
+
+    private List<TradeTransaction> selectByStore(NamedStatement statement, String storeId, Set<TradeStatus> statuses) {
+        return select(statement, ps -> {
+            ps.setString(1, storeId);
+            bindStatuses(ps, 2, statuses);
+        });
+    }
+
+    /* Keyset pagination sui trade conclusi: limit + 1 righe dopo il cursore, senza OFFSET. Con più colonne
+     * proprietario (proposer o receiver) ogni ramo legge al massimo limit + 1 righe dal proprio indice e l'UNION
+     * elimina il trade che compare in entrambi. */
+    private Page<TradeTransaction> selectHistory(String name, String owner, HistoryCursor after, int limit, String... ownerColumns) {
+        if (limit <= 0) throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        String order = JdbcSupport.newestFirst("trade_date");
+        StringJoiner branches = new StringJoiner(" UNION ");
+        for (String column : ownerColumns) {
+            branches.add("(" + SELECT_TRADES + column + " = ? AND status IN " + JdbcSupport.placeholders(CLOSED_STATUSES.size())
+                    + " AND " + JdbcSupport.afterCursor("trade_date", after) + order + " LIMIT ?)");
+        }
+        String sql = ownerColumns.length == 1
+                ? branches.toString().substring(1, branches.length() - 1)
+                : "SELECT " + TRADE_COLUMNS + " FROM (" + branches + ") history" + order + " LIMIT ?";
+        List<TradeTransaction> rows = select(new NamedStatement(name, sql), ps -> {
+            int i = 1;
+            for (int b = 0; b < ownerColumns.length; b++) {
+                ps.setString(i++, owner);
+                i = bindStatuses(ps, i, CLOSED_STATUSES);
+                i = JdbcSupport.bindCursor(ps, i, after);
+                ps.setInt(i++, limit + 1);
+            }
+            if (ownerColumns.length > 1) ps.setInt(i, limit + 1);
+        });
+        return Page.fromOrdered(rows, limit, HistoryCursor::of);
+    }
+
+    // Due query per ricerca: le righe dei trade e, in un colpo solo, tutte le loro carte
+    private List<TradeTransaction> select(NamedStatement statement, NamedStatement.Params params) {
+        return JdbcSupport.query(pool, "Failed to query trade transactions", conn -> {
+            Map<Long, TradeTransaction> trades = statement.query(conn, params, rs -> {
+                Map<Long, TradeTransaction> rows = new LinkedHashMap<>();
+                while (rs.next()) rows.put(rs.getLong("id"), readTrade(rs));
+                return rows;
+            });
+            if (!trades.isEmpty()) loadCards(conn, trades);
+            return new ArrayList<>(trades.values());
+        });
+    }
+
+    private void loadCards(Connection conn, Map<Long, TradeTransaction> trades) throws SQLException {
+        String sql = "SELECT trade_id, side, position, card_id, name, image_url, game_type, quantity FROM trade_cards "
+                + "WHERE trade_id IN " + JdbcSupport.placeholders(trades.size()) + " ORDER BY trade_id, side, position";
+        new NamedStatement("tradeCards.findByTrades", sql).query(conn, ps -> {
+            int i = 1;
+            for (Long id : trades.keySet()) ps.setLong(i++, id);
+        }, rs -> {
+            while (rs.next()) {
+                TradeTransaction t = trades.get(rs.getLong("trade_id"));
+                Card card = JdbcSupport.readCardLine(rs);
+                if (JdbcSupport.SIDE_OFFERED.equals(rs.getString("side"))) t.getOfferedCards().add(card);
+                else t.getRequestedCards().add(card);
+            }
+            return null;
+        });
+    }
+
+    private static TradeTransaction readTrade(ResultSet rs) throws SQLException {
+        TradeStatus status;
+        try {
+            status = TradeStatus.valueOf(rs.getString("status"));
+        } catch (IllegalArgumentException _) {
+            status = TradeStatus.WAITING_FOR_ARRIVAL;
+        }
+        TradeTransaction.TradeParticipants participants = new TradeTransaction.TradeParticipants(
+                rs.getString("proposer_id"), rs.getString("receiver_id"), rs.getString("store_id"));
+        TradeTransaction.TradeDetails details = new TradeTransaction.TradeDetails(
+                JdbcSupport.getTimestamp(rs, "created_at"), JdbcSupport.getTimestamp(rs, "trade_date"),
+                new ArrayList<>(), new ArrayList<>());
+        TradeTransaction t = new TradeTransaction(rs.getLong("id"), status, participants, details);
+        t.restoreProgress(new TradeTransaction.TradeProgress(
+                rs.getInt("proposer_session_code"), rs.getInt("receiver_session_code"),
+                rs.getBoolean("proposer_arrived"), rs.getBoolean("receiver_arrived"),
+                JdbcSupport.getNullableBoolean(rs, "proposer_inspection_ok"),
+                JdbcSupport.getNullableBoolean(rs, "receiver_inspection_ok"),
+                rs.getBoolean("proposer_reviewed"), rs.getBoolean("receiver_reviewed")));
+        return t;
+    }
+
+    private static int bindStatuses(PreparedStatement ps, int start, Set<TradeStatus> statuses) throws SQLException {
+        int i = start;
+        for (TradeStatus s : statuses) ps.setString(i++, s.name());
+        return i;
+    }
+}
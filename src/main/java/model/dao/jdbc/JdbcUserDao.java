@@ -12,7 +12,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import config.ConnectionPool;
 import config.DBConnector;
+import config.DatabaseConfig;
+import model.api.CacheStats;
 
 public class JdbcUserDao implements IUserDao {
     private static final Logger LOGGER = Logger.getLogger(JdbcUserDao.class.getName());
@@ -21,38 +24,101 @@ public class JdbcUserDao implements IUserDao {
     private static final String COLUMN_USER_TYPE = "user_type";
     private static final String COLUMN_RELIABILITY = "reliability_score";
     private static final String COLUMN_REVIEW_COUNT = "review_count";
+    private static final String COLUMN_VERSION = "version";
     private static final String SELECT = "SELECT ";
-
-    
-    private static final java.util.Map<String, User> userCache = new java.util.concurrent.ConcurrentHashMap<>();
-    private static final java.util.Map<String, String> credentialCache = new java.util.concurrent.ConcurrentHashMap<>();
-    private static boolean allLoaded = false;
-
-    
-    private static void markAllLoaded() {
-        allLoaded = true;
-    }
-
+    private static final String USER_TYPE_INDEX = "idx_users_user_type";
+    private static final String USER_COLUMNS = COLUMN_USERNAME + ", " + COLUMN_RELIABILITY + ", " + COLUMN_REVIEW_COUNT + ", "
+            + COLUMN_USER_TYPE + ", " + COLUMN_VERSION;
+    private static final String WHERE_USERNAME = " FROM users WHERE " + COLUMN_USERNAME + " = ?";
+
+    // Statement nominati: testo SQL costante, riutilizzato dal pool per connessione e misurato per nome
+    private static final NamedStatement FIND_BY_NAME = new NamedStatement("users.findByName",
+            SELECT + USER_COLUMNS + ", " + COLUMN_PASSWORD + WHERE_USERNAME);
+    private static final NamedStatement FIND_VERSION = new NamedStatement("users.findVersion",
+            SELECT + COLUMN_VERSION + WHERE_USERNAME);
+    private static final NamedStatement FIND_ALL = new NamedStatement("users.findAll",
+            SELECT + USER_COLUMNS + " FROM users");
+    private static final NamedStatement FIND_BY_TYPE = new NamedStatement("users.findByType",
+            SELECT + USER_COLUMNS + " FROM users WHERE " + COLUMN_USER_TYPE + " = ?");
+    private static final NamedStatement FIND_BY_ID = new NamedStatement("users.findById",
+            SELECT + USER_COLUMNS + " FROM users WHERE id = ?");
+    private static final NamedStatement REGISTER = new NamedStatement("users.register",
+            "INSERT INTO users (" + COLUMN_USERNAME + ", " + COLUMN_PASSWORD + ", " + COLUMN_USER_TYPE + ", "
+                    + COLUMN_RELIABILITY + ", " + COLUMN_REVIEW_COUNT + ", " + COLUMN_VERSION + ") VALUES (?, ?, ?, 0, 0, 0)");
+    private static final NamedStatement INSERT = new NamedStatement("users.insert",
+            "INSERT INTO users (" + COLUMN_USERNAME + ", " + COLUMN_USER_TYPE + ", " + COLUMN_RELIABILITY
+                    + ", " + COLUMN_REVIEW_COUNT + ", " + COLUMN_VERSION + ") VALUES (?, ?, ?, ?, 0)");
+    // Ogni modifica incrementa version, così le altre istanze scoprono che la loro copia è superata
+    private static final NamedStatement UPDATE = new NamedStatement("users.update",
+            "UPDATE users SET " + COLUMN_USER_TYPE + " = ?, " + COLUMN_RELIABILITY + " = ?, " + COLUMN_REVIEW_COUNT
+                    + " = ?, " + COLUMN_VERSION + " = " + COLUMN_VERSION + " + 1 WHERE " + COLUMN_USERNAME + " = ?");
+    private static final NamedStatement DELETE = new NamedStatement("users.delete",
+            "DELETE FROM users WHERE " + COLUMN_USERNAME + " = ?");
+
+    // Cache per istanza, limitata e con TTL: più istanze dell'app sullo stesso database vedono le modifiche altrui
+    // al più dopo USER_CACHE_TTL_SECONDS; alla scadenza la colonna version evita di rileggere le righe non cambiate
+    private final UserCache cache;
+    private final boolean revalidate;
+
+    private final ConnectionPool pool;
     private final String jdbcUrl;
     private final String dbUser;
     private final String dbPassword;
 
     public JdbcUserDao(String jdbcUrl, String dbUser, String dbPassword) {
+        this.pool = null;
         this.jdbcUrl = jdbcUrl;
         this.dbUser = dbUser;
         this.dbPassword = dbPassword;
+        this.cache = defaultCache();
+        this.revalidate = DatabaseConfig.USER_CACHE_REVALIDATE;
+        initializeDatabase();
+    }
+
+    public JdbcUserDao(ConnectionPool pool) {
+        this(pool, defaultCache(), DatabaseConfig.USER_CACHE_REVALIDATE);
+    }
+
+    JdbcUserDao(ConnectionPool pool, UserCache cache, boolean revalidate) {
+        this.pool = pool;
+        this.jdbcUrl = null;
+        this.dbUser = null;
+        this.dbPassword = null;
+        this.cache = cache;
+        this.revalidate = revalidate;
         initializeDatabase();
     }
 
+    private static UserCache defaultCache() {
+        return new UserCache(DatabaseConfig.USER_CACHE_MAX_ENTRIES, DatabaseConfig.USER_CACHE_TTL_SECONDS * 1000,
+                System::currentTimeMillis);
+    }
+
+    // Da chiamare quando un utente viene modificato fuori da questo DAO (altro processo, script, amministrazione)
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
     private Connection getConnection() throws SQLException {
-        
+        if (pool != null) return pool.getConnection();
+        DBConnector connector;
         try {
-            return DBConnector.getInstance().getConnection();
+            connector = DBConnector.getInstance();
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "DBConnector not available, falling back to DriverManager: {0}", e.getMessage());
             
             return DriverManager.getConnection(jdbcUrl, dbUser, dbPassword);
         }
+        // Un timeout del pool non deve aggirare il limite di connessioni aprendone una diretta
+        return connector.getConnection();
     }
 
     private void initializeDatabase() {
@@ -62,68 +128,116 @@ public class JdbcUserDao implements IUserDao {
                         password VARCHAR(255) NOT NULL,
                         user_type VARCHAR(50) DEFAULT 'Collezionista',
                         reliability_score INT DEFAULT 0,
-                        review_count INT DEFAULT 0
+                        review_count INT DEFAULT 0,
+                        version BIGINT NOT NULL DEFAULT 0
                     )
                 """;
 
         try (Connection conn = getConnection();
                 Statement stmt = conn.createStatement()) {
             stmt.execute(createUsersTable);
+            // Le tabelle create prima dell'introduzione della cache non hanno la colonna version
+            if (!hasColumn(conn, COLUMN_VERSION)) {
+                stmt.execute("ALTER TABLE users ADD COLUMN " + COLUMN_VERSION + " BIGINT NOT NULL DEFAULT 0");
+            }
+            // MySQL non supporta CREATE INDEX IF NOT EXISTS: l'indice sul tipo viene creato solo se manca
+            if (!hasIndex(conn, USER_TYPE_INDEX)) {
+                stmt.execute("CREATE INDEX " + USER_TYPE_INDEX + " ON users (" + COLUMN_USER_TYPE + ")");
+            }
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Error initializing database", e);
         }
     }
 
-    @Override
-    public Optional<User> findByName(String name) {
-        if (userCache.containsKey(name)) {
-            return Optional.of(userCache.get(name));
+    private static boolean hasColumn(Connection conn, String columnName) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "users", null)) {
+            while (rs.next()) {
+                if (columnName.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) return true;
+            }
         }
+        return false;
+    }
 
-        String sql = SELECT + COLUMN_USERNAME + ", " + COLUMN_RELIABILITY + ", " + COLUMN_REVIEW_COUNT + ", "
-                + COLUMN_USER_TYPE + " FROM users WHERE " + COLUMN_USERNAME + " = ?";
+    private static boolean hasIndex(Connection conn, String indexName) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, "users", false, false)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
 
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                        rs.getString(COLUMN_USERNAME),
-                        rs.getInt(COLUMN_RELIABILITY),
-                        rs.getInt(COLUMN_REVIEW_COUNT));
-                user.setUserType(rs.getString(COLUMN_USER_TYPE));
-
-                userCache.put(name, user);
-                return Optional.of(user);
+    private static User readUser(ResultSet rs) throws SQLException {
+        User user = new User(
+                rs.getString(COLUMN_USERNAME),
+                rs.getInt(COLUMN_RELIABILITY),
+                rs.getInt(COLUMN_REVIEW_COUNT));
+        user.setUserType(rs.getString(COLUMN_USER_TYPE));
+        return user;
+    }
+
+    /* Voce valida per username: fresca, oppure scaduta ma con la stessa version sul database. Null se la riga va
+     * riletta (assente, cambiata, o rivalidazione disabilitata). */
+    private UserCache.Entry cached(String username) {
+        UserCache.Entry entry = cache.fresh(username);
+        if (entry != null) return entry;
+        UserCache.Entry expired = revalidate ? cache.expired(username) : null;
+        if (expired != null) {
+            Long version = readVersion(username);
+            if (version != null && version == expired.version) {
+                cache.revalidated(expired);
+                return expired;
             }
+        }
+        cache.recordMiss();
+        return null;
+    }
+
+    private Long readVersion(String username) {
+        try (Connection conn = getConnection()) {
+            return FIND_VERSION.query(conn, ps -> ps.setString(1, username), rs -> rs.next() ? rs.getLong(1) : null);
         } catch (SQLException e) {
-            throw new DataPersistenceException("Failed to find user: " + name, e);
+            LOGGER.log(Level.FINE, "Version check failed for " + username, e);
+            return null;
+        }
+    }
+
+    // Rilegge la riga completa (password inclusa) e aggiorna la cache
+    private Optional<UserCache.Entry> load(String username) throws SQLException {
+        try (Connection conn = getConnection()) {
+            return FIND_BY_NAME.query(conn, ps -> ps.setString(1, username), rs -> {
+                if (!rs.next()) return Optional.empty();
+                User user = readUser(rs);
+                String password = rs.getString(COLUMN_PASSWORD);
+                long version = rs.getLong(COLUMN_VERSION);
+                cache.put(user, password, version);
+                return Optional.of(new UserCache.Entry(user, password, version, cache.now()));
+            });
         }
+    }
 
-        return Optional.empty();
+    @Override
+    public Optional<User> findByName(String name) {
+        UserCache.Entry entry = cached(name);
+        if (entry != null) return Optional.of(entry.user);
+
+        try {
+            return load(name).map(e -> e.user);
+        } catch (SQLException e) {
+            throw new DataPersistenceException("Failed to find user: " + name, e);
+        }
     }
 
     @Override
     public boolean authenticate(String username, String password) {
-        if (credentialCache.containsKey(username)) {
-            return password.equals(credentialCache.get(username));
+        UserCache.Entry entry = cached(username);
+        if (entry != null && entry.password != null) {
+            return password.equals(entry.password);
         }
 
-        String sql = SELECT + COLUMN_PASSWORD + " FROM users WHERE " + COLUMN_USERNAME + " = ?";
-
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String storedPassword = rs.getString(COLUMN_PASSWORD);
-                credentialCache.put(username, storedPassword);
-                return password.equals(storedPassword);
-            }
-            throw new UserNotFoundException(username);
+        try {
+            UserCache.Entry loaded = load(username).orElseThrow(() -> new UserNotFoundException(username));
+            return password.equals(loaded.password);
         } catch (SQLException e) {
             throw new AuthenticationException("Authentication failed for user: " + username, e);
         }
@@ -144,21 +258,17 @@ public class JdbcUserDao implements IUserDao {
             throw new UserAlreadyExistsException(username);
         }
 
-        String sql = "INSERT INTO users (" + COLUMN_USERNAME + ", " + COLUMN_PASSWORD + ", " + COLUMN_USER_TYPE + ", "
-                + COLUMN_RELIABILITY + ", " + COLUMN_REVIEW_COUNT + ") VALUES (?, ?, ?, 0, 0)";
-
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, password);
-            pstmt.setString(3, userType);
-            pstmt.executeUpdate();
+        try (Connection conn = getConnection()) {
+            REGISTER.update(conn, ps -> {
+                ps.setString(1, username);
+                ps.setString(2, password);
+                ps.setString(3, userType);
+            });
 
             
             User newUser = new User(username, 0, 0);
             newUser.setUserType(userType);
-            userCache.put(username, newUser);
-            credentialCache.put(username, password);
+            cache.put(newUser, password, 0);
 
         } catch (SQLException e) {
             throw new DataPersistenceException("Failed to register user: " + username, e);
@@ -167,34 +277,47 @@ public class JdbcUserDao implements IUserDao {
 
     @Override
     public List<String> findAllUsernames() {
-        
-        if (allLoaded && !userCache.isEmpty()) {
-            return new java.util.ArrayList<>(userCache.keySet());
+        List<User> snapshot = cache.snapshot();
+        if (snapshot != null) {
+            return new java.util.ArrayList<>(snapshot.stream().map(User::getName).toList());
         }
 
-        String sql = SELECT + COLUMN_USERNAME + " FROM users";
-        List<String> result = new java.util.ArrayList<>();
-        try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                String username = rs.getString(COLUMN_USERNAME);
-                result.add(username);
-            }
-            
-            for (String uname : result) {
-                if (!userCache.containsKey(uname)) {
-                    findByName(uname).ifPresent(u -> userCache.put(uname, u));
-                }
-            }
-            markAllLoaded();
-            return result;
+        // Una sola query carica tutti gli utenti e riscalda la cache, invece di una findByName per utente
+        List<UserCache.Entry> rows;
+        try (Connection conn = getConnection()) {
+            rows = FIND_ALL.query(conn, NamedStatement.NO_PARAMS,
+                    rs -> JdbcSupport.list(rs, r -> new UserCache.Entry(readUser(r), null, r.getLong(COLUMN_VERSION), 0)));
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Failed to load usernames from DB", e);
             
-            return new java.util.ArrayList<>(userCache.keySet());
+            return cache.names();
+        }
+        cache.recordMiss();
+        return new java.util.ArrayList<>(cache.loadAll(rows).stream().map(User::getName).toList());
+    }
+
+    @Override
+    public List<User> findByUserType(String userType) {
+        if (userType == null) return new java.util.ArrayList<>();
+        List<User> snapshot = cache.snapshot();
+        if (snapshot != null) {
+            return new java.util.ArrayList<>(snapshot.stream().filter(u -> userType.equals(u.getUserType())).toList());
+        }
+
+        cache.recordMiss();
+        try (Connection conn = getConnection()) {
+            return FIND_BY_TYPE.query(conn, ps -> ps.setString(1, userType), rs -> JdbcSupport.list(rs, this::readAndCache));
+        } catch (SQLException e) {
+            throw new DataPersistenceException("Failed to find users of type: " + userType, e);
         }
     }
 
+    private User readAndCache(ResultSet rs) throws SQLException {
+        User user = readUser(rs);
+        cache.put(user, null, rs.getLong(COLUMN_VERSION));
+        return user;
+    }
+
     
 
     @Override
@@ -205,30 +328,16 @@ public class JdbcUserDao implements IUserDao {
         
         
         
-        if (allLoaded) {
-            return userCache.values().stream()
+        List<User> snapshot = cache.snapshot();
+        if (snapshot != null) {
+            return snapshot.stream()
                     .filter(user -> user.getId() == id)
                     .findFirst();
         }
 
-        String sql = SELECT + COLUMN_USERNAME + ", " + COLUMN_RELIABILITY + ", " + COLUMN_REVIEW_COUNT + ", "
-                + COLUMN_USER_TYPE + " FROM users WHERE id = ?";
-
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                        rs.getString(COLUMN_USERNAME),
-                        rs.getInt(COLUMN_RELIABILITY),
-                        rs.getInt(COLUMN_REVIEW_COUNT));
-                user.setUserType(rs.getString(COLUMN_USER_TYPE));
-
-                userCache.put(user.getName(), user);
-                return Optional.of(user);
-            }
+        try (Connection conn = getConnection()) {
+            return FIND_BY_ID.query(conn, ps -> ps.setLong(1, id),
+                    rs -> rs.next() ? Optional.of(readAndCache(rs)) : Optional.<User>empty());
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Error getting user by id: {0}", id);
             LOGGER.log(Level.WARNING, "Exception: ", e);
@@ -247,18 +356,15 @@ public class JdbcUserDao implements IUserDao {
             throw new UserAlreadyExistsException(user.getName());
         }
 
-        String sql = "INSERT INTO users (" + COLUMN_USERNAME + ", " + COLUMN_USER_TYPE + ", " + COLUMN_RELIABILITY
-                + ", " + COLUMN_REVIEW_COUNT + ") VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection()) {
+            INSERT.update(conn, ps -> {
+                ps.setString(1, user.getName());
+                ps.setString(2, user.getUserType());
+                ps.setInt(3, user.getReliabilityScore());
+                ps.setInt(4, user.getReviewCount());
+            });
 
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, user.getName());
-            pstmt.setString(2, user.getUserType());
-            pstmt.setInt(3, user.getReliabilityScore());
-            pstmt.setInt(4, user.getReviewCount());
-            pstmt.executeUpdate();
-
-            userCache.put(user.getName(), user);
+            cache.put(user, null, 0);
             
             
             
@@ -280,19 +386,20 @@ public class JdbcUserDao implements IUserDao {
             throw new UserNotFoundException(user.getName());
         }
 
-        String sql = "UPDATE users SET " + COLUMN_USER_TYPE + " = ?, " + COLUMN_RELIABILITY + " = ?, "
-                + COLUMN_REVIEW_COUNT + " = ? WHERE " + COLUMN_USERNAME + " = ?";
-
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, user.getUserType());
-            pstmt.setInt(2, user.getReliabilityScore());
-            pstmt.setInt(3, user.getReviewCount());
-            pstmt.setString(4, user.getName());
-            pstmt.executeUpdate();
-
-            userCache.put(user.getName(), user);
+        try (Connection conn = getConnection()) {
+            UPDATE.update(conn, ps -> {
+                ps.setString(1, user.getUserType());
+                ps.setInt(2, user.getReliabilityScore());
+                ps.setInt(3, user.getReviewCount());
+                ps.setString(4, user.getName());
+            });
+
+            Long version = FIND_VERSION.query(conn, ps -> ps.setString(1, user.getName()),
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (version != null) cache.put(user, null, version);
+            else cache.remove(user.getName());
         } catch (SQLException e) {
+            cache.invalidate(user.getName());
             throw new DataPersistenceException("Failed to update user: " + user.getName(), e);
         }
     }
@@ -307,15 +414,10 @@ public class JdbcUserDao implements IUserDao {
             throw new UserNotFoundException(user.getName());
         }
 
-        String sql = "DELETE FROM users WHERE " + COLUMN_USERNAME + " = ?";
-
-        try (Connection conn = getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, user.getName());
-            pstmt.executeUpdate();
+        try (Connection conn = getConnection()) {
+            DELETE.update(conn, ps -> ps.setString(1, user.getName()));
 
-            userCache.remove(user.getName());
-            credentialCache.remove(user.getName());
+            cache.remove(user.getName());
         } catch (SQLException e) {
             throw new DataPersistenceException("Failed to delete user: " + user.getName(), e);
         }
@@ -0,0 +1,57 @@
+package model.dao.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Istogramma di latenze senza lock a bucket logaritmici in microsecondi: il bucket i conta i campioni in
+ * [2^(i-1), 2^i) us. I percentili sono quindi approssimati per eccesso al limite superiore del bucket, abbastanza
+ * per distinguere un p99 da 2 ms da uno da 200 ms senza conservare i singoli campioni. */
+final class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    StatementStats snapshot(String name) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxMicros.get();
+        long average = total == 0 ? 0 : totalMicros.get() / Math.max(1, count.get());
+        return new StatementStats(name, total, average, percentile(counts, total, 0.50, max),
+                percentile(counts, total, 0.95, max), percentile(counts, total, 0.99, max), max);
+    }
+
+    static int bucketOf(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+}
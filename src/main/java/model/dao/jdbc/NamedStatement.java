@@ -0,0 +1,91 @@
+package model.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/* Statement SQL con un nome stabile, usato come chiave delle metriche di latenza. Il testo SQL è costante, così il
+ * pool ritrova lo stesso PreparedStatement già compilato sulla connessione. Statement e ResultSet vengono sempre
+ * chiusi (cioè restituiti alla cache del pool) prima di tornare al chiamante. */
+final class NamedStatement {
+
+    @FunctionalInterface
+    interface Params {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ResultHandler<T> {
+        T handle(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RowParams<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    static final Params NO_PARAMS = _ -> { };
+
+    private final String name;
+    private final String sql;
+
+    NamedStatement(String name, String sql) {
+        this.name = name;
+        this.sql = sql;
+    }
+
+    String name() {
+        return name;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    // Il tempo misurato comprende esecuzione e lettura delle righe: è quello che il chiamante attende davvero
+    <T> T query(Connection conn, Params params, ResultHandler<T> handler) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            params.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return handler.handle(rs);
+            }
+        } finally {
+            StatementMetrics.record(name, System.nanoTime() - start);
+        }
+    }
+
+    int update(Connection conn, Params params) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.NO_GENERATED_KEYS)) {
+            params.bind(ps);
+            return ps.executeUpdate();
+        } finally {
+            StatementMetrics.record(name, System.nanoTime() - start);
+        }
+    }
+
+    // Una riga del batch per elemento, inviate insieme: la misura è quella dell'intero batch
+    <T> int batch(Connection conn, Iterable<? extends T> rows, RowParams<? super T> params) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.NO_GENERATED_KEYS)) {
+            int count = 0;
+            for (T row : rows) {
+                params.bind(ps, row);
+                ps.addBatch();
+                count++;
+            }
+            if (count > 0) ps.executeBatch();
+            return count;
+        } finally {
+            StatementMetrics.record(name, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
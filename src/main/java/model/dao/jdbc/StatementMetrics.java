@@ -0,0 +1,35 @@
+package model.dao.jdbc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Registro globale delle latenze degli statement nominati dei DAO JDBC, un istogramma per nome. */
+public final class StatementMetrics {
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private StatementMetrics() {
+    }
+
+    static void record(String name, long nanos) {
+        HISTOGRAMS.computeIfAbsent(name, _ -> new LatencyHistogram()).record(nanos);
+    }
+
+    public static List<StatementStats> snapshot() {
+        List<StatementStats> stats = new ArrayList<>();
+        HISTOGRAMS.forEach((name, histogram) -> stats.add(histogram.snapshot(name)));
+        stats.sort(Comparator.comparing(StatementStats::getName));
+        return stats;
+    }
+
+    public static StatementStats get(String name) {
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        return histogram != null ? histogram.snapshot(name) : new StatementStats(name, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package model.dao.jdbc;
+
+/* Fotografia immutabile delle latenze di uno statement JDBC, pensata per log e diagnostica. */
+public final class StatementStats {
+    private final String name;
+    private final long count;
+    private final long averageMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    @SuppressWarnings("java:S107")
+    public StatementStats(String name, long count, long averageMicros, long p50Micros, long p95Micros, long p99Micros,
+                          long maxMicros) {
+        this.name = name;
+        this.count = count;
+        this.averageMicros = averageMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getAverageMicros() {
+        return averageMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP95Micros() {
+        return p95Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d avg=%dus p50=%dus p95=%dus p99=%dus max=%dus",
+                name, count, averageMicros, p50Micros, p95Micros, p99Micros, maxMicros);
+    }
+}
@@ -0,0 +1,169 @@
+package model.dao.jdbc;
+
+import model.api.CacheStats;
+import model.domain.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/* Cache degli utenti di un JdbcUserDao: LRU limitata nel numero di voci, con scadenza TTL. Una voce scaduta non
+ * viene scartata subito: il DAO può rivalidarla confrontando la colonna version invece di rileggere la riga.
+ * I contatori staleHits contano proprio le voci scadute ma confermate dal database. */
+final class UserCache {
+
+    static final class Entry {
+        final User user;
+        final String password;
+        final long version;
+        final long loadedAt;
+
+        Entry(User user, String password, long version, long loadedAt) {
+            this.user = user;
+            this.password = password;
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Istante dell'ultimo caricamento completo della tabella, -1 se la cache non contiene tutti gli utenti.
+    // volatile: viene letto senza lock dai metodi che decidono se interrogare il database
+    private volatile long fullyLoadedAt = -1;
+
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long evictions;
+
+    UserCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMillis < 0) throw new IllegalArgumentException("Invalid user cache bounds");
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    synchronized Entry fresh(String username) {
+        Entry entry = username != null ? entries.get(username) : null;
+        if (entry == null || isExpired(entry.loadedAt)) return null;
+        hits++;
+        return entry;
+    }
+
+    // Voce presente ma scaduta, candidata alla rivalidazione tramite version
+    synchronized Entry expired(String username) {
+        Entry entry = username != null ? entries.get(username) : null;
+        return entry != null && isExpired(entry.loadedAt) ? entry : null;
+    }
+
+    synchronized void revalidated(Entry entry) {
+        staleHits++;
+        if (entries.get(entry.user.getName()) == entry) {
+            entries.put(entry.user.getName(), new Entry(entry.user, entry.password, entry.version, now()));
+        }
+    }
+
+    synchronized void recordMiss() {
+        misses++;
+    }
+
+    // Una password nulla (caricamenti massivi) non cancella quella già nota se la riga non è cambiata
+    synchronized void put(User user, String password, long version) {
+        Entry previous = entries.get(user.getName());
+        String pwd = password == null && previous != null && previous.version == version ? previous.password : password;
+        entries.put(user.getName(), new Entry(user, pwd, version, now()));
+        evictIfNeeded();
+    }
+
+    /* Sostituisce il contenuto con l'intera tabella. La cache viene marcata come completa solo se tutti gli
+     * utenti ci stanno: altrimenti findAllUsernames e findByUserType continuano a interrogare il database. */
+    synchronized List<User> loadAll(List<Entry> rows) {
+        long loadedAt = now();
+        Set<String> names = new HashSet<>();
+        List<User> users = new ArrayList<>(rows.size());
+        for (Entry row : rows) {
+            names.add(row.user.getName());
+            Entry previous = entries.get(row.user.getName());
+            String pwd = previous != null && previous.version == row.version ? previous.password : null;
+            // Se la riga non è cambiata si conserva l'istanza già consegnata ai chiamanti
+            User user = previous != null && previous.version == row.version ? previous.user : row.user;
+            entries.put(user.getName(), new Entry(user, pwd, row.version, loadedAt));
+            users.add(user);
+        }
+        entries.keySet().retainAll(names);
+        long evictionsBefore = evictions;
+        evictIfNeeded();
+        fullyLoadedAt = evictions == evictionsBefore ? loadedAt : -1;
+        return users;
+    }
+
+    // Copia degli utenti se la cache contiene l'intera tabella e il caricamento non è scaduto, altrimenti null
+    synchronized List<User> snapshot() {
+        long loadedAt = fullyLoadedAt;
+        if (loadedAt < 0 || isExpired(loadedAt)) return null;
+        hits++;
+        List<User> users = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) users.add(entry.user);
+        return users;
+    }
+
+    // Rimozione dovuta a una delete di questo DAO: la cache resta completa
+    synchronized void remove(String username) {
+        entries.remove(username);
+    }
+
+    // Invalidazione esterna (es. modifica da un'altra istanza): la cache non è più completa
+    synchronized void invalidate(String username) {
+        entries.remove(username);
+        fullyLoadedAt = -1;
+    }
+
+    synchronized void invalidateAll() {
+        entries.clear();
+        fullyLoadedAt = -1;
+    }
+
+    boolean isFullyLoaded() {
+        long loadedAt = fullyLoadedAt;
+        return loadedAt >= 0 && !isExpired(loadedAt);
+    }
+
+    synchronized List<String> names() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized CacheStats getStats() {
+        return new CacheStats(hits, staleHits, misses, 0, evictions);
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return now() - loadedAt > ttlMillis;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+            fullyLoadedAt = -1;
+        }
+    }
+}
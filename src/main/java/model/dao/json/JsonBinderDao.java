@@ -2,39 +2,54 @@ package model.dao.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
+import config.DatabaseConfig;
+import config.IdGenerator;
+import config.IdGenerators;
 import model.dao.IBinderDao;
+import model.dao.TradableCardIndex;
+import model.dao.IFlushableDao;
 import model.domain.Binder;
 import exception.DataPersistenceException;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class JsonBinderDao implements IBinderDao {
+public class JsonBinderDao implements IBinderDao, IFlushableDao {
     private static final Logger LOGGER = Logger.getLogger(JsonBinderDao.class.getName());
 
     private final String jsonFilePath;
     private final Gson gson;
     private final Map<Long, Binder> bindersById;
     private final Map<String, List<Binder>> bindersByOwner;
-    private final AtomicLong idGenerator;
+    private final TradableCardIndex tradableIndex;
+    private final RecordSnapshots<Long> persisted;
+    private final IdGenerator idGenerator;
+    private final WriteBehindFlusher flusher;
 
     public JsonBinderDao(String jsonFilePath) {
+        this(jsonFilePath, DatabaseConfig.JSON_WRITE_BEHIND_ENABLED);
+    }
+
+    public JsonBinderDao(String jsonFilePath, boolean writeBehind) {
         this.jsonFilePath = jsonFilePath;
-        this.gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+        this.gson = JsonSnapshotFile.format(new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter()))
                 .create();
 
         this.bindersById = new ConcurrentHashMap<>();
         this.bindersByOwner = new ConcurrentHashMap<>();
-        this.idGenerator = new AtomicLong(0);
+        this.tradableIndex = new TradableCardIndex();
+        this.persisted = new RecordSnapshots<>(gson);
+        this.idGenerator = IdGenerators.shared();
+        this.flusher = new WriteBehindFlusher("binders", this::saveToJson, writeBehind,
+                DatabaseConfig.WRITE_BEHIND_MAX_DELAY_MS, DatabaseConfig.WRITE_BEHIND_MAX_PENDING_CHANGES);
 
         initializeFile();
         loadFromJson();
@@ -58,58 +73,62 @@ public class JsonBinderDao implements IBinderDao {
 
     private void loadFromJson() {
         File file = new File(jsonFilePath);
+        JsonSnapshotFile.deleteStaleTemp(file.toPath());
         if (!file.exists()) {
             LOGGER.info("Binders JSON file not found, starting with empty collection");
             return;
         }
 
-        try (Reader reader = new FileReader(file)) {
-            Type listType = new TypeToken<List<Binder>>() {
-            }.getType();
-            List<Binder> binders = gson.fromJson(reader, listType);
-
-            if (binders != null) {
-                long maxId = 0;
-
-                for (Binder binder : binders) {
-                    bindersById.put(binder.getId(), binder);
-
-                    bindersByOwner.computeIfAbsent(binder.getOwner(), _ -> new ArrayList<>())
-                            .add(binder);
-
-                    if (binder.getId() > maxId) {
-                        maxId = binder.getId();
-                    }
-                }
-
-                idGenerator.set(maxId);
-                LOGGER.log(Level.INFO, "Loaded {0} binders from JSON", binders.size());
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Error loading binders from JSON, starting fresh", e);
-            saveToJson();
+        try {
+            int loaded = JsonSnapshotFile.readEach(file.toPath(), gson, Binder.class, binder -> {
+                bindersById.put(binder.getId(), binder);
+
+                bindersByOwner.computeIfAbsent(binder.getOwner(), _ -> new ArrayList<>())
+                        .add(binder);
+                tradableIndex.put(binder);
+                persisted.put(binder.getId(), binder);
+            });
+
+            LOGGER.log(Level.INFO, "Loaded {0} binders from JSON", loaded);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.log(Level.SEVERE, "Error loading binders from JSON, keeping the file aside and starting fresh", e);
+            // Scarta gli elementi letti prima dell'errore: si riparte vuoti, lo snapshot originale resta da parte
+            bindersById.clear();
+            bindersByOwner.clear();
+            tradableIndex.clear();
+            persisted.clear();
+            JsonSnapshotFile.quarantine(file.toPath());
         }
     }
 
     private void saveToJson() {
-        try (Writer writer = new FileWriter(jsonFilePath)) {
-            List<Binder> allBinders = new ArrayList<>(bindersById.values());
-            gson.toJson(allBinders, writer);
+        try {
+            JsonSnapshotFile.write(Path.of(jsonFilePath), gson, persisted.toArray(), JsonArray.class);
         } catch (IOException e) {
             throw new DataPersistenceException("Failed to save binders to " + jsonFilePath, e);
         }
     }
 
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public void close() {
+        flusher.close();
+    }
+
     @Override
     public Optional<Binder> get(long id) {
         return Optional.ofNullable(bindersById.get(id));
     }
 
     @Override
-    public void save(Binder binder) {
+    public synchronized void save(Binder binder) {
         
         if (binder.getId() == 0) {
-            binder.setId(idGenerator.incrementAndGet());
+            binder.setId(idGenerator.nextId());
         }
 
         
@@ -122,18 +141,21 @@ public class JsonBinderDao implements IBinderDao {
 
         
         bindersById.put(binder.getId(), binder);
-        bindersByOwner.computeIfAbsent(binder.getOwner(), _ -> new ArrayList<>())
-                .add(binder);
+        List<Binder> ownerBinders = bindersByOwner.computeIfAbsent(binder.getOwner(), _ -> new ArrayList<>());
+        ownerBinders.removeIf(b -> b.getId() == binder.getId());
+        ownerBinders.add(binder);
+        tradableIndex.put(binder);
+        persisted.put(binder.getId(), binder);
 
         
-        saveToJson();
+        flusher.markDirty();
 
         LOGGER.log(Level.INFO, "Saved binder ID: {0} for user: {1}",
                 new Object[] { binder.getId(), binder.getOwner() });
     }
 
     @Override
-    public void update(Binder binder, String[] params) {
+    public synchronized void update(Binder binder, String[] params) {
 
         if (!bindersById.containsKey(binder.getId())) {
             throw new IllegalArgumentException("Binder not found with ID: " + binder.getId());
@@ -152,21 +174,25 @@ public class JsonBinderDao implements IBinderDao {
 
         
         bindersById.put(binder.getId(), binder);
+        tradableIndex.put(binder);
+        persisted.put(binder.getId(), binder);
 
         
-        saveToJson();
+        flusher.markDirty();
 
         LOGGER.log(Level.INFO, "Updated binder ID: {0}", binder.getId());
     }
 
     @Override
-    public void delete(Binder binder) {
+    public synchronized void delete(Binder binder) {
         if (binder == null) {
             throw new IllegalArgumentException("Binder cannot be null");
         }
 
         
         bindersById.remove(binder.getId());
+        tradableIndex.remove(binder.getId());
+        persisted.remove(binder.getId());
 
         
         List<Binder> ownerBinders = bindersByOwner.get(binder.getOwner());
@@ -178,13 +204,14 @@ public class JsonBinderDao implements IBinderDao {
         }
 
         
-        saveToJson();
+        flusher.markDirty();
 
         LOGGER.log(Level.INFO, "Deleted binder ID: {0}", binder.getId());
     }
 
     @Override
-    public List<Binder> getUserBinders(String owner) {
+    public synchronized List<Binder> getUserBinders(String owner) {
+        // Le liste per proprietario sono ArrayList semplici: lette e modificate solo sotto il lock del DAO
         List<Binder> userBinders = bindersByOwner.get(owner);
         if (userBinders == null) {
             return new ArrayList<>();
@@ -192,6 +219,21 @@ public class JsonBinderDao implements IBinderDao {
         return new ArrayList<>(userBinders);
     }
 
+    @Override
+    public List<TradableCardIndex.Listing> getTradableListings(String setId, String excludingOwner) {
+        return tradableIndex.findListings(setId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> getTradableOwners(String cardId, String excludingOwner) {
+        return tradableIndex.findOwners(cardId, excludingOwner);
+    }
+
+    @Override
+    public List<TradableCardIndex.Listing> searchTradableByName(String query, String excludingOwner, int limit) {
+        return tradableIndex.searchByName(query, excludingOwner, limit);
+    }
+
     @Override
     public void createBinder(String owner, String setId, String setName) {
         Binder binder = new Binder(owner, setId, setName);
@@ -2,32 +2,41 @@ package model.dao.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
+import config.DatabaseConfig;
+import config.IdGenerator;
+import config.IdGenerators;
+import model.dao.IFlushableDao;
 import model.dao.IProposalDao;
 import model.domain.Proposal;
 import exception.DataPersistenceException;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class JsonProposalDao implements IProposalDao {
+public class JsonProposalDao implements IProposalDao, IFlushableDao {
     private static final Logger LOGGER = Logger.getLogger(JsonProposalDao.class.getName());
 
     private final String jsonFilePath;
     private final Gson gson;
     private final Map<String, Proposal> proposalsById;
-    private final AtomicLong idGenerator;
+    private final RecordSnapshots<String> persisted;
+    private final IdGenerator idGenerator;
+    private final WriteBehindFlusher flusher;
 
     public JsonProposalDao(String jsonFilePath) {
+        this(jsonFilePath, DatabaseConfig.JSON_WRITE_BEHIND_ENABLED);
+    }
+
+    public JsonProposalDao(String jsonFilePath, boolean writeBehind) {
         this.jsonFilePath = jsonFilePath;
-        this.gson = new GsonBuilder()
-                .setPrettyPrinting()
+        this.gson = JsonSnapshotFile.format(new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new com.google.gson.TypeAdapter<LocalDateTime>() {
                     @Override
                     public void write(com.google.gson.stream.JsonWriter out, LocalDateTime value) throws IOException {
@@ -39,11 +48,14 @@ public class JsonProposalDao implements IProposalDao {
                         if (in.peek() == com.google.gson.stream.JsonToken.NULL) { in.nextNull(); return null; }
                         return LocalDateTime.parse(in.nextString());
                     }
-                })
+                }))
                 .create();
 
         this.proposalsById = new ConcurrentHashMap<>();
-        this.idGenerator = new AtomicLong(0);
+        this.persisted = new RecordSnapshots<>(gson);
+        this.idGenerator = IdGenerators.shared();
+        this.flusher = new WriteBehindFlusher("proposals", this::saveToJson, writeBehind,
+                DatabaseConfig.WRITE_BEHIND_MAX_DELAY_MS, DatabaseConfig.WRITE_BEHIND_MAX_PENDING_CHANGES);
 
         initializeFile();
         loadFromJson();
@@ -63,39 +75,40 @@ public class JsonProposalDao implements IProposalDao {
 
     private void loadFromJson() {
         File file = new File(jsonFilePath);
+        JsonSnapshotFile.deleteStaleTemp(file.toPath());
         if (!file.exists()) return;
-        try (Reader r = new FileReader(file)) {
-            Type listType = new TypeToken<List<Proposal>>(){}.getType();
-            List<Proposal> list = gson.fromJson(r, listType);
-            if (list != null) {
-                long max = 0;
-                for (Proposal p : list) {
-                    proposalsById.put(p.getProposalId(), p);
-                    
-                    String idStr = p.getProposalId();
-                    if (idStr != null && idStr.matches("\\d+")) {
-                        long numeric = Long.parseLong(idStr);
-                        if (numeric > max) max = numeric;
-                    }
-                }
-                idGenerator.set(max);
-                LOGGER.log(Level.INFO, "Loaded {0} proposals from JSON", list.size());
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Error reading proposals JSON, starting empty", e);
-            saveToJson();
+        try {
+            int loaded = JsonSnapshotFile.readEach(file.toPath(), gson, Proposal.class, p -> {
+                proposalsById.put(p.getProposalId(), p);
+                persisted.put(p.getProposalId(), p);
+            });
+            LOGGER.log(Level.INFO, "Loaded {0} proposals from JSON", loaded);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.log(Level.SEVERE, "Error reading proposals JSON, keeping the file aside and starting empty", e);
+            proposalsById.clear();
+            persisted.clear();
+            JsonSnapshotFile.quarantine(file.toPath());
         }
     }
 
     private void saveToJson() {
-        try (Writer w = new FileWriter(jsonFilePath)) {
-            List<Proposal> list = new ArrayList<>(proposalsById.values());
-            gson.toJson(list, w);
+        try {
+            JsonSnapshotFile.write(Path.of(jsonFilePath), gson, persisted.toArray(), JsonArray.class);
         } catch (IOException e) {
             throw new DataPersistenceException("Failed to save proposals to " + jsonFilePath, e);
         }
     }
 
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public void close() {
+        flusher.close();
+    }
+
     @Override
     public List<Proposal> getAll() {
         return new ArrayList<>(proposalsById.values());
@@ -111,12 +124,12 @@ public class JsonProposalDao implements IProposalDao {
     public void save(Proposal proposal) {
         if (proposal == null) throw new IllegalArgumentException("Proposal cannot be null");
         if (proposal.getProposalId() == null || proposal.getProposalId().isEmpty()) {
-            String id = String.valueOf(idGenerator.incrementAndGet());
-            proposal.setProposalId(id);
+            proposal.setProposalId(String.valueOf(idGenerator.nextId()));
         }
         proposal.setLastUpdated(LocalDateTime.now());
         proposalsById.put(proposal.getProposalId(), proposal);
-        saveToJson();
+        persisted.put(proposal.getProposalId(), proposal);
+        flusher.markDirty();
         LOGGER.log(Level.INFO, "Saved proposal {0}", proposal.getProposalId());
     }
 
@@ -125,7 +138,8 @@ public class JsonProposalDao implements IProposalDao {
         if (proposal == null || proposal.getProposalId() == null) throw new IllegalArgumentException("Invalid proposal");
         proposal.setLastUpdated(LocalDateTime.now());
         proposalsById.put(proposal.getProposalId(), proposal);
-        saveToJson();
+        persisted.put(proposal.getProposalId(), proposal);
+        flusher.markDirty();
         LOGGER.log(Level.INFO, "Updated proposal {0}", proposal.getProposalId());
     }
 
@@ -133,7 +147,8 @@ public class JsonProposalDao implements IProposalDao {
     public void delete(Proposal proposal) {
         if (proposal == null || proposal.getProposalId() == null) throw new IllegalArgumentException("Invalid proposal");
         proposalsById.remove(proposal.getProposalId());
-        saveToJson();
+        persisted.remove(proposal.getProposalId());
+        flusher.markDirty();
         LOGGER.log(Level.INFO, "Deleted proposal {0}", proposal.getProposalId());
     }
 
@@ -0,0 +1,142 @@
+package model.dao.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import config.DatabaseConfig;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Scrittura crash-safe degli snapshot JSON: il contenuto va su un file temporaneo nella stessa cartella,
+ * viene forzato su disco e solo dopo rinominato atomicamente sopra il file vero. Un crash lascia quindi
+ * sempre lo snapshot precedente oppure quello nuovo, mai un file troncato. */
+final class JsonSnapshotFile {
+    private static final Logger LOGGER = Logger.getLogger(JsonSnapshotFile.class.getName());
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter BACKUP_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // Un solo writer per file: il file temporaneo è condiviso tra flush concorrenti dello stesso snapshot
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private JsonSnapshotFile() {
+    }
+
+    static GsonBuilder format(GsonBuilder builder) {
+        return DatabaseConfig.JSON_COMPACT_FORMAT ? builder : builder.setPrettyPrinting();
+    }
+
+    static void write(Path target, Gson gson, Object data, Type type) throws IOException {
+        synchronized (LOCKS.computeIfAbsent(target.toAbsolutePath().normalize(), _ -> new Object())) {
+            writeLocked(target, gson, data, type);
+        }
+    }
+
+    private static void writeLocked(Path target, Gson gson, Object data, Type type) throws IOException {
+        Path temp = tempFor(target);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            gson.toJson(data, type, writer);
+            writer.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        moveIntoPlace(temp, target);
+        syncDirectory(target);
+    }
+
+    // Lettura in streaming di uno snapshot array: ogni elemento viene passato al consumer appena letto,
+    // senza costruire prima la lista completa in memoria
+    static <T> int readEach(Path source, Gson gson, Class<T> elementType, Consumer<? super T> consumer) throws IOException {
+        if (Files.size(source) == 0) return 0;
+        TypeAdapter<T> adapter = gson.getAdapter(elementType);
+        try (BufferedReader buffered = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(buffered)) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return 0;
+            }
+            int count = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T element = adapter.read(reader);
+                if (element != null) {
+                    consumer.accept(element);
+                    count++;
+                }
+            }
+            reader.endArray();
+            return count;
+        }
+    }
+
+    // Lo snapshot illeggibile viene spostato da parte invece di essere sovrascritto dal prossimo salvataggio
+    static Path quarantine(Path target) {
+        Path backup = target.resolveSibling(target.getFileName() + ".corrupt-" + LocalDateTime.now().format(BACKUP_STAMP));
+        try {
+            Files.move(target, backup, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.log(Level.SEVERE, "Unreadable snapshot {0} moved to {1}", new Object[] { target, backup });
+            return backup;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not move unreadable snapshot " + target + " aside", e);
+            return null;
+        }
+    }
+
+    static void deleteStaleTemp(Path target) {
+        try {
+            if (Files.deleteIfExists(tempFor(target))) {
+                LOGGER.log(Level.WARNING, "Removed incomplete snapshot left by an interrupted write: {0}", tempFor(target));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not remove stale temp snapshot", e);
+        }
+    }
+
+    private static Path tempFor(Path target) {
+        return target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.fine(() -> "Atomic move not supported for " + target + ", falling back to replace");
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Rende durevole anche la voce di directory del rename; non tutti i sistemi permettono di aprire una cartella
+    private static void syncDirectory(Path target) {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException _) {
+            // best effort
+        }
+    }
+}
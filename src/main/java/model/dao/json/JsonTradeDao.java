@@ -2,36 +2,63 @@ package model.dao.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
 import config.DatabaseConfig;
+import config.IdGenerator;
+import config.IdGenerators;
 import exception.DataPersistenceException;
+import model.dao.HistoryCursor;
+import model.dao.IFlushableDao;
 import model.dao.ITradeDao;
+import model.dao.Page;
+import model.dao.TradeIndex;
 import model.domain.TradeTransaction;
+import model.domain.enumerations.TradeStatus;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class JsonTradeDao implements ITradeDao {
+public final class JsonTradeDao implements ITradeDao, IFlushableDao {
     private static final Logger LOGGER = Logger.getLogger(JsonTradeDao.class.getName());
+    private static final Set<TradeStatus> CLOSED_STATUSES = EnumSet.of(TradeStatus.COMPLETED, TradeStatus.CANCELLED);
+    private static final Set<TradeStatus> OPEN_STATUSES = EnumSet.complementOf(EnumSet.of(TradeStatus.COMPLETED, TradeStatus.CANCELLED));
+    private static final Set<TradeStatus> IN_PROGRESS_STATUSES = EnumSet.of(TradeStatus.INSPECTION_PHASE, TradeStatus.INSPECTION_PASSED);
     private final String jsonFilePath;
     private final Gson gson;
-    private final Map<Integer, TradeTransaction> tradesById;
-    private final AtomicInteger idGenerator;
+    private final Map<Long, TradeTransaction> tradesById;
+    private final TradeIndex index;
+    private final RecordSnapshots<Long> persisted;
+    private final IdGenerator idGenerator;
+    private final TradeJournal journal;
+    private final ScheduledExecutorService compactor;
+    private final WriteBehindFlusher flusher;
+    private final boolean writeBehind;
 
     public JsonTradeDao() {
-        this(DatabaseConfig.JSON_DIR + File.separator + "trades.json");
+        this(DatabaseConfig.TRADES_JSON_PATH);
     }
 
     public JsonTradeDao(String jsonFilePath) {
+        this(jsonFilePath, DatabaseConfig.TRADES_JOURNAL_ENABLED);
+    }
+
+    public JsonTradeDao(String jsonFilePath, boolean journaled) {
+        this(jsonFilePath, journaled, DatabaseConfig.JSON_WRITE_BEHIND_ENABLED);
+    }
+
+    public JsonTradeDao(String jsonFilePath, boolean journaled, boolean writeBehind) {
         this.jsonFilePath = jsonFilePath;
-        this.gson = new GsonBuilder()
-                .setPrettyPrinting()
+        this.writeBehind = writeBehind;
+        GsonBuilder builder = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new com.google.gson.TypeAdapter<LocalDateTime>() {
                     @Override
                     public void write(com.google.gson.stream.JsonWriter out, LocalDateTime value) throws IOException {
@@ -43,14 +70,34 @@ public class JsonTradeDao implements ITradeDao {
                         if (in.peek() == com.google.gson.stream.JsonToken.NULL) { in.nextNull(); return null; }
                         return LocalDateTime.parse(in.nextString());
                     }
-                })
-                .create();
+                });
+        Gson journalGson = builder.create();
+        this.gson = JsonSnapshotFile.format(builder).create();
 
         this.tradesById = new ConcurrentHashMap<>();
-        this.idGenerator = new AtomicInteger(0);
+        this.index = new TradeIndex();
+        this.persisted = new RecordSnapshots<>(gson);
+        this.idGenerator = IdGenerators.shared();
+        this.journal = journaled ? new TradeJournal(Path.of(jsonFilePath + DatabaseConfig.JOURNAL_SUFFIX), journalGson) : null;
+        // Col journal il flush raggruppato è solo il force delle righe accodate (group commit), altrimenti lo snapshot
+        this.flusher = new WriteBehindFlusher("trades", journaled ? this::syncJournal : this::saveToJson, writeBehind,
+                DatabaseConfig.WRITE_BEHIND_MAX_DELAY_MS, DatabaseConfig.WRITE_BEHIND_MAX_PENDING_CHANGES);
 
         initializeFile();
         loadFromJson();
+
+        if (journal != null) {
+            replayJournal();
+            this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "trades-journal-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = DatabaseConfig.JOURNAL_COMPACTION_INTERVAL_SECONDS;
+            compactor.scheduleWithFixedDelay(this::compactIfNeeded, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.compactor = null;
+        }
     }
 
     private void initializeFile() {
@@ -67,48 +114,143 @@ public class JsonTradeDao implements ITradeDao {
 
     private void loadFromJson() {
         File file = new File(jsonFilePath);
+        JsonSnapshotFile.deleteStaleTemp(file.toPath());
         if (!file.exists()) return;
-        try (Reader r = new FileReader(file)) {
-            Type listType = new TypeToken<List<TradeTransaction>>(){}.getType();
-            List<TradeTransaction> list = gson.fromJson(r, listType);
-            if (list != null) {
-                int max = 0;
-                for (TradeTransaction t : list) {
-                    tradesById.put(t.getTransactionId(), t);
-                    if (t.getTransactionId() > max) max = t.getTransactionId();
+        try {
+            int loaded = JsonSnapshotFile.readEach(file.toPath(), gson, TradeTransaction.class, this::track);
+            LOGGER.log(Level.INFO, "Loaded {0} trade transactions from JSON", loaded);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.log(Level.SEVERE, "Error reading trades JSON, keeping the file aside and starting empty", e);
+            tradesById.clear();
+            index.clear();
+            persisted.clear();
+            JsonSnapshotFile.quarantine(file.toPath());
+        }
+    }
+
+    private void saveToJson() {
+        try {
+            JsonSnapshotFile.write(Path.of(jsonFilePath), gson, persisted.toArray(), JsonArray.class);
+        } catch (IOException e) {
+            throw new DataPersistenceException("Failed to save trades to " + jsonFilePath, e);
+        }
+    }
+
+    private void track(TradeTransaction t) {
+        TradeTransaction previous = tradesById.put(t.getTransactionId(), t);
+        if (previous != null && previous != t) previous.setChangeListener(null);
+        t.setChangeListener(index::put);
+        index.put(t);
+        persisted.put(t.getTransactionId(), t);
+    }
+
+    private void untrack(long id) {
+        TradeTransaction removed = tradesById.remove(id);
+        if (removed != null) removed.setChangeListener(null);
+        index.remove(id);
+        persisted.remove(id);
+    }
+
+    private List<TradeTransaction> resolve(List<Long> ids) {
+        List<TradeTransaction> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TradeTransaction t = tradesById.get(id);
+            if (t != null) result.add(t);
+        }
+        return result;
+    }
+
+    private void replayJournal() {
+        try {
+            int applied = journal.replay(entry -> {
+                if (entry.op == TradeJournal.Op.DELETE) {
+                    untrack(entry.id);
+                } else if (entry.trade != null) {
+                    track(entry.trade);
                 }
-                idGenerator.set(max);
-                LOGGER.log(Level.INFO, "Loaded {0} trade transactions from JSON", list.size());
+            });
+            if (applied > 0) {
+                LOGGER.log(Level.INFO, "Replayed {0} trade journal entries", applied);
+                compact();
             }
         } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Error reading trades JSON, starting empty", e);
-            saveToJson();
+            throw new DataPersistenceException("Failed to replay trade journal for " + jsonFilePath, e);
         }
     }
 
-    private void saveToJson() {
-        try (Writer w = new FileWriter(jsonFilePath)) {
-            List<TradeTransaction> list = new ArrayList<>(tradesById.values());
-            gson.toJson(list, w);
+    private void persist(TradeJournal.Entry entry) {
+        if (journal == null) {
+            flusher.markDirty();
+            return;
+        }
+        try {
+            journal.append(entry, !writeBehind);
         } catch (IOException e) {
-            throw new DataPersistenceException("Failed to save trades to " + jsonFilePath, e);
+            throw new DataPersistenceException("Failed to append to trade journal for " + jsonFilePath, e);
+        }
+        if (writeBehind) flusher.markDirty();
+        if (journal.size() >= DatabaseConfig.JOURNAL_MAX_ENTRIES) compact();
+    }
+
+    private void syncJournal() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new DataPersistenceException("Failed to sync trade journal for " + jsonFilePath, e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        flusher.close();
+        if (compactor != null) compactor.shutdown();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to close trade journal", e);
+            }
+        }
+    }
+
+    public synchronized void compact() {
+        if (journal == null) return;
+        saveToJson();
+        try {
+            journal.reset();
+        } catch (IOException e) {
+            throw new DataPersistenceException("Failed to reset trade journal for " + jsonFilePath, e);
+        }
+        LOGGER.fine(() -> "Compacted trade journal into " + jsonFilePath);
+    }
+
+    private void compactIfNeeded() {
+        try {
+            if (journal.size() >= DatabaseConfig.JOURNAL_COMPACTION_THRESHOLD) compact();
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Background trade journal compaction failed", ex);
         }
     }
 
     @Override
-    public TradeTransaction getTradeTransactionById(int id) {
+    public TradeTransaction getTradeTransactionById(long id) {
         return tradesById.get(id);
     }
 
     @Override
-    public void updateTransactionStatus(int id, String status) {
+    public synchronized void updateTransactionStatus(long id, String status) {
         TradeTransaction t = tradesById.get(id);
         if (t == null) return;
         try {
-            model.domain.enumerations.TradeStatus ts = model.domain.enumerations.TradeStatus.valueOf(status);
+            TradeStatus ts = TradeStatus.valueOf(status);
             t.updateTradeStatus(ts);
-            tradesById.put(id, t);
-            saveToJson();
+            track(t);
+            persist(TradeJournal.Entry.put(t));
         } catch (IllegalArgumentException _) {
             LOGGER.log(Level.WARNING, "Unknown trade status: {0}", status);
         }
@@ -116,33 +258,14 @@ public class JsonTradeDao implements ITradeDao {
 
     @Override
     public List<TradeTransaction> getUserTradeTransactions(String userId) {
-        List<TradeTransaction> result = new ArrayList<>();
-        if (userId == null) return result;
-        for (TradeTransaction t : tradesById.values()) {
-            if (t == null) continue;
-            if (userId.equals(t.getProposerId()) || userId.equals(t.getReceiverId())) {
-                result.add(t);
-            }
-        }
-        return result;
+        if (userId == null) return new ArrayList<>();
+        return resolve(index.findByParticipant(userId));
     }
 
     @Override
     public List<TradeTransaction> getStoreTradeScheduledTransactions(String userId, String tradeId) {
-        List<TradeTransaction> result = new ArrayList<>();
-        if (userId == null) return result;
-        for (TradeTransaction t : tradesById.values()) {
-            if (t == null) continue;
-            if (userId.equals(t.getStoreId())) {
-                model.domain.enumerations.TradeStatus s = t.getTradeStatus();
-                
-                if (s != model.domain.enumerations.TradeStatus.COMPLETED
-                        && s != model.domain.enumerations.TradeStatus.CANCELLED) {
-                    result.add(t);
-                }
-            }
-        }
-        return result;
+        if (userId == null) return new ArrayList<>();
+        return resolve(index.findByStore(userId, OPEN_STATUSES));
     }
 
     @Override
@@ -152,25 +275,13 @@ public class JsonTradeDao implements ITradeDao {
 
     @Override
     public List<TradeTransaction> getUserCompletedTrades(String userId) {
-        List<TradeTransaction> result = new ArrayList<>();
-        if (userId == null) return result;
-        for (TradeTransaction t : tradesById.values()) {
-            if (isCompletedAndInvolved(t, userId)) result.add(t);
-        }
+        if (userId == null) return new ArrayList<>();
+        List<TradeTransaction> result = resolve(index.findByParticipant(userId, CLOSED_STATUSES));
         logCompletedTradesForUser(userId, result);
         return result;
     }
 
     
-    private boolean isCompletedAndInvolved(TradeTransaction t, String userId) {
-        if (t == null || userId == null) return false;
-        boolean involved = userId.equals(t.getProposerId()) || userId.equals(t.getReceiverId());
-        if (!involved) return false;
-        model.domain.enumerations.TradeStatus s = t.getTradeStatus();
-        return s == model.domain.enumerations.TradeStatus.COMPLETED || s == model.domain.enumerations.TradeStatus.CANCELLED;
-    }
-
-    
     private void logCompletedTradesForUser(String userId, List<TradeTransaction> result) {
         try {
             if (result == null || result.isEmpty()) {
@@ -188,41 +299,44 @@ public class JsonTradeDao implements ITradeDao {
 
     @Override
     public Optional<TradeTransaction> get(long id) {
-        TradeTransaction t = tradesById.get((int) id);
+        TradeTransaction t = tradesById.get(id);
         return Optional.ofNullable(t);
     }
 
     @Override
-    public void save(TradeTransaction tradeTransaction) {
+    public synchronized void save(TradeTransaction tradeTransaction) {
         if (tradeTransaction == null) throw new IllegalArgumentException("TradeTransaction cannot be null");
         if (tradeTransaction.getTransactionId() == 0) {
-            int id = idGenerator.incrementAndGet();
-            tradeTransaction.setTransactionId(id);
+            tradeTransaction.setTransactionId(idGenerator.nextId());
         }
-        tradesById.put(tradeTransaction.getTransactionId(), tradeTransaction);
-        saveToJson();
+        track(tradeTransaction);
+        persist(TradeJournal.Entry.put(tradeTransaction));
         LOGGER.log(Level.INFO, "Saved trade transaction {0}", tradeTransaction.getTransactionId());
     }
 
     @Override
-    public void update(TradeTransaction tradeTransaction, String[] params) {
+    public synchronized void update(TradeTransaction tradeTransaction, String[] params) {
         if (tradeTransaction == null || tradeTransaction.getTransactionId() == 0) throw new IllegalArgumentException("Invalid trade transaction");
-        tradesById.put(tradeTransaction.getTransactionId(), tradeTransaction);
-        saveToJson();
+        track(tradeTransaction);
+        persist(TradeJournal.Entry.put(tradeTransaction));
         LOGGER.log(Level.INFO, "Updated trade transaction {0}", tradeTransaction.getTransactionId());
     }
 
     @Override
-    public void delete(TradeTransaction tradeTransaction) {
+    public synchronized void delete(TradeTransaction tradeTransaction) {
         if (tradeTransaction == null || tradeTransaction.getTransactionId() == 0) throw new IllegalArgumentException("Invalid trade transaction");
-        tradesById.remove(tradeTransaction.getTransactionId());
-        saveToJson();
+        untrack(tradeTransaction.getTransactionId());
+        persist(TradeJournal.Entry.delete(tradeTransaction.getTransactionId()));
         LOGGER.log(Level.INFO, "Deleted trade transaction {0}", tradeTransaction.getTransactionId());
     }
 
     @Override
     public Optional<TradeTransaction> findByParticipantsAndDate(String proposerId, String receiverId, LocalDateTime tradeDate) {
-        for (TradeTransaction t : tradesById.values()) {
+        String participant = proposerId != null ? proposerId : receiverId;
+        Collection<TradeTransaction> candidates = participant != null
+                ? resolve(index.findByParticipant(participant))
+                : tradesById.values();
+        for (TradeTransaction t : candidates) {
             if (participantsAndDateMatch(t, proposerId, receiverId, tradeDate)) return Optional.of(t);
         }
         return Optional.empty();
@@ -238,45 +352,20 @@ public class JsonTradeDao implements ITradeDao {
 
     @Override
     public TradeTransaction getTradeTransactionBySessionCodes(int proposerCode, int receiverCode) {
-        for (TradeTransaction t : tradesById.values()) {
-            if (t == null) continue;
-            if (t.getProposerSessionCode() == proposerCode && t.getReceiverSessionCode() == receiverCode) {
-                return t;
-            }
-        }
-        return null;
+        Long id = index.findBySessionCodes(proposerCode, receiverCode);
+        return id != null ? tradesById.get(id) : null;
     }
 
     @Override
     public List<TradeTransaction> getStoreTradeInProgressTransactions(String storeId) {
-        List<TradeTransaction> result = new ArrayList<>();
-        if (storeId == null) return result;
-        for (TradeTransaction t : tradesById.values()) {
-            if (t == null) continue;
-            if (storeId.equals(t.getStoreId())) {
-                model.domain.enumerations.TradeStatus s = t.getTradeStatus();
-                if (s == model.domain.enumerations.TradeStatus.INSPECTION_PHASE
-                        || s == model.domain.enumerations.TradeStatus.INSPECTION_PASSED) {
-                    result.add(t);
-                }
-            }
-        }
-        return result;
+        if (storeId == null) return new ArrayList<>();
+        return resolve(index.findByStore(storeId, IN_PROGRESS_STATUSES));
     }
 
     @Override
     public List<TradeTransaction> getStoreCompletedTrades(String storeId) {
-        List<TradeTransaction> result = new ArrayList<>();
-        if (storeId == null) return result;
-        for (TradeTransaction t : tradesById.values()) {
-            if (t == null) continue;
-            if (storeId.equals(t.getStoreId())) {
-                model.domain.enumerations.TradeStatus s = t.getTradeStatus();
-                if (s == model.domain.enumerations.TradeStatus.COMPLETED || s == model.domain.enumerations.TradeStatus.CANCELLED) {
-                    result.add(t);
-                }
-            }
-        }
+        if (storeId == null) return new ArrayList<>();
+        List<TradeTransaction> result = resolve(index.findByStore(storeId, CLOSED_STATUSES));
         
         try {
             if (result.isEmpty()) LOGGER.info(() -> "JsonTradeDao.getStoreCompletedTrades: found 0 completed trades for store=" + storeId);
@@ -290,4 +379,16 @@ public class JsonTradeDao implements ITradeDao {
         return result;
     }
 
+    @Override
+    public Page<TradeTransaction> getUserCompletedTradesPage(String userId, HistoryCursor after, int limit) {
+        if (userId == null) return Page.empty();
+        return Page.fromOrdered(resolve(index.pageByParticipant(userId, CLOSED_STATUSES, after, limit)), limit, HistoryCursor::of);
+    }
+
+    @Override
+    public Page<TradeTransaction> getStoreCompletedTradesPage(String storeId, HistoryCursor after, int limit) {
+        if (storeId == null) return Page.empty();
+        return Page.fromOrdered(resolve(index.pageByStore(storeId, CLOSED_STATUSES, after, limit)), limit, HistoryCursor::of);
+    }
+
 }
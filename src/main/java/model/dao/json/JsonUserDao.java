@@ -2,27 +2,36 @@ package model.dao.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import config.DatabaseConfig;
+import model.dao.IFlushableDao;
 import model.dao.IUserDao;
+import model.dao.UserTypeIndex;
 import model.domain.User;
 import exception.DataPersistenceException;
 import exception.UserAlreadyExistsException;
 import exception.UserNotFoundException;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
-public class JsonUserDao implements IUserDao {
+public class JsonUserDao implements IUserDao, IFlushableDao {
     private static final Logger LOGGER = Logger.getLogger(JsonUserDao.class.getName());
     
     private static final Map<String, User> users = new ConcurrentHashMap<>();
     private static final Map<String, String> credentials = new ConcurrentHashMap<>();
+    private static final UserTypeIndex typeIndex = new UserTypeIndex();
+    private static final RecordSnapshots<String> persistedUsers = new RecordSnapshots<>(new Gson());
     private static boolean loaded = false;
 
     private final String jsonFilePath;
     private final Gson gson;
+    private final WriteBehindFlusher flusher;
 
     private static class UserData {
         Map<String, User> users;
@@ -35,8 +44,14 @@ public class JsonUserDao implements IUserDao {
     }
 
     public JsonUserDao(String jsonFilePath) {
+        this(jsonFilePath, DatabaseConfig.JSON_WRITE_BEHIND_ENABLED);
+    }
+
+    public JsonUserDao(String jsonFilePath, boolean writeBehind) {
         this.jsonFilePath = jsonFilePath;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.gson = JsonSnapshotFile.format(new GsonBuilder()).create();
+        this.flusher = new WriteBehindFlusher("users", this::saveToJson, writeBehind,
+                DatabaseConfig.WRITE_BEHIND_MAX_DELAY_MS, DatabaseConfig.WRITE_BEHIND_MAX_PENDING_CHANGES);
 
         File file = new File(jsonFilePath);
         File parentDir = file.getParentFile();
@@ -56,6 +71,7 @@ public class JsonUserDao implements IUserDao {
 
     private void loadFromJson() {
         File file = new File(jsonFilePath);
+        JsonSnapshotFile.deleteStaleTemp(file.toPath());
         if (!file.exists()) {
             saveToJson();
             return;
@@ -66,26 +82,40 @@ public class JsonUserDao implements IUserDao {
             if (data != null) {
                 if (data.users != null) {
                     users.putAll(data.users);
+                    data.users.values().forEach(typeIndex::put);
+                    data.users.forEach(persistedUsers::put);
                 }
                 if (data.credentials != null) {
                     credentials.putAll(data.credentials);
                 }
             }
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Error loading JSON, creating new file", e);
-            saveToJson();
+        } catch (IOException | JsonParseException e) {
+            LOGGER.log(Level.SEVERE, "Error loading JSON, keeping the file aside and starting empty", e);
+            JsonSnapshotFile.quarantine(file.toPath());
         }
     }
 
     private void saveToJson() {
-        try (Writer writer = new FileWriter(jsonFilePath)) {
-            UserData data = new UserData(users, credentials);
-            gson.toJson(data, writer);
+        try {
+            JsonObject data = new JsonObject();
+            data.add("users", persistedUsers.toObject());
+            data.add("credentials", gson.toJsonTree(new HashMap<>(credentials)));
+            JsonSnapshotFile.write(Path.of(jsonFilePath), gson, data, JsonObject.class);
         } catch (IOException e) {
             throw new DataPersistenceException("Failed to save JSON to " + jsonFilePath, e);
         }
     }
 
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public void close() {
+        flusher.close();
+    }
+
     @Override
     public Optional<User> findByName(String name) {
         ensureLoaded();
@@ -122,7 +152,9 @@ public class JsonUserDao implements IUserDao {
         User newUser = new User(username, 0, 0);
         newUser.setUserType(userType);
         users.put(username, newUser);
-        saveToJson();
+        typeIndex.put(newUser);
+        persistedUsers.put(username, newUser);
+        flusher.markDirty();
     }
 
     
@@ -151,7 +183,9 @@ public class JsonUserDao implements IUserDao {
         }
 
         users.put(username, user);
-        saveToJson();
+        typeIndex.put(user);
+        persistedUsers.put(username, user);
+        flusher.markDirty();
     }
 
     @Override
@@ -167,7 +201,9 @@ public class JsonUserDao implements IUserDao {
         }
 
         users.put(username, user);
-        saveToJson();
+        typeIndex.put(user);
+        persistedUsers.put(username, user);
+        flusher.markDirty();
     }
 
     @Override
@@ -184,7 +220,9 @@ public class JsonUserDao implements IUserDao {
 
         users.remove(username);
         credentials.remove(username);
-        saveToJson();
+        typeIndex.remove(username);
+        persistedUsers.remove(username);
+        flusher.markDirty();
     }
 
     @Override
@@ -192,4 +230,10 @@ public class JsonUserDao implements IUserDao {
         ensureLoaded();
         return new java.util.ArrayList<>(users.keySet());
     }
+
+    @Override
+    public java.util.List<User> findByUserType(String userType) {
+        ensureLoaded();
+        return typeIndex.resolve(userType, users);
+    }
 }
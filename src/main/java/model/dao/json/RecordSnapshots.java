@@ -0,0 +1,46 @@
+package model.dao.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* Forma serializzata dei record di uno store JSON, presa sul thread che fa la modifica nel momento in cui la
+ * registra. Il flush in background scrive solo questi alberi JSON, mai gli oggetti di dominio, che UI e thread
+ * asincroni possono continuare a modificare: su disco finisce lo stato dell'ultimo save, come per il backend JDBC. */
+final class RecordSnapshots<K> {
+    private final Gson gson;
+    private final Map<K, JsonElement> records = new LinkedHashMap<>();
+
+    RecordSnapshots(Gson gson) {
+        this.gson = gson;
+    }
+
+    synchronized void put(K key, Object value) {
+        records.put(key, gson.toJsonTree(value));
+    }
+
+    synchronized void remove(K key) {
+        records.remove(key);
+    }
+
+    synchronized void clear() {
+        records.clear();
+    }
+
+    // Gli alberi non vengono più modificati dopo put, quindi basta copiare i riferimenti
+    synchronized JsonArray toArray() {
+        JsonArray array = new JsonArray(records.size());
+        for (JsonElement record : records.values()) array.add(record);
+        return array;
+    }
+
+    synchronized JsonObject toObject() {
+        JsonObject object = new JsonObject();
+        for (Map.Entry<K, JsonElement> record : records.entrySet()) object.add(String.valueOf(record.getKey()), record.getValue());
+        return object;
+    }
+}
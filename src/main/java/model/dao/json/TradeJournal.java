@@ -0,0 +1,204 @@
+package model.dao.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import model.domain.TradeTransaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Log append-only delle modifiche ai trade: ogni riga è una voce JSON autonoma (PUT con il trade completo o
+ * DELETE con l'id), così il costo di una scrittura dipende solo dalla modifica e non dalla dimensione dello store. */
+final class TradeJournal implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(TradeJournal.class.getName());
+
+    enum Op { PUT, DELETE }
+
+    static final class Entry {
+        Op op;
+        long id;
+        TradeTransaction trade;
+
+        static Entry put(TradeTransaction trade) {
+            Entry e = new Entry();
+            e.op = Op.PUT;
+            e.id = trade.getTransactionId();
+            e.trade = trade;
+            return e;
+        }
+
+        static Entry delete(long id) {
+            Entry e = new Entry();
+            e.op = Op.DELETE;
+            e.id = id;
+            return e;
+        }
+    }
+
+    private final Path path;
+    private final Gson gson;
+    private static final byte[] NEWLINE = { '\n' };
+
+    private FileChannel channel;
+    private boolean tailTerminated = true;
+    private int entryCount;
+
+    TradeJournal(Path path, Gson gson) {
+        this.path = path;
+        this.gson = gson;
+    }
+
+    /* Una riga illeggibile in coda è un append interrotto da un crash e viene troncata. Una riga illeggibile in
+     * mezzo al file è invece corruzione: si saltano solo quella riga e le successive valide vengono comunque
+     * applicate, il file originale viene messo da parte e il journal riscritto con le sole righe valide. */
+    synchronized int replay(Consumer<Entry> consumer) throws IOException {
+        if (!Files.exists(path)) return 0;
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        int last = lines.size() - 1;
+        while (last >= 0 && lines.get(last).isBlank()) last--;
+
+        List<String> valid = new ArrayList<>(lines.size());
+        int applied = 0;
+        long validBytes = 0;
+        boolean tornTail = false;
+        boolean corrupt = false;
+        for (int i = 0; i <= last; i++) {
+            String line = lines.get(i);
+            long lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+            if (line.isBlank()) {
+                if (!corrupt) validBytes += lineBytes;
+                continue;
+            }
+            Entry entry = parse(line);
+            if (entry == null) {
+                if (i == last) {
+                    LOGGER.log(Level.WARNING, "Discarding torn trade journal entry at byte {0}", validBytes);
+                    tornTail = true;
+                } else {
+                    LOGGER.log(Level.SEVERE, "Skipping unreadable trade journal entry at line {0}", i + 1);
+                    corrupt = true;
+                }
+                continue;
+            }
+            consumer.accept(entry);
+            valid.add(line);
+            applied++;
+            if (!corrupt) validBytes += lineBytes;
+        }
+
+        if (corrupt) {
+            close();
+            JsonSnapshotFile.quarantine(path);
+            valid.add("");
+            Files.writeString(path, String.join("\n", valid), StandardCharsets.UTF_8);
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+        } else if (tornTail || validBytes < Files.size(path)) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(validBytes);
+                ch.force(true);
+            }
+        }
+        entryCount = applied;
+        return applied;
+    }
+
+    private Entry parse(String line) {
+        try {
+            Entry entry = gson.fromJson(line, Entry.class);
+            return entry != null && entry.op != null ? entry : null;
+        } catch (JsonParseException ex) {
+            return null;
+        }
+    }
+
+    synchronized void append(Entry entry) throws IOException {
+        append(entry, true);
+    }
+
+    // Con sync=false la riga arriva solo al sistema operativo: il force viene fatto una volta per gruppo da sync()
+    synchronized void append(Entry entry, boolean sync) throws IOException {
+        byte[] line = (gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        FileChannel ch = openChannel();
+        long start = ch.size();
+        try {
+            // Una riga precedente rimasta senza terminatore verrebbe fusa con questa, perdendole entrambe al replay
+            if (!tailTerminated) writeFully(ch, NEWLINE);
+            writeFully(ch, line);
+            if (sync) ch.force(false);
+        } catch (IOException ex) {
+            rollback(ch, start);
+            throw ex;
+        }
+        tailTerminated = true;
+        entryCount++;
+    }
+
+    private static void writeFully(FileChannel ch, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) ch.write(buffer);
+    }
+
+    // Riporta il file alla lunghezza precedente l'append fallito; se non si riesce, il prossimo append va a capo
+    private void rollback(FileChannel ch, long length) {
+        try {
+            ch.truncate(length);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not roll back a failed trade journal append", ex);
+            tailTerminated = false;
+        }
+    }
+
+    synchronized void sync() throws IOException {
+        if (channel != null && channel.isOpen()) channel.force(false);
+    }
+
+    synchronized void reset() throws IOException {
+        FileChannel ch = openChannel();
+        ch.truncate(0);
+        ch.force(true);
+        tailTerminated = true;
+        entryCount = 0;
+    }
+
+    synchronized int size() {
+        return entryCount;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            tailTerminated = endsWithNewline();
+        }
+        return channel;
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
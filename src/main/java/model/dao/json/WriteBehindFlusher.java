@@ -0,0 +1,128 @@
+package model.dao.json;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Write-behind per gli store JSON: ogni modifica segna lo store come sporco e un solo flush raggruppa tutte le
+ * modifiche arrivate entro maxDelayMs, oppure parte subito quando se ne accumulano maxPendingChanges.
+ * Una modifica resta quindi non persistita al massimo per maxDelayMs. */
+final class WriteBehindFlusher implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindFlusher.class.getName());
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "json-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private final Runnable writer;
+    private final boolean enabled;
+    private final long maxDelayMs;
+    private final int maxPendingChanges;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> scheduled;
+    private volatile boolean closed;
+
+    private long flushCount;
+    private long totalFlushNanos;
+    private long maxFlushNanos;
+    private long lastFlushNanos;
+
+    WriteBehindFlusher(String name, Runnable writer, boolean enabled, long maxDelayMs, int maxPendingChanges) {
+        this.name = name;
+        this.writer = writer;
+        this.enabled = enabled;
+        this.maxDelayMs = maxDelayMs;
+        this.maxPendingChanges = Math.max(1, maxPendingChanges);
+    }
+
+    void markDirty() {
+        int count = pending.incrementAndGet();
+        if (!enabled || closed || count >= maxPendingChanges) {
+            flush();
+            return;
+        }
+        scheduleIfNeeded();
+    }
+
+    void flush() {
+        synchronized (writeLock) {
+            cancelScheduled();
+            int batched = pending.getAndSet(0);
+            if (batched == 0) return;
+            long start = System.nanoTime();
+            try {
+                writer.run();
+            } catch (RuntimeException e) {
+                // Le modifiche restano in sospeso: il prossimo flush riprova a scriverle
+                pending.addAndGet(batched);
+                if (!closed) scheduleIfNeeded();
+                throw e;
+            }
+            recordFlush(System.nanoTime() - start, batched);
+        }
+    }
+
+    boolean isDirty() {
+        return pending.get() > 0;
+    }
+
+    long getFlushCount() {
+        synchronized (writeLock) {
+            return flushCount;
+        }
+    }
+
+    String describeStats() {
+        synchronized (writeLock) {
+            double avgMs = flushCount == 0 ? 0 : totalFlushNanos / 1_000_000.0 / flushCount;
+            return String.format("%s: flushes=%d avg=%.2fms max=%.2fms last=%.2fms",
+                    name, flushCount, avgMs, maxFlushNanos / 1_000_000.0, lastFlushNanos / 1_000_000.0);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        LOGGER.info(this::describeStats);
+    }
+
+    private void recordFlush(long nanos, int batched) {
+        flushCount++;
+        totalFlushNanos += nanos;
+        lastFlushNanos = nanos;
+        if (nanos > maxFlushNanos) maxFlushNanos = nanos;
+        LOGGER.log(Level.FINE, "Flushed {0}: {1} changes in {2} ms",
+                new Object[] { name, batched, String.format("%.2f", nanos / 1_000_000.0) });
+    }
+
+    private synchronized void scheduleIfNeeded() {
+        if (scheduled == null || scheduled.isDone()) {
+            scheduled = SCHEDULER.schedule(this::flushQuietly, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void cancelScheduled() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Background flush of " + name + " failed, will retry", ex);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package model.domain;
+
+import java.util.List;
+import java.util.Objects;
+
+/* Attacco di una carta Pokémon: valore immutabile, il danno resta testuale ("30", "50+", "20×"). */
+public final class Attack {
+    private final String name;
+    private final List<String> cost;
+    private final String damage;
+    private final String effect;
+
+    public Attack(String name, List<String> cost, String damage, String effect) {
+        this.name = name;
+        this.cost = cost != null ? List.copyOf(cost) : null;
+        this.damage = damage;
+        this.effect = effect;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getCost() {
+        return cost;
+    }
+
+    public String getDamage() {
+        return damage;
+    }
+
+    public String getEffect() {
+        return effect;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Attack other)) return false;
+        return Objects.equals(name, other.name) && Objects.equals(cost, other.cost)
+                && Objects.equals(damage, other.damage) && Objects.equals(effect, other.effect);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, cost, damage, effect);
+    }
+
+    @Override
+    public String toString() {
+        return name + (damage == null || damage.isEmpty() ? "" : " " + damage);
+    }
+}
@@ -29,6 +29,18 @@ public class Binder {
         this.setName = setName;
     }
 
+    // Copia indipendente, carte comprese, da passare ai thread in background al posto dell'istanza modificata dalla UI
+    public Binder(Binder other) {
+        this.id = other.id;
+        this.owner = other.owner;
+        this.setId = other.setId;
+        this.setName = other.setName;
+        this.cards = new ArrayList<>(other.cards.size());
+        for (CardBean card : other.cards) this.cards.add(new CardBean(card));
+        this.createdAt = other.createdAt;
+        this.lastModified = other.lastModified;
+    }
+
     
     public long getId() {
         return id;
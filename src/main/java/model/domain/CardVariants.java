@@ -0,0 +1,110 @@
+package model.domain;
+
+/* Varianti di stampa di una carta in un unico campo di bit: due bit per variante (0 non indicata, 1 no, 2 sì).
+ * Le combinazioni possibili sono poche e le istanze vengono condivise, così una carta non alloca nulla per le
+ * proprie varianti. */
+public final class CardVariants {
+    private static final int FIRST_EDITION = 0;
+    private static final int HOLO = 1;
+    private static final int NORMAL = 2;
+    private static final int REVERSE = 3;
+    private static final int W_PROMO = 4;
+    private static final int SLOTS = 5;
+    static final int BITS_MASK = (1 << (SLOTS * 2)) - 1;
+
+    private static final CardVariants[] SHARED = new CardVariants[BITS_MASK + 1];
+
+    public static final CardVariants NONE = fromBits(0);
+
+    private final short bits;
+
+    private CardVariants(int bits) {
+        this.bits = (short) bits;
+    }
+
+    public static CardVariants of(Boolean firstEdition, Boolean holo, Boolean normal, Boolean reverse, Boolean wPromo) {
+        return NONE.with(FIRST_EDITION, firstEdition).with(HOLO, holo).with(NORMAL, normal)
+                .with(REVERSE, reverse).with(W_PROMO, wPromo);
+    }
+
+    public static CardVariants fromBits(int bits) {
+        int masked = bits & BITS_MASK;
+        CardVariants shared = SHARED[masked];
+        if (shared == null) {
+            shared = new CardVariants(masked);
+            SHARED[masked] = shared;
+        }
+        return shared;
+    }
+
+    public int toBits() {
+        return bits & BITS_MASK;
+    }
+
+    public Boolean getFirstEdition() {
+        return get(FIRST_EDITION);
+    }
+
+    public Boolean getHolo() {
+        return get(HOLO);
+    }
+
+    public Boolean getNormal() {
+        return get(NORMAL);
+    }
+
+    public Boolean getReverse() {
+        return get(REVERSE);
+    }
+
+    public Boolean getWPromo() {
+        return get(W_PROMO);
+    }
+
+    public CardVariants withFirstEdition(Boolean value) {
+        return with(FIRST_EDITION, value);
+    }
+
+    public CardVariants withHolo(Boolean value) {
+        return with(HOLO, value);
+    }
+
+    public CardVariants withNormal(Boolean value) {
+        return with(NORMAL, value);
+    }
+
+    public CardVariants withReverse(Boolean value) {
+        return with(REVERSE, value);
+    }
+
+    public CardVariants withWPromo(Boolean value) {
+        return with(W_PROMO, value);
+    }
+
+    private Boolean get(int slot) {
+        int value = (bits >> (slot * 2)) & 3;
+        return value == 0 ? null : value == 2;
+    }
+
+    private CardVariants with(int slot, Boolean value) {
+        int cleared = toBits() & ~(3 << (slot * 2));
+        int encoded = value == null ? 0 : (value ? 2 : 1);
+        return fromBits(cleared | (encoded << (slot * 2)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CardVariants other && other.toBits() == toBits();
+    }
+
+    @Override
+    public int hashCode() {
+        return toBits();
+    }
+
+    @Override
+    public String toString() {
+        return "CardVariants{firstEdition=" + getFirstEdition() + ", holo=" + getHolo() + ", normal=" + getNormal()
+                + ", reverse=" + getReverse() + ", wPromo=" + getWPromo() + '}';
+    }
+}
@@ -4,7 +4,6 @@ import model.bean.PokemonCardBean;
 import model.domain.enumerations.CardGameType;
 
 import java.util.List;
-import java.util.Map;
 
 public class PokemonCard extends Card {
 
@@ -20,11 +19,8 @@ public class PokemonCard extends Card {
     private Integer setCardCountOfficial;
     private Integer setCardCountTotal;
 
-    private Boolean variantFirstEdition;
-    private Boolean variantHolo;
-    private Boolean variantNormal;
-    private Boolean variantReverse;
-    private Boolean variantWPromo;
+    // Varianti, attacchi e debolezze come valori tipizzati e immutabili (niente mappe per carta)
+    private CardVariants variants = CardVariants.NONE;
 
     private Integer hp;
     private List<String> types;
@@ -32,8 +28,8 @@ public class PokemonCard extends Card {
     private String description;
     private String stage;
 
-    private List<Map<String, Object>> attacks;
-    private List<Map<String, String>> weaknesses;
+    private List<Attack> attacks;
+    private List<Weakness> weaknesses;
     private Integer retreat;
 
     private String regulationMark;
@@ -64,11 +60,11 @@ public class PokemonCard extends Card {
         bean.setSetCardCountOfficial(setCardCountOfficial);
         bean.setSetCardCountTotal(setCardCountTotal);
 
-        bean.setVariantFirstEdition(variantFirstEdition);
-        bean.setVariantHolo(variantHolo);
-        bean.setVariantNormal(variantNormal);
-        bean.setVariantReverse(variantReverse);
-        bean.setVariantWPromo(variantWPromo);
+        bean.setVariantFirstEdition(variants().getFirstEdition());
+        bean.setVariantHolo(variants().getHolo());
+        bean.setVariantNormal(variants().getNormal());
+        bean.setVariantReverse(variants().getReverse());
+        bean.setVariantWPromo(variants().getWPromo());
 
         bean.setHp(hp);
         bean.setTypes(types);
@@ -167,44 +163,57 @@ public class PokemonCard extends Card {
         this.setCardCountTotal = setCardCountTotal;
     }
 
+    public CardVariants getVariants() {
+        return variants();
+    }
+
+    // Un'istanza creata per riflessione (Gson) non passa dall'inizializzatore del campo
+    private CardVariants variants() {
+        return variants != null ? variants : CardVariants.NONE;
+    }
+
+    public void setVariants(CardVariants variants) {
+        this.variants = variants != null ? variants : CardVariants.NONE;
+    }
+
     public Boolean getVariantFirstEdition() {
-        return variantFirstEdition;
+        return variants().getFirstEdition();
     }
 
     public void setVariantFirstEdition(Boolean variantFirstEdition) {
-        this.variantFirstEdition = variantFirstEdition;
+        this.variants = variants().withFirstEdition(variantFirstEdition);
     }
 
     public Boolean getVariantHolo() {
-        return variantHolo;
+        return variants().getHolo();
     }
 
     public void setVariantHolo(Boolean variantHolo) {
-        this.variantHolo = variantHolo;
+        this.variants = variants().withHolo(variantHolo);
     }
 
     public Boolean getVariantNormal() {
-        return variantNormal;
+        return variants().getNormal();
     }
 
     public void setVariantNormal(Boolean variantNormal) {
-        this.variantNormal = variantNormal;
+        this.variants = variants().withNormal(variantNormal);
     }
 
     public Boolean getVariantReverse() {
-        return variantReverse;
+        return variants().getReverse();
     }
 
     public void setVariantReverse(Boolean variantReverse) {
-        this.variantReverse = variantReverse;
+        this.variants = variants().withReverse(variantReverse);
     }
 
     public Boolean getVariantWPromo() {
-        return variantWPromo;
+        return variants().getWPromo();
     }
 
     public void setVariantWPromo(Boolean variantWPromo) {
-        this.variantWPromo = variantWPromo;
+        this.variants = variants().withWPromo(variantWPromo);
     }
 
     public Integer getHp() {
@@ -247,19 +256,19 @@ public class PokemonCard extends Card {
         this.stage = stage;
     }
 
-    public List<Map<String, Object>> getAttacks() {
+    public List<Attack> getAttacks() {
         return attacks;
     }
 
-    public void setAttacks(List<Map<String, Object>> attacks) {
+    public void setAttacks(List<Attack> attacks) {
         this.attacks = attacks;
     }
 
-    public List<Map<String, String>> getWeaknesses() {
+    public List<Weakness> getWeaknesses() {
         return weaknesses;
     }
 
-    public void setWeaknesses(List<Map<String, String>> weaknesses) {
+    public void setWeaknesses(List<Weakness> weaknesses) {
         this.weaknesses = weaknesses;
     }
 
@@ -300,7 +309,7 @@ public class PokemonCard extends Card {
     }
 
     public boolean isHolo() {
-        return Boolean.TRUE.equals(variantHolo);
+        return Boolean.TRUE.equals(variants().getHolo());
     }
 
     public boolean isStandardLegal() {
@@ -1,5 +1,6 @@
 package model.domain;
 
+import config.IdGenerators;
 import model.domain.enumerations.ProposalStatus;
 import model.domain.enumerations.TradeStatus;
 
@@ -104,7 +105,8 @@ public class Proposal {
     
     public TradeTransaction toTradeTransaction() {
         TradeStatus defaultStatus = TradeStatus.WAITING_FOR_ARRIVAL;
-        int txId = (int) (System.currentTimeMillis() % Integer.MAX_VALUE);
+        // Id unico anche tra terminali diversi: il vecchio millisecondo modulo Integer.MAX_VALUE poteva collidere
+        long txId = IdGenerators.nextId();
         LocalDateTime creation = LocalDateTime.now();
         LocalDateTime tradeDate = creation;
 
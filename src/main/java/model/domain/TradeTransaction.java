@@ -10,7 +10,7 @@ import java.util.Random;
 
 
 public class TradeTransaction {
-    private int transactionId;
+    private long transactionId;
     private TradeStatus tradeStatus;
     private String proposerId;
     private String receiverId;
@@ -33,6 +33,14 @@ public class TradeTransaction {
 
     private static final Random RANDOM = new Random();
 
+    // Non serializzato: chi conserva il trade (es. il DAO con i suoi indici) viene avvisato di ogni cambio di stato
+    private transient ChangeListener changeListener;
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onTradeChanged(TradeTransaction trade);
+    }
+
     
     public static class TradeParticipants {
         public final String proposerId;
@@ -61,8 +69,33 @@ public class TradeTransaction {
         }
     }
 
+    // Avanzamento del trade (codici di sessione, arrivi, ispezioni, recensioni): serve agli store che non usano la riflessione
+    public static class TradeProgress {
+        public final int proposerSessionCode;
+        public final int receiverSessionCode;
+        public final boolean proposerArrived;
+        public final boolean receiverArrived;
+        public final Boolean proposerInspectionOk;
+        public final Boolean receiverInspectionOk;
+        public final boolean proposerReviewed;
+        public final boolean receiverReviewed;
+
+        @SuppressWarnings("java:S107")
+        public TradeProgress(int proposerSessionCode, int receiverSessionCode, boolean proposerArrived, boolean receiverArrived,
+                             Boolean proposerInspectionOk, Boolean receiverInspectionOk, boolean proposerReviewed, boolean receiverReviewed) {
+            this.proposerSessionCode = proposerSessionCode;
+            this.receiverSessionCode = receiverSessionCode;
+            this.proposerArrived = proposerArrived;
+            this.receiverArrived = receiverArrived;
+            this.proposerInspectionOk = proposerInspectionOk;
+            this.receiverInspectionOk = receiverInspectionOk;
+            this.proposerReviewed = proposerReviewed;
+            this.receiverReviewed = receiverReviewed;
+        }
+    }
+
     
-    public TradeTransaction(int transactionId, TradeStatus tradeStatus, TradeParticipants participants, TradeDetails details) {
+    public TradeTransaction(long transactionId, TradeStatus tradeStatus, TradeParticipants participants, TradeDetails details) {
         this.transactionId = transactionId;
         this.tradeStatus = tradeStatus;
         this.proposerId = participants.proposerId;
@@ -87,6 +120,15 @@ public class TradeTransaction {
 
     public void updateTradeStatus(TradeStatus newStatus) {
         this.tradeStatus = newStatus;
+        notifyChanged();
+    }
+
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void notifyChanged() {
+        if (changeListener != null) changeListener.onTradeChanged(this);
     }
 
     public int confirmPresence(String userId) {
@@ -109,6 +151,7 @@ public class TradeTransaction {
             this.tradeStatus = TradeStatus.PARTIALLY_ARRIVED;
         }
 
+        notifyChanged();
         return code;
     }
 
@@ -129,6 +172,7 @@ public class TradeTransaction {
         } else {
             this.tradeStatus = TradeStatus.PARTIALLY_ARRIVED;
         }
+        notifyChanged();
         return true;
     }
 
@@ -144,9 +188,10 @@ public class TradeTransaction {
         
         if (Boolean.FALSE.equals(this.proposerInspectionOk) || Boolean.FALSE.equals(this.receiverInspectionOk)) {
             this.tradeStatus = TradeStatus.CANCELLED;
-            return;
+        } else {
+            this.tradeStatus = TradeStatus.INSPECTION_PASSED;
         }
-        this.tradeStatus = TradeStatus.INSPECTION_PASSED;
+        notifyChanged();
 
     }
 
@@ -167,7 +212,7 @@ public class TradeTransaction {
     }
 
     
-    public int getTransactionId() {
+    public long getTransactionId() {
         return transactionId;
     }
 
@@ -180,7 +225,7 @@ public class TradeTransaction {
         return receiverSessionCode;
     }
 
-    public void setTransactionId(int transactionId) {
+    public void setTransactionId(long transactionId) {
         this.transactionId = transactionId;
     }
 
@@ -224,4 +269,21 @@ public class TradeTransaction {
         return receiverReviewed;
     }
 
+    public TradeProgress getProgress() {
+        return new TradeProgress(proposerSessionCode, receiverSessionCode, proposerArrived, receiverArrived,
+                proposerInspectionOk, receiverInspectionOk, proposerReviewed, receiverReviewed);
+    }
+
+    public void restoreProgress(TradeProgress progress) {
+        if (progress == null) return;
+        this.proposerSessionCode = progress.proposerSessionCode;
+        this.receiverSessionCode = progress.receiverSessionCode;
+        this.proposerArrived = progress.proposerArrived;
+        this.receiverArrived = progress.receiverArrived;
+        this.proposerInspectionOk = progress.proposerInspectionOk;
+        this.receiverInspectionOk = progress.receiverInspectionOk;
+        this.proposerReviewed = progress.proposerReviewed;
+        this.receiverReviewed = progress.receiverReviewed;
+    }
+
 }
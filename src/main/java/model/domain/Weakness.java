@@ -0,0 +1,39 @@
+package model.domain;
+
+import java.util.Objects;
+
+/* Debolezza di una carta Pokémon (tipo e moltiplicatore, es. "Fighting" "×2"). */
+public final class Weakness {
+    private final String type;
+    private final String value;
+
+    public Weakness(String type, String value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Weakness other)) return false;
+        return Objects.equals(type, other.type) && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, value);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + value;
+    }
+}
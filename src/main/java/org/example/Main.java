@@ -6,6 +6,10 @@ public class Main {
     private static final java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
+        if (args.length >= 2 && "--import-catalog".equals(args[0])) {
+            importCatalog(java.nio.file.Path.of(args[1]), args.length > 2 && "--incremental".equals(args[2]));
+            return;
+        }
         try {
             ApplicationController applicationController = new ApplicationController();
 
@@ -14,4 +18,15 @@ public class Main {
             LOGGER.log(java.util.logging.Level.SEVERE, "Error starting the application: {0}", ex.getMessage());
         }
     }
+
+    // Importa un dump del catalogo nel file letto da ApiFactory all'avvio, senza aprire l'applicazione
+    private static void importCatalog(java.nio.file.Path dump, boolean incremental) {
+        try {
+            // L'esito dell'import lo registra CatalogImporter
+            new model.api.CatalogImporter()
+                    .importDump(dump, java.nio.file.Path.of(config.ApiConfig.CATALOG_SNAPSHOT_FILE), incremental);
+        } catch (java.io.IOException | RuntimeException ex) {
+            LOGGER.log(java.util.logging.Level.SEVERE, "Catalog import failed: {0}", ex.getMessage());
+        }
+    }
 }
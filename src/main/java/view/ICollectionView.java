@@ -1,6 +1,7 @@
 package view;
 
 import controller.CollectionController;
+import model.api.ProviderHealth;
 import model.domain.Binder;
 
 import java.util.List;
@@ -21,6 +22,12 @@ public interface ICollectionView extends IView {
     
     void updateCardInSet(String setId, String cardId);
 
+    // Dettagli di carte di un set arrivati dopo displayCollection (recupero progressivo), da aggiungere a quelle mostrate
+    void appendSetCards(String setId, List<model.domain.Card> cards);
+
+    // DEGRADED: TCGdex non raggiungibile, le carte mostrate arrivano dalla cache locale
+    void showProviderStatus(ProviderHealth health);
+
     
     void setSaveButtonVisible(boolean visible);
 
@@ -1,6 +1,7 @@
 package view;
 
 import controller.CollectorHPController;
+import model.api.ProviderHealth;
 import model.bean.CardBean;
 
 import java.util.List;
@@ -16,8 +17,14 @@ public interface ICollectorHPView extends IView {
 
     void displayCards(List<CardBean> cards);
 
+    // Dettagli arrivati dopo displayCards (recupero progressivo): sostituiscono le carte mostrate con lo stesso id
+    void updateCards(List<CardBean> cards);
+
     void displayAvailableSets(Map<String, String> setsMap);
 
+    // DEGRADED: TCGdex non raggiungibile, le carte mostrate arrivano dalla cache locale
+    void showProviderStatus(ProviderHealth health);
+
     
     void showSuccess(String message);
     void showError(String message);
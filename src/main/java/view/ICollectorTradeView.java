@@ -21,4 +21,7 @@ public interface ICollectorTradeView extends IView {
     void displayScheduledTrades(List<TradeTransactionBean> scheduled);
 
     void displayCompletedTrades(java.util.List<model.bean.TradeTransactionBean> completedTrades);
+
+    // Pagina successiva della cronologia, da accodare agli scambi conclusi già mostrati
+    void appendCompletedTrades(List<TradeTransactionBean> moreTrades);
 }
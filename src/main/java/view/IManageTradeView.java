@@ -10,6 +10,9 @@ public interface IManageTradeView extends IView {
     
     void displayTrades(List<ProposalBean> pending, List<ProposalBean> scheduled);
 
+    // Pagina successiva delle proposte concluse, da accodare a quelle già mostrate
+    void appendCompletedProposals(List<ProposalBean> moreProposals);
+
 
     void setUsername(String username);
 
@@ -15,6 +15,9 @@ public interface IStoreTradeView extends IView {
 
     void displayCompletedTrades(List<TradeTransactionBean> trades);
 
+    // Pagina successiva della cronologia, da accodare agli scambi conclusi già mostrati
+    void appendCompletedTrades(List<TradeTransactionBean> moreTrades);
+
     
     void displayTrade(TradeTransactionBean transaction);
 
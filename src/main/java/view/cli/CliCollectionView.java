@@ -1,6 +1,7 @@
 package view.cli;
 
 import controller.CollectionController;
+import model.api.ProviderHealth;
 import model.bean.CardBean;
 import model.domain.Binder;
 import model.domain.Card;
@@ -26,9 +27,12 @@ public class CliCollectionView implements ICollectionView {
 
     private final InputManager inputManager;
     private CollectionController controller;
+    private volatile ProviderHealth providerHealth = ProviderHealth.ONLINE;
     private Map<String, Binder> currentBinders;
 
-    private Map<String, List<Card>> localSetCards;
+    private volatile Map<String, List<Card>> localSetCards;
+    // Carte arrivate in modo progressivo: sopravvivono a un displayCollection partito prima del loro arrivo
+    private final Map<String, List<Card>> streamedSetCards = new HashMap<>();
 
     private boolean saveButtonVisible;
     private String username;
@@ -55,10 +59,11 @@ public class CliCollectionView implements ICollectionView {
     @Override
     public void displayCollection(Map<String, Binder> bindersBySet, Map<String, List<model.domain.Card>> setCardsMap) {
         this.currentBinders = bindersBySet;
-        
-        
-        
-        this.localSetCards = setCardsMap != null ? new HashMap<>(setCardsMap) : new HashMap<>();
+        synchronized (streamedSetCards) {
+            Map<String, List<Card>> cards = setCardsMap != null ? new HashMap<>(setCardsMap) : new HashMap<>();
+            streamedSetCards.forEach((setId, streamed) -> cards.put(setId, mergeCards(cards.get(setId), streamed)));
+            this.localSetCards = cards;
+        }
 
         clearScreen();
         showCollectionHeader();
@@ -72,6 +77,29 @@ public class CliCollectionView implements ICollectionView {
         showMainMenu();
     }
 
+    // Chiamato dai thread del recupero dettagli mentre il menu è in attesa di input: le liste vengono sostituite, mai modificate
+    @Override
+    public void appendSetCards(String setId, List<Card> cards) {
+        if (setId == null || cards == null || cards.isEmpty()) return;
+        synchronized (streamedSetCards) {
+            streamedSetCards.put(setId, mergeCards(streamedSetCards.get(setId), cards));
+            Map<String, List<Card>> updated = new HashMap<>(localSetCards);
+            updated.put(setId, mergeCards(updated.get(setId), cards));
+            this.localSetCards = updated;
+        }
+        LOGGER.fine(() -> "Received " + cards.size() + " card details for set " + setId);
+    }
+
+    private static List<Card> mergeCards(List<Card> current, List<Card> added) {
+        List<Card> merged = current != null ? new ArrayList<>(current) : new ArrayList<>();
+        java.util.Set<String> ids = new java.util.HashSet<>();
+        for (Card c : merged) ids.add(c.getId());
+        for (Card c : added) {
+            if (c != null && ids.add(c.getId())) merged.add(c);
+        }
+        return merged;
+    }
+
     @Override
     public void updateCardInSet(String setId, String cardId) {
         
@@ -575,4 +603,16 @@ public class CliCollectionView implements ICollectionView {
         System.out.print(PRESS_ENTER);
         inputManager.readString();
     }
+
+    // Nessun messaggio finché il provider resta online; si avvisa al passaggio in modalità offline e al ritorno
+    @Override
+    public void showProviderStatus(ProviderHealth health) {
+        if (health == null || health == providerHealth) return;
+        providerHealth = health;
+        if (health == ProviderHealth.DEGRADED) {
+            System.out.println("\n⚠ TCGdex non raggiungibile: modalità offline, vengono mostrate le carte salvate in locale.");
+        } else {
+            System.out.println("\n✓ Connessione a TCGdex ripristinata.");
+        }
+    }
 }
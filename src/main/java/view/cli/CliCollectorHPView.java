@@ -1,6 +1,7 @@
 package view.cli;
 
 import controller.CollectorHPController;
+import model.api.ProviderHealth;
 import model.bean.CardBean;
 import config.InputManager;
 import view.ICollectorHPView;
@@ -19,8 +20,10 @@ public class CliCollectorHPView implements ICollectorHPView {
 
     private final InputManager inputManager;
     private CollectorHPController controller;
-    private List<CardBean> currentCards;
+    // Sostituita, mai modificata: i dettagli recuperati in background arrivano mentre il menu attende input
+    private volatile List<CardBean> currentCards;
     private Map<String, String> availableSets; 
+    private volatile ProviderHealth providerHealth = ProviderHealth.ONLINE;
 
     public CliCollectorHPView(InputManager inputManager) {
         this.inputManager = inputManager;
@@ -156,10 +159,11 @@ public class CliCollectorHPView implements ICollectorHPView {
          boolean browsing = true;
 
          while (browsing) {
-             showPage(cards, currentPage, cardsPerPage, totalPages);
+             List<CardBean> shown = currentCards;
+             showPage(shown, currentPage, cardsPerPage, totalPages);
 
              String choice = inputManager.readString().trim();
-             int newPage = handleNavigationInput(choice, currentPage, totalPages, cards);
+             int newPage = handleNavigationInput(choice, currentPage, totalPages, shown);
 
              if (newPage == -2) { 
                  browsing = false;
@@ -169,6 +173,17 @@ public class CliCollectorHPView implements ICollectorHPView {
          }
      }
 
+     @Override
+     public synchronized void updateCards(List<CardBean> cards) {
+         List<CardBean> shown = currentCards;
+         if (shown == null || cards == null || cards.isEmpty()) return;
+         Map<String, CardBean> byId = new java.util.HashMap<>();
+         for (CardBean card : cards) byId.put(card.getId(), card);
+         List<CardBean> updated = new java.util.ArrayList<>(shown.size());
+         for (CardBean card : shown) updated.add(byId.getOrDefault(card.getId(), card));
+         currentCards = updated;
+     }
+
      private void showPage(List<CardBean> cards, int currentPage, int cardsPerPage, int totalPages) {
          
          System.out.println(HEADER_TOP_BORDER);
@@ -471,4 +486,16 @@ public class CliCollectorHPView implements ICollectorHPView {
      public void showError(String message) {
          /* not used */
      }
+
+    // Nessun messaggio finché il provider resta online; si avvisa al passaggio in modalità offline e al ritorno
+    @Override
+    public void showProviderStatus(ProviderHealth health) {
+        if (health == null || health == providerHealth) return;
+        providerHealth = health;
+        if (health == ProviderHealth.DEGRADED) {
+            System.out.println("\n⚠ TCGdex non raggiungibile: modalità offline, vengono mostrate le carte salvate in locale.");
+        } else {
+            System.out.println("\n✓ Connessione a TCGdex ripristinata.");
+        }
+    }
 }
@@ -61,6 +61,8 @@ public class CliCollectorTradeView implements ICollectorTradeView {
             java.util.List<TradeTransactionBean> combined = buildCombinedListAndPrint();
 
             System.out.println();
+            boolean hasMore = controller != null && controller.hasMoreCollectorCompletedTrades();
+            if (hasMore) System.out.println("m) Mostra altri scambi conclusi");
             System.out.println("0) Torna all'homepage");
             System.out.print("Seleziona scambio da visualizzare: ");
             String sel = inputManager.readString();
@@ -70,6 +72,10 @@ public class CliCollectorTradeView implements ICollectorTradeView {
                 if (controller != null) controller.navigateToHome();
                 return;
             }
+            if (hasMore && sel.equalsIgnoreCase("m")) {
+                controller.loadMoreCollectorCompletedTrades();
+                continue;
+            }
 
             TradeTransactionBean chosen = selectTradeFromCombined(sel, combined);
             if (chosen != null) {
@@ -228,6 +234,11 @@ public class CliCollectorTradeView implements ICollectorTradeView {
         this.completedCache = completedTrades != null ? new java.util.ArrayList<>(completedTrades) : new java.util.ArrayList<>();
     }
 
+    @Override
+    public void appendCompletedTrades(List<TradeTransactionBean> moreTrades) {
+        if (moreTrades != null) this.completedCache.addAll(moreTrades);
+    }
+
     
     private void handleInteractiveOptions(TradeTransactionBean t) {
         
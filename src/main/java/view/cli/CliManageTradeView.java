@@ -189,6 +189,11 @@ public class CliManageTradeView implements IManageTradeView {
         this.lastPending = pending != null ? new java.util.ArrayList<>(pending) : new java.util.ArrayList<>();
     }
 
+    @Override
+    public void appendCompletedProposals(List<ProposalBean> moreProposals) {
+        /* not used */
+    }
+
     @Override
     public void refresh() {
         /* not used */
@@ -347,7 +347,7 @@ public class CliStoreTradeView implements IStoreTradeView {
             return;
         }
 
-        int txId = found.getTransactionId();
+        long txId = found.getTransactionId();
         boolean okP = controller.verifySessionCode(txId, pcode);
         boolean okR = controller.verifySessionCode(txId, rcode);
         if (!okP || !okR) {
@@ -369,7 +369,7 @@ public class CliStoreTradeView implements IStoreTradeView {
         }
     }
 
-    private void handleInspectionActionsAfterValidation(int txId) {
+    private void handleInspectionActionsAfterValidation(long txId) {
         TradeTransactionBean updated = controller.refreshTradeStatus(txId);
         while (true) {
             System.out.println("\n--- Azioni Ispezione ---");
@@ -390,7 +390,7 @@ public class CliStoreTradeView implements IStoreTradeView {
         }
     }
 
-    private TradeTransactionBean processInspectionChoiceFromTx(int txId, TradeTransactionBean updated, String choice) {
+    private TradeTransactionBean processInspectionChoiceFromTx(long txId, TradeTransactionBean updated, String choice) {
         if (choice == null) return updated;
         
         if (updated == null) {
@@ -490,5 +490,10 @@ public class CliStoreTradeView implements IStoreTradeView {
     public void displayCompletedTrades(List<TradeTransactionBean> trades) {
         /* not used */
     }
+
+    @Override
+    public void appendCompletedTrades(List<TradeTransactionBean> moreTrades) {
+        /* not used */
+    }
 }
 
@@ -10,6 +10,7 @@ import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import model.api.ProviderHealth;
 import model.bean.CardBean;
 import model.domain.Binder;
 import model.domain.Card;
@@ -641,8 +642,11 @@ public class FXCollectionView implements ICollectionView {
             return;
         }
 
-        Map<String, String> availableSets = controller.getAvailableSets();
+        // L'elenco dei set arriva dal provider: viene chiesto in background e il dialog si apre al suo arrivo
+        controller.loadAvailableSets(this::showAddSetDialog);
+    }
 
+    private void showAddSetDialog(Map<String, String> availableSets) {
         if (availableSets.isEmpty()) {
             showError("Nessun set disponibile al momento");
             return;
@@ -706,7 +710,26 @@ public class FXCollectionView implements ICollectionView {
         }
     }
 
-    
+    // Le carte arrivano a blocchi durante il recupero dei dettagli: la sezione del set viene ricostruita con quelle nuove
+    @Override
+    public void appendSetCards(String setId, List<Card> cards) {
+        if (setsContainer == null || currentBinders == null || setCardsMap == null || cards == null) return;
+        Binder binder = currentBinders.get(setId);
+        VBox setSection = findSetSection(setId);
+        if (binder == null || setSection == null) return;
+
+        List<Card> merged = new java.util.ArrayList<>(setCardsMap.getOrDefault(setId, java.util.Collections.emptyList()));
+        java.util.Set<String> known = new java.util.HashSet<>();
+        for (Card c : merged) known.add(c.getId());
+        for (Card c : cards) {
+            if (c != null && known.add(c.getId())) merged.add(c);
+        }
+        setCardsMap.put(setId, merged);
+
+        int index = setsContainer.getChildren().indexOf(setSection);
+        setsContainer.getChildren().set(index, createSetSection(setId, binder, merged));
+    }
+
     
     public void updateCardInSet(String setId, String cardId) {
         if (setsContainer == null || currentBinders == null) {
@@ -952,4 +975,21 @@ public class FXCollectionView implements ICollectionView {
             }
         });
     }
+
+    // Badge accanto al nome utente finché il provider è offline e le carte arrivano dalla cache locale
+    @Override
+    public void showProviderStatus(ProviderHealth health) {
+        if (usernameLabel == null) return;
+        if (health == ProviderHealth.DEGRADED) {
+            Label badge = new Label("OFFLINE");
+            badge.setStyle("-fx-background-color: #F57C00; -fx-text-fill: white; -fx-font-size: 10px; "
+                    + "-fx-font-weight: bold; -fx-padding: 1 6 1 6; -fx-background-radius: 8;");
+            usernameLabel.setGraphic(badge);
+            usernameLabel.setContentDisplay(ContentDisplay.RIGHT);
+            usernameLabel.setTooltip(new Tooltip("TCGdex non raggiungibile: vengono mostrate le carte salvate in locale"));
+        } else {
+            usernameLabel.setGraphic(null);
+            usernameLabel.setTooltip(null);
+        }
+    }
 }
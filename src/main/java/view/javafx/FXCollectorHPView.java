@@ -6,13 +6,16 @@ import java.util.Map;
 import java.util.logging.Logger;
 import java.util.Objects;
 
+import config.AppConfig;
 import controller.CollectorHPController;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContentDisplay;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
@@ -20,6 +23,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
@@ -27,7 +31,11 @@ import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.api.ProviderHealth;
 import model.bean.CardBean;
+import model.domain.Attack;
+import model.domain.Weakness;
 import view.ICollectorHPView;
 
 public class FXCollectorHPView implements ICollectorHPView {
@@ -37,7 +45,6 @@ public class FXCollectorHPView implements ICollectorHPView {
     private static final String HOVER_STYLE = "-fx-background-color: rgba(41, 182, 246, 0.2); -fx-background-radius: 8; -fx-scale-x: 1.1; -fx-scale-y: 1.1;";
     private static final String NORMAL_STYLE = "-fx-cursor: hand; -fx-padding: 8; -fx-background-color: transparent; -fx-scale-x: 1.0; -fx-scale-y: 1.0;";
     private static final String VARIANT_LABEL_STYLE = "-fx-background-color: #AB47BC; -fx-text-fill: white; -fx-padding: 4 10; -fx-background-radius: 12; -fx-font-size: 11px;";
-    private static final String EFFECT_LITERAL = "effect";
     private static final String EXCEPTION_LITERAL = "Exception";
 
     @FXML
@@ -117,6 +124,9 @@ public class FXCollectorHPView implements ICollectorHPView {
     private List<CardBean> allCards;
     private int currentPage = 0;
     private static final int CARDS_PER_PAGE = 20;
+    private static final int SEARCH_AS_YOU_TYPE_MIN_CHARS = 2;
+
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(AppConfig.SEARCH_AS_YOU_TYPE_DELAY_MILLIS));
 
     @FXML
     private Button previousButton;
@@ -133,6 +143,25 @@ public class FXCollectorHPView implements ICollectorHPView {
             languageComboBox.getItems().addAll("All", "English", "Italian", "Japanese", "French", "German");
             languageComboBox.setValue("All");
         }
+        // Ricerca mentre si digita: parte quando l'utente si ferma per un attimo, non a ogni tasto
+        if (searchField != null) {
+            searchDelay.setOnFinished(_ -> searchAsYouType());
+            searchField.textProperty().addListener((_, _, _) -> searchDelay.playFromStart());
+        }
+    }
+
+    private void searchAsYouType() {
+        String query = searchField.getText();
+        if (controller == null || query == null || query.trim().length() < SEARCH_AS_YOU_TYPE_MIN_CHARS) return;
+        showCardsView();
+        controller.searchCardsByName(query.trim());
+    }
+
+    private void showCardsView() {
+        initialViewBox.setVisible(false);
+        initialViewBox.setManaged(false);
+        cardsViewBox.setVisible(true);
+        cardsViewBox.setManaged(true);
     }
 
     @Override
@@ -401,8 +430,8 @@ public class FXCollectorHPView implements ICollectorHPView {
         if (hasWeakness) {
             box.getChildren().add(
                     createLabel("⚠️ Debolezze", "-fx-text-fill: #FF9800; -fx-font-size: 14px; -fx-font-weight: bold;"));
-            for (Map<String, String> weakness : pokemonCard.getWeaknesses()) {
-                box.getChildren().add(createLabel("🔸 " + weakness.get("type") + " " + weakness.get("value"),
+            for (Weakness weakness : pokemonCard.getWeaknesses()) {
+                box.getChildren().add(createLabel("🔸 " + weakness.getType() + " " + weakness.getValue(),
                         "-fx-text-fill: white; -fx-font-size: 13px;"));
             }
         }
@@ -442,22 +471,22 @@ public class FXCollectorHPView implements ICollectorHPView {
         box.getChildren().add(createLabel("⚔️ Attacchi (" + pokemonCard.getAttacks().size() + ")",
                 "-fx-text-fill: #EF5350; -fx-font-size: 14px; -fx-font-weight: bold;"));
 
-        for (Map<String, Object> attack : pokemonCard.getAttacks()) {
+        for (Attack attack : pokemonCard.getAttacks()) {
             VBox attackBox = new VBox(3);
             attackBox.setStyle(
                     "-fx-padding: 5; -fx-border-color: rgba(239, 83, 80, 0.3); -fx-border-width: 0 0 0 3; -fx-border-insets: 0;");
 
-            String name = attack.get("name") != null ? attack.get("name").toString() : "Unknown";
-            String damage = Objects.toString(attack.get("damage"), "");
+            String name = attack.getName() != null ? attack.getName() : "Unknown";
+            String damage = Objects.toString(attack.getDamage(), "");
             attackBox.getChildren().add(createLabel(name + (damage.isEmpty() ? "" : " - " + damage),
                     "-fx-text-fill: white; -fx-font-size: 13px; -fx-font-weight: bold;"));
 
-            if (attack.get("cost") != null) {
+            if (attack.getCost() != null && !attack.getCost().isEmpty()) {
                 attackBox.getChildren().add(
-                        createLabel("💎 Costo: " + attack.get("cost"), "-fx-text-fill: #9CA3AF; -fx-font-size: 11px;"));
+                        createLabel("💎 Costo: " + attack.getCost(), "-fx-text-fill: #9CA3AF; -fx-font-size: 11px;"));
             }
-            if (attack.get(EFFECT_LITERAL) != null && !attack.get(EFFECT_LITERAL).toString().isEmpty()) {
-                Label effect = createLabel(attack.get(EFFECT_LITERAL).toString(),
+            if (attack.getEffect() != null && !attack.getEffect().isEmpty()) {
+                Label effect = createLabel(attack.getEffect(),
                         "-fx-text-fill: #9CA3AF; -fx-font-size: 11px; -fx-wrap-text: true;");
                 effect.setMaxWidth(330);
                 effect.setWrapText(true);
@@ -575,6 +604,21 @@ public class FXCollectorHPView implements ICollectorHPView {
         });
     }
 
+    // Dettagli arrivati a blocchi dopo displayCards: si sostituiscono le carte e si ridisegna la pagina corrente
+    @Override
+    public void updateCards(List<CardBean> cards) {
+        if (cards == null || cards.isEmpty()) return;
+        Platform.runLater(() -> {
+            if (allCards == null || allCards.isEmpty()) return;
+            Map<String, CardBean> byId = new java.util.HashMap<>();
+            for (CardBean card : cards) byId.put(card.getId(), card);
+            List<CardBean> updated = new ArrayList<>(allCards.size());
+            for (CardBean card : allCards) updated.add(byId.getOrDefault(card.getId(), card));
+            this.allCards = updated;
+            showCardsPage(currentPage);
+        });
+    }
+
     
     private void showCardsPage(int pageIndex) {
         if (allCards == null || allCards.isEmpty()) {
@@ -780,13 +824,9 @@ public class FXCollectorHPView implements ICollectorHPView {
             return;
         }
 
-        
-        initialViewBox.setVisible(false);
-        initialViewBox.setManaged(false);
-        cardsViewBox.setVisible(true);
-        cardsViewBox.setManaged(true);
+        searchDelay.stop();
+        showCardsView();
 
-        
         String searchName = query.trim();
         LOGGER.log(java.util.logging.Level.INFO, "Searching for cards with name: {0}", searchName);
         controller.searchCardsByName(searchName);
@@ -959,4 +999,21 @@ public class FXCollectorHPView implements ICollectorHPView {
             }
         });
     }
+
+    // Badge accanto al nome utente finché il provider è offline e le carte arrivano dalla cache locale
+    @Override
+    public void showProviderStatus(ProviderHealth health) {
+        if (usernameLabel == null) return;
+        if (health == ProviderHealth.DEGRADED) {
+            Label badge = new Label("OFFLINE");
+            badge.setStyle("-fx-background-color: #F57C00; -fx-text-fill: white; -fx-font-size: 10px; "
+                    + "-fx-font-weight: bold; -fx-padding: 1 6 1 6; -fx-background-radius: 8;");
+            usernameLabel.setGraphic(badge);
+            usernameLabel.setContentDisplay(ContentDisplay.RIGHT);
+            usernameLabel.setTooltip(new Tooltip("TCGdex non raggiungibile: vengono mostrate le carte salvate in locale"));
+        } else {
+            usernameLabel.setGraphic(null);
+            usernameLabel.setTooltip(null);
+        }
+    }
 }
@@ -77,6 +77,9 @@ public class FXCollectorTradeView implements ICollectorTradeView {
         }
         if (completedTradesList != null) {
             setTradeListCellFactory(completedTradesList, true);
+            ScrollPaging.onScrolledToEnd(completedTradesList, () -> {
+                if (controller != null) controller.loadMoreCollectorCompletedTrades();
+            });
         }
         
         if (controller != null) {
@@ -631,6 +634,12 @@ public class FXCollectorTradeView implements ICollectorTradeView {
         });
     }
 
+    @Override
+    public void appendCompletedTrades(java.util.List<model.bean.TradeTransactionBean> moreTrades) {
+        if (completedTradesList == null || moreTrades == null || moreTrades.isEmpty()) return;
+        javafx.application.Platform.runLater(() -> completedTradesList.getItems().addAll(moreTrades));
+    }
+
     @Override
     public void onTradeComplete(String tradeId) {
         
@@ -92,6 +92,9 @@ public class FXManageTradeView implements IManageTradeView {
         
         if (pendingTradesList != null) setupCellFactory(pendingTradesList);
         if (concludedTradesList != null) setupCellFactory(concludedTradesList);
+        ScrollPaging.onScrolledToEnd(concludedTradesList, () -> {
+            if (manageController != null) manageController.loadMoreCompletedProposals(this);
+        });
     }
 
     private void setupCellFactory(ListView<ProposalBean> listView) {
@@ -603,6 +606,15 @@ public class FXManageTradeView implements IManageTradeView {
         refresh();
     }
 
+    @Override
+    public void appendCompletedProposals(List<ProposalBean> moreProposals) {
+        if (moreProposals == null || moreProposals.isEmpty()) return;
+        this.lastConcluded.addAll(moreProposals);
+        javafx.application.Platform.runLater(() -> {
+            if (concludedTradesList != null) concludedTradesList.getItems().addAll(moreProposals);
+        });
+    }
+
     @Override
     public void refresh() {
         javafx.application.Platform.runLater(() -> {
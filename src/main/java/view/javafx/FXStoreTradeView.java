@@ -54,6 +54,9 @@ public class FXStoreTradeView implements IStoreTradeView {
     @FXML
     private Label messageLabel;
 
+    // true quando scheduledList mostra la cronologia degli scambi conclusi (letto e scritto sul thread JavaFX)
+    private boolean showingCompleted;
+
     private static final String INSPECTION_PASSED = "INSPECTION_PASSED";
     private static final String CANCELLED = "CANCELLED";
     private static final String INSPECTION_CANCELLED_MSG = "Lo scambio è stato annullato durante l'ispezione";
@@ -86,6 +89,10 @@ public class FXStoreTradeView implements IStoreTradeView {
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         setupListView(scheduledList, fmt);
         setupListView(inProgressList, fmt);
+        // La stessa lista mostra anche gli scambi conclusi: solo in quel caso lo scorrimento carica altre pagine
+        ScrollPaging.onScrolledToEnd(scheduledList, () -> {
+            if (showingCompleted && controller != null) controller.loadMoreStoreCompletedTrades();
+        });
 
         
         if (controller != null) {
@@ -151,6 +158,7 @@ public class FXStoreTradeView implements IStoreTradeView {
                 if (messageLabel != null) messageLabel.setText("Errore UI: lista scambi non inizializzata");
                 return;
             }
+            showingCompleted = false;
             scheduledList.getItems().clear();
             if (scheduled != null && !scheduled.isEmpty()) {
                 
@@ -192,9 +200,19 @@ public class FXStoreTradeView implements IStoreTradeView {
         }
 
         java.util.List<TradeTransactionBean> filtered = filterCompletedTrades(trades);
+        showingCompleted = true;
         showCompletedTradesUI(filtered);
     }
 
+    @Override
+    public void appendCompletedTrades(List<TradeTransactionBean> moreTrades) {
+        Platform.runLater(() -> {
+            if (scheduledList == null || !showingCompleted) return;
+            scheduledList.getItems().addAll(filterCompletedTrades(moreTrades));
+            if (messageLabel != null) messageLabel.setText(CARICATI_PREFIX + scheduledList.getItems().size() + " scambi conclusi");
+        });
+    }
+
     private void showCompletedTradesUI(java.util.List<TradeTransactionBean> filtered) {
         scheduledList.getItems().clear();
         if (filtered != null && !filtered.isEmpty()) {
@@ -542,7 +560,7 @@ public class FXStoreTradeView implements IStoreTradeView {
     }
 
     
-    private void performCancelAndRefresh(int transactionId, Button callerButton, Button confirmInspection, Label info, TextArea details, Label statusLabel, Button concludeBtn) {
+    private void performCancelAndRefresh(long transactionId, Button callerButton, Button confirmInspection, Label info, TextArea details, Label statusLabel, Button concludeBtn) {
         boolean ok = false;
         try { ok = controller.cancelTrade(transactionId); } catch (Exception ex) { LOGGER.fine(() -> "problem cancel failed: " + ex.getMessage()); }
         if (ok) {
@@ -602,7 +620,7 @@ public class FXStoreTradeView implements IStoreTradeView {
          try { pcode = Integer.parseInt(ptxt); rcode = Integer.parseInt(rtxt); } catch (NumberFormatException _) { showError("Entrambi i session code devono essere numeri interi"); return; }
          TradeTransactionBean found = controller.fetchTradeBySessionCodes(pcode, rcode);
          if (found == null) { showError("Nessuno scambio trovato per questa coppia di codici"); return; }
-         int txId = found.getTransactionId();
+         long txId = found.getTransactionId();
          boolean okP = controller.verifySessionCode(txId, pcode);
          boolean okR = controller.verifySessionCode(txId, rcode);
          if (!okP || !okR) { showError("Uno o entrambi i codici non sono validi"); return; }
@@ -0,0 +1,40 @@
+package view.javafx;
+
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+
+/* Caricamento a pagine sulle ListView: quando la barra di scorrimento verticale arriva in fondo viene chiesta la
+ * pagina successiva. La ScrollBar esiste solo dopo la creazione dello skin, per questo l'aggancio può essere
+ * differito. Richieste ripetute mentre una pagina è in caricamento vengono scartate dal controller. */
+final class ScrollPaging {
+    private static final double END_THRESHOLD = 0.02;
+
+    private ScrollPaging() {
+    }
+
+    static void onScrolledToEnd(ListView<?> list, Runnable loadMore) {
+        if (list == null || loadMore == null) return;
+        if (list.getSkin() != null) {
+            attach(list, loadMore);
+            return;
+        }
+        list.skinProperty().addListener((obs, oldSkin, skin) -> {
+            if (skin != null && oldSkin == null) attach(list, loadMore);
+        });
+    }
+
+    private static void attach(ListView<?> list, Runnable loadMore) {
+        for (Node node : list.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() >= bar.getMax() - END_THRESHOLD && oldValue.doubleValue() < value.doubleValue()) {
+                        loadMore.run();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void onFailure_opensAfterThresholdAndFailsFast() {
+        // Verifica che il circuito si apra solo dopo la soglia di fallimenti consecutivi e che poi rifiuti le chiamate
+        AtomicLong clock = new AtomicLong(1_000);
+        CircuitBreaker breaker = new CircuitBreaker(3, 10_000, clock::get);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "A success resets the failure count");
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(), "Open circuit must fail fast");
+        assertEquals(10_000, breaker.remainingOpenMillis());
+    }
+
+    @Test
+    void tryAcquire_admitsSingleProbeAfterOpenInterval() {
+        // Verifica che allo scadere dell'apertura passi una sola sonda e che il suo esito decida lo stato
+        AtomicLong clock = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(1, 5_000, clock::get);
+        breaker.onFailure();
+
+        clock.addAndGet(5_000);
+        assertTrue(breaker.tryAcquire(), "First caller becomes the probe");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(), "Only one probe at a time");
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Failed probe reopens the circuit");
+
+        clock.addAndGet(5_000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Successful probe closes the circuit");
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void setListener_notifiesTransitionsAndReplacesByKey() {
+        // Verifica che i listener ricevano solo i cambi di stato e che una nuova registrazione con la stessa chiave sostituisca la precedente
+        AtomicLong clock = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, clock::get);
+        List<CircuitBreaker.State> first = new ArrayList<>();
+        List<CircuitBreaker.State> second = new ArrayList<>();
+        breaker.setListener("view", first::add);
+        breaker.setListener("view", second::add);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.tryAcquire();
+        breaker.onSuccess();
+
+        assertTrue(first.isEmpty(), "Replaced listener must not be called");
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED), second);
+    }
+}
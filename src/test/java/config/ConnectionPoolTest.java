@@ -0,0 +1,141 @@
+package config;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    // Connessione finta: tiene traccia di chiusura, validità e autocommit
+    private static final class FakeConnection {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean valid = new AtomicBoolean(true);
+        final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        int rollbacks;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    (p, m, args) -> switch (m.getName()) {
+                        case "close" -> { closed.set(true); yield null; }
+                        case "isClosed" -> closed.get();
+                        case "isValid" -> valid.get() && !closed.get();
+                        case "getAutoCommit" -> autoCommit.get();
+                        case "setAutoCommit" -> { autoCommit.set((Boolean) args[0]); yield null; }
+                        case "rollback" -> { rollbacks++; yield null; }
+                        case "hashCode" -> System.identityHashCode(p);
+                        case "equals" -> p == args[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private ConnectionPool pool(ConnectionPool.Settings settings) {
+        return new ConnectionPool("test", () -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.proxy();
+        }, settings, now::get, false);
+    }
+
+    // Verifica che close() restituisca la connessione al pool e che il prestito successivo la riutilizzi
+    @Test
+    void close_returnsConnectionForReuse() throws SQLException {
+        ConnectionPool pool = pool(new ConnectionPool.Settings().maxSize(2));
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isClosed());
+        }
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isClosed());
+        }
+
+        assertEquals(1, opened.size(), "The second borrow must reuse the pooled connection");
+        assertFalse(opened.getFirst().closed.get());
+        PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+        assertEquals(2, stats.getBorrowCount());
+    }
+
+    // Verifica che il pool non superi la dimensione massima e che chi attende oltre il timeout riceva un errore
+    @Test
+    void getConnection_timesOutWhenPoolIsExhausted() throws SQLException {
+        ConnectionPool pool = pool(new ConnectionPool.Settings().maxSize(1).borrowTimeoutMs(50));
+        Connection held = pool.getConnection();
+
+        assertThrows(SQLException.class, pool::getConnection);
+        assertEquals(1, pool.getStats().getTimeouts());
+        assertEquals(1, opened.size());
+
+        held.close();
+        held.close();
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c);
+        }
+        assertEquals(1, pool.getStats().getTimeouts(), "A double close must not release an extra permit");
+    }
+
+    // Verifica che una connessione non più valida venga scartata al prestito e che una transazione aperta venga annullata
+    @Test
+    void borrow_validatesIdleConnectionAndResetsTransactions() throws SQLException {
+        ConnectionPool pool = pool(new ConnectionPool.Settings().maxSize(2));
+        try (Connection c = pool.getConnection()) {
+            c.setAutoCommit(false);
+        }
+        FakeConnection first = opened.getFirst();
+        assertEquals(1, first.rollbacks, "Uncommitted work must be rolled back on return");
+        assertTrue(first.autoCommit.get());
+
+        first.valid.set(false);
+        now.addAndGet(10_000);
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c);
+        }
+        assertEquals(2, opened.size(), "The broken connection must be replaced");
+        assertTrue(first.closed.get());
+    }
+
+    // Verifica che le connessioni inattive oltre il timeout vengano chiuse mantenendo il minimo configurato
+    @Test
+    void evictIdle_keepsMinimumIdleConnections() throws SQLException {
+        ConnectionPool pool = pool(new ConnectionPool.Settings().maxSize(3).minIdle(1).idleTimeoutMs(1_000));
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        c.close();
+
+        now.addAndGet(5_000);
+        pool.evictIdle();
+
+        assertEquals(1, pool.getStats().getIdle());
+        assertEquals(2, opened.stream().filter(f -> f.closed.get()).count());
+    }
+
+    // Verifica che un prestito più lungo della soglia venga segnalato una sola volta come possibile leak
+    @Test
+    void detectLeaks_reportsLongHeldConnectionOnce() throws SQLException {
+        ConnectionPool pool = pool(new ConnectionPool.Settings().leakThresholdMs(1_000));
+        Connection held = pool.getConnection();
+
+        now.addAndGet(2_000);
+        pool.detectLeaks();
+        pool.detectLeaks();
+
+        assertEquals(1, pool.getStats().getLeaksDetected());
+        held.close();
+        pool.close();
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+}
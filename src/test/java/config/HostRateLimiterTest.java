@@ -0,0 +1,45 @@
+package config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostRateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void reserve_burstThenOneSlotPerInterval() {
+        // Verifica che dopo il burst iniziale ogni richiesta debba attendere un intervallo in più della precedente
+        AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(50));
+        HostRateLimiter limiter = new HostRateLimiter(10, 3, clock::get);
+
+        assertEquals(0, limiter.reserve(), "Burst slot 1");
+        assertEquals(0, limiter.reserve(), "Burst slot 2");
+        assertEquals(0, limiter.reserve(), "Burst slot 3");
+        assertEquals(INTERVAL, limiter.reserve(), "First request past the burst waits one interval");
+        assertEquals(2 * INTERVAL, limiter.reserve(), "Reservations queue up");
+    }
+
+    @Test
+    void reserve_idleTimeDoesNotAccumulateBeyondBurst() {
+        // Verifica che una lunga pausa non conceda più richieste immediate del burst configurato
+        AtomicLong clock = new AtomicLong(0);
+        HostRateLimiter limiter = new HostRateLimiter(10, 2, clock::get);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(INTERVAL, limiter.reserve(), "Only the burst is available after being idle");
+    }
+
+    @Test
+    void forHost_sameHostSharesLimiter() {
+        // Verifica che tutti i chiamanti verso lo stesso host condividano un unico limite
+        assertSame(HostRateLimiter.forHost("example.test"), HostRateLimiter.forHost("example.test"));
+        assertThrows(IllegalArgumentException.class, () -> new HostRateLimiter(0, 1));
+    }
+}
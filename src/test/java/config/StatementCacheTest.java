@@ -0,0 +1,145 @@
+package config;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest {
+
+    // Statement finto: conta le chiusure fisiche e quelle dei ResultSet prodotti
+    private static final class FakeStatement {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicInteger clears = new AtomicInteger();
+        final List<AtomicBoolean> results = new ArrayList<>();
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (p, m, args) -> switch (m.getName()) {
+                        case "close" -> { closed.set(true); yield null; }
+                        case "isClosed" -> closed.get();
+                        case "clearParameters" -> { clears.incrementAndGet(); yield null; }
+                        case "executeQuery" -> resultSet();
+                        case "hashCode" -> System.identityHashCode(p);
+                        case "equals" -> p == args[0];
+                        default -> null;
+                    });
+        }
+
+        private ResultSet resultSet() {
+            AtomicBoolean rsClosed = new AtomicBoolean();
+            results.add(rsClosed);
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                    (p, m, args) -> switch (m.getName()) {
+                        case "close" -> { rsClosed.set(true); yield null; }
+                        case "hashCode" -> System.identityHashCode(p);
+                        case "equals" -> p == args[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeStatement> prepared = new ArrayList<>();
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (p, m, args) -> switch (m.getName()) {
+                    case "prepareStatement" -> {
+                        FakeStatement statement = new FakeStatement();
+                        prepared.add(statement);
+                        yield statement.proxy();
+                    }
+                    case "getAutoCommit", "isValid" -> true;
+                    case "isClosed" -> false;
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> null;
+                });
+    }
+
+    private ConnectionPool pool(int cacheSize) {
+        return new ConnectionPool("stmt-test", this::fakeConnection,
+                new ConnectionPool.Settings().maxSize(1).statementCacheSize(cacheSize), System::currentTimeMillis, false);
+    }
+
+    // Verifica che lo stesso SQL riusi lo statement già preparato nei prestiti successivi della connessione
+    @Test
+    void prepareStatement_reusesStatementAcrossBorrows() throws SQLException {
+        ConnectionPool pool = pool(8);
+        for (int i = 0; i < 3; i++) {
+            try (Connection c = pool.getConnection();
+                    PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+                ps.executeQuery();
+            }
+        }
+
+        assertEquals(1, prepared.size(), "The statement must be prepared once");
+        assertFalse(prepared.getFirst().closed.get());
+        assertEquals(3, prepared.getFirst().clears.get());
+        assertTrue(prepared.getFirst().results.stream().allMatch(AtomicBoolean::get), "Result sets must be closed");
+        assertEquals(2, pool.getStats().getStatementHits());
+        assertEquals(1, pool.getStats().getStatementMisses());
+    }
+
+    // Verifica che uno statement non chiuso dal chiamante venga rilasciato con la connessione
+    @Test
+    void closeConnection_releasesForgottenStatements() throws SQLException {
+        ConnectionPool pool = pool(8);
+        PreparedStatement leaked;
+        try (Connection c = pool.getConnection()) {
+            leaked = c.prepareStatement("SELECT 1");
+            leaked.executeQuery();
+        }
+
+        assertTrue(leaked.isClosed());
+        assertTrue(prepared.getFirst().results.getFirst().get());
+        assertThrows(SQLException.class, leaked::executeQuery);
+        try (Connection c = pool.getConnection();
+                PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+            assertNotNull(ps);
+        }
+        assertEquals(1, prepared.size());
+    }
+
+    // Verifica che lo stesso SQL aperto due volte insieme produca uno statement separato e che la cache sia limitata
+    @Test
+    void prepareStatement_handlesNestedUseAndEviction() throws SQLException {
+        ConnectionPool pool = pool(1);
+        try (Connection c = pool.getConnection()) {
+            try (PreparedStatement outer = c.prepareStatement("SELECT 1");
+                    PreparedStatement inner = c.prepareStatement("SELECT 1")) {
+                assertFalse(outer == inner, "Nested use must not share the cached statement");
+            }
+            assertEquals(2, prepared.size());
+            assertTrue(prepared.get(1).closed.get(), "The temporary statement is closed for real");
+
+            c.prepareStatement("SELECT 2").close();
+        }
+
+        assertTrue(prepared.getFirst().closed.get(), "The eldest statement is evicted beyond capacity");
+        assertFalse(prepared.get(2).closed.get());
+    }
+
+    // Verifica che con dimensione 0 gli statement non vengano riutilizzati
+    @Test
+    void prepareStatement_cacheCanBeDisabled() throws SQLException {
+        ConnectionPool pool = pool(0);
+        for (int i = 0; i < 2; i++) {
+            try (Connection c = pool.getConnection();
+                    PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+                assertNotNull(ps);
+            }
+        }
+        assertEquals(2, prepared.size());
+        assertTrue(prepared.stream().allMatch(s -> s.closed.get()));
+    }
+}
@@ -0,0 +1,101 @@
+package config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-03-01T10:00:00Z").toEpochMilli();
+
+    @Test
+    void nextId_encodesNodeAndTimestamp() {
+        // Verifica che nodo e millisecondo siano ricavabili dall'id generato
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(517, () -> NOW);
+        long id = generator.nextId();
+        assertTrue(id > 0, "Ids must be positive");
+        assertEquals(517, TimeOrderedIdGenerator.nodeOf(id), "Node must be encoded in the id");
+        assertEquals(Instant.ofEpochMilli(NOW), TimeOrderedIdGenerator.timestampOf(id), "Timestamp must be encoded in the id");
+    }
+
+    @Test
+    void nextId_sameMillisDifferentNodes_neverCollide() {
+        // Verifica che due nodi con lo stesso orologio producano id distinti
+        TimeOrderedIdGenerator a = new TimeOrderedIdGenerator(1, () -> NOW);
+        TimeOrderedIdGenerator b = new TimeOrderedIdGenerator(2, () -> NOW);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ids.add(a.nextId()), "Duplicate id from node 1");
+            assertTrue(ids.add(b.nextId()), "Duplicate id from node 2");
+        }
+    }
+
+    @Test
+    void nextId_clockGoesBackwards_staysIncreasing() {
+        // Verifica che un orologio che torna indietro non produca id minori dei precedenti
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, clock::get);
+        long first = generator.nextId();
+        clock.set(NOW - 5_000);
+        long second = generator.nextId();
+        assertTrue(second > first, "Ids must keep increasing when the clock moves back");
+        assertEquals(Instant.ofEpochMilli(NOW), TimeOrderedIdGenerator.timestampOf(second), "Last used millisecond must be kept");
+    }
+
+    @Test
+    void nextId_sequenceExhausted_borrowsNextMillis() {
+        // Verifica che oltre 4096 id nello stesso millisecondo si passi al millisecondo successivo
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(4, () -> NOW);
+        long previous = 0;
+        for (int i = 0; i < 4096; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Ids must be strictly increasing");
+            previous = id;
+        }
+        assertEquals(Instant.ofEpochMilli(NOW), TimeOrderedIdGenerator.timestampOf(previous));
+        long borrowed = generator.nextId();
+        assertTrue(borrowed > previous, "Borrowed id must be greater than the last one");
+        assertEquals(Instant.ofEpochMilli(NOW + 1), TimeOrderedIdGenerator.timestampOf(borrowed), "Next millisecond must be borrowed");
+    }
+
+    @Test
+    void nextId_concurrentCallers_allUnique() throws Exception {
+        // Verifica che thread concorrenti sullo stesso generatore non ottengano mai lo stesso id
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(5);
+        int threads = 8;
+        int perThread = 5_000;
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<List<Long>> task = () -> {
+                List<Long> ids = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) ids.add(generator.nextId());
+                return ids;
+            };
+            for (int t = 0; t < threads; t++) futures.add(pool.submit(task));
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> f : futures) all.addAll(f.get());
+            assertEquals(threads * perThread, all.size(), "Every generated id must be unique");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void constructor_nodeOutOfRange_throws() {
+        // Verifica che un nodo fuori dai 10 bit disponibili venga rifiutato
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1));
+    }
+}
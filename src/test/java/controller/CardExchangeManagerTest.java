@@ -23,6 +23,8 @@ class CardExchangeManagerTest {
     static class FakeBinderDao implements IBinderDao {
         
         private final Map<String, List<Binder>> store = new HashMap<>();
+        int saveCalls;
+        int readCalls;
 
         @Override
         public Optional<Binder> get(long id) { return Optional.empty(); }
@@ -30,6 +32,7 @@ class CardExchangeManagerTest {
         @Override
         public void save(Binder binder) {
             if (binder == null) return;
+            saveCalls++;
             store.computeIfAbsent(binder.getOwner(), k -> new ArrayList<>());
             List<Binder> lst = store.get(binder.getOwner());
             
@@ -50,6 +53,7 @@ class CardExchangeManagerTest {
 
         @Override
         public List<Binder> getUserBinders(String owner) {
+            readCalls++;
             return new ArrayList<>(store.getOrDefault(owner, new ArrayList<>()));
         }
 
@@ -68,6 +72,7 @@ class CardExchangeManagerTest {
 
     static class FakeCardProvider implements model.api.ICardProvider {
         private final Map<String, String> sets;
+        int catalogCalls;
 
         FakeCardProvider(Map<String, String> sets) { this.sets = sets; }
 
@@ -87,7 +92,10 @@ class CardExchangeManagerTest {
         }
 
         @Override
-        public Map<String, String> getAllSets() { return sets; }
+        public Map<String, String> getAllSets() {
+            catalogCalls++;
+            return sets;
+        }
     }
 
     // Verifica che il ricevente riceva la carta offerta e la quantità venga sommata, mentre il proponente perda la carta
@@ -205,4 +213,53 @@ class CardExchangeManagerTest {
         assertNotNull(vap);
         assertEquals(3, vap.getQuantity(), "Receiver's Vaporeon quantity should be decremented by 1 (requested)");
     }
+
+    // Verifica che lo scambio legga i raccoglitori e il catalogo una sola volta e salvi ogni raccoglitore una sola volta
+    @Test
+    void executeExchange_loadsOnceAndSavesEachTouchedBinderOnce() {
+        FakeBinderDao binderDao = new FakeBinderDao();
+        FakeCardProvider cardProvider = new FakeCardProvider(Map.of("base1", "Base Set", "jungle", "Jungle"));
+
+        Binder proposerBinder = new Binder("user1", "base1", "Base Set");
+        for (String id : List.of("base1-1", "base1-2", "base1-3")) {
+            CardBean cb = new CardBean();
+            cb.setId(id);
+            cb.setQuantity(2);
+            proposerBinder.addCard(cb);
+        }
+        binderDao.save(proposerBinder);
+        Binder receiverBinder = new Binder("user2", "jungle", "Jungle");
+        CardBean jungleCard = new CardBean();
+        jungleCard.setId("jungle-7");
+        jungleCard.setQuantity(1);
+        receiverBinder.addCard(jungleCard);
+        binderDao.save(receiverBinder);
+        binderDao.saveCalls = 0;
+
+        List<Card> offered = new ArrayList<>();
+        for (String id : List.of("base1-1", "base1-2", "base1-3")) {
+            Card c = new Card(id, id, "", CardGameType.POKEMON);
+            c.setQuantity(1);
+            offered.add(c);
+        }
+        Card requested = new Card("jungle-7", "Jungle card", "", CardGameType.POKEMON);
+        requested.setQuantity(1);
+        TradeTransaction tx = new TradeTransaction(1, TradeStatus.INSPECTION_PASSED,
+                new TradeTransaction.TradeParticipants("user1", "user2", "storeA"),
+                new TradeTransaction.TradeDetails(LocalDateTime.now(), LocalDateTime.now(), offered, List.of(requested)));
+
+        new CardExchangeManager(binderDao, cardProvider).executeExchange(tx);
+
+        assertEquals(2, binderDao.readCalls, "Each participant's binders should be read once");
+        assertEquals(1, cardProvider.catalogCalls, "The set catalog should be fetched once per exchange");
+        assertEquals(4, binderDao.saveCalls, "Receiver base1, proposer jungle and both original binders, once each");
+
+        Binder received = binderDao.getUserBinders("user2").stream().filter(b -> "base1".equals(b.getSetId())).findFirst().orElseThrow();
+        assertEquals("Base Set", received.getSetName());
+        assertEquals(3, received.getCards().size());
+        Binder proposerAfter = binderDao.getUserBinders("user1").stream().filter(b -> "base1".equals(b.getSetId())).findFirst().orElseThrow();
+        assertTrue(proposerAfter.getCards().stream().allMatch(cb -> cb.getQuantity() == 1));
+        assertTrue(binderDao.getUserBinders("user2").stream().filter(b -> "jungle".equals(b.getSetId()))
+                .allMatch(b -> b.getCards().isEmpty()), "Requested card should leave the receiver");
+    }
 }
@@ -0,0 +1,82 @@
+package controller;
+
+import model.dao.HistoryCursor;
+import model.dao.Page;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryPagerTest {
+
+    // Loader finto: ogni richiesta resta in sospeso finché il test non la completa
+    private static final class ManualLoader implements HistoryPager.Loader<String> {
+        final List<CompletableFuture<Page<String>>> requests = new ArrayList<>();
+        final List<HistoryCursor> cursors = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<Page<String>> load(HistoryCursor after, int limit) {
+            CompletableFuture<Page<String>> request = new CompletableFuture<>();
+            requests.add(request);
+            cursors.add(after);
+            return request;
+        }
+    }
+
+    // Verifica che la pagina successiva parta dal cursore restituito e che a cronologia finita non si chieda altro
+    @Test
+    void more_followsCursorUntilExhausted() {
+        ManualLoader loader = new ManualLoader();
+        HistoryPager<String> pager = new HistoryPager<>(loader, 2);
+        HistoryCursor cursor = new HistoryCursor(null, 5);
+
+        CompletableFuture<Page<String>> first = pager.first();
+        assertNull(pager.more(), "No second request while the first page is loading");
+        loader.requests.get(0).complete(new Page<>(List.of("a", "b"), cursor));
+        assertEquals(List.of("a", "b"), first.join().getItems());
+        assertTrue(pager.hasMore());
+
+        CompletableFuture<Page<String>> second = pager.more();
+        assertEquals(cursor, loader.cursors.get(1));
+        loader.requests.get(1).complete(new Page<>(List.of("c"), null));
+        assertEquals(List.of("c"), second.join().getItems());
+        assertFalse(pager.hasMore());
+        assertNull(pager.more(), "An exhausted history must not be queried again");
+    }
+
+    // Verifica che un nuovo caricamento renda obsoleta la risposta ancora in volo della sequenza precedente
+    @Test
+    void first_discardsStaleResponses() {
+        ManualLoader loader = new ManualLoader();
+        HistoryPager<String> pager = new HistoryPager<>(loader, 2);
+
+        CompletableFuture<Page<String>> stale = pager.first();
+        CompletableFuture<Page<String>> fresh = pager.first();
+        loader.requests.get(0).complete(new Page<>(List.of("old"), new HistoryCursor(null, 1)));
+        loader.requests.get(1).complete(new Page<>(List.of("new"), null));
+
+        assertNull(stale.join(), "A superseded page must complete with null");
+        assertEquals(List.of("new"), fresh.join().getItems());
+        assertFalse(pager.hasMore(), "The stale cursor must not leak into the current sequence");
+    }
+
+    // Verifica che dopo un errore la stessa pagina possa essere richiesta di nuovo
+    @Test
+    void more_retriesAfterFailure() {
+        ManualLoader loader = new ManualLoader();
+        HistoryPager<String> pager = new HistoryPager<>(loader, 2);
+        HistoryCursor cursor = new HistoryCursor(null, 5);
+        pager.first();
+        loader.requests.get(0).complete(new Page<>(List.of("a", "b"), cursor));
+
+        CompletableFuture<Page<String>> failed = pager.more();
+        loader.requests.get(1).completeExceptionally(new IllegalStateException("offline"));
+        assertTrue(failed.isCompletedExceptionally());
+
+        assertNotNull(pager.more(), "A failed page must be retryable");
+        assertEquals(cursor, loader.cursors.get(2));
+    }
+}
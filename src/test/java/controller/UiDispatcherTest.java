@@ -0,0 +1,78 @@
+package controller;
+
+import exception.ConnectionException;
+import model.api.ICardProvider;
+import model.domain.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UiDispatcherTest {
+
+    // Provider finto: registra il thread che esegue la ricerca e fallisce su getAllSets
+    private static final class RecordingProvider implements ICardProvider {
+        final AtomicReference<Thread> searchThread = new AtomicReference<>();
+
+        @Override
+        public List<Card> searchSet(String setId) {
+            return List.of();
+        }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) {
+            searchThread.set(Thread.currentThread());
+            return List.of(new Card("base1-4", cardName, "img", null));
+        }
+
+        @Override
+        public <T extends Card> T getCardDetails(String cardId) {
+            return null;
+        }
+
+        @Override
+        public Map<String, String> getAllSets() {
+            throw new ConnectionException("offline", null);
+        }
+    }
+
+    // Verifica che la variante asincrona giri su un virtual thread e che la consegna CLI avvenga prima del ritorno
+    @Test
+    void synchronous_deliversResultBeforeReturning() {
+        RecordingProvider provider = new RecordingProvider();
+        AtomicReference<List<Card>> delivered = new AtomicReference<>();
+
+        UiDispatcher.synchronous().deliver(provider.searchCardsByNameAsync("Pikachu"), delivered::set, e -> fail(e));
+
+        assertNotNull(delivered.get(), "The CLI dispatcher must block until the result is available");
+        assertEquals("Pikachu", delivered.get().getFirst().getName());
+        assertTrue(provider.searchThread.get().isVirtual(), "Provider calls must run on a virtual thread");
+    }
+
+    // Verifica che l'errore del provider arrivi alla callback senza il wrapping di CompletionException
+    @Test
+    void synchronous_deliversUnwrappedFailure() {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean succeeded = new AtomicBoolean();
+
+        UiDispatcher.synchronous().deliver(new RecordingProvider().getAllSetsAsync().thenApply(Map::size),
+                _ -> succeeded.set(true), failure::set);
+
+        assertFalse(succeeded.get());
+        assertTrue(failure.get() instanceof ConnectionException, "Got " + failure.get());
+    }
+
+    // Verifica che senza ApplicationController venga usata la consegna sincrona
+    @Test
+    void of_defaultsToSynchronous() {
+        assertSame(UiDispatcher.synchronous(), UiDispatcher.of(null));
+        AtomicReference<String> delivered = new AtomicReference<>();
+        UiDispatcher.of(null).deliver(CompletableFuture.completedFuture("ok"), delivered::set, _ -> fail("Unexpected failure"));
+        assertEquals("ok", delivered.get());
+    }
+}
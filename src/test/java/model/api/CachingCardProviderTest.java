@@ -0,0 +1,107 @@
+package model.api;
+
+import config.ApiConfig;
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingCardProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static class CountingProvider implements ICardProvider {
+        final AtomicInteger setCalls = new AtomicInteger();
+        final AtomicInteger detailCalls = new AtomicInteger();
+        final AtomicBoolean offline = new AtomicBoolean();
+
+        @Override
+        public List<Card> searchSet(String setId) {
+            setCalls.incrementAndGet();
+            if (offline.get()) throw new ConnectionException("offline", null);
+            return List.of(new Card(setId + "-1", "Card " + setCalls.get(), "img", CardGameType.POKEMON));
+        }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) { return List.of(); }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Card> T getCardDetails(String cardId) {
+            detailCalls.incrementAndGet();
+            PokemonCard pc = new PokemonCard(cardId, "Pikachu", "img");
+            pc.setHp(60);
+            return (T) pc;
+        }
+
+        @Override
+        public Map<String, String> getAllSets() { return Map.of("base1", "Base Set"); }
+    }
+
+    // Verifica che una voce fresca venga servita dal disco senza richiamare il provider
+    @Test
+    void freshEntry_isServedFromDisk() {
+        CountingProvider remote = new CountingProvider();
+        CachingCardProvider cache = new CachingCardProvider(remote, tempDir, () -> 1_000L);
+
+        cache.searchSet("base1");
+        List<Card> second = new CachingCardProvider(remote, tempDir, () -> 2_000L).searchSet("base1");
+
+        assertEquals(1, remote.setCalls.get(), "Second lookup must be answered by the on-disk store");
+        assertEquals("base1-1", second.getFirst().getId());
+        PokemonCard details = cache.getCardDetails("base1-58");
+        PokemonCard cachedDetails = cache.getCardDetails("base1-58");
+        assertEquals(1, remote.detailCalls.get());
+        assertEquals(Integer.valueOf(60), cachedDetails.getHp());
+        assertEquals(details.getName(), cachedDetails.getName());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(2, cache.getStats().getMisses());
+    }
+
+    // Verifica che una voce scaduta venga restituita subito e riconvalidata in background
+    @Test
+    void staleEntry_isServedWhileRevalidating() throws InterruptedException {
+        CountingProvider remote = new CountingProvider();
+        AtomicLong now = new AtomicLong(0);
+        CachingCardProvider cache = new CachingCardProvider(remote, tempDir, now::get);
+        cache.searchSet("base1");
+
+        now.set((ApiConfig.SET_CARDS_TTL_SECONDS + 1) * 1000);
+        List<Card> stale = cache.searchSet("base1");
+        assertEquals("Card 1", stale.getFirst().getName(), "Stale value must be returned without waiting");
+        assertEquals(1, cache.getStats().getStaleHits());
+
+        // Si attende anche la scrittura su disco, altrimenti la pulizia di tempDir può incrociarla
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!"Card 2".equals(cache.searchSet("base1").getFirst().getName()) && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(2, remote.setCalls.get(), "A background revalidation should have been issued");
+        assertEquals("Card 2", cache.searchSet("base1").getFirst().getName(), "The revalidated value replaces the stale one");
+    }
+
+    // Verifica che con il provider irraggiungibile venga servita l'ultima copia, anche oltre la finestra di staleness
+    @Test
+    void providerFailure_fallsBackToExpiredEntry() {
+        CountingProvider remote = new CountingProvider();
+        AtomicLong now = new AtomicLong(0);
+        CachingCardProvider cache = new CachingCardProvider(remote, tempDir, now::get);
+        cache.searchSet("base1");
+
+        remote.offline.set(true);
+        now.set((ApiConfig.MAX_STALE_SECONDS + 1) * 1000);
+        assertEquals("base1-1", cache.searchSet("base1").getFirst().getId());
+        assertThrows(ConnectionException.class, () -> cache.searchSet("jungle"));
+        assertEquals(2, cache.getStats().getLoadFailures());
+    }
+}
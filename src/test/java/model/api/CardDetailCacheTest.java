@@ -0,0 +1,61 @@
+package model.api;
+
+import model.domain.Card;
+import model.domain.PokemonCard;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardDetailCacheTest {
+
+    private static PokemonCard card(String id) {
+        return new PokemonCard(id, "Card " + id, "img/" + id);
+    }
+
+    // Verifica che venga scartata la voce usata meno di recente quando si supera il numero massimo
+    @Test
+    void put_evictsLeastRecentlyUsedEntry() {
+        CardDetailCache cache = new CardDetailCache(2, Long.MAX_VALUE);
+        cache.put(card("a"));
+        cache.put(card("b"));
+        assertNotNull(cache.get("a"));
+
+        cache.put(card("c"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"), "b was the least recently used entry");
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    // Verifica che il limite di peso venga rispettato anche con poche voci
+    @Test
+    void put_respectsWeightBound() {
+        long oneCard = CardDetailCache.weigh(card("a"));
+        CardDetailCache cache = new CardDetailCache(100, oneCard * 2);
+        cache.put(card("a"));
+        cache.put(card("b"));
+        cache.put(card("c"));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.weight() <= oneCard * 2);
+    }
+
+    // Verifica che getOrLoad interroghi il provider una sola volta e conti hit e miss
+    @Test
+    void getOrLoad_loadsOnceAndTracksHitRate() {
+        CardDetailCache cache = new CardDetailCache(10, Long.MAX_VALUE);
+        AtomicInteger loads = new AtomicInteger();
+
+        Card first = cache.getOrLoad("base1-4", id -> { loads.incrementAndGet(); return card(id); });
+        Card second = cache.getOrLoad("base1-4", id -> { loads.incrementAndGet(); return card(id); });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(0.5, cache.getStats().getHitRate(), 1e-9);
+    }
+}
@@ -0,0 +1,106 @@
+package model.api;
+
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardHydratorTest {
+
+    // Provider lento che registra il numero massimo di richieste contemporanee
+    private static class SlowProvider implements ICardProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public List<Card> searchSet(String setId) {
+            return List.of();
+        }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) {
+            return List.of();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Card> T getCardDetails(String cardId) {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (cardId.startsWith("bad")) throw new ConnectionException("not found", null);
+            return (T) new Card(cardId, "Card " + cardId, "img", CardGameType.POKEMON);
+        }
+
+        @Override
+        public Map<String, String> getAllSets() {
+            return Map.of();
+        }
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) ids.add("sv1-" + i);
+        return ids;
+    }
+
+    @Test
+    void hydrate_respectsConcurrencyCapAndKeepsOrder() {
+        // Verifica che le richieste in volo non superino il limite e che il risultato segua l'ordine degli id
+        SlowProvider provider = new SlowProvider();
+        CardHydrator hydrator = new CardHydrator(provider, new CardDetailCache(), 4);
+        List<String> ids = ids(24);
+
+        List<Card> cards = hydrator.hydrate(ids, null).join();
+
+        assertEquals(ids, cards.stream().map(Card::getId).toList(), "Results must follow the requested order");
+        assertTrue(provider.maxInFlight.get() <= 4, "At most 4 requests in flight, got " + provider.maxInFlight.get());
+        assertTrue(provider.maxInFlight.get() > 1, "Requests should overlap");
+    }
+
+    @Test
+    void hydrate_streamsEachCardAndSkipsFailures() {
+        // Verifica che ogni dettaglio venga consegnato appena pronto e che una carta in errore non blocchi le altre
+        SlowProvider provider = new SlowProvider();
+        CardHydrator hydrator = new CardHydrator(provider, new CardDetailCache(), 8);
+        ConcurrentLinkedQueue<String> streamed = new ConcurrentLinkedQueue<>();
+
+        List<Card> cards = hydrator.hydrate(List.of("sv1-1", "bad-1", "sv1-2"), c -> streamed.add(c.getId())).join();
+
+        assertEquals(List.of("sv1-1", "sv1-2"), cards.stream().map(Card::getId).toList());
+        assertEquals(2, streamed.size(), "Only loaded cards are streamed");
+        assertTrue(streamed.containsAll(List.of("sv1-1", "sv1-2")));
+    }
+
+    @Test
+    void hydrate_cachedCardsSkipProviderAndDuplicatesCollapse() {
+        // Verifica che le carte già in cache e gli id ripetuti non producano richieste al provider
+        SlowProvider provider = new SlowProvider();
+        CardDetailCache cache = new CardDetailCache();
+        cache.put(new Card("sv1-0", "Cached", "img", CardGameType.POKEMON));
+        CardHydrator hydrator = new CardHydrator(provider, cache, 4);
+
+        List<Card> cards = hydrator.hydrateAll(List.of("sv1-0", "sv1-1", "sv1-1"));
+
+        assertEquals(2, cards.size());
+        assertEquals("Cached", cards.getFirst().getName(), "Cached detail must be reused");
+        assertEquals(1, provider.calls.get(), "Only the missing card hits the provider");
+        assertNotNull(cache.get("sv1-1"), "Hydrated details must land in the shared cache");
+    }
+}
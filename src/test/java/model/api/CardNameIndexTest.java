@@ -0,0 +1,82 @@
+package model.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNameIndexTest {
+
+    private static CardNameIndex sampleIndex() {
+        CardNameIndex index = new CardNameIndex();
+        index.put("sv1-1", "Pikachu");
+        index.put("sv1-2", "Pikachu ex");
+        index.put("sv1-3", "Charizard ex");
+        index.put("sv1-4", "Flabébé");
+        index.put("sv1-5", "Farfetch'd");
+        index.put("sv1-6", "Ho-Oh");
+        index.put("sv1-7", "Raichu");
+        return index;
+    }
+
+    @Test
+    void search_exactBeforePrefixAndShorterNamesFirst() {
+        // Verifica che il token esatto preceda i prefissi e che a parità vinca il nome più corto
+        CardNameIndex index = sampleIndex();
+        assertEquals(List.of("sv1-1", "sv1-2"), index.search("pikachu", 10), "Exact token matches sorted by name length");
+        assertEquals(List.of("sv1-1", "sv1-2"), index.search("pika", 10), "Prefix should find both Pikachu cards");
+    }
+
+    @Test
+    void search_everyTokenMustMatch() {
+        // Verifica che tutti i token della query debbano corrispondere alla stessa carta
+        CardNameIndex index = sampleIndex();
+        assertEquals(List.of("sv1-2", "sv1-3"), index.search("ex", 10));
+        assertEquals(List.of("sv1-3"), index.search("char e", 10), "Both tokens, the last as prefix");
+        assertTrue(index.search("raichu ex", 10).isEmpty(), "No card matches both tokens");
+    }
+
+    @Test
+    void search_normalizesAccentsApostrophesAndCompounds() {
+        // Verifica che accenti, apostrofi e nomi composti non impediscano la ricerca
+        CardNameIndex index = sampleIndex();
+        assertEquals(List.of("sv1-4"), index.search("flabebe", 10));
+        assertEquals(List.of("sv1-5"), index.search("farfetchd", 10));
+        assertEquals(List.of("sv1-6"), index.search("hooh", 10));
+        assertEquals(List.of("sv1-6"), index.search("HO OH", 10));
+    }
+
+    @Test
+    void search_typoFallsBackToFuzzyMatch() {
+        // Verifica che un errore di battitura trovi comunque la carta quando nessun token combacia esattamente
+        CardNameIndex index = sampleIndex();
+        assertEquals(List.of("sv1-3"), index.search("charzard", 10), "One missing letter");
+        assertEquals(List.of("sv1-7"), index.search("riachu", 10), "Swapped letters within the edit budget");
+        assertTrue(index.search("zzz", 10).isEmpty(), "Short tokens are never matched fuzzily");
+    }
+
+    @Test
+    void search_filterAndLimitApplied() {
+        // Verifica che il filtro escluda le carte non ammesse e che il limite tronchi i risultati
+        CardNameIndex index = sampleIndex();
+        assertEquals(List.of("sv1-2"), index.search("pikachu", 10, Set.of("sv1-2")::contains));
+        assertEquals(List.of("sv1-1"), index.search("pikachu", 1));
+        assertThrows(IllegalArgumentException.class, () -> index.search("pikachu", 0));
+    }
+
+    @Test
+    void put_renamedCard_replacesOldTokens() {
+        // Verifica che rinominare una carta tolga i token del vecchio nome e che remove la elimini del tutto
+        CardNameIndex index = sampleIndex();
+        index.put("sv1-7", "Alolan Raichu");
+        assertEquals(List.of("sv1-7"), index.search("alolan", 10));
+        index.put("sv1-7", "Pichu");
+        assertTrue(index.search("alolan", 10).isEmpty(), "Old tokens must be removed");
+        assertEquals("Pichu", index.nameOf("sv1-7"));
+        index.remove("sv1-7");
+        assertTrue(index.search("pichu", 10).isEmpty());
+        assertEquals(6, index.size());
+    }
+}
@@ -0,0 +1,151 @@
+package model.api;
+
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String card(String id, String name, int hp) {
+        return "{\"id\":\"" + id + "\",\"localId\":\"1\",\"name\":\"" + name + "\",\"image\":\"https://img/" + id + "\","
+                + "\"category\":\"Pokemon\",\"hp\":" + hp + ",\"types\":[\"Lightning\"],\"stage\":\"Basic\","
+                + "\"variants\":{\"normal\":true,\"reverse\":false},\"legal\":{\"standard\":true},"
+                + "\"attacks\":[{\"name\":\"Gnaw\",\"cost\":[\"Colorless\"],\"damage\":10}],"
+                + "\"weaknesses\":[{\"type\":\"Fighting\",\"value\":\"×2\"}],\"retreat\":1}";
+    }
+
+    private static String set(String id, String name, String... cards) {
+        return "{\"cards\":[" + String.join(",", cards) + "],\"id\":\"" + id + "\",\"name\":\"" + name + "\","
+                + "\"logo\":\"https://logo/" + id + "\",\"cardCount\":{\"official\":" + cards.length + ",\"total\":" + cards.length + "}}";
+    }
+
+    private Path dump(String name, String... sets) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, "{\"version\":1,\"sets\":[" + String.join(",", sets) + "]}", StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Path importFull(Path snapshot) throws IOException {
+        new CatalogImporter().importDump(dump("full.json",
+                set("sv1", "Scarlet & Violet", card("sv1-2", "Pikachu", 60), card("sv1-1", "Raichu", 120)),
+                set("sv2", "Paldea Evolved", card("sv2-1", "Pichu", 30))), snapshot, false);
+        return snapshot;
+    }
+
+    @Test
+    void importDump_cardsAndSetsReadBackFromMappedFile() throws IOException {
+        // Verifica che set, carte ridotte e dettagli completi si rileggano dal file mappato, con i dati del set ricostruiti
+        CatalogSnapshot snapshot = CatalogSnapshot.open(importFull(tempDir.resolve("catalog.snapshot")));
+
+        assertEquals(Map.of("sv1", "Scarlet & Violet", "sv2", "Paldea Evolved"), snapshot.getSets());
+        assertEquals(3, snapshot.getCardCount());
+        assertEquals(List.of("sv1-2", "sv1-1"), snapshot.getSetCards("sv1").stream().map(Card::getId).toList(),
+                "Set cards keep the dump order");
+
+        PokemonCard raichu = snapshot.getCard("sv1-1");
+        assertEquals("Raichu", raichu.getName());
+        assertEquals("https://img/sv1-1/high.png", raichu.getImageUrl());
+        assertEquals(Integer.valueOf(120), raichu.getHp());
+        assertEquals("Scarlet & Violet", raichu.getSetName(), "Set fields come from the set table");
+        assertEquals(Integer.valueOf(2), raichu.getSetCardCountTotal());
+        assertEquals(Boolean.TRUE, raichu.getVariantNormal());
+        assertEquals(Boolean.FALSE, raichu.getVariantReverse());
+        assertNull(raichu.getVariantHolo(), "Missing variants stay null");
+        assertEquals("10", raichu.getAttacks().getFirst().getDamage());
+        assertEquals(List.of("Colorless"), raichu.getAttacks().getFirst().getCost());
+        assertEquals("Fighting", raichu.getWeaknesses().getFirst().getType());
+        assertNull(snapshot.getCard("sv9-1"), "Unknown card ids are not found");
+        assertEquals(List.of("sv1-1", "sv1-2", "sv2-1"), snapshot.searchByName("CHU").stream().map(Card::getId).toList(),
+                "Name search is case-insensitive and follows the id index");
+    }
+
+    @Test
+    void importDump_incrementalAppliesOnlyChangedSets() throws IOException {
+        // Verifica che l'aggiornamento incrementale riscriva solo i set cambiati e conservi quelli assenti dal dump
+        Path file = importFull(tempDir.resolve("catalog.snapshot"));
+
+        CatalogImporter.Result same = new CatalogImporter().importDump(dump("same.json",
+                set("sv2", "Paldea Evolved", card("sv2-1", "Pichu", 30))), file, true);
+        assertFalse(same.isRewritten(), "Unchanged sets must not rewrite the snapshot");
+        assertEquals(1, same.getSetsUnchanged());
+
+        CatalogImporter.Result update = new CatalogImporter().importDump(dump("update.json",
+                set("sv2", "Paldea Evolved", card("sv2-1", "Pichu", 40), card("sv2-2", "Pachirisu", 70))), file, true);
+        assertEquals(1, update.getSetsChanged());
+        assertEquals(4, update.getCardCount());
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        assertEquals(Integer.valueOf(40), snapshot.getCard("sv2-1").getHp(), "Changed set is re-encoded");
+        assertEquals("Raichu", snapshot.getCard("sv1-1").getName(), "Sets missing from the dump are kept");
+    }
+
+    @Test
+    void importDump_fullImportDropsMissingSets() throws IOException {
+        // Verifica che un import completo rimuova i set non più presenti nel dump
+        Path file = importFull(tempDir.resolve("catalog.snapshot"));
+
+        CatalogImporter.Result result = new CatalogImporter().importDump(dump("only-sv2.json",
+                set("sv2", "Paldea Evolved", card("sv2-1", "Pichu", 30))), file, false);
+
+        assertEquals(1, result.getSetsRemoved());
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        assertFalse(snapshot.containsSet("sv1"));
+        assertNull(snapshot.getCard("sv1-1"));
+    }
+
+    @Test
+    void open_truncatedOrCorruptFileFailsWithIOException() throws IOException {
+        // Verifica che un catalogo troncato o con offset corrotti venga rifiutato all'apertura con IOException
+        byte[] bytes = Files.readAllBytes(importFull(tempDir.resolve("catalog.snapshot")));
+        Path truncated = tempDir.resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 7));
+        Path corrupt = tempDir.resolve("corrupt.snapshot");
+        byte[] badOffset = bytes.clone();
+        ByteBuffer.wrap(badOffset).putLong(14, Long.MAX_VALUE / 2);
+        Files.write(corrupt, badOffset);
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(truncated));
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(corrupt));
+    }
+
+    @Test
+    void snapshotProvider_servesCatalogAndFallsBackForUnknownSets() throws IOException {
+        // Verifica che il provider risponda dal catalogo senza rete e chieda al fallback solo ciò che manca
+        CatalogSnapshot snapshot = CatalogSnapshot.open(importFull(tempDir.resolve("catalog.snapshot")));
+        ICardProvider unreachable = new ICardProvider() {
+            @Override
+            public List<Card> searchSet(String setId) { throw new ConnectionException("offline " + setId, null); }
+            @Override
+            public List<Card> searchCardsByName(String cardName) { throw new ConnectionException("offline", null); }
+            @Override
+            public <T extends Card> T getCardDetails(String cardId) { throw new ConnectionException("offline", null); }
+            @Override
+            public Map<String, String> getAllSets() { throw new ConnectionException("offline", null); }
+        };
+
+        SnapshotCardProvider withFallback = new SnapshotCardProvider(snapshot, unreachable);
+        assertEquals(2, withFallback.searchSet("sv1").size());
+        assertEquals("Pichu", withFallback.<PokemonCard>getCardDetails("sv2-1").getName());
+        assertThrows(ConnectionException.class, () -> withFallback.searchSet("sv9"), "Unknown sets go to the fallback");
+
+        SnapshotCardProvider offline = new SnapshotCardProvider(snapshot, null);
+        assertTrue(offline.searchSet("sv9").isEmpty());
+        assertNull(offline.getCardDetails("sv9-1"));
+    }
+}
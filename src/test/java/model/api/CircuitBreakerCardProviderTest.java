@@ -0,0 +1,101 @@
+package model.api;
+
+import config.CircuitBreaker;
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerCardProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Provider che si può spegnere e che conta le richieste arrivate in rete
+    private static class FlakyProvider implements ICardProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean offline = new AtomicBoolean();
+
+        @Override
+        public List<Card> searchSet(String setId) {
+            calls.incrementAndGet();
+            if (offline.get()) throw new ConnectionException("unreachable", null);
+            return List.of(new Card(setId + "-1", "Card", "img", CardGameType.POKEMON));
+        }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) { return List.of(); }
+
+        @Override
+        public <T extends Card> T getCardDetails(String cardId) {
+            calls.incrementAndGet();
+            if (offline.get()) throw new ConnectionException("unreachable", null);
+            return null;
+        }
+
+        @Override
+        public Map<String, String> getAllSets() { return Map.of(); }
+    }
+
+    @Test
+    void openCircuit_failsFastWithoutReachingProvider() {
+        // Verifica che dopo la soglia di errori le richieste non raggiungano più la rete e che lo stato diventi DEGRADED
+        FlakyProvider remote = new FlakyProvider();
+        remote.offline.set(true);
+        CircuitBreakerCardProvider provider = new CircuitBreakerCardProvider(remote, new CircuitBreaker(2, 60_000), 10_000);
+        List<ProviderHealth> notified = new ArrayList<>();
+        provider.setHealthListener("test", notified::add);
+
+        for (int i = 0; i < 5; i++) {
+            String id = "sv1-" + i;
+            assertThrows(ConnectionException.class, () -> provider.getCardDetails(id));
+        }
+
+        assertEquals(2, remote.calls.get(), "Only the calls before the circuit opened reach the provider");
+        assertEquals(ProviderHealth.DEGRADED, provider.getHealth());
+        assertEquals(List.of(ProviderHealth.DEGRADED), notified);
+    }
+
+    @Test
+    void unexpectedError_countsAsFailure() {
+        // Verifica che anche un errore diverso da ConnectionException venga registrato dal circuit breaker
+        ICardProvider broken = new FlakyProvider() {
+            @Override
+            public <T extends Card> T getCardDetails(String cardId) {
+                throw new IllegalStateException("malformed response");
+            }
+        };
+        CircuitBreakerCardProvider provider = new CircuitBreakerCardProvider(broken, new CircuitBreaker(1, 60_000), 10_000);
+
+        assertThrows(IllegalStateException.class, () -> provider.getCardDetails("sv1-1"));
+
+        assertEquals(ProviderHealth.DEGRADED, provider.getHealth(), "The failed call must be recorded and open the circuit");
+        assertThrows(ConnectionException.class, () -> provider.getCardDetails("sv1-2"));
+    }
+
+    @Test
+    void degradedMode_servesCachedCardsFromDisk() {
+        // Verifica che con il circuito aperto il CachingCardProvider serva le copie su disco anche scadute
+        FlakyProvider remote = new FlakyProvider();
+        CircuitBreakerCardProvider guarded = new CircuitBreakerCardProvider(remote, new CircuitBreaker(1, 60_000), 10_000);
+        new CachingCardProvider(guarded, tempDir, () -> 0L).searchSet("sv1");
+
+        remote.offline.set(true);
+        assertThrows(ConnectionException.class, () -> guarded.searchSet("sv2"));
+        long expired = 365L * 24 * 60 * 60 * 1000;
+        List<Card> cards = new CachingCardProvider(guarded, tempDir, () -> expired).searchSet("sv1");
+
+        assertEquals("sv1-1", cards.getFirst().getId(), "Cached set must be served while offline");
+        assertEquals(2, remote.calls.get(), "The cached lookup must not reach the provider");
+    }
+}
@@ -0,0 +1,153 @@
+package model.api;
+
+import exception.ConnectionException;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCardProviderTest {
+
+    private static final int CALLERS = 8;
+
+    // Provider che resta bloccato finché il test non lo rilascia, così tutte le chiamate si sovrappongono
+    private static class GatedProvider implements ICardProvider {
+        final AtomicInteger setCalls = new AtomicInteger();
+        final AtomicInteger detailCalls = new AtomicInteger();
+        final AtomicInteger catalogCalls = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean offline;
+
+        private void block() {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (offline) throw new ConnectionException("offline", null);
+        }
+
+        @Override
+        public List<Card> searchSet(String setId) {
+            setCalls.incrementAndGet();
+            block();
+            return new ArrayList<>(List.of(new Card(setId + "-1", "Card", "img", CardGameType.POKEMON)));
+        }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) { return List.of(); }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Card> T getCardDetails(String cardId) {
+            detailCalls.incrementAndGet();
+            block();
+            return (T) new PokemonCard(cardId, "Pikachu", "img");
+        }
+
+        @Override
+        public Map<String, String> getAllSets() {
+            catalogCalls.incrementAndGet();
+            block();
+            return Map.of("base1", "Base Set");
+        }
+    }
+
+    private static <T> List<Future<T>> submitAll(ExecutorService pool, Callable<T> call) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) futures.add(pool.submit(call));
+        return futures;
+    }
+
+    private static void awaitWaiters(CoalescingCardProvider provider, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (provider.getCoalescedCalls() < expected && System.currentTimeMillis() < deadline) Thread.sleep(5);
+    }
+
+    // Verifica che chiamate concorrenti per la stessa carta producano una sola richiesta al provider
+    @Test
+    void getCardDetails_concurrentCallsShareOneLoad() throws Exception {
+        GatedProvider remote = new GatedProvider();
+        CoalescingCardProvider provider = new CoalescingCardProvider(remote);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<PokemonCard>> futures = submitAll(pool, () -> provider.getCardDetails("base1-58"));
+            assertTrue(remote.entered.await(2, TimeUnit.SECONDS));
+            awaitWaiters(provider, CALLERS - 1);
+            remote.release.countDown();
+
+            PokemonCard first = futures.getFirst().get(2, TimeUnit.SECONDS);
+            for (Future<PokemonCard> f : futures) assertSame(first, f.get(2, TimeUnit.SECONDS));
+            assertEquals(1, remote.detailCalls.get());
+            assertEquals(CALLERS - 1, provider.getCoalescedCalls());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Verifica che i chiamanti di searchSet e getAllSets ricevano copie indipendenti dello stesso risultato
+    @Test
+    void searchSetAndCatalog_returnIndependentCopies() throws Exception {
+        GatedProvider remote = new GatedProvider();
+        CoalescingCardProvider provider = new CoalescingCardProvider(remote);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<List<Card>>> sets = submitAll(pool, () -> provider.searchSet("base1"));
+            assertTrue(remote.entered.await(2, TimeUnit.SECONDS));
+            awaitWaiters(provider, CALLERS - 1);
+            remote.release.countDown();
+
+            List<Card> first = sets.getFirst().get(2, TimeUnit.SECONDS);
+            first.clear();
+            for (Future<List<Card>> f : sets.subList(1, CALLERS)) assertEquals(1, f.get(2, TimeUnit.SECONDS).size());
+            assertEquals(1, remote.setCalls.get());
+
+            Map<String, String> catalog = provider.getAllSets();
+            catalog.put("jungle", "Jungle");
+            assertEquals(1, provider.getAllSets().size(), "Mutating a returned map must not leak to later callers");
+            assertEquals(2, remote.catalogCalls.get(), "Completed flights are not cached");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Verifica che l'errore del provider arrivi a tutti i chiamanti in attesa come ConnectionException
+    @Test
+    void providerFailure_isPropagatedToEveryWaiter() throws Exception {
+        GatedProvider remote = new GatedProvider();
+        remote.offline = true;
+        CoalescingCardProvider provider = new CoalescingCardProvider(remote);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Map<String, String>>> futures = submitAll(pool, provider::getAllSets);
+            assertTrue(remote.entered.await(2, TimeUnit.SECONDS));
+            awaitWaiters(provider, CALLERS - 1);
+            remote.release.countDown();
+
+            for (Future<Map<String, String>> f : futures) {
+                ExecutionException ex = assertThrows(ExecutionException.class,
+                        () -> f.get(2, TimeUnit.SECONDS));
+                assertTrue(ex.getCause() instanceof ConnectionException, "Waiters must see the original exception");
+            }
+            assertEquals(1, remote.catalogCalls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package model.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exception.ConnectionException;
+import model.domain.Attack;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCardProviderTest {
+
+    private static final String SET_JSON = "{\"id\":\"sv1\",\"name\":\"Scarlet & Violet\",\"cardCount\":{\"total\":2},"
+            + "\"cards\":[{\"id\":\"sv1-1\",\"localId\":\"1\",\"name\":\"Pineco\",\"image\":\"https://img/sv1/1\"},"
+            + "{\"id\":\"sv1-2\",\"localId\":\"2\",\"name\":\"Forretress\"}]}";
+
+    private static final String CARD_JSON = "{\"category\":\"Pokemon\",\"id\":\"sv1-25\",\"localId\":\"25\",\"name\":\"Pikachu\","
+            + "\"image\":\"https://img/sv1/25\",\"rarity\":\"Common\",\"hp\":60,\"types\":[\"Lightning\"],"
+            + "\"set\":{\"id\":\"sv1\",\"name\":\"Scarlet & Violet\",\"cardCount\":{\"official\":198,\"total\":258}},"
+            + "\"variants\":{\"normal\":true,\"holo\":false},"
+            + "\"attacks\":[{\"cost\":[\"Lightning\"],\"name\":\"Thunder Jolt\",\"damage\":30,\"effect\":null}],"
+            + "\"weaknesses\":[{\"type\":\"Fighting\",\"value\":\"×2\"}],\"retreat\":1,\"legal\":{\"standard\":true,\"expanded\":true}}";
+
+    private HttpServer server;
+    private URI baseUri;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v2/en/");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpCardProvider provider(Duration requestTimeout, int maxRetries) {
+        return new HttpCardProvider(baseUri, Duration.ofSeconds(2), requestTimeout, maxRetries, 5, 20);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, boolean gzip) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (gzip) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(bytes);
+            }
+            bytes = buffer.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void searchSet_decodesGzipAndParsesCards() {
+        // Verifica che una risposta gzip venga decompressa e che le carte del set vengano lette dal flusso JSON
+        server.createContext("/v2/en/sets/sv1", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            respond(exchange, 200, SET_JSON, acceptEncoding != null && acceptEncoding.contains("gzip"));
+        });
+
+        List<Card> cards = provider(Duration.ofSeconds(2), 0).searchSet("sv1");
+
+        assertEquals(List.of("sv1-1", "sv1-2"), cards.stream().map(Card::getId).toList());
+        assertEquals("Pineco", cards.getFirst().getName());
+        assertEquals("https://img/sv1/1/high.png", cards.getFirst().getImageUrl(), "Image URL must point to the high-res PNG");
+        assertNull(cards.get(1).getImageUrl(), "Missing images stay null");
+    }
+
+    @Test
+    void getCardDetails_mapsFullPokemonCard() {
+        // Verifica che il dettaglio venga mappato sugli stessi campi del provider SDK, compresi attacchi e debolezze
+        server.createContext("/v2/en/cards/sv1-25", exchange -> respond(exchange, 200, CARD_JSON, false));
+
+        PokemonCard card = provider(Duration.ofSeconds(2), 0).getCardDetails("sv1-25");
+
+        assertEquals("Pikachu", card.getName());
+        assertEquals(Integer.valueOf(60), card.getHp());
+        assertEquals(List.of("Lightning"), card.getTypes());
+        assertEquals("sv1", card.getSetId());
+        assertEquals(Integer.valueOf(258), card.getSetCardCountTotal());
+        assertEquals(Boolean.TRUE, card.getVariantNormal());
+        assertEquals(Integer.valueOf(1), card.getRetreat());
+        Attack attack = card.getAttacks().getFirst();
+        assertEquals("Thunder Jolt", attack.getName());
+        assertEquals("30", attack.getDamage(), "Numeric damage must be read as text");
+        assertEquals("", attack.getEffect(), "Null effect becomes empty");
+        assertEquals("Fighting", card.getWeaknesses().getFirst().getType());
+        assertEquals(Boolean.TRUE, card.getLegalStandard());
+    }
+
+    @Test
+    void getCardDetails_notFoundReturnsNull() {
+        // Verifica che un 404 non sia un errore di rete e non venga ripetuto
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext("/v2/en/cards/", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 404, "", false);
+        });
+
+        assertNull(provider(Duration.ofSeconds(2), 3).getCardDetails("missing-1"));
+        assertEquals(1, hits.get(), "A 404 must not be retried");
+    }
+
+    @Test
+    void getAllSets_retriesServerErrorsThenSucceeds() {
+        // Verifica che 503 e 429 vengano ripetuti con backoff fino alla risposta valida
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext("/v2/en/sets", exchange -> {
+            int attempt = hits.incrementAndGet();
+            if (attempt == 1) respond(exchange, 503, "", false);
+            else if (attempt == 2) respond(exchange, 429, "", false);
+            else respond(exchange, 200, "[{\"id\":\"sv1\",\"name\":\"Scarlet & Violet\"},{\"id\":\"sv2\",\"name\":\"Paldea Evolved\"}]", true);
+        });
+
+        Map<String, String> sets = provider(Duration.ofSeconds(2), 3).getAllSets();
+
+        assertEquals(3, hits.get(), "Two failures then one success");
+        assertEquals("Paldea Evolved", sets.get("sv2"));
+    }
+
+    @Test
+    void searchCardsByName_timeoutFailsAfterRetries() {
+        // Verifica che un server che non risponde entro il timeout produca una ConnectionException dopo i tentativi previsti
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext("/v2/en/cards", exchange -> {
+            hits.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "[]", false);
+        });
+
+        CompletableFuture<List<Card>> future = provider(Duration.ofMillis(100), 1).searchCardsByNameAsync("pika");
+
+        CompletionException error = assertThrows(CompletionException.class, future::join);
+        assertTrue(error.getCause() instanceof ConnectionException, "Async failures surface as ConnectionException");
+        assertEquals(2, hits.get(), "Initial attempt plus one retry");
+        assertThrows(ConnectionException.class, () -> provider(Duration.ofMillis(100), 0).searchCardsByName("pika"));
+    }
+}
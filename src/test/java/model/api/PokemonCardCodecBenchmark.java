@@ -0,0 +1,136 @@
+package model.api;
+
+import com.google.gson.Gson;
+import model.domain.Attack;
+import model.domain.PokemonCard;
+import model.domain.Weakness;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/* Benchmark manuale del dettaglio carta: memoria occupata da N carte con attacchi e debolezze come mappe
+ * (rappresentazione precedente), come record tipizzati e come byte[] di PokemonCardCodec, e tempo di
+ * decodifica dal JSON delle mappe rispetto al codec binario.
+ * Uso: java ... model.api.PokemonCardCodecBenchmark [carte] [ripetizioni] */
+public class PokemonCardCodecBenchmark {
+
+    // Forma del dettaglio prima dei record tipizzati, per confronto
+    static final class LegacyCard {
+        String id;
+        String name;
+        String imageUrl;
+        String setId;
+        Integer hp;
+        List<String> types;
+        Boolean variantFirstEdition;
+        Boolean variantHolo;
+        Boolean variantNormal;
+        Boolean variantReverse;
+        Boolean variantWPromo;
+        List<Map<String, Object>> attacks;
+        List<Map<String, String>> weaknesses;
+        Integer retreat;
+    }
+
+    public static void main(String[] args) {
+        int cards = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("cards=%d%n", cards);
+        long legacyBytes = footprint(cards, PokemonCardCodecBenchmark::legacyCard);
+        long typedBytes = footprint(cards, PokemonCardCodecBenchmark::typedCard);
+        long encodedBytes = footprint(cards, i -> PokemonCardCodec.encode(typedCard(i)));
+        System.out.printf("%-8s heap=%6.1f MB (%d B/card)%n", "maps", legacyBytes / 1e6, legacyBytes / cards);
+        System.out.printf("%-8s heap=%6.1f MB (%d B/card)%n", "typed", typedBytes / 1e6, typedBytes / cards);
+        System.out.printf("%-8s heap=%6.1f MB (%d B/card)%n", "encoded", encodedBytes / 1e6, encodedBytes / cards);
+
+        Gson gson = new Gson();
+        List<String> json = new ArrayList<>(cards);
+        List<byte[]> binary = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            json.add(gson.toJson(legacyCard(i)));
+            binary.add(PokemonCardCodec.encode(typedCard(i)));
+        }
+        report("json", rounds, cards, () -> {
+            for (String s : json) gson.fromJson(s, LegacyCard.class);
+        });
+        report("codec", rounds, cards, () -> {
+            for (byte[] b : binary) PokemonCardCodec.decode(b);
+        });
+    }
+
+    private static long footprint(int cards, IntFunction<Object> factory) {
+        long before = usedMemory();
+        Object[] retained = new Object[cards];
+        for (int i = 0; i < cards; i++) retained[i] = factory.apply(i);
+        long used = usedMemory() - before - (16L + 4L * cards);
+        if (retained[cards - 1] == null) throw new IllegalStateException("Nothing retained");
+        return used;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String label, int rounds, int cards, Runnable decodeAll) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            decodeAll.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-8s decode best=%.1f ms (%.2f us/card)%n", label, best / 1e6, best / 1e3 / cards);
+    }
+
+    private static LegacyCard legacyCard(int i) {
+        LegacyCard card = new LegacyCard();
+        card.id = "sv1-" + i;
+        card.name = "Pikachu " + i;
+        card.imageUrl = "https://assets.tcgdex.net/en/sv/sv1/" + i + "/high.png";
+        card.setId = "sv1";
+        card.hp = 60 + i % 10 * 10;
+        card.types = List.of("Lightning");
+        card.variantNormal = true;
+        card.variantReverse = i % 2 == 0;
+        card.variantHolo = false;
+        card.attacks = new ArrayList<>();
+        for (int a = 0; a < 2; a++) {
+            Map<String, Object> attack = new HashMap<>();
+            attack.put("name", "Attack " + a + "-" + i);
+            attack.put("cost", List.of("Lightning", "Colorless"));
+            attack.put("damage", String.valueOf(10 * (a + 1)));
+            attack.put("effect", "Flip a coin. If heads, the Defending Pokemon is now Paralyzed.");
+            card.attacks.add(attack);
+        }
+        Map<String, String> weakness = new HashMap<>();
+        weakness.put("type", "Fighting");
+        weakness.put("value", "×2");
+        card.weaknesses = new ArrayList<>(List.of(weakness));
+        card.retreat = 1;
+        return card;
+    }
+
+    private static PokemonCard typedCard(int i) {
+        PokemonCard card = new PokemonCard("sv1-" + i, "Pikachu " + i, "https://assets.tcgdex.net/en/sv/sv1/" + i + "/high.png");
+        card.setSetId("sv1");
+        card.setHp(60 + i % 10 * 10);
+        card.setTypes(List.of("Lightning"));
+        card.setVariantNormal(true);
+        card.setVariantReverse(i % 2 == 0);
+        card.setVariantHolo(false);
+        List<Attack> attacks = new ArrayList<>();
+        for (int a = 0; a < 2; a++) {
+            attacks.add(new Attack("Attack " + a + "-" + i, List.of("Lightning", "Colorless"), String.valueOf(10 * (a + 1)),
+                    "Flip a coin. If heads, the Defending Pokemon is now Paralyzed."));
+        }
+        card.setAttacks(attacks);
+        card.setWeaknesses(new ArrayList<>(List.of(new Weakness("Fighting", "×2"))));
+        card.setRetreat(1);
+        return card;
+    }
+}
@@ -0,0 +1,91 @@
+package model.api;
+
+import model.domain.Attack;
+import model.domain.PokemonCard;
+import model.domain.Weakness;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PokemonCardCodecTest {
+
+    private static PokemonCard pikachu() {
+        PokemonCard card = new PokemonCard("sv1-25", "Pikachu", "https://img/sv1/25/high.png");
+        card.setSetId("sv1");
+        card.setSetName("Scarlet & Violet");
+        card.setSetCardCountOfficial(198);
+        card.setSetCardCountTotal(258);
+        card.setCategory("Pokemon");
+        card.setRarity("Common");
+        card.setHp(60);
+        card.setTypes(List.of("Lightning"));
+        card.setVariantNormal(true);
+        card.setVariantHolo(false);
+        card.setLegalStandard(true);
+        card.setAttacks(List.of(new Attack("Thunder Jolt", List.of("Lightning", "Colorless"), "30", "")));
+        card.setWeaknesses(List.of(new Weakness("Fighting", "×2")));
+        card.setRetreat(1);
+        return card;
+    }
+
+    @Test
+    void decode_roundTripsAllFields() {
+        // Verifica che la decodifica restituisca gli stessi campi, varianti e legalità comprese
+        PokemonCard decoded = PokemonCardCodec.decode(PokemonCardCodec.encode(pikachu()));
+
+        assertEquals("Pikachu", decoded.getName());
+        assertEquals("https://img/sv1/25/high.png", decoded.getImageUrl());
+        assertEquals("Scarlet & Violet", decoded.getSetName(), "Standalone encoding keeps the set metadata");
+        assertEquals(Integer.valueOf(258), decoded.getSetCardCountTotal());
+        assertEquals(Integer.valueOf(60), decoded.getHp());
+        assertEquals(List.of("Lightning"), decoded.getTypes());
+        assertEquals(Boolean.TRUE, decoded.getVariantNormal());
+        assertEquals(Boolean.FALSE, decoded.getVariantHolo());
+        assertNull(decoded.getVariantReverse(), "Unknown variants stay null");
+        assertEquals(Boolean.TRUE, decoded.getLegalStandard());
+        assertNull(decoded.getLegalExpanded());
+        assertEquals(pikachu().getAttacks(), decoded.getAttacks());
+        assertEquals(pikachu().getWeaknesses(), decoded.getWeaknesses());
+        assertEquals(Integer.valueOf(1), decoded.getRetreat());
+    }
+
+    @Test
+    void decode_keepsNullAndEmptyListsApart() {
+        // Verifica che una lista assente resti null e una lista vuota resti vuota
+        PokemonCard card = new PokemonCard("sv1-1", "Pineco", null);
+        card.setAttacks(List.of());
+
+        PokemonCard decoded = PokemonCardCodec.decode(PokemonCardCodec.encode(card));
+
+        assertNull(decoded.getImageUrl());
+        assertNull(decoded.getHp());
+        assertNull(decoded.getWeaknesses(), "Missing weaknesses stay null");
+        assertEquals(List.of(), decoded.getAttacks(), "Empty attacks stay empty");
+    }
+
+    @Test
+    void decode_rejectsUnknownVersionAndTruncatedData() {
+        // Verifica che una versione sconosciuta o un payload troncato producano IllegalArgumentException
+        byte[] encoded = PokemonCardCodec.encode(pikachu());
+        byte[] future = encoded.clone();
+        future[0] = (byte) (PokemonCardCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> PokemonCardCodec.decode(future));
+        assertThrows(IllegalArgumentException.class,
+                () -> PokemonCardCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+    }
+
+    @Test
+    void decode_rejectsCorruptLengthsBeforeAllocating() {
+        // Verifica che una lunghezza enorme o negativa letta dal disco venga rifiutata senza allocare il buffer
+        byte[] hugeString = { (byte) PokemonCardCodec.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+        byte[] negativeLength = { (byte) PokemonCardCodec.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 };
+
+        assertThrows(IllegalArgumentException.class, () -> PokemonCardCodec.decode(hugeString));
+        assertThrows(IllegalArgumentException.class, () -> PokemonCardCodec.decode(negativeLength));
+    }
+}
@@ -0,0 +1,61 @@
+package model.api;
+
+import config.HostRateLimiter;
+import model.domain.Card;
+import model.domain.PokemonCard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedCardProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static class CountingProvider implements ICardProvider {
+        final AtomicInteger detailCalls = new AtomicInteger();
+
+        @Override
+        public List<Card> searchSet(String setId) { return List.of(); }
+
+        @Override
+        public List<Card> searchCardsByName(String cardName) { return List.of(); }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Card> T getCardDetails(String cardId) {
+            detailCalls.incrementAndGet();
+            return (T) new PokemonCard(cardId, "Pikachu", "img");
+        }
+
+        @Override
+        public Map<String, String> getAllSets() { return Map.of(); }
+    }
+
+    // Verifica che le richieste alla rete attendano il proprio slot mentre le risposte dalla cache su disco no
+    @Test
+    void onlyNetworkRequestsWaitForPermits() {
+        CountingProvider remote = new CountingProvider();
+        // Un permesso al secondo senza burst: ogni richiesta alla rete oltre la prima attende circa 1 s
+        HostRateLimiter limiter = new HostRateLimiter(1, 1);
+        CachingCardProvider cache = new CachingCardProvider(new RateLimitedCardProvider(remote, limiter), tempDir, () -> 1_000L);
+        cache.getCardDetails("sv1-25");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) cache.getCardDetails("sv1-25");
+        long cachedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        cache.getCardDetails("sv1-26");
+        long networkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) - cachedMillis;
+
+        assertEquals(2, remote.detailCalls.get());
+        assertTrue(cachedMillis < 500, "Disk cache hits must not be throttled, took " + cachedMillis + " ms");
+        assertTrue(networkMillis >= 500, "A network request past the burst must wait, took " + networkMillis + " ms");
+    }
+}
@@ -0,0 +1,61 @@
+package model.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    // Verifica che l'ordine metta prima le date più recenti, a parità di data l'id maggiore e in fondo le date mancanti
+    @Test
+    void compareTo_newestFirstWithMissingDatesLast() {
+        List<HistoryCursor> cursors = new ArrayList<>(List.of(
+                new HistoryCursor(null, 9),
+                new HistoryCursor(DAY, 1),
+                new HistoryCursor(null, 2),
+                new HistoryCursor(DAY.plusDays(1), 3),
+                new HistoryCursor(DAY, 7)));
+        cursors.sort(null);
+
+        assertEquals(List.of(
+                new HistoryCursor(DAY.plusDays(1), 3),
+                new HistoryCursor(DAY, 7),
+                new HistoryCursor(DAY, 1),
+                new HistoryCursor(null, 9),
+                new HistoryCursor(null, 2)), cursors);
+    }
+
+    // Verifica che la selezione da candidati non ordinati restituisca pagine consecutive fino all'ultima
+    @Test
+    void select_pagesThroughUnorderedCandidates() {
+        List<HistoryCursor> candidates = new ArrayList<>();
+        for (int id = 1; id <= 7; id++) candidates.add(new HistoryCursor(id % 3 == 0 ? null : DAY.plusHours(id % 4), id));
+
+        List<HistoryCursor> walked = new ArrayList<>();
+        HistoryCursor after = null;
+        int pages = 0;
+        do {
+            Page<HistoryCursor> page = Page.select(candidates, after, 3, c -> c);
+            walked.addAll(page.getItems());
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        List<HistoryCursor> expected = new ArrayList<>(candidates);
+        expected.sort(null);
+        assertEquals(expected, walked, "Pages must cover every candidate once, in history order");
+        assertEquals(3, pages);
+    }
+
+    // Verifica che un limite non positivo venga rifiutato
+    @Test
+    void select_rejectsNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> Page.select(List.of(), null, 0, (HistoryCursor c) -> c));
+    }
+}
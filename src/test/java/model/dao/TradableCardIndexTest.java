@@ -0,0 +1,106 @@
+package model.dao;
+
+import model.bean.CardBean;
+import model.dao.demo.DemoBinderDao;
+import model.domain.Binder;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradableCardIndexTest {
+
+    private static CardBean card(String id, int quantity, boolean tradable) {
+        CardBean cb = new CardBean(id, "Card " + id, "img/" + id, CardGameType.POKEMON);
+        cb.setQuantity(quantity);
+        cb.setTradable(tradable);
+        return cb;
+    }
+
+    private static Binder binder(String owner, String setId, CardBean... cards) {
+        Binder b = new Binder(owner, setId, "Set " + setId);
+        b.setCards(List.of(cards));
+        return b;
+    }
+
+    // Verifica che l'indice esponga solo le carte scambiabili degli altri utenti, per set e per carta
+    @Test
+    void listings_containOnlyTradableCardsOfOtherOwners() {
+        DemoBinderDao dao = new DemoBinderDao();
+        dao.save(binder("alice", "base1", card("base1-1", 2, true), card("base1-2", 1, false)));
+        dao.save(binder("bob", "base1", card("base1-1", 3, true)));
+        dao.save(binder("bob", "jungle", card("jungle-5", 1, true)));
+
+        List<TradableCardIndex.Listing> forAlice = dao.getTradableListings(null, "alice");
+        assertEquals(2, forAlice.size());
+        assertTrue(forAlice.stream().allMatch(l -> "bob".equals(l.getOwner())));
+
+        List<TradableCardIndex.Listing> base1 = dao.getTradableListings("base1", "carol");
+        assertEquals(1, base1.size(), "Non tradable base1-2 must not be listed");
+        assertEquals("base1-1", base1.getFirst().getCard().getId());
+
+        List<TradableCardIndex.Listing> owners = dao.getTradableOwners("base1-1", null);
+        assertEquals(2, owners.size());
+        assertEquals(5, owners.stream().mapToInt(TradableCardIndex.Listing::getQuantity).sum());
+    }
+
+    // Verifica che update e delete del binder aggiornino l'indice in modo incrementale
+    @Test
+    void index_followsBinderUpdateAndDelete() {
+        DemoBinderDao dao = new DemoBinderDao();
+        Binder b = binder("alice", "base1", card("base1-1", 1, true));
+        dao.save(b);
+        assertEquals(1, dao.getTradableListings("base1", "bob").size());
+
+        b.setCards(List.of(card("base1-1", 1, false), card("base1-7", 4, true)));
+        dao.update(b, new String[0]);
+        List<TradableCardIndex.Listing> listings = dao.getTradableListings("base1", "bob");
+        assertEquals(1, listings.size());
+        assertEquals("base1-7", listings.getFirst().getCard().getId());
+        assertEquals(4, listings.getFirst().getQuantity());
+
+        dao.delete(b);
+        assertTrue(dao.getTradableListings(null, "bob").isEmpty());
+        assertTrue(dao.getTradableOwners("base1-7", null).isEmpty());
+    }
+
+    // Verifica che il riepilogo per set conservi le carte finché almeno un binder le rende scambiabili
+    @Test
+    void findCardIdsBySet_countsContributionsPerBinder() {
+        TradableCardIndex index = new TradableCardIndex();
+        Binder first = binder("alice", "base1", card("base1-1", 1, true));
+        first.setId(1);
+        Binder second = binder("bob", "base1", card("base1-1", 1, true));
+        second.setId(2);
+        index.put(first);
+        index.put(second);
+
+        index.remove(1);
+        assertEquals(Set.of("base1-1"), index.findCardIdsBySet("base1"));
+        index.remove(2);
+        assertTrue(index.findCardIdsBySet("base1").isEmpty());
+    }
+
+    // Verifica che la ricerca per nome veda solo le carte scambiabili degli altri e segua update e delete
+    @Test
+    void searchByName_followsBinderChanges() {
+        DemoBinderDao dao = new DemoBinderDao();
+        CardBean pikachu = new CardBean("sv1-25", "Pikachu", "img", CardGameType.POKEMON);
+        pikachu.setTradable(true);
+        Binder bob = binder("bob", "sv1", pikachu, card("sv1-26", 1, false));
+        dao.save(bob);
+        dao.save(binder("alice", "sv1", card("sv1-27", 1, true)));
+
+        List<TradableCardIndex.Listing> found = dao.searchTradableByName("pika", "alice", 10);
+        assertEquals(1, found.size());
+        assertEquals("bob", found.getFirst().getOwner());
+        assertTrue(dao.searchTradableByName("pika", "bob", 10).isEmpty(), "Own cards are not listed");
+        assertTrue(dao.searchTradableByName("sv1-26", "alice", 10).isEmpty(), "Non tradable cards are not indexed");
+
+        dao.delete(bob);
+        assertTrue(dao.searchTradableByName("pikachu", "alice", 10).isEmpty());
+    }
+}
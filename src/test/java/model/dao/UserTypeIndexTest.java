@@ -0,0 +1,47 @@
+package model.dao;
+
+import config.AppConfig;
+import model.dao.demo.DemoUserDao;
+import model.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTypeIndexTest {
+
+    private static List<String> names(List<User> users) {
+        return users.stream().map(User::getName).sorted().toList();
+    }
+
+    // Verifica che findByUserType restituisca solo gli utenti del tipo richiesto e segua register e delete
+    @Test
+    void findByUserType_followsRegisterAndDelete() {
+        DemoUserDao dao = new DemoUserDao();
+        dao.register("collector1", "pw", AppConfig.USER_TYPE_COLLECTOR);
+        dao.register("storeB", "pw", AppConfig.USER_TYPE_STORE);
+        dao.register("storeA", "pw", AppConfig.USER_TYPE_STORE);
+
+        assertEquals(List.of("storeA", "storeB"), names(dao.findByUserType(AppConfig.USER_TYPE_STORE)));
+
+        dao.delete(dao.findByName("storeB").orElseThrow());
+        assertEquals(List.of("storeA"), names(dao.findByUserType(AppConfig.USER_TYPE_STORE)));
+        assertTrue(dao.findByUserType("Unknown").isEmpty());
+    }
+
+    // Verifica che un cambio di tipo salvato con update sposti l'utente e che uno non salvato non produca risultati errati
+    @Test
+    void findByUserType_reflectsTypeChanges() {
+        DemoUserDao dao = new DemoUserDao();
+        dao.register("user1", "pw", AppConfig.USER_TYPE_COLLECTOR);
+        User user = dao.findByName("user1").orElseThrow();
+
+        user.setUserType(AppConfig.USER_TYPE_STORE);
+        assertTrue(dao.findByUserType(AppConfig.USER_TYPE_COLLECTOR).isEmpty(), "Stale index entries must be filtered out");
+
+        dao.update(user, null);
+        assertEquals(List.of("user1"), names(dao.findByUserType(AppConfig.USER_TYPE_STORE)));
+        assertTrue(dao.findByUserType(AppConfig.USER_TYPE_COLLECTOR).isEmpty());
+    }
+}
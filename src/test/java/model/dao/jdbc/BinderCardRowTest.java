@@ -0,0 +1,51 @@
+package model.dao.jdbc;
+
+import model.bean.CardBean;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinderCardRowTest {
+
+    private static List<CardBean> binderWith(int cards) {
+        List<CardBean> result = new ArrayList<>();
+        for (int i = 1; i <= cards; i++) {
+            result.add(new CardBean("base1-" + i, "Card " + i, "img", CardGameType.POKEMON));
+        }
+        return result;
+    }
+
+    // Verifica che aggiungere una carta a un raccoglitore grande produca una sola riga da scrivere
+    @Test
+    void diff_addingOneCardWritesOneRow() {
+        List<CardBean> cards = binderWith(300);
+        Map<String, BinderCardRow> persisted = BinderCardRow.rowsOf(cards);
+        cards.add(new CardBean("base1-301", "New", "img", CardGameType.POKEMON));
+
+        BinderCardRow.Diff diff = BinderCardRow.diff(persisted, BinderCardRow.rowsOf(cards));
+
+        assertEquals(1, diff.size());
+        assertEquals("base1-301", diff.upserts.getFirst().cardId);
+    }
+
+    // Verifica che modifiche di quantità e flag scambiabile diventino aggiornamenti e le carte tolte cancellazioni
+    @Test
+    void diff_detectsUpdatesAndDeletes() {
+        List<CardBean> cards = binderWith(3);
+        Map<String, BinderCardRow> persisted = BinderCardRow.rowsOf(cards);
+        cards.get(0).setQuantity(4);
+        cards.get(1).setTradable(true);
+        cards.remove(2);
+
+        BinderCardRow.Diff diff = BinderCardRow.diff(persisted, BinderCardRow.rowsOf(cards));
+
+        assertEquals(List.of("base1-1", "base1-2"), diff.upserts.stream().map(r -> r.cardId).toList());
+        assertEquals(List.of("base1-3"), diff.deletes);
+        assertTrue(BinderCardRow.diff(persisted, persisted).isEmpty(), "An unchanged binder writes nothing");
+    }
+}
@@ -0,0 +1,20 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+
+import java.sql.DriverManager;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Database H2 in memoria in modalità MySQL: ogni pool ottiene uno schema nuovo e isolato
+final class EmbeddedDatabase {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private EmbeddedDatabase() {
+    }
+
+    static ConnectionPool newPool() {
+        String url = "jdbc:h2:mem:cardify" + COUNTER.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new ConnectionPool("h2-test", () -> DriverManager.getConnection(url, "sa", ""),
+                new ConnectionPool.Settings().maxSize(4).borrowTimeoutMs(2_000));
+    }
+}
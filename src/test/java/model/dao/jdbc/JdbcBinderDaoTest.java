@@ -0,0 +1,162 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import config.DatabaseConfig;
+import model.bean.CardBean;
+import model.dao.TradableCardIndex;
+import model.domain.Binder;
+import model.domain.enumerations.CardGameType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcBinderDaoTest {
+
+    private ConnectionPool pool;
+    private JdbcBinderDao dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = EmbeddedDatabase.newPool();
+        dao = new JdbcBinderDao(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static CardBean card(String id, int quantity, boolean tradable) {
+        CardBean cb = new CardBean(id, "Card " + id, "img", CardGameType.POKEMON);
+        cb.setQuantity(quantity);
+        cb.setTradable(tradable);
+        return cb;
+    }
+
+    // Verifica che un raccoglitore venga salvato e riletto con tutte le sue carte
+    @Test
+    void save_roundTripsBinderAndCards() {
+        Binder binder = new Binder("user1", "base1", "Base Set");
+        binder.addCard(card("base1-4", 2, true));
+        binder.addCard(card("base1-58", 1, false));
+        dao.save(binder);
+
+        assertTrue(binder.getId() > 0);
+        Binder reloaded = dao.get(binder.getId()).orElseThrow();
+        assertEquals("Base Set", reloaded.getSetName());
+        assertEquals(2, reloaded.getCards().size());
+        CardBean charizard = reloaded.getCards().stream().filter(c -> "base1-4".equals(c.getId())).findFirst().orElseThrow();
+        assertEquals(2, charizard.getQuantity());
+        assertTrue(charizard.isTradable());
+
+        binder.removeCard("base1-58");
+        dao.update(binder, null);
+        assertEquals(1, dao.getUserBinders("user1").getFirst().getCards().size());
+    }
+
+    // Verifica che salvataggio e lettura dei raccoglitori finiscano nelle metriche degli statement nominati
+    @Test
+    void save_recordsNamedStatementLatencies() {
+        long upserts = StatementMetrics.get("binders.upsert").getCount();
+        long cardUpserts = StatementMetrics.get("binderCards.upsert").getCount();
+        long reads = StatementMetrics.get("binders.findById").getCount();
+
+        Binder binder = new Binder("user1", "base1", "Base Set");
+        binder.addCard(card("base1-4", 1, true));
+        dao.save(binder);
+        dao.get(binder.getId());
+
+        assertEquals(upserts + 1, StatementMetrics.get("binders.upsert").getCount());
+        assertEquals(cardUpserts + 1, StatementMetrics.get("binderCards.upsert").getCount());
+        assertEquals(reads + 1, StatementMetrics.get("binders.findById").getCount());
+    }
+
+    // Verifica che il marketplace veda solo le carte scambiabili degli altri utenti
+    @Test
+    void tradableQueries_excludeOwnerAndNonTradableCards() {
+        Binder mine = new Binder("user1", "base1", "Base Set");
+        mine.addCard(card("base1-4", 1, true));
+        Binder theirs = new Binder("user2", "base1", "Base Set");
+        theirs.addCard(card("base1-4", 3, true));
+        theirs.addCard(card("base1-58", 1, false));
+        dao.save(mine);
+        dao.save(theirs);
+
+        List<TradableCardIndex.Listing> listings = dao.getTradableListings("base1", "user1");
+        assertEquals(1, listings.size());
+        assertEquals("user2", listings.getFirst().getOwner());
+        assertEquals(3, listings.getFirst().getQuantity());
+        assertTrue(dao.getTradableOwners("base1-58", "user1").isEmpty());
+        assertEquals(1, dao.getBindersExcludingOwner("user1").size());
+
+        dao.deleteBinder(String.valueOf(theirs.getId()));
+        assertTrue(dao.getTradableListings("base1", "user1").isEmpty());
+    }
+
+    // Verifica che i salvataggi differenziali lascino nel database lo stesso contenuto del raccoglitore in memoria
+    @Test
+    void save_appliesRowLevelChanges() {
+        Binder binder = new Binder("user1", "base1", "Base Set");
+        for (int i = 1; i <= 20; i++) binder.addCard(card("base1-" + i, 1, false));
+        dao.save(binder);
+
+        binder.addCard(card("base1-5", 1, false));
+        binder.removeCard("base1-7");
+        binder.addCard(card("base1-21", 1, true));
+        dao.save(binder);
+
+        JdbcBinderDao fresh = new JdbcBinderDao(pool);
+        Binder reloaded = fresh.get(binder.getId()).orElseThrow();
+        assertEquals(20, reloaded.getCards().size());
+        assertEquals(2, reloaded.getCards().stream().filter(c -> "base1-5".equals(c.getId())).findFirst().orElseThrow().getQuantity());
+        assertTrue(reloaded.getCards().stream().noneMatch(c -> "base1-7".equals(c.getId())));
+
+        // Un DAO che non ha mai letto il raccoglitore confronta con le righe presenti nel database
+        reloaded.removeCard("base1-21");
+        new JdbcBinderDao(pool).save(reloaded);
+        assertEquals(19, dao.get(binder.getId()).orElseThrow().getCards().size());
+    }
+
+    // Verifica che il salvataggio di un terminale ripristini le carte tolte da un altro terminale nel frattempo
+    @Test
+    void save_diffsAgainstDatabaseNotOtherInstanceState() {
+        JdbcBinderDao terminalA = new JdbcBinderDao(pool);
+        JdbcBinderDao terminalB = new JdbcBinderDao(pool);
+        Binder binderA = new Binder("user1", "base1", "Base Set");
+        for (int i = 1; i <= 3; i++) binderA.addCard(card("base1-" + i, 1, false));
+        terminalA.save(binderA);
+
+        Binder binderB = terminalB.get(binderA.getId()).orElseThrow();
+        binderB.removeCard("base1-2");
+        terminalB.save(binderB);
+        terminalA.save(binderA);
+
+        assertEquals(3, dao.get(binderA.getId()).orElseThrow().getCards().size(), "The last save wins with all of its cards");
+    }
+
+    // Verifica che la ricerca per nome veda subito i salvataggi propri e quelli degli altri terminali alla scadenza
+    @Test
+    void searchTradableByName_refreshesOtherInstancesAfterTtl() {
+        AtomicLong clock = new AtomicLong(0);
+        JdbcBinderDao searcher = new JdbcBinderDao(pool, clock::get);
+        Binder own = new Binder("user2", "base1", "Base Set");
+        own.addCard(card("base1-4", 1, true));
+        assertTrue(searcher.searchTradableByName("card", "user1", 10).isEmpty());
+        searcher.save(own);
+        assertEquals(1, searcher.searchTradableByName("card", "user1", 10).size(), "Own saves are indexed at once");
+
+        Binder remote = new Binder("user3", "base1", "Base Set");
+        remote.addCard(card("base1-58", 1, true));
+        dao.save(remote);
+        assertEquals(1, searcher.searchTradableByName("card", "user1", 10).size(), "Still served from memory");
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(DatabaseConfig.TRADABLE_SEARCH_REFRESH_SECONDS) + 1);
+        assertEquals(2, searcher.searchTradableByName("card", "user1", 10).size());
+    }
+}
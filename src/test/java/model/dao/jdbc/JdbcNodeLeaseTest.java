@@ -0,0 +1,53 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcNodeLeaseTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = EmbeddedDatabase.newPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    // Verifica che due terminali partiti dallo stesso candidato ottengano nodi diversi
+    @Test
+    void acquire_sameCandidateGetsDistinctNodes() {
+        JdbcNodeLease first = JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, 7);
+        JdbcNodeLease second = JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, 7);
+
+        assertEquals(7, first.getNodeId());
+        assertNotEquals(first.getNodeId(), second.getNodeId(), "A leased node is never handed out twice");
+    }
+
+    // Verifica che un nodo rilasciato torni disponibile
+    @Test
+    void release_makesNodeAvailableAgain() {
+        JdbcNodeLease first = JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, 3);
+        first.release();
+
+        assertEquals(3, JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, 3).getNodeId());
+    }
+
+    // Verifica che a nodi esauriti venga recuperato solo un prestito scaduto
+    @Test
+    void acquire_reclaimsExpiredLeaseOnlyWhenAllNodesAreTaken() {
+        for (int i = 0; i <= config.TimeOrderedIdGenerator.MAX_NODE_ID; i++) JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, i);
+
+        assertThrows(exception.DataPersistenceException.class, () -> JdbcNodeLease.acquire(pool, JdbcNodeLease.DEFAULT_TTL, 0));
+        assertDoesNotThrow(() -> JdbcNodeLease.acquire(pool, Duration.ofMillis(-1), 0), "Every lease is older than a negative TTL");
+    }
+}
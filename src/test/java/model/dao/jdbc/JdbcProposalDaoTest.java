@@ -0,0 +1,108 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import model.domain.Card;
+import model.domain.Proposal;
+import model.domain.enumerations.CardGameType;
+import model.domain.enumerations.ProposalStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcProposalDaoTest {
+
+    private ConnectionPool pool;
+    private JdbcProposalDao dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = EmbeddedDatabase.newPool();
+        dao = new JdbcProposalDao(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static Proposal newProposal(String proposer, String receiver, ProposalStatus status) {
+        Proposal p = new Proposal();
+        p.setProposerId(proposer);
+        p.setReceiverId(receiver);
+        p.setStatus(status);
+        p.setMeetingPlace("Store1");
+        p.setMeetingDate("2025-03-01");
+        p.setMeetingTime("15:30");
+        p.setCardsOffered(new ArrayList<>(List.of(new Card("base1-4", "Charizard", "img", CardGameType.POKEMON))));
+        p.setCardsRequested(new ArrayList<>());
+        return p;
+    }
+
+    // Verifica che una proposta salvata riceva un id e venga riletta con le sue carte
+    @Test
+    void save_assignsIdAndRoundTripsCards() {
+        Proposal p = newProposal("user1", "user2", ProposalStatus.PENDING);
+        dao.save(p);
+
+        assertNotNull(p.getProposalId());
+        Proposal reloaded = dao.getById(p.getProposalId()).orElseThrow();
+        assertEquals("Store1", reloaded.getMeetingPlace());
+        assertEquals("base1-4", reloaded.getCardsOffered().getFirst().getId());
+        assertTrue(reloaded.getCardsRequested().isEmpty());
+        assertTrue(dao.getById("not-a-number").isEmpty());
+    }
+
+    // Verifica che le ricerche per utente filtrino per lato e stato come lo store JSON
+    @Test
+    void queries_filterByParticipantAndStatus() {
+        Proposal pending = newProposal("user1", "user2", ProposalStatus.PENDING);
+        Proposal accepted = newProposal("user2", "user1", ProposalStatus.ACCEPTED);
+        Proposal rejected = newProposal("user1", "user3", ProposalStatus.REJECTED);
+        dao.save(pending);
+        dao.save(accepted);
+        dao.save(rejected);
+
+        assertEquals(1, dao.getSentPendingProposal("user1").size());
+        assertEquals(1, dao.getReceivedProposals("user2").size());
+        assertEquals(1, dao.getScheduledProposals("user1").size());
+        assertEquals(1, dao.getPendingProposals("user2").size());
+        assertEquals(2, dao.getCompletedProposals("user1").size());
+
+        accepted.decline();
+        dao.update(accepted);
+        assertTrue(dao.getScheduledProposals("user1").isEmpty());
+        dao.delete(rejected);
+        assertEquals(2, dao.getAll().size());
+    }
+
+    // Verifica che le proposte concluse vengano lette a pagine, dalla più recente, con un cursore keyset
+    @Test
+    void completedProposalsPage_walksHistoryNewestFirst() {
+        List<Proposal> completed = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Proposal p = newProposal(i % 2 == 0 ? "user1" : "user2", i % 2 == 0 ? "user2" : "user1", ProposalStatus.REJECTED);
+            dao.save(p);
+            completed.add(p);
+        }
+        dao.save(newProposal("user1", "user2", ProposalStatus.PENDING));
+
+        List<String> walked = new java.util.ArrayList<>();
+        model.dao.HistoryCursor after = null;
+        do {
+            model.dao.Page<Proposal> page = dao.getCompletedProposalsPage("user1", after, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(p -> walked.add(p.getProposalId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        List<String> expected = completed.stream()
+                .sorted(java.util.Comparator.comparing(model.dao.HistoryCursor::of))
+                .map(Proposal::getProposalId).toList();
+        assertEquals(expected, walked);
+    }
+}
@@ -0,0 +1,117 @@
+package model.dao.jdbc;
+
+import config.ConnectionPool;
+import model.domain.Card;
+import model.domain.TradeTransaction;
+import model.domain.enumerations.CardGameType;
+import model.domain.enumerations.TradeStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTradeDaoTest {
+
+    private ConnectionPool pool;
+    private JdbcTradeDao dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = EmbeddedDatabase.newPool();
+        dao = new JdbcTradeDao(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static TradeTransaction newTrade(String proposer, String receiver, String store, LocalDateTime date) {
+        Card offered = new Card("base5-9", "Dark Hypno", "img", CardGameType.POKEMON);
+        offered.setQuantity(2);
+        Card requested = new Card("sm115-18", "Vaporeon", "img", CardGameType.POKEMON);
+        TradeTransaction.TradeParticipants participants = new TradeTransaction.TradeParticipants(proposer, receiver, store);
+        TradeTransaction.TradeDetails details = new TradeTransaction.TradeDetails(LocalDateTime.now(), date, List.of(offered), List.of(requested));
+        return new TradeTransaction(0, TradeStatus.WAITING_FOR_ARRIVAL, participants, details);
+    }
+
+    // Verifica che un trade salvato venga riletto con carte, stato di avanzamento e id generato
+    @Test
+    void save_roundTripsTradeWithCardsAndProgress() {
+        TradeTransaction trade = newTrade("user1", "user2", "Store1", LocalDateTime.of(2025, 3, 1, 15, 30));
+        int proposerCode = trade.confirmPresence("user1");
+        dao.save(trade);
+
+        assertTrue(trade.getTransactionId() > 0, "Saving should assign an id");
+        TradeTransaction reloaded = dao.getTradeTransactionById(trade.getTransactionId());
+        assertNotNull(reloaded);
+        assertEquals(TradeStatus.PARTIALLY_ARRIVED, reloaded.getTradeStatus());
+        assertEquals(proposerCode, reloaded.getProposerSessionCode());
+        assertTrue(reloaded.isProposerArrived());
+        assertNull(reloaded.getProposerInspectionOk());
+        assertEquals(1, reloaded.getOfferedCards().size());
+        assertEquals(2, reloaded.getOfferedCards().getFirst().getQuantity());
+        assertEquals("sm115-18", reloaded.getRequestedCards().getFirst().getId());
+    }
+
+    // Verifica che le ricerche per partecipante, negozio, codici di sessione e data applichino gli stessi filtri dello store JSON
+    @Test
+    void queries_matchJsonDaoSemantics() {
+        LocalDateTime day = LocalDateTime.of(2025, 3, 1, 10, 0);
+        TradeTransaction open = newTrade("user1", "user2", "Store1", day);
+        TradeTransaction done = newTrade("user3", "user1", "Store1", day.plusDays(2));
+        dao.save(open);
+        dao.save(done);
+        dao.updateTransactionStatus(done.getTransactionId(), TradeStatus.COMPLETED.name());
+
+        assertEquals(2, dao.getUserTradeTransactions("user1").size());
+        assertEquals(List.of(done.getTransactionId()),
+                dao.getUserCompletedTrades("user1").stream().map(TradeTransaction::getTransactionId).toList());
+        assertEquals(1, dao.getStoreTradeScheduledTransactions("Store1", null).size());
+        assertEquals(1, dao.getStoreCompletedTrades("Store1").size());
+        assertTrue(dao.getStoreTradeInProgressTransactions("Store1").isEmpty());
+
+        Optional<TradeTransaction> sameDay = dao.findByParticipantsAndDate("user1", "user2", day.withHour(18));
+        assertEquals(open.getTransactionId(), sameDay.map(TradeTransaction::getTransactionId).orElse(-1L).longValue());
+        assertTrue(dao.findByParticipantsAndDate("user1", "user2", day.plusDays(1)).isEmpty());
+
+        int proposerCode = open.confirmPresence("user1");
+        int receiverCode = open.confirmPresence("user2");
+        dao.update(open, null);
+        TradeTransaction bySession = dao.getTradeTransactionBySessionCodes(proposerCode, receiverCode);
+        assertNotNull(bySession);
+        assertEquals(open.getTransactionId(), bySession.getTransactionId());
+
+        dao.delete(done);
+        assertNull(dao.getTradeTransactionById(done.getTransactionId()));
+    }
+
+    // Verifica che la paginazione keyset unisca i due lati del partecipante senza doppioni e rispetti le date mancanti
+    @Test
+    void completedTradesPage_walksHistoryNewestFirst() {
+        LocalDateTime day = LocalDateTime.of(2025, 3, 1, 10, 0);
+        TradeTransaction undated = newTrade("user1", "user2", "Store1", null);
+        TradeTransaction older = newTrade("user2", "user1", "Store1", day);
+        TradeTransaction tie = newTrade("user1", "user3", "Store1", day);
+        TradeTransaction newest = newTrade("user3", "user1", "Store2", day.plusDays(3));
+        for (TradeTransaction t : List.of(undated, older, tie, newest)) {
+            dao.save(t);
+            dao.updateTransactionStatus(t.getTransactionId(), TradeStatus.COMPLETED.name());
+        }
+        dao.save(newTrade("user1", "user2", "Store1", day.plusDays(9)));
+
+        model.dao.Page<TradeTransaction> first = dao.getUserCompletedTradesPage("user1", null, 3);
+        assertEquals(List.of(newest.getTransactionId(), tie.getTransactionId(), older.getTransactionId()),
+                first.getItems().stream().map(TradeTransaction::getTransactionId).toList());
+        model.dao.Page<TradeTransaction> second = dao.getUserCompletedTradesPage("user1", first.getNextCursor(), 3);
+        assertEquals(List.of(undated.getTransactionId()),
+                second.getItems().stream().map(TradeTransaction::getTransactionId).toList());
+        assertFalse(second.hasMore());
+        assertEquals(3, dao.getStoreCompletedTradesPage("Store1", null, 10).getItems().size());
+    }
+}
@@ -0,0 +1,80 @@
+package model.dao.jdbc;
+
+import config.AppConfig;
+import config.ConnectionPool;
+import model.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcUserDaoTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = EmbeddedDatabase.newPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private JdbcUserDao newDao() {
+        return new JdbcUserDao(pool, new UserCache(100, 1_000, clock::get), true);
+    }
+
+    // Verifica che le modifiche di un'altra istanza vengano viste alla scadenza del TTL grazie alla colonna version
+    @Test
+    void findByName_revalidatesAgainstOtherInstances() {
+        JdbcUserDao first = newDao();
+        JdbcUserDao second = newDao();
+        first.register("ash", "pw", AppConfig.USER_TYPE_COLLECTOR);
+        assertEquals(0, first.findByName("ash").orElseThrow().getReliabilityScore());
+
+        User remote = second.findByName("ash").orElseThrow();
+        remote.addReview(5);
+        second.update(remote, null);
+
+        assertEquals(0, first.findByName("ash").orElseThrow().getReliabilityScore(), "Still fresh within the TTL");
+        clock.addAndGet(1_001);
+        assertEquals(5, first.findByName("ash").orElseThrow().getReliabilityScore());
+    }
+
+    // Verifica che una voce scaduta ma invariata venga confermata senza rileggere la riga
+    @Test
+    void findByName_unchangedRowCountsAsStaleHit() {
+        JdbcUserDao dao = newDao();
+        dao.register("misty", "pw", AppConfig.USER_TYPE_STORE);
+        User cached = dao.findByName("misty").orElseThrow();
+
+        clock.addAndGet(1_001);
+
+        assertSame(cached, dao.findByName("misty").orElseThrow());
+        assertEquals(1, dao.getCacheStats().getStaleHits());
+        assertTrue(dao.authenticate("misty", "pw"));
+    }
+
+    // Verifica che invalidate forzi la rilettura e che findByUserType usi la cache solo dopo un caricamento completo
+    @Test
+    void invalidate_forcesReload() {
+        JdbcUserDao dao = newDao();
+        dao.register("brock", "pw", AppConfig.USER_TYPE_STORE);
+        dao.register("gary", "pw", AppConfig.USER_TYPE_COLLECTOR);
+
+        assertEquals(2, dao.findAllUsernames().size());
+        long misses = dao.getCacheStats().getMisses();
+        assertEquals(1, dao.findByUserType(AppConfig.USER_TYPE_STORE).size());
+        assertEquals(misses, dao.getCacheStats().getMisses(), "Served from the fully loaded cache");
+
+        dao.invalidate("brock");
+        assertTrue(dao.findByName("brock").isPresent());
+        assertEquals(misses + 1, dao.getCacheStats().getMisses());
+    }
+}
@@ -0,0 +1,48 @@
+package model.dao.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    // Verifica che i percentili cadano nel bucket giusto e non superino mai il massimo osservato
+    @Test
+    void snapshot_reportsPercentilesFromBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) histogram.record(100_000);
+        histogram.record(5_000_000);
+        histogram.record(9_000_000);
+
+        StatementStats stats = histogram.snapshot("users.findByName");
+
+        assertEquals(100, stats.getCount());
+        assertEquals(127, stats.getP50Micros(), "100us falls in the [64, 127] bucket");
+        assertEquals(127, stats.getP95Micros());
+        assertTrue(stats.getP99Micros() >= 5_000 && stats.getP99Micros() <= 9_000);
+        assertEquals(9_000, stats.getMaxMicros());
+    }
+
+    // Verifica la suddivisione logaritmica dei bucket
+    @Test
+    void bucketOf_isLogarithmic() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(1, LatencyHistogram.bucketOf(1));
+        assertEquals(2, LatencyHistogram.bucketOf(3));
+        assertEquals(11, LatencyHistogram.bucketOf(1_500));
+        assertEquals(39, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    // Verifica che StatementMetrics raccolga le misure per nome
+    @Test
+    void statementMetrics_groupsByName() {
+        StatementMetrics.reset();
+        StatementMetrics.record("a", 1_000);
+        StatementMetrics.record("a", 2_000);
+        StatementMetrics.record("b", 1_000);
+
+        assertEquals(2, StatementMetrics.snapshot().size());
+        assertEquals(2, StatementMetrics.get("a").getCount());
+        assertEquals(0, StatementMetrics.get("missing").getCount());
+    }
+}
@@ -0,0 +1,101 @@
+package model.dao.jdbc;
+
+import model.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private static User user(String name) {
+        return new User(name, 0, 0);
+    }
+
+    private static UserCache.Entry row(String name, long version) {
+        return new UserCache.Entry(user(name), null, version, 0);
+    }
+
+    // Verifica che una voce scaduta non venga servita come fresca ma resti disponibile per la rivalidazione
+    @Test
+    void fresh_expiresAfterTtl() {
+        UserCache cache = new UserCache(10, 100, clock::get);
+        cache.put(user("ash"), "pw", 3);
+        assertNotNull(cache.fresh("ash"));
+
+        clock.addAndGet(101);
+        assertNull(cache.fresh("ash"));
+        UserCache.Entry expired = cache.expired("ash");
+        assertNotNull(expired);
+        assertEquals(3, expired.version);
+
+        cache.revalidated(expired);
+        assertNotNull(cache.fresh("ash"), "A revalidated entry must be fresh again");
+        assertEquals(2, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getStaleHits());
+    }
+
+    // Verifica che il limite di voci venga rispettato e che un'espulsione renda la cache non più completa
+    @Test
+    void put_evictsAndClearsFullyLoadedFlag() {
+        UserCache cache = new UserCache(2, 1_000, clock::get);
+        cache.loadAll(List.of(row("a", 0), row("b", 0)));
+        assertTrue(cache.isFullyLoaded());
+        assertNotNull(cache.snapshot());
+
+        cache.put(user("c"), "pw", 0);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStats().getEvictions());
+        assertFalse(cache.isFullyLoaded(), "An evicted user would be missing from the snapshot");
+        assertNull(cache.snapshot());
+    }
+
+    // Verifica che loadAll non marchi come completa una tabella più grande della cache
+    @Test
+    void loadAll_tooManyRowsIsNotComplete() {
+        UserCache cache = new UserCache(2, 1_000, clock::get);
+        cache.loadAll(List.of(row("a", 0), row("b", 0), row("c", 0)));
+
+        assertFalse(cache.isFullyLoaded());
+        assertEquals(2, cache.size());
+    }
+
+    // Verifica che loadAll conservi password e istanza delle righe invariate e scarti quelle cambiate o cancellate
+    @Test
+    void loadAll_keepsUnchangedRowsOnly() {
+        UserCache cache = new UserCache(10, 1_000, clock::get);
+        User ash = user("ash");
+        cache.put(ash, "pw", 1);
+        cache.put(user("misty"), "pw2", 1);
+        cache.put(user("gone"), "pw3", 1);
+
+        cache.loadAll(List.of(row("ash", 1), row("misty", 2)));
+
+        assertSame(ash, cache.fresh("ash").user);
+        assertEquals("pw", cache.fresh("ash").password);
+        assertNull(cache.fresh("misty").password, "A changed row must not keep the old password");
+        assertNull(cache.fresh("gone"));
+    }
+
+    // Verifica che invalidate e la scadenza del TTL disattivino lo snapshot completo, mentre remove no
+    @Test
+    void snapshot_followsInvalidationAndTtl() {
+        UserCache cache = new UserCache(10, 100, clock::get);
+        cache.loadAll(List.of(row("a", 0), row("b", 0)));
+
+        cache.remove("a");
+        assertEquals(1, cache.snapshot().size());
+
+        cache.invalidate("b");
+        assertNull(cache.snapshot());
+
+        cache.loadAll(List.of(row("a", 0)));
+        clock.addAndGet(101);
+        assertNull(cache.snapshot(), "The fully loaded flag must expire with the TTL");
+    }
+}
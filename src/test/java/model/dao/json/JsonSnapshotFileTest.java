@@ -0,0 +1,77 @@
+package model.dao.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Verifica che la scrittura sostituisca lo snapshot senza lasciare file temporanei
+    @Test
+    void write_replacesSnapshotAtomically() throws IOException {
+        Path target = tempDir.resolve("binders.json");
+        Files.writeString(target, "[\"old\"]");
+
+        JsonSnapshotFile.write(target, new com.google.gson.Gson(), List.of("new"), List.class);
+
+        assertEquals("[\"new\"]", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("binders.json.tmp")), "Temp file must be renamed into place");
+    }
+
+    // Verifica che uno snapshot illeggibile venga messo da parte e non sovrascritto da un file vuoto
+    @Test
+    void load_quarantinesCorruptSnapshotInsteadOfOverwriting() throws IOException {
+        Path target = tempDir.resolve("binders.json");
+        String corrupt = "[{\"id\":1,\"owner\":\"user1\",\"setId\":\"base";
+        Files.writeString(target, corrupt);
+
+        JsonBinderDao dao = new JsonBinderDao(target.toString(), false);
+        assertTrue(dao.getUserBinders("user1").isEmpty());
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Path backup = files.filter(p -> p.getFileName().toString().startsWith("binders.json.corrupt-"))
+                    .findFirst().orElseThrow(() -> new AssertionError("Corrupt snapshot should be kept aside"));
+            assertEquals(corrupt, Files.readString(backup));
+        }
+    }
+
+    // Verifica che un file temporaneo lasciato da una scrittura interrotta venga ignorato e rimosso
+    @Test
+    void load_ignoresStaleTempFromInterruptedWrite() throws IOException {
+        Path target = tempDir.resolve("binders.json");
+        JsonBinderDao dao = new JsonBinderDao(target.toString(), false);
+        dao.createBinder("user1", "base1", "Base Set");
+        Files.writeString(tempDir.resolve("binders.json.tmp"), "[{\"id\":2,");
+
+        JsonBinderDao reopened = new JsonBinderDao(target.toString(), false);
+        assertEquals(1, reopened.getUserBinders("user1").size());
+        assertFalse(Files.exists(tempDir.resolve("binders.json.tmp")));
+    }
+
+    // Verifica che la lettura in streaming consegni ogni elemento e tolleri file vuoti o con null
+    @Test
+    void readEach_streamsElementsAndToleratesEmptyFiles() throws IOException {
+        com.google.gson.Gson gson = new com.google.gson.Gson();
+        Path target = tempDir.resolve("items.json");
+        java.util.List<String> seen = new java.util.ArrayList<>();
+
+        Files.writeString(target, "[\"a\",\"b\",\"c\"]");
+        assertEquals(3, JsonSnapshotFile.readEach(target, gson, String.class, seen::add));
+        assertEquals(List.of("a", "b", "c"), seen);
+
+        Files.writeString(target, "");
+        assertEquals(0, JsonSnapshotFile.readEach(target, gson, String.class, seen::add));
+        Files.writeString(target, "null");
+        assertEquals(0, JsonSnapshotFile.readEach(target, gson, String.class, seen::add));
+    }
+}
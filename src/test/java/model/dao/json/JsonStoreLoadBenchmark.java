@@ -0,0 +1,66 @@
+package model.dao.json;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import model.bean.CardBean;
+import model.domain.Binder;
+import model.domain.enumerations.CardGameType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Benchmark manuale dell'avvio a freddo di JsonBinderDao: confronta dimensione su disco e tempo di caricamento
+ * dello stesso binders.json in formato compatto e indentato.
+ * Uso: java ... model.dao.json.JsonStoreLoadBenchmark [binders] [carte per binder] [ripetizioni] */
+public class JsonStoreLoadBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int binders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int cardsPerBinder = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Path dir = Files.createTempDirectory("cardify-bench");
+        Path compact = dir.resolve("binders-compact.json");
+        Path pretty = dir.resolve("binders-pretty.json");
+
+        JsonBinderDao writer = new JsonBinderDao(compact.toString(), true);
+        for (int b = 0; b < binders; b++) {
+            Binder binder = new Binder("user" + (b % 200), "set" + b, "Set " + b);
+            List<CardBean> cards = new ArrayList<>(cardsPerBinder);
+            for (int c = 0; c < cardsPerBinder; c++) {
+                CardBean card = new CardBean("set" + b + "-" + c, "Card " + c, "https://assets.example/set" + b + "/" + c, CardGameType.POKEMON);
+                card.setQuantity(1 + c % 3);
+                card.setTradable(c % 4 == 0);
+                cards.add(card);
+            }
+            binder.setCards(cards);
+            writer.save(binder);
+        }
+        writer.close();
+        Files.writeString(pretty, new GsonBuilder().setPrettyPrinting().create()
+                .toJson(JsonParser.parseString(Files.readString(compact))));
+
+        System.out.printf("binders=%d cards/binder=%d%n", binders, cardsPerBinder);
+        report("compact", compact, rounds);
+        report("pretty", pretty, rounds);
+    }
+
+    private static void report(String label, Path file, int rounds) throws IOException {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            System.gc();
+            long start = System.nanoTime();
+            JsonBinderDao dao = new JsonBinderDao(file.toString(), false);
+            long elapsed = System.nanoTime() - start;
+            if (dao.getBindersExcludingOwner(null).isEmpty()) throw new IllegalStateException("Nothing loaded from " + file);
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-8s size=%,d KB  load best=%.1f ms  avg=%.1f ms%n", label, Files.size(file) / 1024,
+                best / 1_000_000.0, total / 1_000_000.0 / rounds);
+    }
+}
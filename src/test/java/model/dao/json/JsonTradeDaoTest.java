@@ -0,0 +1,223 @@
+package model.dao.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import model.dao.HistoryCursor;
+import model.dao.Page;
+import model.domain.Card;
+import model.domain.TradeTransaction;
+import model.domain.enumerations.CardGameType;
+import model.domain.enumerations.TradeStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTradeDaoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TradeTransaction newTrade(String proposer, String receiver, String store) {
+        return newTrade(proposer, receiver, store, LocalDateTime.now().plusDays(1));
+    }
+
+    private TradeTransaction newTrade(String proposer, String receiver, String store, LocalDateTime tradeDate) {
+        TradeTransaction.TradeParticipants participants = new TradeTransaction.TradeParticipants(proposer, receiver, store);
+        Card offered = new Card("base5-9", "Dark Hypno", "", CardGameType.POKEMON);
+        offered.setQuantity(1);
+        TradeTransaction.TradeDetails details = new TradeTransaction.TradeDetails(LocalDateTime.now(), tradeDate, List.of(offered), Collections.emptyList());
+        return new TradeTransaction(0, TradeStatus.WAITING_FOR_ARRIVAL, participants, details);
+    }
+
+    // Verifica che le modifiche scritte solo nel journal vengano ricostruite alla riapertura dello store
+    @Test
+    void journal_replaysMutationsAfterRestart() {
+        String path = tempDir.resolve("trades.json").toString();
+        JsonTradeDao dao = new JsonTradeDao(path, true);
+
+        TradeTransaction kept = newTrade("user1", "user2", "Store1");
+        TradeTransaction removed = newTrade("user3", "user1", "Store1");
+        dao.save(kept);
+        dao.save(removed);
+        dao.updateTransactionStatus(kept.getTransactionId(), TradeStatus.COMPLETED.name());
+        dao.delete(removed);
+
+        JsonTradeDao reopened = new JsonTradeDao(path, true);
+        TradeTransaction reloaded = reopened.getTradeTransactionById(kept.getTransactionId());
+        assertNotNull(reloaded, "Saved trade must survive a restart through the journal");
+        assertEquals(TradeStatus.COMPLETED, reloaded.getTradeStatus());
+        assertNull(reopened.getTradeTransactionById(removed.getTransactionId()), "Deleted trade must stay deleted after replay");
+    }
+
+    // Verifica che la compattazione riporti le modifiche nello snapshot e svuoti il journal
+    @Test
+    void compact_foldsJournalIntoSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("trades.json");
+        JsonTradeDao dao = new JsonTradeDao(snapshot.toString(), true);
+        TradeTransaction trade = newTrade("user1", "user2", "Store1");
+        dao.save(trade);
+
+        Path journalFile = tempDir.resolve("trades.json.journal");
+        assertTrue(Files.size(journalFile) > 0, "Journal should hold the pending save");
+
+        dao.compact();
+
+        assertEquals(0, Files.size(journalFile), "Journal should be empty after compaction");
+        JsonTradeDao snapshotOnly = new JsonTradeDao(snapshot.toString(), false);
+        assertNotNull(snapshotOnly.getTradeTransactionById(trade.getTransactionId()), "Snapshot should contain the compacted trade");
+    }
+
+    // Verifica che una riga troncata in coda al journal (crash durante l'append) venga scartata senza perdere le precedenti
+    @Test
+    void journal_discardsTornTailEntry() throws Exception {
+        Path snapshot = tempDir.resolve("trades.json");
+        JsonTradeDao dao = new JsonTradeDao(snapshot.toString(), true);
+        TradeTransaction trade = newTrade("user1", "user2", "Store1");
+        dao.save(trade);
+
+        Files.writeString(tempDir.resolve("trades.json.journal"), "{\"op\":\"PUT\",\"id\":99,\"trade\":{\"transac",
+                java.nio.file.StandardOpenOption.APPEND);
+
+        JsonTradeDao reopened = new JsonTradeDao(snapshot.toString(), true);
+        assertNotNull(reopened.getTradeTransactionById(trade.getTransactionId()));
+        assertNull(reopened.getTradeTransactionById(99));
+    }
+
+    // Verifica che una riga corrotta a metà journal non faccia perdere le voci valide successive
+    @Test
+    void journal_keepsEntriesAfterCorruptMiddleLine() throws Exception {
+        Path snapshot = tempDir.resolve("trades.json");
+        JsonTradeDao dao = new JsonTradeDao(snapshot.toString(), true);
+        TradeTransaction before = newTrade("user1", "user2", "Store1");
+        dao.save(before);
+        Path journalFile = tempDir.resolve("trades.json.journal");
+        Files.writeString(journalFile, "{not json}\n", java.nio.file.StandardOpenOption.APPEND);
+        TradeTransaction after = newTrade("user3", "user4", "Store1");
+        dao.save(after);
+        dao.close();
+
+        JsonTradeDao reopened = new JsonTradeDao(snapshot.toString(), true);
+        assertNotNull(reopened.getTradeTransactionById(before.getTransactionId()));
+        assertNotNull(reopened.getTradeTransactionById(after.getTransactionId()), "Entries after the corrupt line must be replayed");
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.anyMatch(f -> f.getFileName().toString().startsWith("trades.json.journal.corrupt-")),
+                    "The corrupt journal must be kept aside");
+        }
+    }
+
+    // Verifica che un append dopo una riga senza terminatore non venga fuso con essa
+    @Test
+    void journal_appendAfterUnterminatedLineStartsNewLine() throws Exception {
+        Path journalFile = tempDir.resolve("trades.json.journal");
+        Files.writeString(journalFile, "{\"op\":\"DELETE\",\"id\":1}");
+
+        Gson gson = new GsonBuilder().registerTypeAdapter(LocalDateTime.class,
+                new TypeAdapter<LocalDateTime>() {
+                    @Override
+                    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+                        out.nullValue();
+                    }
+
+                    @Override
+                    public LocalDateTime read(JsonReader in) throws IOException {
+                        in.skipValue();
+                        return null;
+                    }
+                }).create();
+        TradeJournal journal = new TradeJournal(journalFile, gson);
+        journal.append(TradeJournal.Entry.delete(2));
+        journal.close();
+
+        List<Long> replayed = new ArrayList<>();
+        new TradeJournal(journalFile, gson).replay(e -> replayed.add(e.id));
+        assertEquals(List.of(1L, 2L), replayed, "Both entries must survive on separate lines");
+    }
+
+    // Verifica che gli indici seguano le transizioni di stato fatte direttamente sul trade, senza passare dal DAO
+    @Test
+    void index_followsInPlaceStatusTransitions() {
+        JsonTradeDao dao = new JsonTradeDao(tempDir.resolve("trades.json").toString(), true);
+        TradeTransaction trade = newTrade("user1", "user2", "Store1");
+        dao.save(trade);
+
+        assertEquals(1, dao.getStoreTradeScheduledTransactions("Store1", null).size());
+        assertTrue(dao.getStoreTradeInProgressTransactions("Store1").isEmpty());
+
+        int proposerCode = trade.confirmPresence("user1");
+        int receiverCode = trade.confirmPresence("user2");
+        assertSame(trade, dao.getTradeTransactionBySessionCodes(proposerCode, receiverCode),
+                "Session codes generated after save must be resolvable through the index");
+
+        trade.acceptSessionCode(proposerCode);
+        trade.acceptSessionCode(receiverCode);
+        assertEquals(List.of(trade), dao.getStoreTradeInProgressTransactions("Store1"));
+
+        trade.markInspectionResult("user1", true);
+        trade.markInspectionResult("user2", false);
+        assertTrue(dao.getStoreTradeInProgressTransactions("Store1").isEmpty());
+        assertTrue(dao.getStoreTradeScheduledTransactions("Store1", null).isEmpty());
+        assertEquals(List.of(trade), dao.getStoreCompletedTrades("Store1"));
+        assertEquals(List.of(trade), dao.getUserCompletedTrades("user2"));
+    }
+
+    // Verifica che eliminazioni e riaperture lascino gli indici allineati alla mappa principale
+    @Test
+    void index_consistentAfterDeleteAndReload() {
+        String path = tempDir.resolve("trades.json").toString();
+        JsonTradeDao dao = new JsonTradeDao(path, true);
+        TradeTransaction first = newTrade("user1", "user2", "Store1");
+        TradeTransaction second = newTrade("user1", "user3", "Store2");
+        dao.save(first);
+        dao.save(second);
+        dao.delete(first);
+
+        assertEquals(List.of(second), dao.getUserTradeTransactions("user1"));
+        assertTrue(dao.getUserTradeTransactions("user2").isEmpty());
+        assertTrue(dao.getStoreTradeScheduledTransactions("Store1", null).isEmpty());
+
+        dao.updateTransactionStatus(second.getTransactionId(), TradeStatus.COMPLETED.name());
+        JsonTradeDao reopened = new JsonTradeDao(path, true);
+        assertEquals(1, reopened.getUserCompletedTrades("user3").size());
+        assertTrue(reopened.getStoreTradeScheduledTransactions("Store2", null).isEmpty());
+        assertTrue(reopened.findByParticipantsAndDate("user1", "user3", second.getTradeDate()).isPresent());
+    }
+
+    // Verifica che le pagine della cronologia seguano (tradeDate, id) dal più recente, senza buchi né doppioni
+    @Test
+    void completedTradesPage_walksHistoryNewestFirst() {
+        JsonTradeDao dao = new JsonTradeDao(tempDir.resolve("trades.json").toString(), true);
+        LocalDateTime day = LocalDateTime.of(2025, 3, 1, 10, 0);
+        TradeTransaction oldest = newTrade("user1", "user2", "Store1", day);
+        TradeTransaction tieLow = newTrade("user2", "user1", "Store1", day.plusDays(1));
+        TradeTransaction tieHigh = newTrade("user1", "user3", "Store1", day.plusDays(1));
+        TradeTransaction newest = newTrade("user1", "user2", "Store1", day.plusDays(5));
+        TradeTransaction open = newTrade("user1", "user2", "Store1", day.plusDays(9));
+        for (TradeTransaction t : List.of(oldest, tieLow, tieHigh, newest, open)) dao.save(t);
+        for (TradeTransaction t : List.of(oldest, tieLow, tieHigh, newest)) {
+            dao.updateTransactionStatus(t.getTransactionId(), TradeStatus.COMPLETED.name());
+        }
+
+        Page<TradeTransaction> first = dao.getUserCompletedTradesPage("user1", null, 2);
+        assertEquals(List.of(newest, tieHigh), first.getItems());
+        assertTrue(first.hasMore());
+        Page<TradeTransaction> second = dao.getUserCompletedTradesPage("user1", first.getNextCursor(), 2);
+        assertEquals(List.of(tieLow, oldest), second.getItems(), "Equal dates must be ordered by descending id");
+        assertFalse(second.hasMore(), "An exact last page must not announce a further one");
+
+        Page<TradeTransaction> store = dao.getStoreCompletedTradesPage("Store1", HistoryCursor.of(tieHigh), 10);
+        assertEquals(List.of(tieLow, oldest), store.getItems());
+        assertTrue(dao.getUserCompletedTradesPage("nobody", null, 2).getItems().isEmpty());
+    }
+}
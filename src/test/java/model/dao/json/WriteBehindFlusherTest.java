@@ -0,0 +1,93 @@
+package model.dao.json;
+
+import model.domain.Binder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindFlusherTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Verifica che più modifiche ravvicinate producano una sola scrittura
+    @Test
+    void markDirty_coalescesChangesIntoSingleFlush() {
+        AtomicInteger writes = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher("test", writes::incrementAndGet, true, 60_000, 100);
+
+        for (int i = 0; i < 10; i++) flusher.markDirty();
+        assertEquals(0, writes.get(), "Nothing should be written before the window elapses");
+        assertTrue(flusher.isDirty());
+
+        flusher.flush();
+        assertEquals(1, writes.get(), "Ten changes should be written by one flush");
+        assertFalse(flusher.isDirty());
+
+        flusher.flush();
+        assertEquals(1, writes.get(), "A clean store should not be rewritten");
+    }
+
+    // Verifica che al raggiungimento della soglia di modifiche il flush parta senza attendere la finestra
+    @Test
+    void markDirty_flushesWhenPendingLimitReached() {
+        AtomicInteger writes = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher("test", writes::incrementAndGet, true, 60_000, 3);
+
+        flusher.markDirty();
+        flusher.markDirty();
+        assertEquals(0, writes.get());
+        flusher.markDirty();
+        assertEquals(1, writes.get());
+        assertEquals(1, flusher.getFlushCount());
+    }
+
+    // Verifica che una scrittura fallita lasci le modifiche in sospeso per il flush successivo
+    @Test
+    void flush_keepsChangesPendingWhenWriteFails() {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher("test", () -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("disk full");
+        }, true, 60_000, 100);
+
+        flusher.markDirty();
+        assertThrows(IllegalStateException.class, flusher::flush);
+        assertTrue(flusher.isDirty(), "Failed flush must not drop the pending changes");
+
+        flusher.flush();
+        assertFalse(flusher.isDirty());
+        assertEquals(2, attempts.get());
+    }
+
+    // Verifica che close() renda persistenti le modifiche di un DAO in write-behind
+    @Test
+    void close_persistsPendingBinderChanges() {
+        String path = tempDir.resolve("binders.json").toString();
+        JsonBinderDao dao = new JsonBinderDao(path, true);
+        dao.createBinder("user1", "base1", "Base Set");
+        dao.close();
+
+        JsonBinderDao reopened = new JsonBinderDao(path, true);
+        assertEquals(1, reopened.getUserBinders("user1").size());
+        Binder binder = reopened.getUserBinders("user1").getFirst();
+        assertEquals("base1", binder.getSetId());
+    }
+
+    // Verifica che il flush in background scriva lo stato dell'ultimo save e non l'oggetto modificato dopo
+    @Test
+    void flush_writesStateCapturedAtSave() {
+        String path = tempDir.resolve("binders.json").toString();
+        JsonBinderDao dao = new JsonBinderDao(path, true);
+        Binder binder = new Binder("user1", "base1", "Base Set");
+        dao.save(binder);
+        binder.setSetName("Edited after save");
+        dao.close();
+
+        Binder reloaded = new JsonBinderDao(path, true).getUserBinders("user1").getFirst();
+        assertEquals("Base Set", reloaded.getSetName(), "Edits not saved through the DAO must not reach the disk");
+    }
+}
@@ -66,4 +66,24 @@ class BinderTest {
         assertEquals(1, binder.getCards().size());
         assertEquals(1, binder.getCards().get(0).getQuantity(), "Binder must keep a defensive copy and not reflect changes to original object");
     }
+
+    // Verifica che la copia non condivida carte con l'originale, così le modifiche della UI non la toccano
+    @Test
+    void copy_isIndependentOfOriginal() {
+        Binder original = new Binder("user1", "base1", "Base Set");
+        original.setId(42);
+        CardBean card = new CardBean();
+        card.setId("base1-4");
+        original.addCard(card);
+
+        Binder copy = new Binder(original);
+        original.getCards().getFirst().setTradable(true);
+        original.addCard(card);
+        original.setSetName("Edited");
+
+        assertEquals(42, copy.getId());
+        assertEquals("Base Set", copy.getSetName());
+        assertEquals(1, copy.getCards().getFirst().getQuantity(), "Quantity changes on the original must not reach the copy");
+        assertFalse(copy.getCards().getFirst().isTradable(), "Card edits on the original must not reach the copy");
+    }
 }